@@ -1,7 +1,5 @@
 package com.humanfactory;
 
-import java.util.Map;
-
 /**
  * Demo application for the Human Factory BodyGenerator.
  */
@@ -22,9 +20,9 @@ public class App {
         System.out.println("  Leg Ratio: " + averageMaleDNA.legRatio());
         System.out.println();
         
-        Map<Bone, BoneDefinition> skeleton = generator.generate(averageMaleDNA);
+        Skeleton skeleton = generator.generateSkeleton(averageMaleDNA);
         
-        System.out.println("Generated " + skeleton.size() + " bones.\n");
+        System.out.println("Generated " + skeleton.boneCount() + " bones.\n");
         
         // Display some interesting bones
         System.out.println("Sample Bone Properties:");
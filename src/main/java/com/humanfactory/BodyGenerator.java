@@ -3,9 +3,15 @@ package com.humanfactory;
 import org.joml.Quaternionf;
 import org.joml.Vector3f;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * The procedural factory that turns DNA parameters into a complete, 
@@ -28,457 +34,761 @@ public class BodyGenerator {
         }
     }
 
+    /** Approximate density of bone in kg/m^3, for {@link MassProperties#of(Skeleton, float)}. */
+    public static final float DENSITY_BONE = 1500f;
+
     // Constants for internal layout logic
-    private static final float DENSITY_BONE = 1500f; // kg/m^3 approx
     private static final Vector3f UP = new Vector3f(0, 1, 0);
 
+    // Per Bone.ordinal(), one instance per distinct registry entry
+    private static final BoneDefinition.JointLimits[] JOINT_LIMITS = jointLimitTable();
+
+    // Below this many skeletons a batch slice is generated on the current thread
+    private static final int BATCH_SLICE = 16;
+
+    // Bone groups, hoisted so that generateInto() allocates nothing
+    // Array ordered bottom-up (L5 is lowest, connects to sacrum)
+    private static final Bone[] LUMBAR = {Bone.LUMBAR_5, Bone.LUMBAR_4, Bone.LUMBAR_3, Bone.LUMBAR_2, Bone.LUMBAR_1};
+    // Array ordered bottom-up (T12 is lowest, T1 is highest/connects to cervical)
+    private static final Bone[] THORACIC = {
+        Bone.THORACIC_12, Bone.THORACIC_11, Bone.THORACIC_10, Bone.THORACIC_9, 
+        Bone.THORACIC_8, Bone.THORACIC_7, Bone.THORACIC_6, Bone.THORACIC_5, 
+        Bone.THORACIC_4, Bone.THORACIC_3, Bone.THORACIC_2, Bone.THORACIC_1
+    };
+    private static final Bone[] CERVICAL = {
+        Bone.CERVICAL_7, Bone.CERVICAL_6, Bone.CERVICAL_5, Bone.CERVICAL_4, 
+        Bone.CERVICAL_3, Bone.CERVICAL_2_AXIS, Bone.CERVICAL_1_ATLAS
+    };
+    // Face plates (Fixed to Occipital via fibrous joints)
+    private static final Bone[] SKULL_PARTS = {
+        Bone.FRONTAL, Bone.PARIETAL_LEFT, Bone.PARIETAL_RIGHT, 
+        Bone.TEMPORAL_LEFT, Bone.TEMPORAL_RIGHT, Bone.SPHENOID
+    };
+    private static final Bone[] HIPS = {Bone.HIP_BONE_LEFT, Bone.HIP_BONE_RIGHT};
+
     /**
      * Main Generation Entry Point.
      */
     public Map<Bone, BoneDefinition> generate(BodyDNA dna) {
-        Map<Bone, BoneDefinition> skeleton = new HashMap<>();
+        MapSink sink = new MapSink();
+        layout(sink, dna);
+        return sink.build();
+    }
+
+    /**
+     * Generates the same skeleton as {@link #generate(BodyDNA)} in dense, array-backed form.
+     */
+    public Skeleton generateSkeleton(BodyDNA dna) {
+        Skeleton.Builder builder = new Skeleton.Builder();
+        layout(builder, dna);
+        return builder.build();
+    }
+
+    /**
+     * Generates into caller-owned storage, replacing its previous contents.
+     * Produces the same values as {@link #generateSkeleton(BodyDNA)} but allocates
+     * nothing, so one buffer per thread can be reused across a whole crowd.
+     */
+    public void generateInto(BodyDNA dna, SkeletonBuffer buffer) {
+        buffer.clear();
+        layout(buffer.sink(), buffer.mirror, dna);
+    }
+
+    /**
+     * Compiles this generator's layout into a {@link SkeletonTemplate}, which evaluates
+     * bit-identical skeletons without walking the region methods. Compile once and share.
+     */
+    public SkeletonTemplate compile() {
+        return SkeletonTemplate.compile(this);
+    }
+
+    // ============================================================
+    // BATCH GENERATION
+    // ============================================================
+
+    /**
+     * Generates one skeleton per DNA record on the common {@link ForkJoinPool}.
+     * Results are returned in input order and are identical to calling
+     * {@link #generateSkeleton(BodyDNA)} in a loop.
+     */
+    public List<Skeleton> generateBatch(List<BodyDNA> dnas) {
+        return Arrays.asList(generateBatch(dnas.toArray(new BodyDNA[0])));
+    }
+
+    /**
+     * Same as {@link #generateBatch(List)}, but runs the work on {@code executor}.
+     */
+    public List<Skeleton> generateBatch(List<BodyDNA> dnas, Executor executor) {
+        return Arrays.asList(generateBatch(dnas.toArray(new BodyDNA[0]), executor));
+    }
+
+    /**
+     * Array variant of {@link #generateBatch(List)}.
+     */
+    public Skeleton[] generateBatch(BodyDNA[] dnas) {
+        return generateBatch(dnas, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Array variant of {@link #generateBatch(List, Executor)}.
+     * A {@link ForkJoinPool} is used with recursive splitting; any other executor
+     * receives one contiguous slice per task.
+     */
+    public Skeleton[] generateBatch(BodyDNA[] dnas, Executor executor) {
+        Skeleton[] out = new Skeleton[dnas.length];
+        if (dnas.length <= BATCH_SLICE) {
+            generateRange(dnas, out, 0, dnas.length);
+        } else if (executor instanceof ForkJoinPool pool) {
+            ParallelRange.run(pool, dnas.length, BATCH_SLICE, (from, to) -> generateRange(dnas, out, from, to));
+        } else {
+            List<CompletableFuture<Void>> slices = new ArrayList<>();
+            for (int from = 0; from < dnas.length; from += BATCH_SLICE) {
+                int start = from;
+                int end = Math.min(from + BATCH_SLICE, dnas.length);
+                slices.add(CompletableFuture.runAsync(() -> generateRange(dnas, out, start, end), executor));
+            }
+            try {
+                CompletableFuture.allOf(slices.toArray(new CompletableFuture<?>[0])).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) throw cause;
+                throw e;
+            }
+        }
+        return out;
+    }
+
+    private void generateRange(BodyDNA[] dnas, Skeleton[] out, int from, int to) {
+        for (int i = from; i < to; i++) {
+            out[i] = generateSkeleton(dnas[i]);
+        }
+    }
+
+    // ============================================================
+    // LAYOUT
+    // ============================================================
 
+    private void layout(SkeletonSink sink, BodyDNA dna) {
+        layout(sink, new MirrorSink(), dna);
+    }
+
+    private void layout(SkeletonSink sink, MirrorSink mirror, BodyDNA dna) {
         // 1. Calculate Core Proportions
-        float headSize = dna.heightMeters * dna.headRatio;
-        float legLength = dna.heightMeters * dna.legRatio;
-        float torsoLength = dna.heightMeters - legLength - headSize;
-        
-        // Width modifiers
-        float shoulderWidth = (dna.heightMeters * 0.23f) * dna.buildFactor;
-        float hipWidth = (dna.heightMeters * 0.16f) * dna.buildFactor;
+        layout(sink, mirror, dna,
+            headSize(dna), legLength(dna), shoulderWidth(dna), hipWidth(dna),
+            lumbarSegmentHeight(dna), thoracicSegmentHeight(dna), cervicalSegmentHeight(dna),
+            armLength(dna));
+    }
 
+    /**
+     * Lays out every bone from precomputed proportions.
+     * Region code reads only {@code massKg} and {@code buildFactor} from {@code dna}, and every
+     * emitted value is a constant or exactly one proportion (or one of those two fields)
+     * times a constant. {@link SkeletonTemplate} relies on this to compile the layout.
+     */
+    void layout(SkeletonSink sink, MirrorSink mirror, BodyDNA dna, float headSize, float legLength, float shoulderWidth, float hipWidth,
+                float lumbarSegH, float thoracicSegH, float cervicalSegH, float armLen) {
         // 2. ROOT: The Sacrum (Center of Mass / Physics Root)
         // Positioned at the top of the legs (Hip height)
-        createBone(skeleton, Bone.SACRUM, 
+        sink.bone(Bone.SACRUM, 
             headSize * 0.8f, 
-            new Vector3f(0, legLength, 0), // World Space Start Position
-            dna.massKg * 0.10f, 
-            List.of(new BoneShape.Box(
-                new Vector3f(hipWidth * 0.4f, headSize * 0.4f, headSize * 0.3f), 
-                new Vector3f(), new Quaternionf()))
-        );
+            0, legLength, 0, // World Space Start Position
+            dna.massKg * 0.10f);
+        sink.box(hipWidth * 0.4f, headSize * 0.4f, headSize * 0.3f, 0, 0, 0);
         
-        createBone(skeleton, Bone.COCCYX, headSize * 0.2f,
-            new Vector3f(0, -headSize * 0.4f, -0.02f),
-            0.05f, List.of()
-        );
+        sink.bone(Bone.COCCYX, headSize * 0.2f,
+            0, -headSize * 0.4f, -0.02f,
+            0.05f);
 
         // 3. REGIONS
-        generatePelvis(skeleton, hipWidth, dna);
-        generateSpineAndRibs(skeleton, torsoLength, dna);
-        generateHead(skeleton, headSize, dna);
+        generatePelvis(sink, hipWidth, dna);
+        generateSpineAndRibs(sink, lumbarSegH, thoracicSegH, cervicalSegH, dna);
+        generateHead(sink, headSize, dna);
         
-        // Symmetrical Limbs
-        generateLeg(skeleton, true, legLength, hipWidth, dna);
-        generateLeg(skeleton, false, legLength, hipWidth, dna);
-        
-        generateArm(skeleton, true, shoulderWidth, dna);
-        generateArm(skeleton, false, shoulderWidth, dna);
+        // Symmetrical Limbs: laid out on the left, each bone followed by its mirror image
+        generateLeg(mirror.wrap(sink), legLength, hipWidth, dna);
+        generateArm(mirror.wrap(sink), shoulderWidth, armLen, dna);
+        mirror.flush();
+    }
+
+    // ============================================================
+    // PROPORTIONS
+    // ============================================================
+
+    static float headSize(BodyDNA dna) {
+        return headSize(dna.heightMeters, dna.headRatio);
+    }
+
+    static float legLength(BodyDNA dna) {
+        return legLength(dna.heightMeters, dna.legRatio);
+    }
+
+    static float torsoLength(BodyDNA dna) {
+        return torsoLength(dna.heightMeters, dna.headRatio, dna.legRatio);
+    }
+
+    static float shoulderWidth(BodyDNA dna) {
+        return shoulderWidth(dna.heightMeters, dna.buildFactor);
+    }
+
+    static float hipWidth(BodyDNA dna) {
+        return hipWidth(dna.heightMeters, dna.buildFactor);
+    }
+
+    static float lumbarSegmentHeight(BodyDNA dna) {
+        return lumbarSegmentHeight(torsoLength(dna));
+    }
+
+    static float thoracicSegmentHeight(BodyDNA dna) {
+        return thoracicSegmentHeight(torsoLength(dna));
+    }
+
+    static float cervicalSegmentHeight(BodyDNA dna) {
+        return cervicalSegmentHeight(torsoLength(dna));
+    }
+
+    static float armLength(BodyDNA dna) {
+        return armLength(dna.heightMeters);
+    }
+
+    // Field-wise forms, shared with column evaluation so both round identically
 
-        return skeleton;
+    static float headSize(float heightMeters, float headRatio) {
+        return heightMeters * headRatio;
+    }
+
+    static float legLength(float heightMeters, float legRatio) {
+        return heightMeters * legRatio;
+    }
+
+    static float torsoLength(float heightMeters, float headRatio, float legRatio) {
+        return heightMeters - legLength(heightMeters, legRatio) - headSize(heightMeters, headRatio);
+    }
+
+    // Width modifiers
+    static float shoulderWidth(float heightMeters, float buildFactor) {
+        return (heightMeters * 0.23f) * buildFactor;
+    }
+
+    static float hipWidth(float heightMeters, float buildFactor) {
+        return (heightMeters * 0.16f) * buildFactor;
+    }
+
+    // Spine ratios: Lumbar (35%), Thoracic (45%), Cervical (20%)
+    static float lumbarSegmentHeight(float torsoLength) {
+        return (torsoLength * 0.35f) / LUMBAR.length;
+    }
+
+    static float thoracicSegmentHeight(float torsoLength) {
+        return (torsoLength * 0.45f) / THORACIC.length;
+    }
+
+    static float cervicalSegmentHeight(float torsoLength) {
+        return (torsoLength * 0.20f) / CERVICAL.length;
+    }
+
+    static float armLength(float heightMeters) {
+        return heightMeters * 0.42f;
     }
 
     // ============================================================
     // SPINE & TORSO
     // ============================================================
 
-    private void generateSpineAndRibs(Map<Bone, BoneDefinition> map, float torsoLen, BodyDNA dna) {
-        // Ratios: Lumbar (35%), Thoracic (45%), Cervical (20%)
-        
+    private void generateSpineAndRibs(SkeletonSink sink, float lumbarSegH, float thoracicSegH, float cervicalSegH, BodyDNA dna) {
         // --- LUMBAR (Lower Back) ---
-        // Array ordered bottom-up (L5 is lowest, connects to sacrum)
-        Bone[] lumbar = {Bone.LUMBAR_5, Bone.LUMBAR_4, Bone.LUMBAR_3, Bone.LUMBAR_2, Bone.LUMBAR_1};
-        float lumbarSegH = (torsoLen * 0.35f) / lumbar.length;
-        
-        for (Bone b : lumbar) {
-            createBone(map, b, lumbarSegH, 
-                new Vector3f(0, lumbarSegH, 0), // Stack Y-Up
-                dna.massKg * 0.015f,
-                List.of(new BoneShape.Box(new Vector3f(0.04f * dna.buildFactor, lumbarSegH * 0.9f, 0.04f), new Vector3f(), new Quaternionf()))
-            );
+        for (Bone b : LUMBAR) {
+            sink.bone(b, lumbarSegH, 
+                0, lumbarSegH, 0, // Stack Y-Up
+                dna.massKg * 0.015f);
+            sink.box(0.04f * dna.buildFactor, lumbarSegH * 0.9f, 0.04f, 0, 0, 0);
         }
 
         // --- THORACIC (Rib Cage Area) ---
-        // Array ordered bottom-up (T12 is lowest, T1 is highest/connects to cervical)
-        Bone[] thoracic = {
-            Bone.THORACIC_12, Bone.THORACIC_11, Bone.THORACIC_10, Bone.THORACIC_9, 
-            Bone.THORACIC_8, Bone.THORACIC_7, Bone.THORACIC_6, Bone.THORACIC_5, 
-            Bone.THORACIC_4, Bone.THORACIC_3, Bone.THORACIC_2, Bone.THORACIC_1
-        };
-        float thoracicSegH = (torsoLen * 0.45f) / thoracic.length;
-
-        for (int i = 0; i < thoracic.length; i++) {
-            Bone b = thoracic[i];
-            createBone(map, b, thoracicSegH,
-                new Vector3f(0, thoracicSegH, 0),
-                dna.massKg * 0.012f,
-                List.of(new BoneShape.Box(new Vector3f(0.035f * dna.buildFactor, thoracicSegH * 0.9f, 0.035f), new Vector3f(), new Quaternionf()))
-            );
+        for (int i = 0; i < THORACIC.length; i++) {
+            Bone b = THORACIC[i];
+            sink.bone(b, thoracicSegH,
+                0, thoracicSegH, 0,
+                dna.massKg * 0.012f);
+            sink.box(0.035f * dna.buildFactor, thoracicSegH * 0.9f, 0.035f, 0, 0, 0);
             
             // Attach corresponding rib pair (index 0 = T12 = Rib 12, etc.)
             int ribNum = 12 - i; 
-            generateRibPair(map, ribNum, dna);
+            generateRibPair(sink, ribNum, dna);
         }
 
         // --- CERVICAL (Neck) ---
-        Bone[] cervical = {
-            Bone.CERVICAL_7, Bone.CERVICAL_6, Bone.CERVICAL_5, Bone.CERVICAL_4, 
-            Bone.CERVICAL_3, Bone.CERVICAL_2_AXIS, Bone.CERVICAL_1_ATLAS
-        };
-        float cervicalSegH = (torsoLen * 0.20f) / cervical.length;
-
-        for (Bone b : cervical) {
-            createBone(map, b, cervicalSegH,
-                new Vector3f(0, cervicalSegH, 0),
-                dna.massKg * 0.008f,
-                List.of(new BoneShape.Box(new Vector3f(0.025f, cervicalSegH * 0.8f, 0.025f), new Vector3f(), new Quaternionf()))
-            );
+        for (Bone b : CERVICAL) {
+            sink.bone(b, cervicalSegH,
+                0, cervicalSegH, 0,
+                dna.massKg * 0.008f);
+            sink.box(0.025f, cervicalSegH * 0.8f, 0.025f, 0, 0, 0);
         }
     }
 
-    private void generateRibPair(Map<Bone, BoneDefinition> map, int ribNumber, BodyDNA dna) {
+    private void generateRibPair(SkeletonSink sink, int ribNumber, BodyDNA dna) {
         Bone left = getRibBone(ribNumber, true);
         Bone right = getRibBone(ribNumber, false);
         if (left == null || right == null) return;
 
         // Rib shape varies by number (1 is small ring, 7 is huge arc, 12 is floating spike)
         float ribScale = (ribNumber > 7) ? (12 - ribNumber) * 0.15f : ribNumber * 0.15f; 
-        Vector3f ribSize = new Vector3f(0.1f + ribScale, 0.02f, 0.05f + ribScale);
+        float ribX = 0.1f + ribScale;
+        float ribY = 0.02f;
+        float ribZ = 0.05f + ribScale;
 
         // Left Rib
-        createBone(map, left, 0.1f, 
-            new Vector3f(0.03f, 0, 0), // Offset from spine
-            0.05f, 
-            List.of(new BoneShape.Box(ribSize, new Vector3f(ribSize.x/2, 0, ribSize.z/2), new Quaternionf()))
-        );
+        sink.bone(left, 0.1f, 
+            0.03f, 0, 0, // Offset from spine
+            0.05f);
+        sink.box(ribX, ribY, ribZ, ribX/2, 0, ribZ/2);
         
         // Right Rib
-        createBone(map, right, 0.1f, 
-            new Vector3f(-0.03f, 0, 0),
-            0.05f,
-            List.of(new BoneShape.Box(ribSize, new Vector3f(-ribSize.x/2, 0, ribSize.z/2), new Quaternionf()))
-        );
+        sink.bone(right, 0.1f, 
+            -0.03f, 0, 0,
+            0.05f);
+        sink.box(ribX, ribY, ribZ, -ribX/2, 0, ribZ/2);
     }
 
     // ============================================================
     // HEAD
     // ============================================================
 
-    private void generateHead(Map<Bone, BoneDefinition> map, float size, BodyDNA dna) {
+    private void generateHead(SkeletonSink sink, float size, BodyDNA dna) {
         // Base Skull
-        createBone(map, Bone.OCCIPITAL, size,
-            new Vector3f(0, 0.02f, 0), // Top of Atlas
-            dna.massKg * 0.05f,
-            List.of(new BoneShape.Sphere(size * 0.5f, new Vector3f(0, size * 0.4f, 0.05f)))
-        );
+        sink.bone(Bone.OCCIPITAL, size,
+            0, 0.02f, 0, // Top of Atlas
+            dna.massKg * 0.05f);
+        sink.sphere(size * 0.5f, 0, size * 0.4f, 0.05f);
         
         // Face plates (Fixed to Occipital via fibrous joints)
-        Bone[] skullParts = {
-            Bone.FRONTAL, Bone.PARIETAL_LEFT, Bone.PARIETAL_RIGHT, 
-            Bone.TEMPORAL_LEFT, Bone.TEMPORAL_RIGHT, Bone.SPHENOID
-        };
-        for (Bone b : skullParts) {
-            createBone(map, b, size * 0.2f, new Vector3f(0,0,0), 0.1f, List.of()); // Simplified geometry
+        for (Bone b : SKULL_PARTS) {
+            sink.bone(b, size * 0.2f, 0, 0, 0, 0.1f); // Simplified geometry
         }
 
         // Jaw
-        createBone(map, Bone.MANDIBLE, size * 0.4f,
-            new Vector3f(0, 0.03f, 0.05f), // Hinge point near ear
-            0.3f,
-            List.of(new BoneShape.Box(new Vector3f(0.06f, 0.02f, 0.08f), new Vector3f(0, -0.05f, 0.06f), new Quaternionf()))
-        );
+        sink.bone(Bone.MANDIBLE, size * 0.4f,
+            0, 0.03f, 0.05f, // Hinge point near ear
+            0.3f);
+        sink.box(0.06f, 0.02f, 0.08f, 0, -0.05f, 0.06f);
     }
 
     // ============================================================
     // LIMBS
     // ============================================================
 
-    private void generatePelvis(Map<Bone, BoneDefinition> map, float hipWidth, BodyDNA dna) {
+    private void generatePelvis(SkeletonSink sink, float hipWidth, BodyDNA dna) {
         // Hips attach to Sacrum
-        Bone[] hips = {Bone.HIP_BONE_LEFT, Bone.HIP_BONE_RIGHT};
         float sign = 1f;
         
-        for (Bone b : hips) {
-            createBone(map, b, 0.2f,
-                new Vector3f(sign * (hipWidth * 0.5f), 0, 0),
-                dna.massKg * 0.04f,
-                List.of(new BoneShape.Box(new Vector3f(0.1f * dna.buildFactor, 0.14f, 0.08f), new Vector3f(), new Quaternionf()))
-            );
+        for (Bone b : HIPS) {
+            sink.bone(b, 0.2f,
+                sign * (hipWidth * 0.5f), 0, 0,
+                dna.massKg * 0.04f);
+            sink.box(0.1f * dna.buildFactor, 0.14f, 0.08f, 0, 0, 0);
             sign = -1f;
         }
     }
 
-    private void generateLeg(Map<Bone, BoneDefinition> map, boolean isLeft, float totalLen, float hipWidth, BodyDNA dna) {
-        float sign = isLeft ? 1f : -1f;
+    private void generateLeg(SkeletonSink sink, float totalLen, float hipWidth, BodyDNA dna) {
         float femurLen = totalLen * 0.52f;
         float tibiaLen = totalLen * 0.40f;
         float footHeight = totalLen * 0.08f;
 
         // 1. Femur
-        Bone femur = isLeft ? Bone.FEMUR_LEFT : Bone.FEMUR_RIGHT;
-        createBone(map, femur, femurLen,
-            new Vector3f(sign * 0.08f, -0.05f, 0.02f), // Acetabulum offset
-            dna.massKg * 0.12f,
-            List.of(new BoneShape.Capsule(0.05f * dna.buildFactor, femurLen, new Vector3f(0, -femurLen/2, 0), new Quaternionf()))
-        );
+        sink.bone(Bone.FEMUR_LEFT, femurLen,
+            0.08f, -0.05f, 0.02f, // Acetabulum offset
+            dna.massKg * 0.12f);
+        sink.capsule(0.05f * dna.buildFactor, femurLen, 0, -femurLen/2, 0);
 
         // 2. Tibia
-        Bone tibia = isLeft ? Bone.TIBIA_LEFT : Bone.TIBIA_RIGHT;
-        createBone(map, tibia, tibiaLen,
-            new Vector3f(0, -femurLen, 0), // Knee
-            dna.massKg * 0.06f,
-            List.of(new BoneShape.Capsule(0.04f * dna.buildFactor, tibiaLen, new Vector3f(0, -tibiaLen/2, 0), new Quaternionf()))
-        );
+        sink.bone(Bone.TIBIA_LEFT, tibiaLen,
+            0, -femurLen, 0, // Knee
+            dna.massKg * 0.06f);
+        sink.capsule(0.04f * dna.buildFactor, tibiaLen, 0, -tibiaLen/2, 0);
         
         // 3. Patella (Kneecap)
-        Bone patella = isLeft ? Bone.PATELLA_LEFT : Bone.PATELLA_RIGHT;
-        createBone(map, patella, 0.05f,
-            new Vector3f(0, 0, 0.04f), // Front of knee
-            0.1f,
-            List.of(new BoneShape.Sphere(0.03f, new Vector3f()))
-        );
+        sink.bone(Bone.PATELLA_LEFT, 0.05f,
+            0, 0, 0.04f, // Front of knee
+            0.1f);
+        sink.sphere(0.03f, 0, 0, 0);
 
         // 4. Fibula (Lateral leg bone)
-        Bone fibula = isLeft ? Bone.FIBULA_LEFT : Bone.FIBULA_RIGHT;
-        createBone(map, fibula, tibiaLen,
-            new Vector3f(sign * 0.03f, 0, 0), // Next to Tibia
-            dna.massKg * 0.01f,
-            List.of(new BoneShape.Capsule(0.015f, tibiaLen, new Vector3f(0, -tibiaLen/2, 0), new Quaternionf()))
-        );
+        sink.bone(Bone.FIBULA_LEFT, tibiaLen,
+            0.03f, 0, 0, // Next to Tibia
+            dna.massKg * 0.01f);
+        sink.capsule(0.015f, tibiaLen, 0, -tibiaLen/2, 0);
 
         // 5. Foot
-        generateFoot(map, isLeft, tibiaLen, dna);
+        generateFoot(sink, tibiaLen, dna);
     }
 
-    private void generateFoot(Map<Bone, BoneDefinition> map, boolean isLeft, float tibiaLen, BodyDNA dna) {
+    private void generateFoot(SkeletonSink sink, float tibiaLen, BodyDNA dna) {
         // Ankle (Talus)
-        Bone talus = isLeft ? Bone.TALUS_LEFT : Bone.TALUS_RIGHT;
-        createBone(map, talus, 0.05f, new Vector3f(0, -tibiaLen, 0), 0.1f, List.of(new BoneShape.Box(0.04f, 0.04f, 0.04f)));
+        sink.bone(Bone.TALUS_LEFT, 0.05f, 0, -tibiaLen, 0, 0.1f);
+        sink.box(0.04f, 0.04f, 0.04f, 0, 0, 0);
         
         // Heel (Calcaneus)
-        Bone calcaneus = isLeft ? Bone.CALCANEUS_LEFT : Bone.CALCANEUS_RIGHT;
-        createBone(map, calcaneus, 0.08f, new Vector3f(0, -0.03f, -0.03f), 0.1f, List.of(new BoneShape.Box(0.04f, 0.04f, 0.06f)));
+        sink.bone(Bone.CALCANEUS_LEFT, 0.08f, 0, -0.03f, -0.03f, 0.1f);
+        sink.box(0.04f, 0.04f, 0.06f, 0, 0, 0);
 
         // Midfoot (Navicular/Cuboid/Cuneiforms) - Simplified as one block for procedural gen
-        Bone navicular = isLeft ? Bone.NAVICULAR_LEFT : Bone.NAVICULAR_RIGHT;
-        createBone(map, navicular, 0.04f, new Vector3f(0, -0.02f, 0.04f), 0.05f, List.of());
+        sink.bone(Bone.NAVICULAR_LEFT, 0.04f, 0, -0.02f, 0.04f, 0.05f);
 
         // Toes (Metatarsals + Phalanges)
-        float sign = isLeft ? 1f : -1f;
-        
         // Big Toe (2 phalanges)
-        generateDigit(map, 
-            isLeft ? Bone.METATARSAL_1_LEFT : Bone.METATARSAL_1_RIGHT,
-            isLeft ? Bone.PROXIMAL_PHALANX_BIG_TOE_LEFT : Bone.PROXIMAL_PHALANX_BIG_TOE_RIGHT,
+        generateDigit(sink, 
+            Bone.METATARSAL_1_LEFT,
+            Bone.PROXIMAL_PHALANX_BIG_TOE_LEFT,
             null, // No middle phalanx for big toe
-            isLeft ? Bone.DISTAL_PHALANX_BIG_TOE_LEFT : Bone.DISTAL_PHALANX_BIG_TOE_RIGHT,
-            new Vector3f(sign * 0.02f, 0, 0.05f),
+            Bone.DISTAL_PHALANX_BIG_TOE_LEFT,
+            0.02f, 0, 0.05f,
             0.08f, 0.02f
         );
 
         // Toe 2 (3 phalanges)
-        generateDigit(map,
-            isLeft ? Bone.METATARSAL_2_LEFT : Bone.METATARSAL_2_RIGHT,
-            isLeft ? Bone.PROXIMAL_PHALANX_TOE_2_LEFT : Bone.PROXIMAL_PHALANX_TOE_2_RIGHT,
-            isLeft ? Bone.MIDDLE_PHALANX_TOE_2_LEFT : Bone.MIDDLE_PHALANX_TOE_2_RIGHT,
-            isLeft ? Bone.DISTAL_PHALANX_TOE_2_LEFT : Bone.DISTAL_PHALANX_TOE_2_RIGHT,
-            new Vector3f(sign * 0.01f, 0, 0.05f),
+        generateDigit(sink,
+            Bone.METATARSAL_2_LEFT,
+            Bone.PROXIMAL_PHALANX_TOE_2_LEFT,
+            Bone.MIDDLE_PHALANX_TOE_2_LEFT,
+            Bone.DISTAL_PHALANX_TOE_2_LEFT,
+            0.01f, 0, 0.05f,
             0.07f, 0.015f
         );
 
         // Toe 3 (3 phalanges)
-        generateDigit(map,
-            isLeft ? Bone.METATARSAL_3_LEFT : Bone.METATARSAL_3_RIGHT,
-            isLeft ? Bone.PROXIMAL_PHALANX_TOE_3_LEFT : Bone.PROXIMAL_PHALANX_TOE_3_RIGHT,
-            isLeft ? Bone.MIDDLE_PHALANX_TOE_3_LEFT : Bone.MIDDLE_PHALANX_TOE_3_RIGHT,
-            isLeft ? Bone.DISTAL_PHALANX_TOE_3_LEFT : Bone.DISTAL_PHALANX_TOE_3_RIGHT,
-            new Vector3f(0, 0, 0.05f),
+        generateDigit(sink,
+            Bone.METATARSAL_3_LEFT,
+            Bone.PROXIMAL_PHALANX_TOE_3_LEFT,
+            Bone.MIDDLE_PHALANX_TOE_3_LEFT,
+            Bone.DISTAL_PHALANX_TOE_3_LEFT,
+            0, 0, 0.05f,
             0.065f, 0.015f
         );
 
         // Toe 4 (3 phalanges)
-        generateDigit(map,
-            isLeft ? Bone.METATARSAL_4_LEFT : Bone.METATARSAL_4_RIGHT,
-            isLeft ? Bone.PROXIMAL_PHALANX_TOE_4_LEFT : Bone.PROXIMAL_PHALANX_TOE_4_RIGHT,
-            isLeft ? Bone.MIDDLE_PHALANX_TOE_4_LEFT : Bone.MIDDLE_PHALANX_TOE_4_RIGHT,
-            isLeft ? Bone.DISTAL_PHALANX_TOE_4_LEFT : Bone.DISTAL_PHALANX_TOE_4_RIGHT,
-            new Vector3f(sign * -0.01f, 0, 0.05f),
+        generateDigit(sink,
+            Bone.METATARSAL_4_LEFT,
+            Bone.PROXIMAL_PHALANX_TOE_4_LEFT,
+            Bone.MIDDLE_PHALANX_TOE_4_LEFT,
+            Bone.DISTAL_PHALANX_TOE_4_LEFT,
+            -0.01f, 0, 0.05f,
             0.06f, 0.015f
         );
 
         // Little Toe (3 phalanges)
-        generateDigit(map,
-            isLeft ? Bone.METATARSAL_5_LEFT : Bone.METATARSAL_5_RIGHT,
-            isLeft ? Bone.PROXIMAL_PHALANX_LITTLE_TOE_LEFT : Bone.PROXIMAL_PHALANX_LITTLE_TOE_RIGHT,
-            isLeft ? Bone.MIDDLE_PHALANX_LITTLE_TOE_LEFT : Bone.MIDDLE_PHALANX_LITTLE_TOE_RIGHT,
-            isLeft ? Bone.DISTAL_PHALANX_LITTLE_TOE_LEFT : Bone.DISTAL_PHALANX_LITTLE_TOE_RIGHT,
-            new Vector3f(sign * -0.02f, 0, 0.05f),
+        generateDigit(sink,
+            Bone.METATARSAL_5_LEFT,
+            Bone.PROXIMAL_PHALANX_LITTLE_TOE_LEFT,
+            Bone.MIDDLE_PHALANX_LITTLE_TOE_LEFT,
+            Bone.DISTAL_PHALANX_LITTLE_TOE_LEFT,
+            -0.02f, 0, 0.05f,
             0.055f, 0.012f
         );
     }
 
-    private void generateArm(Map<Bone, BoneDefinition> map, boolean isLeft, float shoulderWidth, BodyDNA dna) {
-        float sign = isLeft ? 1f : -1f;
-        float armLen = dna.heightMeters * 0.42f;
+    private void generateArm(SkeletonSink sink, float shoulderWidth, float armLen, BodyDNA dna) {
         float humerusLen = armLen * 0.48f;
         float radiusLen = armLen * 0.42f;
 
         // 1. Clavicle
-        Bone clavicle = isLeft ? Bone.CLAVICLE_LEFT : Bone.CLAVICLE_RIGHT;
-        createBone(map, clavicle, shoulderWidth * 0.45f,
-            new Vector3f(sign * 0.02f, 0.08f, 0.04f), // Top of Sternum
-            dna.massKg * 0.02f,
-            List.of(new BoneShape.Capsule(0.02f, shoulderWidth * 0.4f, new Vector3f(sign * (shoulderWidth * 0.2f), 0, 0), new Quaternionf()))
-        );
+        sink.bone(Bone.CLAVICLE_LEFT, shoulderWidth * 0.45f,
+            0.02f, 0.08f, 0.04f, // Top of Sternum
+            dna.massKg * 0.02f);
+        sink.capsule(0.02f, shoulderWidth * 0.4f, shoulderWidth * 0.2f, 0, 0);
 
         // 2. Scapula
-        Bone scapula = isLeft ? Bone.SCAPULA_LEFT : Bone.SCAPULA_RIGHT;
-        createBone(map, scapula, 0.15f,
-            new Vector3f(sign * (shoulderWidth * 0.4f), 0, -0.05f), // End of clavicle
-            dna.massKg * 0.03f,
-            List.of(new BoneShape.Box(0.1f, 0.12f, 0.02f))
-        );
+        sink.bone(Bone.SCAPULA_LEFT, 0.15f,
+            shoulderWidth * 0.4f, 0, -0.05f, // End of clavicle
+            dna.massKg * 0.03f);
+        sink.box(0.1f, 0.12f, 0.02f, 0, 0, 0);
 
         // 3. Humerus
-        Bone humerus = isLeft ? Bone.HUMERUS_LEFT : Bone.HUMERUS_RIGHT;
-        createBone(map, humerus, humerusLen,
-            new Vector3f(sign * 0.05f, -0.02f, 0), // Shoulder joint
-            dna.massKg * 0.05f,
-            List.of(new BoneShape.Capsule(0.04f * dna.buildFactor, humerusLen, new Vector3f(0, -humerusLen/2, 0), new Quaternionf()))
-        );
+        sink.bone(Bone.HUMERUS_LEFT, humerusLen,
+            0.05f, -0.02f, 0, // Shoulder joint
+            dna.massKg * 0.05f);
+        sink.capsule(0.04f * dna.buildFactor, humerusLen, 0, -humerusLen/2, 0);
 
         // 4. Radius & Ulna
-        Bone radius = isLeft ? Bone.RADIUS_LEFT : Bone.RADIUS_RIGHT;
-        createBone(map, radius, radiusLen,
-            new Vector3f(0, -humerusLen, 0), // Elbow
-            dna.massKg * 0.02f,
-            List.of(new BoneShape.Capsule(0.025f * dna.buildFactor, radiusLen, new Vector3f(0, -radiusLen/2, 0), new Quaternionf()))
-        );
-        Bone ulna = isLeft ? Bone.ULNA_LEFT : Bone.ULNA_RIGHT;
-        createBone(map, ulna, radiusLen,
-            new Vector3f(0, -humerusLen, 0), 
-            dna.massKg * 0.02f,
-            List.of(new BoneShape.Capsule(0.02f, radiusLen, new Vector3f(0, -radiusLen/2, 0), new Quaternionf()))
-        );
+        sink.bone(Bone.RADIUS_LEFT, radiusLen,
+            0, -humerusLen, 0, // Elbow
+            dna.massKg * 0.02f);
+        sink.capsule(0.025f * dna.buildFactor, radiusLen, 0, -radiusLen/2, 0);
+        sink.bone(Bone.ULNA_LEFT, radiusLen,
+            0, -humerusLen, 0, 
+            dna.massKg * 0.02f);
+        sink.capsule(0.02f, radiusLen, 0, -radiusLen/2, 0);
 
         // 5. Hand
-        generateHand(map, isLeft, radiusLen, dna);
+        generateHand(sink, radiusLen, dna);
     }
 
-    private void generateHand(Map<Bone, BoneDefinition> map, boolean isLeft, float forearmLen, BodyDNA dna) {
-        float sign = isLeft ? 1f : -1f;
+    private void generateHand(SkeletonSink sink, float forearmLen, BodyDNA dna) {
         // Wrist Root
-        Bone lunate = isLeft ? Bone.LUNATE_LEFT : Bone.LUNATE_RIGHT;
-        createBone(map, lunate, 0.03f, new Vector3f(0, -forearmLen, 0), 0.01f, List.of(new BoneShape.Box(0.03f, 0.03f, 0.02f)));
+        sink.bone(Bone.LUNATE_LEFT, 0.03f, 0, -forearmLen, 0, 0.01f);
+        sink.box(0.03f, 0.03f, 0.02f, 0, 0, 0);
         
         // Carpals simplified block
-        Bone capitate = isLeft ? Bone.CAPITATE_LEFT : Bone.CAPITATE_RIGHT;
-        createBone(map, capitate, 0.02f, new Vector3f(0, -0.02f, 0), 0.01f, List.of());
+        sink.bone(Bone.CAPITATE_LEFT, 0.02f, 0, -0.02f, 0, 0.01f);
 
         // --- FINGERS ---
         // 1. Thumb (Metacarpal 1)
-        generateDigit(map, 
-            isLeft ? Bone.METACARPAL_1_LEFT : Bone.METACARPAL_1_RIGHT,
-            isLeft ? Bone.PROXIMAL_PHALANX_THUMB_LEFT : Bone.PROXIMAL_PHALANX_THUMB_RIGHT,
+        generateDigit(sink, 
+            Bone.METACARPAL_1_LEFT,
+            Bone.PROXIMAL_PHALANX_THUMB_LEFT,
             null,
-            isLeft ? Bone.DISTAL_PHALANX_THUMB_LEFT : Bone.DISTAL_PHALANX_THUMB_RIGHT,
-            new Vector3f(sign * 0.03f, -0.02f, 0.02f), // Angled out
+            Bone.DISTAL_PHALANX_THUMB_LEFT,
+            0.03f, -0.02f, 0.02f, // Angled out
             0.05f, 0.012f
         );
 
         // 2. Index
-        generateDigit(map,
-            isLeft ? Bone.METACARPAL_2_LEFT : Bone.METACARPAL_2_RIGHT,
-            isLeft ? Bone.PROXIMAL_PHALANX_INDEX_FINGER_LEFT : Bone.PROXIMAL_PHALANX_INDEX_FINGER_RIGHT,
-            isLeft ? Bone.MIDDLE_PHALANX_INDEX_FINGER_LEFT : Bone.MIDDLE_PHALANX_INDEX_FINGER_RIGHT,
-            isLeft ? Bone.DISTAL_PHALANX_INDEX_FINGER_LEFT : Bone.DISTAL_PHALANX_INDEX_FINGER_RIGHT,
-            new Vector3f(sign * 0.015f, -0.03f, 0), 
+        generateDigit(sink,
+            Bone.METACARPAL_2_LEFT,
+            Bone.PROXIMAL_PHALANX_INDEX_FINGER_LEFT,
+            Bone.MIDDLE_PHALANX_INDEX_FINGER_LEFT,
+            Bone.DISTAL_PHALANX_INDEX_FINGER_LEFT,
+            0.015f, -0.03f, 0,
             0.09f, 0.01f
         );
 
         // 3. Middle
-        generateDigit(map,
-            isLeft ? Bone.METACARPAL_3_LEFT : Bone.METACARPAL_3_RIGHT,
-            isLeft ? Bone.PROXIMAL_PHALANX_MIDDLE_FINGER_LEFT : Bone.PROXIMAL_PHALANX_MIDDLE_FINGER_RIGHT,
-            isLeft ? Bone.MIDDLE_PHALANX_MIDDLE_FINGER_LEFT : Bone.MIDDLE_PHALANX_MIDDLE_FINGER_RIGHT,
-            isLeft ? Bone.DISTAL_PHALANX_MIDDLE_FINGER_LEFT : Bone.DISTAL_PHALANX_MIDDLE_FINGER_RIGHT,
-            new Vector3f(0, -0.03f, 0), 
+        generateDigit(sink,
+            Bone.METACARPAL_3_LEFT,
+            Bone.PROXIMAL_PHALANX_MIDDLE_FINGER_LEFT,
+            Bone.MIDDLE_PHALANX_MIDDLE_FINGER_LEFT,
+            Bone.DISTAL_PHALANX_MIDDLE_FINGER_LEFT,
+            0, -0.03f, 0,
             0.10f, 0.01f
         );
         
         // 4. Ring
-        generateDigit(map,
-            isLeft ? Bone.METACARPAL_4_LEFT : Bone.METACARPAL_4_RIGHT,
-            isLeft ? Bone.PROXIMAL_PHALANX_RING_FINGER_LEFT : Bone.PROXIMAL_PHALANX_RING_FINGER_RIGHT,
-            isLeft ? Bone.MIDDLE_PHALANX_RING_FINGER_LEFT : Bone.MIDDLE_PHALANX_RING_FINGER_RIGHT,
-            isLeft ? Bone.DISTAL_PHALANX_RING_FINGER_LEFT : Bone.DISTAL_PHALANX_RING_FINGER_RIGHT,
-            new Vector3f(sign * -0.015f, -0.03f, 0), 
+        generateDigit(sink,
+            Bone.METACARPAL_4_LEFT,
+            Bone.PROXIMAL_PHALANX_RING_FINGER_LEFT,
+            Bone.MIDDLE_PHALANX_RING_FINGER_LEFT,
+            Bone.DISTAL_PHALANX_RING_FINGER_LEFT,
+            -0.015f, -0.03f, 0,
             0.09f, 0.01f
         );
 
         // 5. Little
-        generateDigit(map,
-            isLeft ? Bone.METACARPAL_5_LEFT : Bone.METACARPAL_5_RIGHT,
-            isLeft ? Bone.PROXIMAL_PHALANX_LITTLE_FINGER_LEFT : Bone.PROXIMAL_PHALANX_LITTLE_FINGER_RIGHT,
-            isLeft ? Bone.MIDDLE_PHALANX_LITTLE_FINGER_LEFT : Bone.MIDDLE_PHALANX_LITTLE_FINGER_RIGHT,
-            isLeft ? Bone.DISTAL_PHALANX_LITTLE_FINGER_LEFT : Bone.DISTAL_PHALANX_LITTLE_FINGER_RIGHT,
-            new Vector3f(sign * -0.03f, -0.03f, 0), 
+        generateDigit(sink,
+            Bone.METACARPAL_5_LEFT,
+            Bone.PROXIMAL_PHALANX_LITTLE_FINGER_LEFT,
+            Bone.MIDDLE_PHALANX_LITTLE_FINGER_LEFT,
+            Bone.DISTAL_PHALANX_LITTLE_FINGER_LEFT,
+            -0.03f, -0.03f, 0,
             0.07f, 0.008f
         );
     }
 
-    private void generateDigit(Map<Bone, BoneDefinition> map, Bone meta, Bone prox, Bone mid, Bone dist, 
-                               Vector3f startOffset, float totalLen, float width) {
+    private void generateDigit(SkeletonSink sink, Bone meta, Bone prox, Bone mid, Bone dist, 
+                               float startX, float startY, float startZ, float totalLen, float width) {
         
         float metaLen = totalLen * 0.4f;
         float phalLen = (totalLen * 0.6f) / (mid == null ? 2 : 3);
 
         // Metacarpal
-        createBone(map, meta, metaLen, startOffset, 0.005f, List.of(new BoneShape.Capsule(width, metaLen, new Vector3f(0, -metaLen/2, 0), new Quaternionf())));
+        sink.bone(meta, metaLen, startX, startY, startZ, 0.005f);
+        sink.capsule(width, metaLen, 0, -metaLen/2, 0);
         
         // Proximal
-        createBone(map, prox, phalLen, new Vector3f(0, -metaLen, 0), 0.002f, List.of(new BoneShape.Capsule(width * 0.9f, phalLen, new Vector3f(0, -phalLen/2, 0), new Quaternionf())));
-        
-        Vector3f nextOffset = new Vector3f(0, -phalLen, 0);
+        sink.bone(prox, phalLen, 0, -metaLen, 0, 0.002f);
+        sink.capsule(width * 0.9f, phalLen, 0, -phalLen/2, 0);
 
         // Middle (Optional for Thumb)
         if (mid != null) {
-            createBone(map, mid, phalLen, nextOffset, 0.002f, List.of(new BoneShape.Capsule(width * 0.8f, phalLen, new Vector3f(0, -phalLen/2, 0), new Quaternionf())));
+            sink.bone(mid, phalLen, 0, -phalLen, 0, 0.002f);
+            sink.capsule(width * 0.8f, phalLen, 0, -phalLen/2, 0);
         }
 
         // Distal
-        createBone(map, dist, phalLen * 0.8f, nextOffset, 0.001f, List.of(new BoneShape.Capsule(width * 0.7f, phalLen * 0.8f, new Vector3f(0, -(phalLen*0.8f)/2, 0), new Quaternionf())));
+        sink.bone(dist, phalLen * 0.8f, 0, -phalLen, 0, 0.001f);
+        sink.capsule(width * 0.7f, phalLen * 0.8f, 0, -(phalLen*0.8f)/2, 0);
     }
 
     // ============================================================
     // UTILS
     // ============================================================
 
-    private void createBone(Map<Bone, BoneDefinition> map, Bone id, float length, Vector3f bindPos, float mass, List<BoneShape> shapes) {
-        // Automatically fetch constraints from the Static Registry
-        JointRegistry.Joint jointInfo = JointRegistry.getJoint(id);
-        
-        BoneDefinition.JointLimits limits;
-        if (jointInfo != null && jointInfo.limits() != null) {
-            limits = new BoneDefinition.JointLimits(
-                jointInfo.limits().minPitch(), jointInfo.limits().maxPitch(),
-                jointInfo.limits().minYaw(),   jointInfo.limits().maxYaw(),
-                jointInfo.limits().minRoll(),  jointInfo.limits().maxRoll()
-            );
-        } else {
-            limits = BoneDefinition.JointLimits.LOCKED;
+    /**
+     * Joint limits for {@code id}, copied from the static {@link JointRegistry}. Bones with equal
+     * limits get the same shared instance, so definitions never carry their own copy.
+     */
+    static BoneDefinition.JointLimits jointLimitsFor(Bone id) {
+        return JOINT_LIMITS[id.ordinal()];
+    }
+
+    private static BoneDefinition.JointLimits[] jointLimitTable() {
+        Map<BoneDefinition.JointLimits, BoneDefinition.JointLimits> shared = new HashMap<>();
+        shared.put(BoneDefinition.JointLimits.LOCKED, BoneDefinition.JointLimits.LOCKED);
+        BoneDefinition.JointLimits[] table = new BoneDefinition.JointLimits[Skeleton.BONE_COUNT];
+        for (Bone id : Skeleton.BONES) {
+            // Automatically fetch constraints from the Static Registry
+            JointRegistry.Joint jointInfo = JointRegistry.getJoint(id);
+            BoneDefinition.JointLimits limits = BoneDefinition.JointLimits.LOCKED;
+            if (jointInfo != null && jointInfo.limits() != null) {
+                limits = new BoneDefinition.JointLimits(
+                    jointInfo.limits().minPitch(), jointInfo.limits().maxPitch(),
+                    jointInfo.limits().minYaw(),   jointInfo.limits().maxYaw(),
+                    jointInfo.limits().minRoll(),  jointInfo.limits().maxRoll()
+                );
+            }
+            table[id.ordinal()] = shared.computeIfAbsent(limits, l -> l);
         }
+        return table;
+    }
 
-        BoneDefinition def = new BoneDefinition(
-            length,
-            bindPos,
-            new Quaternionf(), 
-            mass,
-            shapes,
-            limits
-        );
+    /**
+     * Builds the classic {@code HashMap<Bone, BoneDefinition>} output.
+     * A bone is committed once its shapes are known, i.e. when the next one starts.
+     * Shapes and shape lists are {@link SharedShapes interned} as in a {@link Skeleton}.
+     */
+    private static final class MapSink implements SkeletonSink {
+        private final Map<Bone, BoneDefinition> map = new HashMap<>();
+        private Bone id;
+        private float length;
+        private Vector3f bindPos;
+        private float mass;
+        private List<BoneShape> shapes;
+
+        @Override
+        public void bone(Bone id, float length, float x, float y, float z, float mass) {
+            commit();
+            this.id = id;
+            this.length = length;
+            this.bindPos = new Vector3f(x, y, z);
+            this.mass = mass;
+            this.shapes = List.of();
+        }
 
-        map.put(id, def);
+        @Override
+        public void box(float halfWidth, float halfHeight, float halfDepth, float ox, float oy, float oz) {
+            addShape(new BoneShape.Box(new Vector3f(halfWidth, halfHeight, halfDepth), new Vector3f(ox, oy, oz), new Quaternionf()));
+        }
+
+        @Override
+        public void capsule(float radius, float length, float ox, float oy, float oz) {
+            addShape(new BoneShape.Capsule(radius, length, new Vector3f(ox, oy, oz), new Quaternionf()));
+        }
+
+        @Override
+        public void sphere(float radius, float ox, float oy, float oz) {
+            addShape(new BoneShape.Sphere(radius, new Vector3f(ox, oy, oz)));
+        }
+
+        private void addShape(BoneShape shape) {
+            shape = SharedShapes.intern(shape);
+            if (shapes.isEmpty()) {
+                shapes = List.of(shape);
+            } else {
+                BoneShape[] grown = shapes.toArray(new BoneShape[shapes.size() + 1]);
+                grown[shapes.size()] = shape;
+                shapes = List.of(grown);
+            }
+        }
+
+        private void commit() {
+            if (id == null) return;
+            shapes = SharedShapes.intern(shapes);
+            map.put(id, new BoneDefinition(length, bindPos, new Quaternionf(), mass, shapes, jointLimitsFor(id)));
+            id = null;
+        }
+
+        Map<Bone, BoneDefinition> build() {
+            commit();
+            return map;
+        }
+    }
+
+    /**
+     * Passes a left-side region through to its target and follows every bone with its
+     * {@link Bone#mirror() counterpart}: the same values with the bind and shape x offsets negated.
+     * Generated bind and shape rotations are identity, so they need no reflection. One bone is held
+     * at a time, so left and right bones interleave. Reusable; once grown to a bone's shape count it
+     * allocates nothing.
+     */
+    static final class MirrorSink implements SkeletonSink {
+        private SkeletonSink target;
+        private Bone pending;           // Counterpart still to emit, or null
+        private float length, x, y, z, mass;
+        private int shapeCount;
+        private byte[] shapeKinds = new byte[4];
+        private float[] shapeValues = new float[4 * 6];
+
+        /** Flushes any pending bone, then forwards to {@code target}. */
+        MirrorSink wrap(SkeletonSink target) {
+            flush();
+            this.target = target;
+            return this;
+        }
+
+        @Override
+        public void bone(Bone id, float length, float x, float y, float z, float mass) {
+            if (id.mirror() == id) throw new IllegalArgumentException(id + " lies on the midline");
+            flush();
+            target.bone(id, length, x, y, z, mass);
+            this.pending = id.mirror();
+            this.length = length;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.mass = mass;
+        }
+
+        @Override
+        public void box(float halfWidth, float halfHeight, float halfDepth, float ox, float oy, float oz) {
+            target.box(halfWidth, halfHeight, halfDepth, ox, oy, oz);
+            hold(SkeletonBuffer.BOX, halfWidth, halfHeight, halfDepth, ox, oy, oz);
+        }
+
+        @Override
+        public void capsule(float radius, float length, float ox, float oy, float oz) {
+            target.capsule(radius, length, ox, oy, oz);
+            hold(SkeletonBuffer.CAPSULE, radius, length, 0, ox, oy, oz);
+        }
+
+        @Override
+        public void sphere(float radius, float ox, float oy, float oz) {
+            target.sphere(radius, ox, oy, oz);
+            hold(SkeletonBuffer.SPHERE, radius, 0, 0, ox, oy, oz);
+        }
+
+        private void hold(byte kind, float a, float b, float c, float ox, float oy, float oz) {
+            if (shapeCount == shapeKinds.length) {
+                shapeKinds = Arrays.copyOf(shapeKinds, shapeCount * 2);
+                shapeValues = Arrays.copyOf(shapeValues, shapeCount * 2 * 6);
+            }
+            int j = shapeCount * 6;
+            shapeKinds[shapeCount++] = kind;
+            shapeValues[j] = a;
+            shapeValues[j + 1] = b;
+            shapeValues[j + 2] = c;
+            shapeValues[j + 3] = ox;
+            shapeValues[j + 4] = oy;
+            shapeValues[j + 5] = oz;
+        }
+
+        /** Emits the counterpart of the last bone, if not done yet. */
+        void flush() {
+            if (pending == null) return;
+            target.bone(pending, length, reflect(x), y, z, mass);
+            for (int s = 0, j = 0; s < shapeCount; s++, j += 6) {
+                float[] v = shapeValues;
+                switch (shapeKinds[s]) {
+                    case SkeletonBuffer.BOX -> target.box(v[j], v[j + 1], v[j + 2], reflect(v[j + 3]), v[j + 4], v[j + 5]);
+                    case SkeletonBuffer.CAPSULE -> target.capsule(v[j], v[j + 1], reflect(v[j + 3]), v[j + 4], v[j + 5]);
+                    default -> target.sphere(v[j], reflect(v[j + 3]), v[j + 4], v[j + 5]);
+                }
+            }
+            pending = null;
+            shapeCount = 0;
+        }
+
+        // 0 - x rather than -x, so offsets on the plane stay +0 as the region code writes them
+        private static float reflect(float x) {
+            return 0f - x;
+        }
     }
     
     // Helper to map Rib numbers to Enums
@@ -242,5 +242,28 @@ public enum Bone {
     MIDDLE_PHALANX_LITTLE_TOE_LEFT,
     MIDDLE_PHALANX_LITTLE_TOE_RIGHT,
     DISTAL_PHALANX_LITTLE_TOE_LEFT,
-    DISTAL_PHALANX_LITTLE_TOE_RIGHT
+    DISTAL_PHALANX_LITTLE_TOE_RIGHT;
+
+    // [ordinal] counterpart across the midline, paired by the _LEFT / _RIGHT suffix
+    private static final Bone[] MIRRORS = new Bone[values().length];
+
+    static {
+        for (Bone bone : values()) {
+            String name = bone.name();
+            if (name.endsWith("_LEFT")) {
+                MIRRORS[bone.ordinal()] = valueOf(name.substring(0, name.length() - 5) + "_RIGHT");
+            } else if (name.endsWith("_RIGHT")) {
+                MIRRORS[bone.ordinal()] = valueOf(name.substring(0, name.length() - 6) + "_LEFT");
+            } else {
+                MIRRORS[bone.ordinal()] = bone;
+            }
+        }
+    }
+
+    /**
+     * The same bone on the other side of the body, or this bone if it lies on the midline.
+     */
+    public Bone mirror() {
+        return MIRRORS[ordinal()];
+    }
 }
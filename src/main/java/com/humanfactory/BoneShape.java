@@ -1,11 +1,17 @@
 package com.humanfactory;
 
 import org.joml.Quaternionf;
+import org.joml.Quaternionfc;
 import org.joml.Vector3f;
+import org.joml.Vector3fc;
 
 /**
  * Sealed interface representing simplified collision shapes for bones.
  * These shapes can be used for physics engines or SDF meshing.
+ * <p>
+ * Shapes are values: vector components are read-only views, and a {@link Skeleton} interns its
+ * shapes so that structurally identical ones are a single instance shared across skeletons.
+ * Never modify a component through a cast, and do not keep modifying a vector after passing it in.
  */
 public sealed interface BoneShape {
     
@@ -16,7 +22,7 @@ public sealed interface BoneShape {
      * @param offset Local position offset from bone origin
      * @param rotation Local rotation offset
      */
-    record Box(Vector3f halfExtents, Vector3f offset, Quaternionf rotation) implements BoneShape {
+    record Box(Vector3fc halfExtents, Vector3fc offset, Quaternionfc rotation) implements BoneShape {
         public Box(float halfWidth, float halfHeight, float halfDepth) {
             this(new Vector3f(halfWidth, halfHeight, halfDepth), new Vector3f(), new Quaternionf());
         }
@@ -30,7 +36,7 @@ public sealed interface BoneShape {
      * @param offset Local position offset from bone origin
      * @param rotation Local rotation offset
      */
-    record Capsule(float radius, float length, Vector3f offset, Quaternionf rotation) implements BoneShape {}
+    record Capsule(float radius, float length, Vector3fc offset, Quaternionfc rotation) implements BoneShape {}
     
     /**
      * Sphere collision shape.
@@ -38,5 +44,5 @@ public sealed interface BoneShape {
      * @param radius Radius of the sphere (in meters)
      * @param offset Local position offset from bone origin
      */
-    record Sphere(float radius, Vector3f offset) implements BoneShape {}
+    record Sphere(float radius, Vector3fc offset) implements BoneShape {}
 }
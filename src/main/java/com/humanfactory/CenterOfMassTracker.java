@@ -0,0 +1,317 @@
+package com.humanfactory;
+
+import org.joml.Quaternionfc;
+import org.joml.Vector3f;
+
+/**
+ * Whole-body and subtree center of mass of one posed character, kept up to date incrementally.
+ * <p>
+ * Wraps an {@link IncrementalForwardKinematics}. For every bone it keeps the mass-weighted world
+ * center {@code m * c} and the sum of that over its subtree. When an update recomputes a subtree,
+ * only that subtree's sums are rebuilt, followed by the chain of ancestors above it; the rest of
+ * the body is not touched. Each sum is always formed as {@code own + children in order}, so results
+ * are bit-identical to a full recomputation and do not drift over time.
+ * <p>
+ * The support polygon is the convex hull, on the ground plane (XZ, Y up), of the origin and center
+ * of mass of every present {@code CALCANEUS_*} and {@code METATARSAL_*} bone on feet in contact.
+ * Not thread-safe; use one instance per character. {@link #update()} allocates nothing.
+ */
+public final class CenterOfMassTracker {
+
+    private static final Bone[] LEFT_FOOT = {
+        Bone.CALCANEUS_LEFT, Bone.METATARSAL_1_LEFT, Bone.METATARSAL_2_LEFT,
+        Bone.METATARSAL_3_LEFT, Bone.METATARSAL_4_LEFT, Bone.METATARSAL_5_LEFT
+    };
+    private static final Bone[] RIGHT_FOOT = {
+        Bone.CALCANEUS_RIGHT, Bone.METATARSAL_1_RIGHT, Bone.METATARSAL_2_RIGHT,
+        Bone.METATARSAL_3_RIGHT, Bone.METATARSAL_4_RIGHT, Bone.METATARSAL_5_RIGHT
+    };
+
+    private final IncrementalForwardKinematics fk;
+    private final JointTopology topology = JointRegistry.topology();
+    private final float[] masses;          // [ordinal]
+    private final float[] subtreeMasses;   // [ordinal]
+    private final float[] localCenters;    // [ordinal * 3 + xyz], bone frame
+    private final float[] weighted = new float[Skeleton.BONE_COUNT * 3];   // [ordinal * 3] m * world center
+    private final float[] subtree = new float[Skeleton.BONE_COUNT * 3];    // [ordinal * 3] sum of weighted over subtree
+    private final int[] roots;
+    private final float totalMass;
+    private final Vector3f center = new Vector3f();
+    private final IncrementalForwardKinematics.RangeListener listener = this::refresh;
+
+    // Support polygon: candidate points and hull, as x/z pairs
+    private final int[] leftFoot;
+    private final int[] rightFoot;
+    private boolean leftContact = true;
+    private boolean rightContact = true;
+    private final float[] points;
+    private final float[] hull;
+    private int hullSize;
+
+    /** Tracks {@code skeleton} with its cached {@link Skeleton#massProperties()}, starting in the bind pose. */
+    public CenterOfMassTracker(Skeleton skeleton) {
+        this(new ForwardKinematics(skeleton), skeleton.massProperties());
+    }
+
+    public CenterOfMassTracker(ForwardKinematics rig, MassProperties mass) {
+        this.fk = new IncrementalForwardKinematics(rig);
+        masses = new float[Skeleton.BONE_COUNT];
+        subtreeMasses = new float[Skeleton.BONE_COUNT];
+        localCenters = new float[Skeleton.BONE_COUNT * 3];
+        Vector3f local = new Vector3f();
+        float total = 0;
+        int rootCount = 0;
+        for (Bone bone : Skeleton.BONES) {
+            int b = bone.ordinal();
+            masses[b] = mass.mass(bone);
+            subtreeMasses[b] = mass.subtreeMass(bone);
+            mass.localCenterOfMass(bone, local);
+            localCenters[b * 3] = local.x;
+            localCenters[b * 3 + 1] = local.y;
+            localCenters[b * 3 + 2] = local.z;
+            total += masses[b];
+            if (topology.parent[b] == JointTopology.NONE) rootCount++;
+        }
+        totalMass = total;
+        roots = new int[rootCount];
+        for (int b = 0, r = 0; b < Skeleton.BONE_COUNT; b++) {
+            if (topology.parent[b] == JointTopology.NONE) roots[r++] = b;
+        }
+
+        leftFoot = present(rig, LEFT_FOOT);
+        rightFoot = present(rig, RIGHT_FOOT);
+        points = new float[(leftFoot.length + rightFoot.length) * 4];
+        hull = new float[points.length + 2];
+        update();
+    }
+
+    private static int[] present(ForwardKinematics rig, Bone[] bones) {
+        int count = 0;
+        for (Bone bone : bones) {
+            if ((rig.present[bone.ordinal() >>> 6] & (1L << bone.ordinal())) != 0) count++;
+        }
+        int[] ordinals = new int[count];
+        count = 0;
+        for (Bone bone : bones) {
+            if ((rig.present[bone.ordinal() >>> 6] & (1L << bone.ordinal())) != 0) ordinals[count++] = bone.ordinal();
+        }
+        return ordinals;
+    }
+
+    // ============================================================
+    // POSE EDITS
+    // ============================================================
+
+    public void setRotation(Bone bone, float x, float y, float z, float w) {
+        fk.setRotation(bone, x, y, z, w);
+    }
+
+    public void setRotation(Bone bone, Quaternionfc rotation) {
+        fk.setRotation(bone, rotation);
+    }
+
+    public void setPose(Pose pose) {
+        fk.setPose(pose);
+    }
+
+    /** Which feet count towards the support polygon; both by default. Takes effect at the next {@link #update()}. */
+    public void setFootContact(boolean left, boolean right) {
+        leftContact = left;
+        rightContact = right;
+    }
+
+    /** The underlying kinematics, e.g. for {@link IncrementalForwardKinematics#output()}. Edit the pose through this tracker. */
+    public IncrementalForwardKinematics kinematics() {
+        return fk;
+    }
+
+    // ============================================================
+    // UPDATE
+    // ============================================================
+
+    /**
+     * Brings transforms, centers of mass and the support polygon up to date with the pose.
+     *
+     * @return Number of bones whose transforms were recomputed
+     */
+    public int update() {
+        int recomputed = fk.update(listener);
+        if (recomputed > 0) {
+            float x = 0, y = 0, z = 0;
+            for (int root : roots) {
+                x += subtree[root * 3];
+                y += subtree[root * 3 + 1];
+                z += subtree[root * 3 + 2];
+            }
+            center.set(x / totalMass, y / totalMass, z / totalMass);
+        }
+        buildHull();
+        return recomputed;
+    }
+
+    // Positions [from, to) of the topological order were just recomputed: one whole subtree
+    private void refresh(int from, int to) {
+        float[] out = fk.output();
+        int[] order = topology.order;
+        for (int p = from; p < to; p++) {
+            int b = order[p];
+            int o = b * ForwardKinematics.STRIDE;
+            float qx = out[o], qy = out[o + 1], qz = out[o + 2], qw = out[o + 3];
+            float vx = localCenters[b * 3], vy = localCenters[b * 3 + 1], vz = localCenters[b * 3 + 2];
+            // world center = position + rotation * local center
+            float cx = 2 * (qy * vz - qz * vy);
+            float cy = 2 * (qz * vx - qx * vz);
+            float cz = 2 * (qx * vy - qy * vx);
+            float m = masses[b];
+            weighted[b * 3] = m * (out[o + 4] + vx + qw * cx + (qy * cz - qz * cy));
+            weighted[b * 3 + 1] = m * (out[o + 5] + vy + qw * cy + (qz * cx - qx * cz));
+            weighted[b * 3 + 2] = m * (out[o + 6] + vz + qw * cz + (qx * cy - qy * cx));
+        }
+        // Children follow their parent in preorder, so a backward sweep sees them first
+        for (int p = to - 1; p >= from; p--) {
+            sum(order[p]);
+        }
+        for (int a = topology.parent[order[from]]; a != JointTopology.NONE; a = topology.parent[a]) {
+            sum(a);
+        }
+    }
+
+    private void sum(int b) {
+        float x = weighted[b * 3], y = weighted[b * 3 + 1], z = weighted[b * 3 + 2];
+        for (int i = topology.childStart[b], end = topology.childStart[b + 1]; i < end; i++) {
+            int c = topology.children[i];
+            x += subtree[c * 3];
+            y += subtree[c * 3 + 1];
+            z += subtree[c * 3 + 2];
+        }
+        subtree[b * 3] = x;
+        subtree[b * 3 + 1] = y;
+        subtree[b * 3 + 2] = z;
+    }
+
+    // ============================================================
+    // CENTER OF MASS
+    // ============================================================
+
+    /** Whole-body center of mass in model space, as of the last {@link #update()}. */
+    public Vector3f centerOfMass(Vector3f dest) {
+        return dest.set(center);
+    }
+
+    public float totalMass() {
+        return totalMass;
+    }
+
+    /** Center of mass of {@code bone}'s subtree in model space; zero if the subtree is massless. */
+    public Vector3f subtreeCenterOfMass(Bone bone, Vector3f dest) {
+        int b = bone.ordinal();
+        float m = subtreeMasses[b];
+        return m > 0 ? dest.set(subtree[b * 3] / m, subtree[b * 3 + 1] / m, subtree[b * 3 + 2] / m) : dest.zero();
+    }
+
+    // ============================================================
+    // SUPPORT POLYGON
+    // ============================================================
+
+    private void buildHull() {
+        float[] out = fk.output();
+        int n = 0;
+        if (leftContact) n = addFoot(leftFoot, out, n);
+        if (rightContact) n = addFoot(rightFoot, out, n);
+
+        // Insertion sort by x then z; at most a few dozen points
+        for (int i = 1; i < n; i++) {
+            float x = points[i * 2], z = points[i * 2 + 1];
+            int j = i - 1;
+            while (j >= 0 && (points[j * 2] > x || points[j * 2] == x && points[j * 2 + 1] > z)) {
+                points[(j + 1) * 2] = points[j * 2];
+                points[(j + 1) * 2 + 1] = points[j * 2 + 1];
+                j--;
+            }
+            points[(j + 1) * 2] = x;
+            points[(j + 1) * 2 + 1] = z;
+        }
+
+        // Monotone chain: lower hull, then upper hull, counter-clockwise
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            k = push(k, 2, i);
+        }
+        for (int i = n - 2, lower = k + 1; i >= 0; i--) {
+            k = push(k, lower, i);
+        }
+        hullSize = n < 3 ? Math.min(n, k) : k - 1;
+    }
+
+    private int push(int k, int min, int i) {
+        float x = points[i * 2], z = points[i * 2 + 1];
+        while (k >= min && cross(hull[(k - 2) * 2], hull[(k - 2) * 2 + 1], hull[(k - 1) * 2], hull[(k - 1) * 2 + 1], x, z) <= 0) {
+            k--;
+        }
+        hull[k * 2] = x;
+        hull[k * 2 + 1] = z;
+        return k + 1;
+    }
+
+    private static float cross(float ax, float az, float bx, float bz, float cx, float cz) {
+        return (bx - ax) * (cz - az) - (bz - az) * (cx - ax);
+    }
+
+    private int addFoot(int[] foot, float[] out, int n) {
+        for (int b : foot) {
+            int o = b * ForwardKinematics.STRIDE;
+            points[n * 2] = out[o + 4];
+            points[n * 2 + 1] = out[o + 6];
+            n++;
+            float m = masses[b];
+            if (m > 0) {
+                points[n * 2] = weighted[b * 3] / m;
+                points[n * 2 + 1] = weighted[b * 3 + 2] / m;
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Writes the support polygon's vertices as x/z pairs, counter-clockwise, into {@code dest}.
+     *
+     * @return Number of vertices
+     */
+    public int supportPolygon(float[] dest) {
+        System.arraycopy(hull, 0, dest, 0, hullSize * 2);
+        return hullSize;
+    }
+
+    /**
+     * Signed distance in meters from the ground projection of the center of mass to the nearest
+     * support polygon edge: positive inside, negative outside. Negative infinity with no foot in contact.
+     */
+    public float supportMargin() {
+        if (hullSize == 0) return Float.NEGATIVE_INFINITY;
+        float px = center.x, pz = center.z;
+        if (hullSize == 1) return -(float) Math.hypot(px - hull[0], pz - hull[1]);
+        float inside = Float.POSITIVE_INFINITY;
+        float outside = Float.POSITIVE_INFINITY;
+        boolean out = hullSize < 3;
+        for (int i = 0; i < hullSize; i++) {
+            int j = (i + 1) % hullSize;
+            float ax = hull[i * 2], az = hull[i * 2 + 1], bx = hull[j * 2], bz = hull[j * 2 + 1];
+            float ex = bx - ax, ez = bz - az;
+            float length = (float) Math.sqrt(ex * ex + ez * ez);
+            if (length == 0) continue;
+            float side = cross(ax, az, bx, bz, px, pz) / length;
+            if (side < 0) out = true;
+            inside = Math.min(inside, side);
+            // Distance to the segment, for points outside
+            float t = Math.clamp(((px - ax) * ex + (pz - az) * ez) / (length * length), 0f, 1f);
+            outside = Math.min(outside, (float) Math.hypot(px - ax - t * ex, pz - az - t * ez));
+        }
+        return out ? -outside : inside;
+    }
+
+    /** True if the center of mass projects inside the support polygon. */
+    public boolean isSupported() {
+        return supportMargin() > 0;
+    }
+}
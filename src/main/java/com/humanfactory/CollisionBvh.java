@@ -0,0 +1,584 @@
+package com.humanfactory;
+
+import org.joml.Matrix3f;
+import org.joml.Quaternionf;
+import org.joml.Quaternionfc;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bounding volume hierarchy over the posed collision shapes of one skeleton.
+ * <p>
+ * Every {@link BoneShape} is treated as a rounded box: a box of half extents {@code e} grown by
+ * a radius {@code r}. A box has {@code r = 0}, a sphere has {@code e = 0}, and a capsule has
+ * {@code e = (0, h, 0)} along its local Y. Shapes are posed from {@link ForwardKinematics}
+ * output and stored as flat arrays. The tree is a binary tree, one shape per leaf, in preorder
+ * (a node's left child is the next node).
+ * <p>
+ * {@link #refit} re-poses the shapes and recomputes node bounds bottom-up. It keeps the tree
+ * topology and costs one pass over shapes and nodes. {@link #rebuild} also re-splits the shapes
+ * along the axis of largest spread. Use it when a pose has moved far from the one the tree was
+ * built for. Neither one allocates, and neither do the queries.
+ * An instance is not thread-safe; give each character its own.
+ */
+public final class CollisionBvh {
+
+    private static final byte SPHERE = 0;
+    private static final byte CAPSULE = 1;
+    private static final byte BOX = 2;
+    private static final float MISS = Float.POSITIVE_INFINITY;
+    // Ray direction components below this are treated as parallel to a box slab
+    private static final float PARALLEL = 1e-12f;
+
+    private final int shapeCount;
+    private final int nodeCount;
+    private final int[] bones;              // Bone ordinal per shape
+    private final byte[] kinds;
+    private final float[] localOffsets;     // [s * 3]
+    private final float[] localRotations;   // [s * 4] xyzw
+    private final float[] sizes;            // [s * 4] radius, half extents xyz
+
+    // Posed shapes: center and rotation matrix columns (local X, Y, Z axes in world space)
+    private final float[] centers;          // [s * 3]
+    private final float[] basis;            // [s * 9]
+    private final float[] shapeBounds;      // [s * 6] min xyz, max xyz
+
+    // Nodes: bounds, and right child index, or ~shape for a leaf
+    private final float[] nodeBounds;       // [n * 6]
+    private final int[] nodeChild;
+    private final int[] order;              // Shape permutation while building
+    private final int[] stack = new int[64];
+
+    private final Quaternionf boneRotation = new Quaternionf();
+    private final Quaternionf shapeRotation = new Quaternionf();
+    private final Vector3f offset = new Vector3f();
+    private final Matrix3f matrix = new Matrix3f();
+
+    // Surface point written by distance()
+    private float surfaceX, surfaceY, surfaceZ;
+    private float lastDistance = Float.NaN;
+
+    /** Collects the skeleton's collision shapes and builds the tree for the bind pose. */
+    public CollisionBvh(Skeleton skeleton) {
+        int count = 0;
+        for (Bone bone : Skeleton.BONES) {
+            if (skeleton.contains(bone)) count += skeleton.collisionShapes(bone).size();
+        }
+        shapeCount = count;
+        nodeCount = Math.max(0, 2 * count - 1);
+        bones = new int[count];
+        kinds = new byte[count];
+        localOffsets = new float[count * 3];
+        localRotations = new float[count * 4];
+        sizes = new float[count * 4];
+        centers = new float[count * 3];
+        basis = new float[count * 9];
+        shapeBounds = new float[count * 6];
+        nodeBounds = new float[nodeCount * 6];
+        nodeChild = new int[nodeCount];
+        order = new int[count];
+
+        int s = 0;
+        for (Bone bone : Skeleton.BONES) {
+            if (!skeleton.contains(bone)) continue;
+            List<BoneShape> shapes = skeleton.collisionShapes(bone);
+            for (BoneShape shape : shapes) {
+                bones[s] = bone.ordinal();
+                add(s++, shape);
+            }
+        }
+
+        float[] world = ForwardKinematics.newOutput();
+        new ForwardKinematics(skeleton).evaluate(new Pose(), world);
+        rebuild(world);
+    }
+
+    private void add(int s, BoneShape shape) {
+        Vector3fc at;
+        Quaternionfc rotation;
+        switch (shape) {
+            case BoneShape.Sphere sphere -> {
+                kinds[s] = SPHERE;
+                sizes[s * 4] = sphere.radius();
+                at = sphere.offset();
+                rotation = shapeRotation.identity();
+            }
+            case BoneShape.Capsule capsule -> {
+                kinds[s] = CAPSULE;
+                sizes[s * 4] = capsule.radius();
+                sizes[s * 4 + 2] = Math.max(0f, capsule.length() * 0.5f - capsule.radius());
+                at = capsule.offset();
+                rotation = capsule.rotation();
+            }
+            case BoneShape.Box box -> {
+                kinds[s] = BOX;
+                sizes[s * 4 + 1] = box.halfExtents().x();
+                sizes[s * 4 + 2] = box.halfExtents().y();
+                sizes[s * 4 + 3] = box.halfExtents().z();
+                at = box.offset();
+                rotation = box.rotation();
+            }
+        }
+        localOffsets[s * 3] = at.x();
+        localOffsets[s * 3 + 1] = at.y();
+        localOffsets[s * 3 + 2] = at.z();
+        localRotations[s * 4] = rotation.x();
+        localRotations[s * 4 + 1] = rotation.y();
+        localRotations[s * 4 + 2] = rotation.z();
+        localRotations[s * 4 + 3] = rotation.w();
+    }
+
+    public int shapeCount() {
+        return shapeCount;
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    // ============================================================
+    // BUILD & REFIT
+    // ============================================================
+
+    /**
+     * Re-poses every shape from {@code world} ({@link ForwardKinematics} output) and refits
+     * node bounds, keeping the current tree topology.
+     */
+    public void refit(float[] world) {
+        poseShapes(world);
+        refitNodes();
+    }
+
+    /** Re-poses every shape from {@code world} and rebuilds the tree topology for that pose. */
+    public void rebuild(float[] world) {
+        poseShapes(world);
+        for (int s = 0; s < shapeCount; s++) order[s] = s;
+        if (shapeCount > 0) build(0, 0, shapeCount);
+        refitNodes();
+    }
+
+    private void poseShapes(float[] world) {
+        for (int s = 0; s < shapeCount; s++) {
+            int w = bones[s] * ForwardKinematics.STRIDE;
+            int c = s * 3;
+            int m = s * 9;
+            boneRotation.set(world[w], world[w + 1], world[w + 2], world[w + 3]);
+            boneRotation.transform(localOffsets[c], localOffsets[c + 1], localOffsets[c + 2], offset);
+            float cx = world[w + 4] + offset.x;
+            float cy = world[w + 5] + offset.y;
+            float cz = world[w + 6] + offset.z;
+            centers[c] = cx;
+            centers[c + 1] = cy;
+            centers[c + 2] = cz;
+
+            int q = s * 4;
+            shapeRotation.set(localRotations[q], localRotations[q + 1], localRotations[q + 2], localRotations[q + 3])
+                .premul(boneRotation).get(matrix);
+            basis[m] = matrix.m00;
+            basis[m + 1] = matrix.m01;
+            basis[m + 2] = matrix.m02;
+            basis[m + 3] = matrix.m10;
+            basis[m + 4] = matrix.m11;
+            basis[m + 5] = matrix.m12;
+            basis[m + 6] = matrix.m20;
+            basis[m + 7] = matrix.m21;
+            basis[m + 8] = matrix.m22;
+
+            float r = sizes[q];
+            float ex = sizes[q + 1];
+            float ey = sizes[q + 2];
+            float ez = sizes[q + 3];
+            float hx = Math.abs(basis[m]) * ex + Math.abs(basis[m + 3]) * ey + Math.abs(basis[m + 6]) * ez + r;
+            float hy = Math.abs(basis[m + 1]) * ex + Math.abs(basis[m + 4]) * ey + Math.abs(basis[m + 7]) * ez + r;
+            float hz = Math.abs(basis[m + 2]) * ex + Math.abs(basis[m + 5]) * ey + Math.abs(basis[m + 8]) * ez + r;
+            int b = s * 6;
+            shapeBounds[b] = cx - hx;
+            shapeBounds[b + 1] = cy - hy;
+            shapeBounds[b + 2] = cz - hz;
+            shapeBounds[b + 3] = cx + hx;
+            shapeBounds[b + 4] = cy + hy;
+            shapeBounds[b + 5] = cz + hz;
+        }
+    }
+
+    /** Lays out {@code order[from..to)} from {@code node} in preorder; returns the next free node. */
+    private int build(int node, int from, int to) {
+        if (to - from == 1) {
+            nodeChild[node] = ~order[from];
+            return node + 1;
+        }
+        float minX = Float.POSITIVE_INFINITY, minY = minX, minZ = minX;
+        float maxX = Float.NEGATIVE_INFINITY, maxY = maxX, maxZ = maxX;
+        for (int i = from; i < to; i++) {
+            int c = order[i] * 3;
+            minX = Math.min(minX, centers[c]);
+            maxX = Math.max(maxX, centers[c]);
+            minY = Math.min(minY, centers[c + 1]);
+            maxY = Math.max(maxY, centers[c + 1]);
+            minZ = Math.min(minZ, centers[c + 2]);
+            maxZ = Math.max(maxZ, centers[c + 2]);
+        }
+        float spreadX = maxX - minX, spreadY = maxY - minY, spreadZ = maxZ - minZ;
+        int axis = spreadX >= spreadY && spreadX >= spreadZ ? 0 : spreadY >= spreadZ ? 1 : 2;
+
+        // Insertion sort by center along the axis; a few hundred shapes at most
+        for (int i = from + 1; i < to; i++) {
+            int shape = order[i];
+            float key = centers[shape * 3 + axis];
+            int j = i - 1;
+            while (j >= from && centers[order[j] * 3 + axis] > key) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = shape;
+        }
+
+        int mid = (from + to) >>> 1;
+        int right = build(node + 1, from, mid);
+        nodeChild[node] = right;
+        return build(right, mid, to);
+    }
+
+    private void refitNodes() {
+        // Children follow their parent in preorder, so one backward pass sees them first
+        for (int node = nodeCount - 1; node >= 0; node--) {
+            int o = node * 6;
+            int child = nodeChild[node];
+            if (child < 0) {
+                System.arraycopy(shapeBounds, ~child * 6, nodeBounds, o, 6);
+                continue;
+            }
+            int l = (node + 1) * 6;
+            int r = child * 6;
+            for (int k = 0; k < 3; k++) {
+                nodeBounds[o + k] = Math.min(nodeBounds[l + k], nodeBounds[r + k]);
+                nodeBounds[o + k + 3] = Math.max(nodeBounds[l + k + 3], nodeBounds[r + k + 3]);
+            }
+        }
+    }
+
+    /** World-space bounds of every shape; returns false, leaving the vectors alone, if there are none. */
+    public boolean bounds(Vector3f min, Vector3f max) {
+        if (nodeCount == 0) return false;
+        min.set(nodeBounds[0], nodeBounds[1], nodeBounds[2]);
+        max.set(nodeBounds[3], nodeBounds[4], nodeBounds[5]);
+        return true;
+    }
+
+    /** Writes {@link #bounds(Vector3f, Vector3f)} as min xyz, max xyz into {@code dest[offset..offset+5]}. */
+    public boolean bounds(float[] dest, int offset) {
+        if (nodeCount == 0) return false;
+        System.arraycopy(nodeBounds, 0, dest, offset, 6);
+        return true;
+    }
+
+    // ============================================================
+    // QUERIES
+    // ============================================================
+
+    /**
+     * Casts a ray and returns the bone owning the nearest shape it hits within {@code maxDistance},
+     * or null. A ray starting inside a shape hits it at distance 0.
+     *
+     * @param hitPoint Receives the hit point when there is a hit; may be null
+     * @throws IllegalArgumentException if {@code direction} has zero length
+     */
+    public Bone raycast(Vector3fc origin, Vector3fc direction, float maxDistance, Vector3f hitPoint) {
+        float length = direction.length();
+        if (!(length > 0)) throw new IllegalArgumentException("Ray direction must be non-zero");
+        float ox = origin.x(), oy = origin.y(), oz = origin.z();
+        float dx = direction.x() / length, dy = direction.y() / length, dz = direction.z() / length;
+        float ix = 1 / dx, iy = 1 / dy, iz = 1 / dz;
+
+        float best = maxDistance;
+        int hit = -1;
+        int top = 0;
+        if (nodeCount > 0 && rayNode(0, ox, oy, oz, ix, iy, iz) <= best) stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            int child = nodeChild[node];
+            if (child < 0) {
+                float t = rayShape(~child, ox, oy, oz, dx, dy, dz);
+                if (t <= best) {
+                    best = t;
+                    hit = ~child;
+                }
+                continue;
+            }
+            float near = rayNode(node + 1, ox, oy, oz, ix, iy, iz);
+            float far = rayNode(child, ox, oy, oz, ix, iy, iz);
+            int first = node + 1;
+            if (far < near) {
+                float t = near;
+                near = far;
+                far = t;
+                first = child;
+                child = node + 1;
+            }
+            // Push the farther child first so the nearer one is visited first
+            if (far <= best) stack[top++] = child;
+            if (near <= best) stack[top++] = first;
+        }
+
+        if (hit < 0) {
+            lastDistance = Float.NaN;
+            return null;
+        }
+        lastDistance = best;
+        if (hitPoint != null) hitPoint.set(ox + dx * best, oy + dy * best, oz + dz * best);
+        return Skeleton.BONES[bones[hit]];
+    }
+
+    /**
+     * Returns the bone owning the shape whose surface is nearest to {@code point}, within
+     * {@code maxDistance}, or null. Distances are signed, negative inside a shape. A point
+     * inside several shapes reports the deepest one.
+     *
+     * @param dest Receives the nearest surface point when a bone is returned; may be null
+     */
+    public Bone closestPoint(Vector3fc point, float maxDistance, Vector3f dest) {
+        float px = point.x(), py = point.y(), pz = point.z();
+        float best = maxDistance;
+        float bestX = 0, bestY = 0, bestZ = 0;
+        int hit = -1;
+        int top = 0;
+        if (nodeCount > 0) stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            // Box distance is a lower bound for anything outside; inside a shape keep searching for deeper ones
+            if (nodeDistance(node, px, py, pz) > Math.max(best, 0f)) continue;
+            int child = nodeChild[node];
+            if (child < 0) {
+                float d = distance(~child, px, py, pz);
+                if (d <= best) {
+                    best = d;
+                    hit = ~child;
+                    bestX = surfaceX;
+                    bestY = surfaceY;
+                    bestZ = surfaceZ;
+                }
+                continue;
+            }
+            if (nodeDistance(child, px, py, pz) < nodeDistance(node + 1, px, py, pz)) {
+                stack[top++] = node + 1;
+                stack[top++] = child;
+            } else {
+                stack[top++] = child;
+                stack[top++] = node + 1;
+            }
+        }
+
+        if (hit < 0) {
+            lastDistance = Float.NaN;
+            return null;
+        }
+        lastDistance = best;
+        if (dest != null) dest.set(bestX, bestY, bestZ);
+        return Skeleton.BONES[bones[hit]];
+    }
+
+    /**
+     * Collects the bones with at least one shape overlapping the sphere.
+     *
+     * @param mask Overwritten with one bit per overlapping bone, indexed by ordinal; at least
+     *             {@code (Bone.values().length + 63) / 64} words
+     * @return Number of overlapping shapes
+     */
+    public int overlapSphere(Vector3fc center, float radius, long[] mask) {
+        Arrays.fill(mask, 0, Skeleton.PRESENCE_WORDS, 0L);
+        return overlap(center, radius, mask);
+    }
+
+    /** Whether any shape overlaps the sphere. */
+    public boolean overlapsSphere(Vector3fc center, float radius) {
+        return overlap(center, radius, null) > 0;
+    }
+
+    private int overlap(Vector3fc center, float radius, long[] mask) {
+        float px = center.x(), py = center.y(), pz = center.z();
+        int count = 0;
+        int top = 0;
+        if (nodeCount > 0) stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (nodeDistance(node, px, py, pz) > radius) continue;
+            int child = nodeChild[node];
+            if (child >= 0) {
+                stack[top++] = child;
+                stack[top++] = node + 1;
+            } else if (distance(~child, px, py, pz) <= radius) {
+                if (mask == null) return 1;
+                int b = bones[~child];
+                mask[b >>> 6] |= 1L << b;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /** Distance found by the last {@link #raycast} or {@link #closestPoint}; NaN if it found nothing. */
+    public float lastDistance() {
+        return lastDistance;
+    }
+
+    // ============================================================
+    // KERNELS
+    // ============================================================
+
+    /** Ray entry distance into a node's bounds, or {@link #MISS}. */
+    private float rayNode(int node, float ox, float oy, float oz, float ix, float iy, float iz) {
+        int o = node * 6;
+        float t1 = (nodeBounds[o] - ox) * ix, t2 = (nodeBounds[o + 3] - ox) * ix;
+        float near = Math.min(t1, t2), far = Math.max(t1, t2);
+        t1 = (nodeBounds[o + 1] - oy) * iy;
+        t2 = (nodeBounds[o + 4] - oy) * iy;
+        near = Math.max(near, Math.min(t1, t2));
+        far = Math.min(far, Math.max(t1, t2));
+        t1 = (nodeBounds[o + 2] - oz) * iz;
+        t2 = (nodeBounds[o + 5] - oz) * iz;
+        near = Math.max(near, Math.min(t1, t2));
+        far = Math.min(far, Math.max(t1, t2));
+        return far >= Math.max(near, 0f) ? Math.max(near, 0f) : MISS;
+    }
+
+    /** Distance from a point to a node's bounds; 0 inside. */
+    private float nodeDistance(int node, float px, float py, float pz) {
+        int o = node * 6;
+        float dx = Math.max(0f, Math.max(nodeBounds[o] - px, px - nodeBounds[o + 3]));
+        float dy = Math.max(0f, Math.max(nodeBounds[o + 1] - py, py - nodeBounds[o + 4]));
+        float dz = Math.max(0f, Math.max(nodeBounds[o + 2] - pz, pz - nodeBounds[o + 5]));
+        return (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    /** Ray entry distance into one posed shape, {@code d} unit length, or {@link #MISS}. */
+    float rayShape(int s, float ox, float oy, float oz, float dx, float dy, float dz) {
+        int c = s * 3;
+        int m = s * 9;
+        int q = s * 4;
+        // Into the shape's frame: project onto its axes
+        float wx = ox - centers[c], wy = oy - centers[c + 1], wz = oz - centers[c + 2];
+        float lx = basis[m] * wx + basis[m + 1] * wy + basis[m + 2] * wz;
+        float ly = basis[m + 3] * wx + basis[m + 4] * wy + basis[m + 5] * wz;
+        float lz = basis[m + 6] * wx + basis[m + 7] * wy + basis[m + 8] * wz;
+        float ux = basis[m] * dx + basis[m + 1] * dy + basis[m + 2] * dz;
+        float uy = basis[m + 3] * dx + basis[m + 4] * dy + basis[m + 5] * dz;
+        float uz = basis[m + 6] * dx + basis[m + 7] * dy + basis[m + 8] * dz;
+        float r = sizes[q];
+        return switch (kinds[s]) {
+            case SPHERE -> raySphere(lx, ly, lz, ux, uy, uz, r);
+            case CAPSULE -> rayCapsule(lx, ly, lz, ux, uy, uz, sizes[q + 2], r);
+            default -> rayBox(lx, ly, lz, ux, uy, uz, sizes[q + 1], sizes[q + 2], sizes[q + 3]);
+        };
+    }
+
+    private static float raySphere(float ox, float oy, float oz, float dx, float dy, float dz, float r) {
+        float c = ox * ox + oy * oy + oz * oz - r * r;
+        if (c <= 0) return 0;
+        float b = ox * dx + oy * dy + oz * dz;
+        if (b > 0) return MISS;
+        float h = b * b - c;
+        return h < 0 ? MISS : -b - (float) Math.sqrt(h);
+    }
+
+    private static float rayCapsule(float ox, float oy, float oz, float dx, float dy, float dz, float h, float r) {
+        float gy = oy - Math.clamp(oy, -h, h);
+        if (ox * ox + gy * gy + oz * oz <= r * r) return 0;
+        // Side of the infinite cylinder about Y; the end spheres lie inside it, so a side entry
+        // within the segment comes first, and otherwise the ray enters through an end sphere
+        float a = dx * dx + dz * dz;
+        if (a > PARALLEL) {
+            float b = ox * dx + oz * dz;
+            float c = ox * ox + oz * oz - r * r;
+            float disc = b * b - a * c;
+            if (disc < 0) return MISS;
+            float t = (-b - (float) Math.sqrt(disc)) / a;
+            float y = oy + t * dy;
+            if (t >= 0 && y >= -h && y <= h) return t;
+        }
+        return Math.min(raySphere(ox, oy - h, oz, dx, dy, dz, r), raySphere(ox, oy + h, oz, dx, dy, dz, r));
+    }
+
+    private static float rayBox(float ox, float oy, float oz, float dx, float dy, float dz,
+                                float ex, float ey, float ez) {
+        if (Math.abs(ox) <= ex && Math.abs(oy) <= ey && Math.abs(oz) <= ez) return 0;
+        float near = Float.NEGATIVE_INFINITY, far = Float.POSITIVE_INFINITY;
+        if (Math.abs(dx) > PARALLEL) {
+            float t1 = (-ex - ox) / dx, t2 = (ex - ox) / dx;
+            near = Math.max(near, Math.min(t1, t2));
+            far = Math.min(far, Math.max(t1, t2));
+        } else if (Math.abs(ox) > ex) {
+            return MISS;
+        }
+        if (Math.abs(dy) > PARALLEL) {
+            float t1 = (-ey - oy) / dy, t2 = (ey - oy) / dy;
+            near = Math.max(near, Math.min(t1, t2));
+            far = Math.min(far, Math.max(t1, t2));
+        } else if (Math.abs(oy) > ey) {
+            return MISS;
+        }
+        if (Math.abs(dz) > PARALLEL) {
+            float t1 = (-ez - oz) / dz, t2 = (ez - oz) / dz;
+            near = Math.max(near, Math.min(t1, t2));
+            far = Math.min(far, Math.max(t1, t2));
+        } else if (Math.abs(oz) > ez) {
+            return MISS;
+        }
+        return near >= 0 && near <= far ? near : MISS;
+    }
+
+    /**
+     * Signed distance from a point to one posed shape; the nearest surface point goes to
+     * {@code surfaceX/Y/Z}.
+     */
+    float distance(int s, float px, float py, float pz) {
+        int c = s * 3;
+        int m = s * 9;
+        int q = s * 4;
+        float wx = px - centers[c], wy = py - centers[c + 1], wz = pz - centers[c + 2];
+        float lx = basis[m] * wx + basis[m + 1] * wy + basis[m + 2] * wz;
+        float ly = basis[m + 3] * wx + basis[m + 4] * wy + basis[m + 5] * wz;
+        float lz = basis[m + 6] * wx + basis[m + 7] * wy + basis[m + 8] * wz;
+        float r = sizes[q], ex = sizes[q + 1], ey = sizes[q + 2], ez = sizes[q + 3];
+
+        // Nearest point of the core box, then out along the gap by the radius
+        float cx = Math.clamp(lx, -ex, ex), cy = Math.clamp(ly, -ey, ey), cz = Math.clamp(lz, -ez, ez);
+        float gx = lx - cx, gy = ly - cy, gz = lz - cz;
+        float gap = (float) Math.sqrt(gx * gx + gy * gy + gz * gz);
+        float sx, sy, sz, d;
+        if (gap > 0) {
+            float k = r / gap;
+            sx = cx + gx * k;
+            sy = cy + gy * k;
+            sz = cz + gz * k;
+            d = gap - r;
+        } else {
+            // Inside the core box: leave through the nearest face
+            float inX = ex - Math.abs(lx), inY = ey - Math.abs(ly), inZ = ez - Math.abs(lz);
+            sx = lx;
+            sy = ly;
+            sz = lz;
+            if (inX <= inY && inX <= inZ) {
+                sx = Math.copySign(ex + r, lx);
+                d = -inX - r;
+            } else if (inY <= inZ) {
+                sy = Math.copySign(ey + r, ly);
+                d = -inY - r;
+            } else {
+                sz = Math.copySign(ez + r, lz);
+                d = -inZ - r;
+            }
+        }
+        surfaceX = centers[c] + basis[m] * sx + basis[m + 3] * sy + basis[m + 6] * sz;
+        surfaceY = centers[c + 1] + basis[m + 1] * sx + basis[m + 4] * sy + basis[m + 7] * sz;
+        surfaceZ = centers[c + 2] + basis[m + 2] * sx + basis[m + 5] * sy + basis[m + 8] * sz;
+        return d;
+    }
+
+    /** Bone ordinal owning shape {@code s}, in the order shapes were collected. */
+    int shapeBone(int s) {
+        return bones[s];
+    }
+}
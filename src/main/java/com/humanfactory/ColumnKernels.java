@@ -0,0 +1,31 @@
+package com.humanfactory;
+
+/**
+ * Whole-column arithmetic for {@link SkeletonColumns}.
+ * Dispatches to {@link VectorKernels} when the {@code jdk.incubator.vector} module is
+ * resolved (run with {@code --add-modules jdk.incubator.vector}) and to plain loops otherwise.
+ * Both paths perform the same IEEE float operation per element, so results are bit-identical.
+ */
+final class ColumnKernels {
+
+    static final boolean VECTORIZED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private ColumnKernels() {
+    }
+
+    /** {@code dest[i] = src[i] * factor} for {@code i < count}. */
+    static void scale(float[] src, float factor, float[] dest, int count) {
+        if (VECTORIZED) {
+            // Only resolved on this branch, so the class never loads without the module
+            VectorKernels.scale(src, factor, dest, count);
+        } else {
+            scaleScalar(src, factor, dest, count);
+        }
+    }
+
+    static void scaleScalar(float[] src, float factor, float[] dest, int count) {
+        for (int i = 0; i < count; i++) {
+            dest[i] = src[i] * factor;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.humanfactory;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Collision broadphase for a crowd of posed skeletons: finds the pairs whose bounding boxes
+ * overlap without testing every pair.
+ * <p>
+ * Boxes are bucketed in a sparse uniform grid over the ground (X/Z) plane. Every box is entered
+ * once per cell it touches, as a {@code long} key packing the cell and the body index. Keys are
+ * then sorted, so each cell's bodies are one contiguous run in ascending body order. A pair that
+ * shares several cells is reported only from the cell holding the minimum corner of the two
+ * boxes' intersection. This gives each pair exactly once, with no hash set. Insertion and the
+ * per-cell pair tests run on the given {@link ForkJoinPool}; key and pair sorting use
+ * {@link Arrays#parallelSort}. Pairs are sorted at the end, so the output is the same for any
+ * pool and any scheduling.
+ * <p>
+ * Reuse one instance per simulation; its arrays grow to the largest crowd seen. Not thread-safe.
+ */
+public final class CrowdBroadphase {
+
+    /** Default grid cell edge in meters: about one standing body's footprint with arms out. */
+    public static final float DEFAULT_CELL_SIZE = 2f;
+    /** Largest number of bodies one update can hold. */
+    public static final int MAX_BODIES = 1 << 24;
+
+    // Key layout: 20 bits cell x, 20 bits cell z, 24 bits body
+    private static final int BODY_BITS = 24;
+    private static final int CELL_BITS = 20;
+    private static final int CELL_BIAS = 1 << (CELL_BITS - 1);
+    private static final long BODY_MASK = (1L << BODY_BITS) - 1;
+    private static final long CELL_MASK = (1L << CELL_BITS) - 1;
+    // Below this many bodies (insertion) or cells (pairs) a slice runs on the current thread
+    private static final int SLICE = 1024;
+
+    private final float cellSize;
+    private final float inverseCell;
+    private final ForkJoinPool pool;
+
+    private float[] bounds = new float[0];
+    private int count;
+    private int[] firstEntry = new int[1];  // Prefix sums of cells per body
+    private long[] keys = new long[0];
+    private int entryCount;
+    private int[] cellStarts = new int[1];
+    private int cellCount;
+    private long[] pairs = new long[0];
+    private int pairCount;
+    private int[] hits = new int[0];
+
+    public CrowdBroadphase() {
+        this(DEFAULT_CELL_SIZE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param cellSize Grid cell edge in meters; a little larger than a typical body works best
+     * @throws IllegalArgumentException if {@code cellSize} is not positive
+     */
+    public CrowdBroadphase(float cellSize, ForkJoinPool pool) {
+        if (!(cellSize > 0)) throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+        this.cellSize = cellSize;
+        this.inverseCell = 1 / cellSize;
+        this.pool = pool;
+    }
+
+    public float cellSize() {
+        return cellSize;
+    }
+
+    // ============================================================
+    // INSERTION
+    // ============================================================
+
+    /**
+     * Replaces the crowd with {@code count} boxes and rebuilds the grid.
+     *
+     * @param bounds {@code [i * 6]} min xyz then max xyz of body {@code i}, e.g. from
+     *               {@link CollisionBvh#bounds(float[], int)}; copied, so it can be reused
+     * @throws IllegalArgumentException if {@code count} is negative, above {@link #MAX_BODIES},
+     *                                  or more than {@code bounds} holds
+     */
+    public void update(float[] bounds, int count) {
+        if (count < 0 || count > MAX_BODIES || count * 6L > bounds.length) {
+            throw new IllegalArgumentException("Invalid body count " + count + " for " + bounds.length + " floats");
+        }
+        if (this.bounds.length < count * 6) {
+            this.bounds = new float[count * 6];
+            firstEntry = new int[count + 1];
+        }
+        System.arraycopy(bounds, 0, this.bounds, 0, count * 6);
+        this.count = count;
+        pairCount = 0;
+
+        // Cells per body, then offsets; a sequential prefix sum is cheap next to the fill
+        ParallelRange.run(pool, count, SLICE, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int o = i * 6;
+                long cells = (long) (cell(this.bounds[o + 3]) - cell(this.bounds[o]) + 1)
+                    * (cell(this.bounds[o + 5]) - cell(this.bounds[o + 2]) + 1);
+                firstEntry[i + 1] = (int) Math.min(cells, Integer.MAX_VALUE);
+            }
+        });
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            total += firstEntry[i + 1];
+            if (total > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("Boxes span too many cells");
+            firstEntry[i + 1] = (int) total;
+        }
+        entryCount = (int) total;
+        if (keys.length < entryCount) keys = new long[entryCount];
+
+        ParallelRange.run(pool, count, SLICE, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int o = i * 6;
+                int x0 = cell(this.bounds[o]), x1 = cell(this.bounds[o + 3]);
+                int z0 = cell(this.bounds[o + 2]), z1 = cell(this.bounds[o + 5]);
+                int e = firstEntry[i];
+                for (int x = x0; x <= x1; x++) {
+                    for (int z = z0; z <= z1; z++) {
+                        keys[e++] = cellKey(x, z) | i;
+                    }
+                }
+            }
+        });
+        Arrays.parallelSort(keys, 0, entryCount);
+
+        // Runs of equal cell
+        if (cellStarts.length < entryCount + 1) cellStarts = new int[entryCount + 1];
+        cellCount = 0;
+        for (int e = 0; e < entryCount; e++) {
+            if (e == 0 || (keys[e] >>> BODY_BITS) != (keys[e - 1] >>> BODY_BITS)) cellStarts[cellCount++] = e;
+        }
+        cellStarts[cellCount] = entryCount;
+    }
+
+    public int bodyCount() {
+        return count;
+    }
+
+    /** Number of occupied grid cells after the last {@link #update}. */
+    public int occupiedCells() {
+        return cellCount;
+    }
+
+    // ============================================================
+    // PAIRS
+    // ============================================================
+
+    /**
+     * Finds every pair of bodies whose boxes overlap, each pair once, sorted by first then second
+     * body index with {@code first < second}.
+     *
+     * @return Number of pairs; read them with {@link #pairFirst} and {@link #pairSecond}
+     */
+    public int findPairs() {
+        pairCount = 0;
+        ParallelRange.run(pool, cellCount, Math.max(1, SLICE / 8), (from, to) -> {
+            long[] local = new long[64];
+            int found = 0;
+            for (int c = from; c < to; c++) {
+                int start = cellStarts[c], end = cellStarts[c + 1];
+                long cell = keys[start] >>> BODY_BITS;
+                for (int i = start; i < end; i++) {
+                    int a = (int) (keys[i] & BODY_MASK);
+                    for (int j = i + 1; j < end; j++) {
+                        int b = (int) (keys[j] & BODY_MASK);
+                        if (!owns(cell, a, b)) continue;
+                        if (found == local.length) local = Arrays.copyOf(local, found * 2);
+                        local[found++] = (long) a << 32 | b;
+                    }
+                }
+            }
+            if (found > 0) append(local, found);
+        });
+        Arrays.parallelSort(pairs, 0, pairCount);
+        return pairCount;
+    }
+
+    private synchronized void append(long[] found, int n) {
+        if (pairs.length < pairCount + n) pairs = Arrays.copyOf(pairs, Math.max(pairCount + n, pairs.length * 2));
+        System.arraycopy(found, 0, pairs, pairCount, n);
+        pairCount += n;
+    }
+
+    /** Whether boxes {@code a} and {@code b} overlap and {@code cell} holds their intersection's min corner. */
+    private boolean owns(long cell, int a, int b) {
+        int oa = a * 6, ob = b * 6;
+        float minX = Math.max(bounds[oa], bounds[ob]);
+        float minY = Math.max(bounds[oa + 1], bounds[ob + 1]);
+        float minZ = Math.max(bounds[oa + 2], bounds[ob + 2]);
+        if (minX > Math.min(bounds[oa + 3], bounds[ob + 3])
+            || minY > Math.min(bounds[oa + 4], bounds[ob + 4])
+            || minZ > Math.min(bounds[oa + 5], bounds[ob + 5])) {
+            return false;
+        }
+        return cellKey(cell(minX), cell(minZ)) >>> BODY_BITS == cell;
+    }
+
+    public int pairCount() {
+        return pairCount;
+    }
+
+    public int pairFirst(int i) {
+        return (int) (pair(i) >>> 32);
+    }
+
+    public int pairSecond(int i) {
+        return (int) pair(i);
+    }
+
+    private long pair(int i) {
+        if (i < 0 || i >= pairCount) throw new IndexOutOfBoundsException(i);
+        return pairs[i];
+    }
+
+    // ============================================================
+    // BOX QUERY
+    // ============================================================
+
+    /**
+     * Finds the bodies whose boxes overlap the given box, in ascending index order.
+     *
+     * @param dest Receives the first {@code dest.length} bodies
+     * @return Total number of overlapping bodies, which may exceed {@code dest.length}
+     */
+    public int query(float minX, float minY, float minZ, float maxX, float maxY, float maxZ, int[] dest) {
+        int found = 0;
+        for (int x = cell(minX), x1 = cell(maxX); x <= x1; x++) {
+            for (int z = cell(minZ), z1 = cell(maxZ); z <= z1; z++) {
+                long key = cellKey(x, z);
+                // First entry of the cell: keys sort by cell first, body second
+                int e = Arrays.binarySearch(keys, 0, entryCount, key);
+                if (e < 0) e = -e - 1;
+                for (; e < entryCount && (keys[e] & ~BODY_MASK) == key; e++) {
+                    int b = (int) (keys[e] & BODY_MASK);
+                    int o = b * 6;
+                    float lowX = Math.max(minX, bounds[o]);
+                    float lowZ = Math.max(minZ, bounds[o + 2]);
+                    // Report each body from one cell only, as for pairs
+                    if (lowX > Math.min(maxX, bounds[o + 3]) || lowZ > Math.min(maxZ, bounds[o + 5])
+                        || Math.max(minY, bounds[o + 1]) > Math.min(maxY, bounds[o + 4])
+                        || cell(lowX) != x || cell(lowZ) != z) {
+                        continue;
+                    }
+                    if (found == hits.length) hits = Arrays.copyOf(hits, Math.max(16, found * 2));
+                    hits[found++] = b;
+                }
+            }
+        }
+        Arrays.sort(hits, 0, found);
+        System.arraycopy(hits, 0, dest, 0, Math.min(found, dest.length));
+        return found;
+    }
+
+    // ============================================================
+    // CELLS
+    // ============================================================
+
+    /** Grid coordinate of {@code v}, clamped to the key's range; far-away boxes share edge cells. */
+    private int cell(float v) {
+        return Math.clamp((long) Math.floor(v * inverseCell), -CELL_BIAS, CELL_BIAS - 1);
+    }
+
+    private static long cellKey(int x, int z) {
+        return ((x + CELL_BIAS) & CELL_MASK) << (BODY_BITS + CELL_BITS) | ((z + CELL_BIAS) & CELL_MASK) << BODY_BITS;
+    }
+}
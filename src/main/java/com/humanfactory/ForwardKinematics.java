@@ -0,0 +1,179 @@
+package com.humanfactory;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Forward kinematics for one generated skeleton: turns a {@link Pose} into world transforms.
+ * <p>
+ * Output is a caller-owned {@code float[]} of {@link #STRIDE} floats per bone, indexed by
+ * {@link Bone#ordinal()}: rotation quaternion xyzw, then translation xyz, then one unused pad.
+ * Bones are evaluated in {@link JointTopology} order with plain float arithmetic, so
+ * {@link #evaluate} allocates nothing.
+ * <p>
+ * World rotation is {@code parentWorld * bindRotation * poseRotation}; world position is
+ * {@code parentPosition + parentWorld * bindPosition}. Bones the skeleton does not contain
+ * pass their parent's transform through unchanged, so children of an absent bone still
+ * attach to the nearest present ancestor.
+ */
+public final class ForwardKinematics {
+
+    /** Floats per bone in the output array. */
+    public static final int STRIDE = 8;
+
+    // Below this many characters a batch slice runs on the current thread
+    private static final int BATCH_SLICE = 8;
+
+    final JointTopology topology = JointRegistry.topology();
+    final long[] present = new long[Skeleton.PRESENCE_WORDS];
+    final float[] bindPositions = new float[Skeleton.BONE_COUNT * 3];
+    final float[] bindRotations = new float[Skeleton.BONE_COUNT * 4];
+
+    /** Binds to a generated skeleton; later changes to the source do not affect this instance. */
+    public ForwardKinematics(Skeleton skeleton) {
+        Vector3f position = new Vector3f();
+        Quaternionf rotation = new Quaternionf();
+        for (Bone bone : Skeleton.BONES) {
+            if (skeleton.contains(bone)) {
+                bind(bone, skeleton.bindPosition(bone, position), skeleton.bindRotation(bone, rotation));
+            }
+        }
+    }
+
+    /** Binds to the skeleton currently in {@code buffer}; the buffer can be reused afterwards. */
+    public ForwardKinematics(SkeletonBuffer buffer) {
+        Vector3f position = new Vector3f();
+        Quaternionf rotation = new Quaternionf();
+        for (Bone bone : Skeleton.BONES) {
+            if (buffer.contains(bone)) {
+                bind(bone, buffer.bindPosition(bone, position), buffer.bindRotation(bone, rotation));
+            }
+        }
+    }
+
+    private void bind(Bone bone, Vector3f position, Quaternionf rotation) {
+        int b = bone.ordinal();
+        present[b >>> 6] |= 1L << b;
+        bindPositions[b * 3] = position.x;
+        bindPositions[b * 3 + 1] = position.y;
+        bindPositions[b * 3 + 2] = position.z;
+        bindRotations[b * 4] = rotation.x;
+        bindRotations[b * 4 + 1] = rotation.y;
+        bindRotations[b * 4 + 2] = rotation.z;
+        bindRotations[b * 4 + 3] = rotation.w;
+    }
+
+    /** Allocates an output array large enough for every bone. */
+    public static float[] newOutput() {
+        return new float[Skeleton.BONE_COUNT * STRIDE];
+    }
+
+    // ============================================================
+    // EVALUATION
+    // ============================================================
+
+    /**
+     * Computes the world transform of every bone for {@code pose} into {@code out}.
+     */
+    public void evaluate(Pose pose, float[] out) {
+        int[] order = topology.order;
+        for (int p = 0; p < order.length; p++) {
+            evaluateBone(order[p], pose.rotations, out);
+        }
+    }
+
+    /**
+     * World transform of one bone from its parent's already evaluated transform.
+     */
+    void evaluateBone(int b, float[] local, float[] out) {
+        int parent = topology.parent[b];
+        // Parent world rotation and position; identity at a root
+        float px = 0, py = 0, pz = 0, pw = 1, tx = 0, ty = 0, tz = 0;
+        if (parent != JointTopology.NONE) {
+            int o = parent * STRIDE;
+            px = out[o];
+            py = out[o + 1];
+            pz = out[o + 2];
+            pw = out[o + 3];
+            tx = out[o + 4];
+            ty = out[o + 5];
+            tz = out[o + 6];
+        }
+
+        int o = b * STRIDE;
+        if ((present[b >>> 6] & (1L << b)) == 0) {
+            out[o] = px;
+            out[o + 1] = py;
+            out[o + 2] = pz;
+            out[o + 3] = pw;
+            out[o + 4] = tx;
+            out[o + 5] = ty;
+            out[o + 6] = tz;
+            return;
+        }
+
+        // position = parentPosition + parentRotation * bindPosition
+        float vx = bindPositions[b * 3];
+        float vy = bindPositions[b * 3 + 1];
+        float vz = bindPositions[b * 3 + 2];
+        float cx = 2 * (py * vz - pz * vy);
+        float cy = 2 * (pz * vx - px * vz);
+        float cz = 2 * (px * vy - py * vx);
+        out[o + 4] = tx + vx + pw * cx + (py * cz - pz * cy);
+        out[o + 5] = ty + vy + pw * cy + (pz * cx - px * cz);
+        out[o + 6] = tz + vz + pw * cz + (px * cy - py * cx);
+
+        // rotation = parentRotation * bindRotation * localRotation
+        int r = b * 4;
+        float bx = bindRotations[r], by = bindRotations[r + 1], bz = bindRotations[r + 2], bw = bindRotations[r + 3];
+        float mx = pw * bx + px * bw + py * bz - pz * by;
+        float my = pw * by - px * bz + py * bw + pz * bx;
+        float mz = pw * bz + px * by - py * bx + pz * bw;
+        float mw = pw * bw - px * bx - py * by - pz * bz;
+        float lx = local[r], ly = local[r + 1], lz = local[r + 2], lw = local[r + 3];
+        out[o] = mw * lx + mx * lw + my * lz - mz * ly;
+        out[o + 1] = mw * ly - mx * lz + my * lw + mz * lx;
+        out[o + 2] = mw * lz + mx * ly - my * lx + mz * lw;
+        out[o + 3] = mw * lw - mx * lx - my * ly - mz * lz;
+    }
+
+    // ============================================================
+    // BATCH
+    // ============================================================
+
+    /**
+     * Evaluates a crowd on the common {@link ForkJoinPool}: character {@code i} uses
+     * {@code rigs[i]}, {@code poses[i]} and writes {@code outs[i]}.
+     */
+    public static void evaluateBatch(ForwardKinematics[] rigs, Pose[] poses, float[][] outs) {
+        evaluateBatch(rigs, poses, outs, ForkJoinPool.commonPool());
+    }
+
+    /** Same as {@link #evaluateBatch(ForwardKinematics[], Pose[], float[][])} on {@code pool}. */
+    public static void evaluateBatch(ForwardKinematics[] rigs, Pose[] poses, float[][] outs, ForkJoinPool pool) {
+        if (poses.length != rigs.length || outs.length != rigs.length) {
+            throw new IllegalArgumentException("rigs, poses and outs must have the same length");
+        }
+        ParallelRange.run(pool, rigs.length, BATCH_SLICE, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                rigs[i].evaluate(poses[i], outs[i]);
+            }
+        });
+    }
+
+    // ============================================================
+    // OUTPUT ACCESS
+    // ============================================================
+
+    public static Vector3f worldPosition(float[] out, Bone bone, Vector3f dest) {
+        int o = bone.ordinal() * STRIDE + 4;
+        return dest.set(out[o], out[o + 1], out[o + 2]);
+    }
+
+    public static Quaternionf worldRotation(float[] out, Bone bone, Quaternionf dest) {
+        int o = bone.ordinal() * STRIDE;
+        return dest.set(out[o], out[o + 1], out[o + 2], out[o + 3]);
+    }
+}
@@ -0,0 +1,162 @@
+package com.humanfactory;
+
+import org.joml.Quaternionfc;
+
+import java.util.Arrays;
+
+/**
+ * Forward kinematics that only recomputes what changed.
+ * <p>
+ * Owns a pose and its world transforms. Rotation changes mark the bone dirty; {@link #update()}
+ * then re-evaluates exactly the subtrees under dirty bones. Subtrees are contiguous ranges of
+ * {@link JointTopology} order, so an update is one forward sweep over those ranges. Results are
+ * bit-identical to a full {@link ForwardKinematics#evaluate} of the same pose.
+ * Not thread-safe; use one instance per character.
+ */
+public final class IncrementalForwardKinematics {
+
+    private final ForwardKinematics rig;
+    private final JointTopology topology;
+    private final Pose pose = new Pose();
+    private final float[] out = ForwardKinematics.newOutput();
+    private final long[] dirty = new long[Skeleton.PRESENCE_WORDS];    // Bitset over topological positions
+
+    private int lastRecomputed;
+    private long totalRecomputed;
+    private long updates;
+
+    /** Starts in the bind pose; the first {@link #update()} evaluates every bone. */
+    public IncrementalForwardKinematics(ForwardKinematics rig) {
+        this.rig = rig;
+        this.topology = rig.topology;
+        markAll();
+    }
+
+    // ============================================================
+    // POSE EDITS
+    // ============================================================
+
+    /** Sets one local rotation; marks the bone dirty only if the value actually changed. */
+    public void setRotation(Bone bone, float x, float y, float z, float w) {
+        int i = bone.ordinal() * 4;
+        float[] r = pose.rotations;
+        if (same(r[i], x) && same(r[i + 1], y) && same(r[i + 2], z) && same(r[i + 3], w)) return;
+        r[i] = x;
+        r[i + 1] = y;
+        r[i + 2] = z;
+        r[i + 3] = w;
+        mark(bone.ordinal());
+    }
+
+    // Bitwise, so -0 vs 0 and NaN payloads still count as changes
+    private static boolean same(float a, float b) {
+        return Float.floatToRawIntBits(a) == Float.floatToRawIntBits(b);
+    }
+
+    public void setRotation(Bone bone, Quaternionfc rotation) {
+        setRotation(bone, rotation.x(), rotation.y(), rotation.z(), rotation.w());
+    }
+
+    /** Copies {@code source} into the owned pose, marking only the bones whose rotation differs. */
+    public void setPose(Pose source) {
+        float[] from = source.rotations;
+        for (int b = 0; b < Skeleton.BONE_COUNT; b++) {
+            int i = b * 4;
+            setRotation(Skeleton.BONES[b], from[i], from[i + 1], from[i + 2], from[i + 3]);
+        }
+    }
+
+    /** Read-only use: the current pose. Edit through {@link #setRotation} so changes are tracked. */
+    public Pose pose() {
+        return pose;
+    }
+
+    private void mark(int ordinal) {
+        int p = topology.position[ordinal];
+        dirty[p >>> 6] |= 1L << p;
+    }
+
+    private void markAll() {
+        for (int p = 0; p < Skeleton.BONE_COUNT; p++) {
+            dirty[p >>> 6] |= 1L << p;
+        }
+    }
+
+    // ============================================================
+    // UPDATE
+    // ============================================================
+
+    /**
+     * Brings the world transforms up to date with the pose.
+     *
+     * @return Number of bones recomputed
+     */
+    public int update() {
+        return update(null);
+    }
+
+    /** Receives each recomputed range of topological positions, after its transforms are written. */
+    @FunctionalInterface
+    interface RangeListener {
+        void recomputed(int from, int to);
+    }
+
+    /** {@link #update()} that reports recomputed ranges, in increasing order, to {@code listener} if not null. */
+    int update(RangeListener listener) {
+        int[] order = topology.order;
+        int[] subtreeEnd = topology.subtreeEnd;
+        float[] local = pose.rotations;
+        int recomputed = 0;
+        int p = nextDirty(0);
+        while (p >= 0) {
+            // The whole subtree is recomputed, so dirty bones inside it are covered too
+            int end = subtreeEnd[order[p]];
+            for (int q = p; q < end; q++) {
+                rig.evaluateBone(order[q], local, out);
+            }
+            recomputed += end - p;
+            if (listener != null) listener.recomputed(p, end);
+            p = nextDirty(end);
+        }
+        Arrays.fill(dirty, 0L);
+
+        lastRecomputed = recomputed;
+        totalRecomputed += recomputed;
+        updates++;
+        return recomputed;
+    }
+
+    private int nextDirty(int from) {
+        if (from >= Skeleton.BONE_COUNT) return -1;
+        int word = from >>> 6;
+        long bits = dirty[word] & (-1L << from);
+        while (true) {
+            if (bits != 0) return (word << 6) + Long.numberOfTrailingZeros(bits);
+            if (++word == dirty.length) return -1;
+            bits = dirty[word];
+        }
+    }
+
+    /** World transforms in {@link ForwardKinematics} layout. Current as of the last {@link #update()}. */
+    public float[] output() {
+        return out;
+    }
+
+    // ============================================================
+    // COUNTERS
+    // ============================================================
+
+    /** Bones recomputed by the last {@link #update()}. */
+    public int lastRecomputed() {
+        return lastRecomputed;
+    }
+
+    /** Bones recomputed over all updates. */
+    public long totalRecomputed() {
+        return totalRecomputed;
+    }
+
+    public long updates() {
+        return updates;
+    }
+}
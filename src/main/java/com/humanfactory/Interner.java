@@ -0,0 +1,81 @@
+package com.humanfactory;
+
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Bounded, lock-free table that maps equal values to one shared instance.
+ * <p>
+ * Two-way set-associative: a value hashes to a pair of slots holding the two most recently used
+ * values of that set, and a miss evicts the older one. Memory stays fixed however many distinct
+ * values pass through; a value that recurs in every skeleton stays resident, while a one-off
+ * value costs at most the slot it evicts. Values must be immutable and reached only through final
+ * fields, so an instance read from a slot another thread wrote is fully formed. Races may lose a
+ * slot update, which only costs some sharing: a returned instance always equals the argument.
+ */
+final class Interner<T> {
+
+    private final ToIntFunction<? super T> hash;
+    private final Object[] slots;
+    private final int[] hashes;     // Per slot, so most misses never touch the cached instance
+    private final int mask;
+
+    /**
+     * @param capacity Number of slots, a power of two of at least 2
+     */
+    Interner(int capacity) {
+        this(capacity, Object::hashCode);
+    }
+
+    /**
+     * @param capacity Number of slots, a power of two of at least 2
+     * @param hash     Hash consistent with {@link Object#equals}, for callers that {@link #find}
+     *                 values by their parts without building them
+     */
+    Interner(int capacity, ToIntFunction<? super T> hash) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two of at least 2: " + capacity);
+        }
+        this.hash = hash;
+        slots = new Object[capacity];
+        hashes = new int[capacity];
+        mask = capacity - 2;
+    }
+
+    /** The shared instance equal to {@code value}, installing {@code value} itself on a miss. */
+    T intern(T value) {
+        int h = hash.applyAsInt(value);
+        T cached = find(h, value::equals);
+        return cached != null ? cached : install(h, value);
+    }
+
+    /**
+     * The cached instance with hash {@code h} that {@code matches} accepts, or null.
+     * A hit becomes the most recently used value of its set.
+     */
+    @SuppressWarnings("unchecked")
+    T find(int h, Predicate<? super T> matches) {
+        int set = (h ^ h >>> 16) << 1 & mask;
+        Object recent = slots[set];
+        if (hashes[set] == h && recent != null && matches.test((T) recent)) return (T) recent;
+        Object older = slots[set + 1];
+        if (hashes[set + 1] == h && older != null && matches.test((T) older)) {
+            slots[set + 1] = recent;
+            hashes[set + 1] = hashes[set];
+            slots[set] = older;
+            hashes[set] = h;
+            return (T) older;
+        }
+        return null;
+    }
+
+    /** Makes {@code value}, with hash {@code h}, the most recently used value of its set and returns it. */
+    T install(int h, T value) {
+        int set = (h ^ h >>> 16) << 1 & mask;
+        slots[set + 1] = slots[set];
+        hashes[set + 1] = hashes[set];
+        slots[set] = value;
+        hashes[set] = h;
+        return value;
+    }
+}
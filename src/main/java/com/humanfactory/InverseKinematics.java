@@ -0,0 +1,233 @@
+package com.humanfactory;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Cyclic coordinate descent (CCD) solver for one joint chain of one character.
+ * <p>
+ * The chain runs from {@code root} down the {@link JointRegistry} hierarchy to {@code effector},
+ * e.g. {@code SCAPULA_LEFT} to {@code DISTAL_PHALANX_INDEX_FINGER_LEFT}. Each iteration sweeps
+ * from the joint nearest the effector back to the root, turning each joint so the effector's
+ * origin points at the target, then clamping that joint's local rotation to its
+ * {@link JointLimits} (pitch about X, yaw about Y, roll about Z, applied in XYZ order).
+ * Solving stops once the effector is within the tolerance or the iteration budget is spent.
+ * <p>
+ * All scratch state is allocated up front, so {@link #solve} allocates nothing. An instance is
+ * not thread-safe; give each character its own and use {@link #solveBatch} for crowds.
+ */
+public final class InverseKinematics {
+
+    public static final int DEFAULT_MAX_ITERATIONS = 16;
+    /** Default convergence distance in meters. */
+    public static final float DEFAULT_TOLERANCE = 1e-3f;
+
+    // Below this many characters a batch slice runs on the current thread
+    private static final int BATCH_SLICE = 8;
+    // Joint-to-point distances below this (squared meters) give no usable direction
+    private static final float MIN_LENGTH_SQUARED = 1e-12f;
+
+    private final ForwardKinematics rig;
+    private final int[] chain;      // Ordinals from root to effector
+    private final float[] limits;   // [i * 6] minPitch, maxPitch, minYaw, maxYaw, minRoll, maxRoll
+    private final int maxIterations;
+    private final float tolerance;
+
+    // Scratch: world transform of every chain bone, and of the root's parent
+    private final Quaternionf[] rotations;
+    private final Vector3f[] positions;
+    private final Quaternionf baseRotation = new Quaternionf();
+    private final Vector3f basePosition = new Vector3f();
+    private final Quaternionf local = new Quaternionf();
+    private final Quaternionf delta = new Quaternionf();
+    private final Quaternionf inverse = new Quaternionf();
+    private final Vector3f toEffector = new Vector3f();
+    private final Vector3f toTarget = new Vector3f();
+    private final Vector3f euler = new Vector3f();
+
+    private int lastIterations;
+    private float lastError;
+
+    public InverseKinematics(ForwardKinematics rig, Bone root, Bone effector) {
+        this(rig, root, effector, DEFAULT_MAX_ITERATIONS, DEFAULT_TOLERANCE);
+    }
+
+    /**
+     * @param maxIterations Upper bound on full sweeps per {@link #solve}
+     * @param tolerance     Effector-to-target distance, in meters, that counts as converged
+     * @throws IllegalArgumentException if {@code root} is not an ancestor of {@code effector}
+     */
+    public InverseKinematics(ForwardKinematics rig, Bone root, Bone effector, int maxIterations, float tolerance) {
+        JointTopology topology = rig.topology;
+        if (root == effector || !topology.isDescendant(effector, root)) {
+            throw new IllegalArgumentException(effector + " is not below " + root);
+        }
+        if (maxIterations < 0 || !(tolerance >= 0)) {
+            throw new IllegalArgumentException("maxIterations and tolerance must be non-negative");
+        }
+        this.rig = rig;
+        this.maxIterations = maxIterations;
+        this.tolerance = tolerance;
+
+        int length = topology.depth(effector.ordinal()) - topology.depth(root.ordinal()) + 1;
+        chain = new int[length];
+        for (int i = length - 1, b = effector.ordinal(); i >= 0; i--, b = topology.parent(b)) {
+            chain[i] = b;
+        }
+
+        limits = new float[length * 6];
+        rotations = new Quaternionf[length];
+        positions = new Vector3f[length];
+        for (int i = 0; i < length; i++) {
+            JointRegistry.Joint joint = JointRegistry.getJoint(Skeleton.BONES[chain[i]]);
+            JointLimits l = joint == null ? JointLimits.LOCKED : joint.limits();
+            limits[i * 6] = l.minPitch();
+            limits[i * 6 + 1] = l.maxPitch();
+            limits[i * 6 + 2] = l.minYaw();
+            limits[i * 6 + 3] = l.maxYaw();
+            limits[i * 6 + 4] = l.minRoll();
+            limits[i * 6 + 5] = l.maxRoll();
+            rotations[i] = new Quaternionf();
+            positions[i] = new Vector3f();
+        }
+    }
+
+    // ============================================================
+    // SOLVING
+    // ============================================================
+
+    /**
+     * Moves the chain's joints in {@code pose} so the effector's origin approaches {@code target}.
+     * Only the local rotations of chain joints other than the effector are written; re-run
+     * forward kinematics afterwards to refresh world transforms.
+     *
+     * @param world Current {@link ForwardKinematics} output for {@code pose}; only the root's parent is read
+     * @return True if the effector ended within the tolerance
+     */
+    public boolean solve(Pose pose, float[] world, Vector3fc target) {
+        int parent = rig.topology.parent(chain[0]);
+        if (parent == JointTopology.NONE) {
+            baseRotation.identity();
+            basePosition.zero();
+        } else {
+            int o = parent * ForwardKinematics.STRIDE;
+            baseRotation.set(world[o], world[o + 1], world[o + 2], world[o + 3]);
+            basePosition.set(world[o + 4], world[o + 5], world[o + 6]);
+        }
+        updateChain(pose, 0);
+
+        int end = chain.length - 1;
+        float error = positions[end].distance(target);
+        int iterations = 0;
+        while (error > tolerance && iterations < maxIterations) {
+            for (int j = end - 1; j >= 0; j--) {
+                int b = chain[j];
+                if (!present(b)) continue;
+                positions[end].sub(positions[j], toEffector);
+                toTarget.set(target).sub(positions[j]);
+                if (toEffector.lengthSquared() < MIN_LENGTH_SQUARED || toTarget.lengthSquared() < MIN_LENGTH_SQUARED) {
+                    continue;
+                }
+                // World-space turn D; in local terms L' = L * R^-1 * D * R, with R the joint's world rotation
+                delta.rotationTo(toEffector, toTarget);
+                pose.get(Skeleton.BONES[b], local);
+                Quaternionf jointRotation = rotations[j];
+                local.mul(delta.premul(inverse.set(jointRotation).conjugate()).mul(jointRotation));
+                clamp(local, j);
+                pose.set(Skeleton.BONES[b], local);
+                updateChain(pose, j);
+            }
+            error = positions[end].distance(target);
+            iterations++;
+        }
+        lastIterations = iterations;
+        lastError = error;
+        return error <= tolerance;
+    }
+
+    /** Recomputes world transforms of chain bones from index {@code from} on. */
+    private void updateChain(Pose pose, int from) {
+        float[] binds = rig.bindPositions;
+        float[] bindRotations = rig.bindRotations;
+        float[] locals = pose.rotations;
+        for (int i = from; i < chain.length; i++) {
+            Quaternionf parentRotation = i == 0 ? baseRotation : rotations[i - 1];
+            Vector3f parentPosition = i == 0 ? basePosition : positions[i - 1];
+            int b = chain[i];
+            if (!present(b)) {
+                rotations[i].set(parentRotation);
+                positions[i].set(parentPosition);
+                continue;
+            }
+            parentRotation.transform(binds[b * 3], binds[b * 3 + 1], binds[b * 3 + 2], positions[i]).add(parentPosition);
+            rotations[i].set(parentRotation)
+                .mul(bindRotations[b * 4], bindRotations[b * 4 + 1], bindRotations[b * 4 + 2], bindRotations[b * 4 + 3])
+                .mul(locals[b * 4], locals[b * 4 + 1], locals[b * 4 + 2], locals[b * 4 + 3]);
+        }
+    }
+
+    private void clamp(Quaternionf rotation, int joint) {
+        int l = joint * 6;
+        rotation.normalize().getEulerAnglesXYZ(euler);
+        rotation.rotationXYZ(
+            Math.clamp(euler.x, limits[l], limits[l + 1]),
+            Math.clamp(euler.y, limits[l + 2], limits[l + 3]),
+            Math.clamp(euler.z, limits[l + 4], limits[l + 5]));
+    }
+
+    private boolean present(int b) {
+        return (rig.present[b >>> 6] & (1L << b)) != 0;
+    }
+
+    /** Full sweeps used by the last {@link #solve}. */
+    public int lastIterations() {
+        return lastIterations;
+    }
+
+    /** Effector-to-target distance after the last {@link #solve}, in meters. */
+    public float lastError() {
+        return lastError;
+    }
+
+    /** Number of bones in the chain, root and effector included. */
+    public int chainLength() {
+        return chain.length;
+    }
+
+    // ============================================================
+    // BATCH
+    // ============================================================
+
+    /**
+     * Solves a crowd on the common {@link ForkJoinPool}: character {@code i} uses
+     * {@code solvers[i]}, {@code poses[i]}, {@code worlds[i]} and {@code targets[i]}.
+     * Solvers must be distinct instances.
+     *
+     * @return Number of characters that converged
+     */
+    public static int solveBatch(InverseKinematics[] solvers, Pose[] poses, float[][] worlds, Vector3fc[] targets) {
+        return solveBatch(solvers, poses, worlds, targets, ForkJoinPool.commonPool());
+    }
+
+    /** Same as {@link #solveBatch(InverseKinematics[], Pose[], float[][], Vector3fc[])} on {@code pool}. */
+    public static int solveBatch(InverseKinematics[] solvers, Pose[] poses, float[][] worlds, Vector3fc[] targets,
+                                 ForkJoinPool pool) {
+        int n = solvers.length;
+        if (poses.length != n || worlds.length != n || targets.length != n) {
+            throw new IllegalArgumentException("solvers, poses, worlds and targets must have the same length");
+        }
+        ParallelRange.run(pool, n, BATCH_SLICE, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                solvers[i].solve(poses[i], worlds[i], targets[i]);
+            }
+        });
+        int converged = 0;
+        for (InverseKinematics solver : solvers) {
+            if (solver.lastError <= solver.tolerance) converged++;
+        }
+        return converged;
+    }
+}
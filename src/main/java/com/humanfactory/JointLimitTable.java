@@ -0,0 +1,197 @@
+package com.humanfactory;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Every {@link JointRegistry} joint's {@link JointLimits} as parallel float columns, for clamping
+ * and checking whole batches of poses.
+ * <p>
+ * Poses are read in {@link Pose} layout: {@link #POSE_STRIDE} floats per skeleton, xyzw per bone
+ * by {@link Bone#ordinal()}, skeletons back to back in one array. Each limited bone's rotation is
+ * decomposed into XYZ Euler angles (pitch, yaw, roll; the same convention as JOML's
+ * {@code getEulerAnglesXYZ}/{@code rotationXYZ}), each angle is clamped to its column, and the
+ * rotation is rebuilt only if an angle moved. Rotations already within limits are left bit for
+ * bit untouched. The inner loop is the same for every {@link JointType}: a hinge is simply a row
+ * whose yaw and roll ranges are zero. Bones without a joint (roots) are not limited.
+ * <p>
+ * Input rotations are expected to be unit quaternions. Immutable and thread-safe; obtain the
+ * shared instance with {@link JointRegistry#limitTable()}.
+ */
+public final class JointLimitTable {
+
+    /** Floats per skeleton in a batch: one xyzw rotation per bone. */
+    public static final int POSE_STRIDE = Skeleton.BONE_COUNT * 4;
+
+    // Below this many skeletons a parallel slice runs on the current thread
+    private static final int PARALLEL_SLICE = 256;
+
+    // Row i describes bone ordinal bones[i]; rows follow ordinal order
+    final int[] bones;
+    final float[] minPitch;
+    final float[] maxPitch;
+    final float[] minYaw;
+    final float[] maxYaw;
+    final float[] minRoll;
+    final float[] maxRoll;
+
+    private JointLimitTable(int rows) {
+        bones = new int[rows];
+        minPitch = new float[rows];
+        maxPitch = new float[rows];
+        minYaw = new float[rows];
+        maxYaw = new float[rows];
+        minRoll = new float[rows];
+        maxRoll = new float[rows];
+    }
+
+    /** Reads the limits of every registered joint; called once by {@link JointRegistry}. */
+    static JointLimitTable compile() {
+        int rows = 0;
+        for (Bone bone : Skeleton.BONES) {
+            if (JointRegistry.getJoint(bone) != null) rows++;
+        }
+        JointLimitTable table = new JointLimitTable(rows);
+        int i = 0;
+        for (Bone bone : Skeleton.BONES) {
+            JointRegistry.Joint joint = JointRegistry.getJoint(bone);
+            if (joint == null) continue;
+            JointLimits l = joint.limits();
+            table.bones[i] = bone.ordinal();
+            table.minPitch[i] = l.minPitch();
+            table.maxPitch[i] = l.maxPitch();
+            table.minYaw[i] = l.minYaw();
+            table.maxYaw[i] = l.maxYaw();
+            table.minRoll[i] = l.minRoll();
+            table.maxRoll[i] = l.maxRoll();
+            i++;
+        }
+        return table;
+    }
+
+    /** Number of limited bones. */
+    public int size() {
+        return bones.length;
+    }
+
+    /** The limited bone in row {@code row}. */
+    public Bone bone(int row) {
+        return Skeleton.BONES[bones[row]];
+    }
+
+    // ============================================================
+    // CLAMPING
+    // ============================================================
+
+    /**
+     * Clamps every limited bone of one pose.
+     *
+     * @return Number of rotations that were changed
+     */
+    public int clamp(Pose pose) {
+        return clamp(pose.rotations, 0, 1);
+    }
+
+    /**
+     * Clamps skeletons {@code first} to {@code first + count - 1} of a batch laid out at
+     * {@link #POSE_STRIDE} floats per skeleton.
+     *
+     * @return Number of rotations that were changed
+     * @throws IndexOutOfBoundsException if the range does not fit in {@code rotations}
+     */
+    public int clamp(float[] rotations, int first, int count) {
+        if (first < 0 || count < 0 || ((long) first + count) * POSE_STRIDE > rotations.length) {
+            throw new IndexOutOfBoundsException("Skeletons [" + first + ", " + ((long) first + count)
+                + ") do not fit in " + rotations.length + " floats");
+        }
+        int clamped = 0;
+        for (int s = first, end = first + count; s < end; s++) {
+            clamped += clampSkeleton(rotations, s * POSE_STRIDE);
+        }
+        return clamped;
+    }
+
+    /**
+     * Same as {@link #clamp(float[], int, int)} over the first {@code count} skeletons, split
+     * across {@code pool}.
+     */
+    public int clampParallel(float[] rotations, int count, ForkJoinPool pool) {
+        if (count < 0 || (long) count * POSE_STRIDE > rotations.length) {
+            throw new IndexOutOfBoundsException(count + " skeletons do not fit in " + rotations.length + " floats");
+        }
+        AtomicInteger clamped = new AtomicInteger();
+        ParallelRange.run(pool, count, PARALLEL_SLICE, (from, to) -> clamped.addAndGet(clamp(rotations, from, to - from)));
+        return clamped.get();
+    }
+
+    // ============================================================
+    // CHECKING
+    // ============================================================
+
+    /**
+     * Marks every limited bone of the skeleton at {@code base} whose angles leave their range by
+     * more than {@code tolerance} radians: sets bit {@code ordinal} of the mask starting at
+     * {@code masks[maskBase]} and bumps {@code axisCounts[ordinal * 3 + axis]} (pitch, yaw, roll)
+     * per offending axis, unless {@code axisCounts} is null. The mask is ORed into, not cleared.
+     *
+     * @return Number of violating bones
+     */
+    int check(float[] r, int base, float tolerance, long[] masks, int maskBase, long[] axisCounts) {
+        int[] bones = this.bones;
+        int violating = 0;
+        for (int i = 0; i < bones.length; i++) {
+            int b = bones[i];
+            int o = base + b * 4;
+            float x = r[o], y = r[o + 1], z = r[o + 2], w = r[o + 3];
+
+            float pitch = (float) Math.atan2(x * w - y * z, 0.5f - x * x - y * y);
+            float yaw = (float) Math.asin(Math.clamp(2 * (x * z + y * w), -1f, 1f));
+            float roll = (float) Math.atan2(z * w - x * y, 0.5f - y * y - z * z);
+
+            int p = pitch < minPitch[i] - tolerance | pitch > maxPitch[i] + tolerance ? 1 : 0;
+            int t = yaw < minYaw[i] - tolerance | yaw > maxYaw[i] + tolerance ? 1 : 0;
+            int q = roll < minRoll[i] - tolerance | roll > maxRoll[i] + tolerance ? 1 : 0;
+            if ((p | t | q) == 0) continue;
+
+            if (axisCounts != null) {
+                axisCounts[b * 3] += p;
+                axisCounts[b * 3 + 1] += t;
+                axisCounts[b * 3 + 2] += q;
+            }
+            masks[maskBase + (b >>> 6)] |= 1L << b;
+            violating++;
+        }
+        return violating;
+    }
+
+    private int clampSkeleton(float[] r, int base) {
+        int[] bones = this.bones;
+        int clamped = 0;
+        for (int i = 0; i < bones.length; i++) {
+            int o = base + bones[i] * 4;
+            float x = r[o], y = r[o + 1], z = r[o + 2], w = r[o + 3];
+
+            // XYZ Euler decomposition, as in check()
+            float pitch = (float) Math.atan2(x * w - y * z, 0.5f - x * x - y * y);
+            float yaw = (float) Math.asin(Math.clamp(2 * (x * z + y * w), -1f, 1f));
+            float roll = (float) Math.atan2(z * w - x * y, 0.5f - y * y - z * z);
+
+            float cp = Math.clamp(pitch, minPitch[i], maxPitch[i]);
+            float cy = Math.clamp(yaw, minYaw[i], maxYaw[i]);
+            float cr = Math.clamp(roll, minRoll[i], maxRoll[i]);
+            if (cp == pitch & cy == yaw & cr == roll) continue;
+
+            // Rebuild as rotationXYZ(cp, cy, cr)
+            float sx = (float) Math.sin(cp * 0.5f), cx = (float) Math.cos(cp * 0.5f);
+            float sy = (float) Math.sin(cy * 0.5f), cyh = (float) Math.cos(cy * 0.5f);
+            float sz = (float) Math.sin(cr * 0.5f), cz = (float) Math.cos(cr * 0.5f);
+            float cycz = cyh * cz, sysz = sy * sz, sycz = sy * cz, cysz = cyh * sz;
+            r[o] = sx * cycz + cx * sysz;
+            r[o + 1] = cx * sycz - sx * cysz;
+            r[o + 2] = cx * cysz + sx * sycz;
+            r[o + 3] = cx * cycz - sx * sysz;
+            clamped++;
+        }
+        return clamped;
+    }
+}
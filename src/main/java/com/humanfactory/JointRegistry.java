@@ -284,7 +284,41 @@ public class JointRegistry {
         entry(Bone.DISTAL_PHALANX_LITTLE_TOE_RIGHT,   new Joint(Bone.MIDDLE_PHALANX_LITTLE_TOE_RIGHT, JointType.HINGE, JointLimits.hinge(0, 50)))
     );
 
+    // Declared after REGISTRY: compiling reads it
+    private static final JointTopology TOPOLOGY = JointTopology.compile();
+    private static final JointLimitTable LIMIT_TABLE = JointLimitTable.compile();
+    private static final SwingTwistLimits SWING_TWIST = SwingTwistLimits.compile();
+    private static final SelfCollisionFilter SELF_COLLISION = SelfCollisionFilter.compile();
+
     public static Joint getJoint(Bone bone) {
         return REGISTRY.get(bone);
     }
+
+    /**
+     * The registry hierarchy as flat, ordinal-indexed arrays. Compiled once and shared.
+     */
+    public static JointTopology topology() {
+        return TOPOLOGY;
+    }
+
+    /**
+     * Every joint's limits as flat columns for batch clamping. Compiled once and shared.
+     */
+    public static JointLimitTable limitTable() {
+        return LIMIT_TABLE;
+    }
+
+    /**
+     * Every joint's limits as swing-twist cones for trig-free checks and clamping. Compiled once and shared.
+     */
+    public static SwingTwistLimits swingTwistLimits() {
+        return SWING_TWIST;
+    }
+
+    /**
+     * Bone pairs to skip in self-collision: parent/child pairs and siblings. Compiled once and shared.
+     */
+    public static SelfCollisionFilter selfCollisionFilter() {
+        return SELF_COLLISION;
+    }
 }
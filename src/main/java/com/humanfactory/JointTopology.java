@@ -0,0 +1,323 @@
+package com.humanfactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The {@link JointRegistry} hierarchy compiled into flat arrays indexed by {@link Bone#ordinal()}.
+ * <p>
+ * Bones are laid out in depth-first preorder starting at {@link Bone#SACRUM}: every parent
+ * precedes its children and every subtree occupies a contiguous range of positions, so
+ * hierarchy traversals become forward (root to leaves) or backward (leaves to root) sweeps.
+ * The same layout answers subtree membership in constant time, and an Euler tour with a
+ * sparse min-depth table answers lowest-common-ancestor queries in constant time.
+ * Bones without a joint entry other than the sacrum are roots of their own one-bone trees
+ * and follow the sacrum's tree in ordinal order.
+ * Obtain the shared instance with {@link JointRegistry#topology()}.
+ */
+public final class JointTopology {
+
+    /** Parent index of a root. */
+    public static final int NONE = -1;
+
+    // Package-private for linear sweeps elsewhere in the package; never modified after construction
+    final int[] parent;         // [ordinal] parent ordinal or NONE
+    final int[] depth;          // [ordinal] 0 for roots
+    final int[] order;          // [position] ordinal, depth-first preorder
+    final int[] position;       // [ordinal] index into order
+    final int[] childStart;     // [ordinal] CSR row offsets into children, length BONE_COUNT + 1
+    final int[] children;       // Child ordinals grouped by parent, ascending within a group
+    final int[] subtreeEnd;     // [ordinal] exclusive end position of the subtree
+    final int[] root;           // [ordinal] root ordinal of the containing tree
+
+    // Lowest common ancestor: Euler tour plus a sparse table of min-depth tour entries
+    private final int[] tour;           // Ordinals, each bone re-entered after every child
+    private final int[] firstVisit;     // [ordinal] first index in tour
+    private final int[] sparse;         // [level * tour.length + i] tour index of min depth in [i, i + 2^level)
+
+    private JointTopology(int[] parent) {
+        int n = parent.length;
+        this.parent = parent;
+
+        // CSR adjacency: count, prefix-sum, fill
+        childStart = new int[n + 1];
+        for (int b = 0; b < n; b++) {
+            if (parent[b] != NONE) childStart[parent[b] + 1]++;
+        }
+        for (int b = 0; b < n; b++) {
+            childStart[b + 1] += childStart[b];
+        }
+        children = new int[childStart[n]];
+        int[] fill = Arrays.copyOf(childStart, n);
+        for (int b = 0; b < n; b++) {
+            if (parent[b] != NONE) children[fill[parent[b]]++] = b;
+        }
+
+        // Preorder from the sacrum first, then any other roots
+        order = new int[n];
+        position = new int[n];
+        depth = new int[n];
+        subtreeEnd = new int[n];
+        root = new int[n];
+        Arrays.fill(position, NONE);
+        int[] stack = new int[n];
+        int visited = visit(Bone.SACRUM.ordinal(), stack, 0);
+        for (int b = 0; b < n; b++) {
+            if (parent[b] == NONE && b != Bone.SACRUM.ordinal()) {
+                visited = visit(b, stack, visited);
+            }
+        }
+        if (visited != n) {
+            for (int b = 0; b < n; b++) {
+                if (position[b] == NONE) {
+                    throw new IllegalStateException("Joint hierarchy has a cycle through " + Skeleton.BONES[b]);
+                }
+            }
+        }
+
+        // Preorder makes every subtree contiguous; sweep backwards to accumulate sizes
+        for (int p = n - 1; p >= 0; p--) {
+            int b = order[p];
+            if (subtreeEnd[b] == 0) subtreeEnd[b] = p + 1;
+            if (parent[b] != NONE) {
+                subtreeEnd[parent[b]] = Math.max(subtreeEnd[parent[b]], subtreeEnd[b]);
+            }
+        }
+
+        tour = new int[2 * n - 1];
+        firstVisit = new int[n];
+        int length = 0;
+        for (int p = 0; p < n; p++) {
+            if (parent[order[p]] == NONE) length = walkTour(order[p], length);
+        }
+        sparse = buildSparseTable(length);
+    }
+
+    private int walkTour(int b, int next) {
+        firstVisit[b] = next;
+        tour[next++] = b;
+        for (int c = childStart[b]; c < childStart[b + 1]; c++) {
+            next = walkTour(children[c], next);
+            tour[next++] = b;
+        }
+        return next;
+    }
+
+    private int[] buildSparseTable(int length) {
+        int levels = 32 - Integer.numberOfLeadingZeros(length);
+        int[] table = new int[levels * tour.length];
+        for (int i = 0; i < length; i++) {
+            table[i] = i;
+        }
+        for (int level = 1; level < levels; level++) {
+            int half = 1 << (level - 1);
+            int row = level * tour.length;
+            int previous = row - tour.length;
+            for (int i = 0; i + (1 << level) <= length; i++) {
+                table[row + i] = shallower(table[previous + i], table[previous + i + half]);
+            }
+        }
+        return table;
+    }
+
+    private int shallower(int tourA, int tourB) {
+        return depth[tour[tourA]] <= depth[tour[tourB]] ? tourA : tourB;
+    }
+
+    private int visit(int start, int[] stack, int next) {
+        int top = 0;
+        stack[top++] = start;
+        depth[start] = 0;
+        while (top > 0) {
+            int b = stack[--top];
+            position[b] = next;
+            order[next++] = b;
+            root[b] = parent[b] == NONE ? b : root[parent[b]];
+            // Push in reverse so the lowest ordinal child is visited first
+            for (int c = childStart[b + 1] - 1; c >= childStart[b]; c--) {
+                int child = children[c];
+                depth[child] = depth[b] + 1;
+                stack[top++] = child;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Compiles the topology from {@link JointRegistry#getJoint}.
+     *
+     * @throws IllegalStateException if the registry contains a cycle
+     */
+    static JointTopology compile() {
+        int[] parent = new int[Skeleton.BONE_COUNT];
+        for (Bone bone : Skeleton.BONES) {
+            JointRegistry.Joint joint = JointRegistry.getJoint(bone);
+            parent[bone.ordinal()] = joint == null ? NONE : joint.parent().ordinal();
+        }
+        return new JointTopology(parent);
+    }
+
+    // ============================================================
+    // QUERIES
+    // ============================================================
+
+    public int boneCount() {
+        return parent.length;
+    }
+
+    /** Parent ordinal of {@code ordinal}, or {@link #NONE} for a root. */
+    public int parent(int ordinal) {
+        return parent[ordinal];
+    }
+
+    /** Parent bone, or null for a root. */
+    public Bone parent(Bone bone) {
+        int p = parent[bone.ordinal()];
+        return p == NONE ? null : Skeleton.BONES[p];
+    }
+
+    /** Number of joints between {@code ordinal} and its root. */
+    public int depth(int ordinal) {
+        return depth[ordinal];
+    }
+
+    /** Ordinal of the bone at {@code position} in topological order. */
+    public int order(int position) {
+        return order[position];
+    }
+
+    /** Position of {@code ordinal} in topological order. */
+    public int position(int ordinal) {
+        return position[ordinal];
+    }
+
+    public int childCount(int ordinal) {
+        return childStart[ordinal + 1] - childStart[ordinal];
+    }
+
+    /** The {@code index}-th child of {@code ordinal}, in ascending ordinal order. */
+    public int child(int ordinal, int index) {
+        if (index < 0 || index >= childCount(ordinal)) {
+            throw new IndexOutOfBoundsException("Child " + index + " out of bounds for " + Skeleton.BONES[ordinal]);
+        }
+        return children[childStart[ordinal] + index];
+    }
+
+    /** Copy of the parent array, indexed by ordinal. */
+    public int[] parentIndex() {
+        return parent.clone();
+    }
+
+    /** Copy of the topological order: ordinals, parents before children. */
+    public int[] topologicalOrder() {
+        return order.clone();
+    }
+
+    /** Copy of the per-ordinal depth array. */
+    public int[] depths() {
+        return depth.clone();
+    }
+
+    /** Copy of the CSR row offsets: children of {@code b} are {@code childOrdinals()[childOffsets()[b] .. childOffsets()[b + 1])}. */
+    public int[] childOffsets() {
+        return childStart.clone();
+    }
+
+    /** Copy of the CSR child array; see {@link #childOffsets()}. */
+    public int[] childOrdinals() {
+        return children.clone();
+    }
+
+    // ============================================================
+    // SUBTREES & ANCESTRY
+    // ============================================================
+
+    /**
+     * Exclusive end of the subtree rooted at {@code ordinal}: the subtree is exactly the bones at
+     * positions {@code [position(ordinal), subtreeEnd(ordinal))} of the topological order.
+     */
+    public int subtreeEnd(int ordinal) {
+        return subtreeEnd[ordinal];
+    }
+
+    /** Number of bones in the subtree rooted at {@code ordinal}, including itself. */
+    public int subtreeSize(int ordinal) {
+        return subtreeEnd[ordinal] - position[ordinal];
+    }
+
+    /** True if {@code ordinal} is {@code root} or lies below it. Constant time. */
+    public boolean inSubtree(int ordinal, int root) {
+        int p = position[ordinal];
+        return p >= position[root] && p < subtreeEnd[root];
+    }
+
+    /** True if {@code bone} lies strictly below {@code ancestor}. Constant time. */
+    public boolean isDescendant(Bone bone, Bone ancestor) {
+        return bone != ancestor && inSubtree(bone.ordinal(), ancestor.ordinal());
+    }
+
+    /** Bones of the subtree rooted at {@code root}, in topological order, starting with {@code root}. */
+    public List<Bone> subtree(Bone root) {
+        int from = position[root.ordinal()];
+        int to = subtreeEnd[root.ordinal()];
+        List<Bone> bones = new ArrayList<>(to - from);
+        for (int p = from; p < to; p++) {
+            bones.add(Skeleton.BONES[order[p]]);
+        }
+        return bones;
+    }
+
+    /**
+     * Writes the chain from {@code ordinal} up to its root into {@code dest}, starting with
+     * {@code ordinal}. {@code dest} needs {@code depth(ordinal) + 1} slots.
+     *
+     * @return Number of ordinals written
+     */
+    public int chainToRoot(int ordinal, int[] dest) {
+        int count = 0;
+        for (int b = ordinal; b != NONE; b = parent[b]) {
+            dest[count++] = b;
+        }
+        return count;
+    }
+
+    /** The chain from {@code bone} up to its root, both inclusive. */
+    public List<Bone> chainToRoot(Bone bone) {
+        List<Bone> chain = new ArrayList<>(depth[bone.ordinal()] + 1);
+        for (int b = bone.ordinal(); b != NONE; b = parent[b]) {
+            chain.add(Skeleton.BONES[b]);
+        }
+        return chain;
+    }
+
+    /**
+     * Deepest bone that has both {@code a} and {@code b} in its subtree, or {@link #NONE}
+     * if they are in different trees. Constant time.
+     */
+    public int lowestCommonAncestor(int a, int b) {
+        if (root[a] != root[b]) return NONE;
+        int from = firstVisit[a];
+        int to = firstVisit[b];
+        if (from > to) {
+            int swap = from;
+            from = to;
+            to = swap;
+        }
+        int level = 31 - Integer.numberOfLeadingZeros(to - from + 1);
+        int row = level * tour.length;
+        return tour[shallower(sparse[row + from], sparse[row + to - (1 << level) + 1])];
+    }
+
+    /** Bone overload of {@link #lowestCommonAncestor(int, int)}; null if there is none. */
+    public Bone lowestCommonAncestor(Bone a, Bone b) {
+        int lca = lowestCommonAncestor(a.ordinal(), b.ordinal());
+        return lca == NONE ? null : Skeleton.BONES[lca];
+    }
+
+    /** Number of joints on the path between {@code a} and {@code b}, or -1 if they are not connected. */
+    public int distance(int a, int b) {
+        int lca = lowestCommonAncestor(a, b);
+        return lca == NONE ? -1 : depth[a] + depth[b] - 2 * depth[lca];
+    }
+}
@@ -0,0 +1,213 @@
+package com.humanfactory;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Preset levels of detail: a generated skeleton with chains of bones collapsed into rigid compound bodies.
+ * <p>
+ * At each level a bone is either kept or merged into a kept bone: its nearest kept ancestor, unless the
+ * level names another. A merged bone is absent from the result: its mass is added to that bone, and its
+ * collision shapes move into that bone's frame through the bind transforms in between. Kept bones below a
+ * merged one get those bind transforms composed into their own, so every level has the same bind pose and
+ * the same shapes in model space.
+ * {@link ForwardKinematics} passes absent bones through, so one {@link Pose} drives every level; the
+ * rotations it sets on merged bones are ignored. Levels are nested, each merging everything the
+ * previous one does.
+ */
+public enum LevelOfDetail {
+
+    /** Every bone is its own body. */
+    FULL,
+
+    /**
+     * Bones on {@link JointType#FIBROUS} or {@link JointLimits#LOCKED} joints are fused to their parent:
+     * the skull sutures, the hip bones into the sacrum and the coccyx.
+     */
+    FUSED,
+
+    /** As {@link #FUSED}, with the finger and toe phalanges fused to their metacarpals and metatarsals. */
+    NO_DIGITS,
+
+    /**
+     * Pelvis, chest and head, plus upper arm, radius, ulna and hand, or thigh, shin and foot, per limb.
+     * The spine is split between pelvis and chest; ribs, shoulders and neck go to the chest. Every carpal,
+     * metacarpal and finger bone joins the lunate, though the scaphoid hangs off the radius, and every
+     * tarsal, metatarsal and toe bone joins the talus.
+     */
+    TORSO_AND_LIMBS;
+
+    private static final Set<Bone> TORSO_AND_LIMB_BODIES = EnumSet.of(
+        Bone.THORACIC_12, Bone.OCCIPITAL,
+        Bone.HUMERUS_LEFT, Bone.RADIUS_LEFT, Bone.ULNA_LEFT, Bone.LUNATE_LEFT,
+        Bone.HUMERUS_RIGHT, Bone.RADIUS_RIGHT, Bone.ULNA_RIGHT, Bone.LUNATE_RIGHT,
+        Bone.FEMUR_LEFT, Bone.TIBIA_LEFT, Bone.TALUS_LEFT,
+        Bone.FEMUR_RIGHT, Bone.TIBIA_RIGHT, Bone.TALUS_RIGHT
+    );
+
+    // Merged bones of TORSO_AND_LIMBS that join a body other than their nearest kept ancestor
+    private static final Map<Bone, Bone> TORSO_AND_LIMB_TARGETS = new EnumMap<>(Bone.class);
+
+    static {
+        for (Bone bone : EnumSet.range(Bone.SCAPHOID_LEFT, Bone.DISTAL_PHALANX_LITTLE_FINGER_RIGHT)) {
+            Bone lunate = bone.name().endsWith("_LEFT") ? Bone.LUNATE_LEFT : Bone.LUNATE_RIGHT;
+            if (bone != Bone.LUNATE_LEFT && bone != Bone.LUNATE_RIGHT) TORSO_AND_LIMB_TARGETS.put(bone, lunate);
+        }
+        for (Bone bone : EnumSet.range(Bone.CALCANEUS_LEFT, Bone.DISTAL_PHALANX_LITTLE_TOE_RIGHT)) {
+            TORSO_AND_LIMB_TARGETS.put(bone, bone.name().endsWith("_LEFT") ? Bone.TALUS_LEFT : Bone.TALUS_RIGHT);
+        }
+    }
+
+    /**
+     * Whether {@code bone} stays a body of its own at this level. Roots of the {@link JointRegistry}
+     * hierarchy always do.
+     */
+    public boolean keeps(Bone bone) {
+        JointRegistry.Joint joint = JointRegistry.getJoint(bone);
+        if (joint == null) return true;
+        boolean fused = joint.type() == JointType.FIBROUS || JointLimits.LOCKED.equals(joint.limits());
+        return switch (this) {
+            case FULL -> true;
+            case FUSED -> !fused;
+            case NO_DIGITS -> !fused && !bone.name().contains("PHALANX");
+            case TORSO_AND_LIMBS -> TORSO_AND_LIMB_BODIES.contains(bone);
+        };
+    }
+
+    /**
+     * {@code skeleton} at this level. {@link #FULL} returns it unchanged; otherwise kept shapes are
+     * shared with {@code skeleton}, and merged ones are moved copies, interned like any skeleton's.
+     */
+    public Skeleton apply(Skeleton skeleton) {
+        if (this == FULL) return skeleton;
+        JointTopology topology = JointRegistry.topology();
+        int n = Skeleton.BONE_COUNT;
+
+        // Per bone in preorder: the kept bone whose frame it moves with, and its frame relative to
+        // that one. Absent bones pass their parent's through, as in ForwardKinematics.
+        int[] body = new int[n];
+        int[] target = new int[n];                 // Kept bone a merged one joins
+        float[] modelPositions = new float[n * 3]; // Bind frame in model space
+        float[] modelRotations = new float[n * 4];
+        boolean[] moved = new boolean[n];          // Frame differs from its body's
+        float[] positions = new float[n * 3];
+        float[] rotations = new float[n * 4];
+        float[] masses = new float[n];
+        Vector3f position = new Vector3f();
+        Quaternionf rotation = new Quaternionf();
+        Quaternionf parentRotation = new Quaternionf();
+        for (int b : topology.order) {
+            int p = topology.parent[b];
+            int parentBody = p == JointTopology.NONE ? JointTopology.NONE : body[p];
+            Bone bone = Skeleton.BONES[b];
+            if (skeleton.contains(b)) {
+                skeleton.bindPosition(bone, position);
+                skeleton.bindRotation(bone, rotation);
+                if (p != JointTopology.NONE) {
+                    parentRotation.set(modelRotations[p * 4], modelRotations[p * 4 + 1], modelRotations[p * 4 + 2], modelRotations[p * 4 + 3]);
+                    parentRotation.transform(position).add(modelPositions[p * 3], modelPositions[p * 3 + 1], modelPositions[p * 3 + 2]);
+                    parentRotation.mul(rotation, rotation);
+                }
+                store(b, position, rotation, modelPositions, modelRotations);
+            } else if (p != JointTopology.NONE) {
+                System.arraycopy(modelPositions, p * 3, modelPositions, b * 3, 3);
+                System.arraycopy(modelRotations, p * 4, modelRotations, b * 4, 4);
+            } else {
+                modelRotations[b * 4 + 3] = 1;
+            }
+            if (!skeleton.contains(b) || parentBody != JointTopology.NONE && !keeps(bone)) {
+                body[b] = parentBody;
+                if (parentBody == JointTopology.NONE) continue;
+                if (skeleton.contains(b)) {
+                    // Relative frame = parent's relative frame * bind
+                    skeleton.bindPosition(bone, position);
+                    skeleton.bindRotation(bone, rotation);
+                    if (moved[p]) {
+                        parentRotation.set(rotations[p * 4], rotations[p * 4 + 1], rotations[p * 4 + 2], rotations[p * 4 + 3]);
+                        parentRotation.transform(position).add(positions[p * 3], positions[p * 3 + 1], positions[p * 3 + 2]);
+                        parentRotation.mul(rotation, rotation);
+                    }
+                    Bone named = this == TORSO_AND_LIMBS ? TORSO_AND_LIMB_TARGETS.get(bone) : null;
+                    target[b] = named != null && skeleton.contains(named) ? named.ordinal() : parentBody;
+                    masses[target[b]] += skeleton.mass(bone);
+                    store(b, position, rotation, positions, rotations);
+                    moved[b] = true;
+                } else if (moved[p]) {
+                    System.arraycopy(positions, p * 3, positions, b * 3, 3);
+                    System.arraycopy(rotations, p * 4, rotations, b * 4, 4);
+                    moved[b] = true;
+                }
+            } else {
+                body[b] = b;
+                masses[b] += skeleton.mass(bone);
+            }
+        }
+
+        // Kept bones first, so their own shapes precede everything merged into them
+        Skeleton.Builder builder = new Skeleton.Builder();
+        for (int b : topology.order) {
+            if (!skeleton.contains(b) || body[b] != b) continue;
+            Bone bone = Skeleton.BONES[b];
+            skeleton.bindPosition(bone, position);
+            skeleton.bindRotation(bone, rotation);
+            int p = topology.parent[b];
+            if (p != JointTopology.NONE && moved[p]) {
+                parentRotation.set(rotations[p * 4], rotations[p * 4 + 1], rotations[p * 4 + 2], rotations[p * 4 + 3]);
+                parentRotation.transform(position).add(positions[p * 3], positions[p * 3 + 1], positions[p * 3 + 2]);
+                parentRotation.mul(rotation, rotation);
+            }
+            builder.bone(bone, skeleton.length(bone), position.x, position.y, position.z, masses[b]);
+            builder.rotation(rotation.x, rotation.y, rotation.z, rotation.w);
+            for (BoneShape shape : skeleton.collisionShapes(bone)) {
+                builder.shape(b, shape);
+            }
+        }
+        for (int b : topology.order) {
+            if (!skeleton.contains(b) || body[b] == JointTopology.NONE || body[b] == b) continue;
+            int t = target[b];
+            if (t == body[b]) {
+                position.set(positions[b * 3], positions[b * 3 + 1], positions[b * 3 + 2]);
+                rotation.set(rotations[b * 4], rotations[b * 4 + 1], rotations[b * 4 + 2], rotations[b * 4 + 3]);
+            } else {
+                // Not below its target: relative frame = target's model frame^-1 * own model frame
+                parentRotation.set(modelRotations[t * 4], modelRotations[t * 4 + 1], modelRotations[t * 4 + 2], modelRotations[t * 4 + 3]).conjugate();
+                position.set(modelPositions[b * 3] - modelPositions[t * 3], modelPositions[b * 3 + 1] - modelPositions[t * 3 + 1],
+                    modelPositions[b * 3 + 2] - modelPositions[t * 3 + 2]);
+                parentRotation.transform(position);
+                rotation.set(modelRotations[b * 4], modelRotations[b * 4 + 1], modelRotations[b * 4 + 2], modelRotations[b * 4 + 3]);
+                parentRotation.mul(rotation, rotation);
+            }
+            for (BoneShape shape : skeleton.collisionShapes(Skeleton.BONES[b])) {
+                builder.shape(t, transform(shape, position, rotation));
+            }
+        }
+        return builder.build();
+    }
+
+    private static void store(int b, Vector3f position, Quaternionf rotation, float[] positions, float[] rotations) {
+        positions[b * 3] = position.x;
+        positions[b * 3 + 1] = position.y;
+        positions[b * 3 + 2] = position.z;
+        rotations[b * 4] = rotation.x;
+        rotations[b * 4 + 1] = rotation.y;
+        rotations[b * 4 + 2] = rotation.z;
+        rotations[b * 4 + 3] = rotation.w;
+    }
+
+    /** {@code shape} moved by {@code rotation} then {@code position}, as a new instance. */
+    private static BoneShape transform(BoneShape shape, Vector3f position, Quaternionf rotation) {
+        return switch (shape) {
+            case BoneShape.Box box -> new BoneShape.Box(box.halfExtents(),
+                rotation.transform(box.offset(), new Vector3f()).add(position), rotation.mul(box.rotation(), new Quaternionf()));
+            case BoneShape.Capsule capsule -> new BoneShape.Capsule(capsule.radius(), capsule.length(),
+                rotation.transform(capsule.offset(), new Vector3f()).add(position), rotation.mul(capsule.rotation(), new Quaternionf()));
+            case BoneShape.Sphere sphere -> new BoneShape.Sphere(sphere.radius(),
+                rotation.transform(sphere.offset(), new Vector3f()).add(position));
+        };
+    }
+}
@@ -0,0 +1,401 @@
+package com.humanfactory;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Marching-cubes mesher for a {@link SignedDistanceField}, meshing the volume in parallel tiles.
+ * <p>
+ * The field's bounds, padded by the blend radius and one cell, are split into a grid of cubic
+ * cells of edge {@code cellSize}, grouped into tiles of {@code tileCells}^3 cells. Each tile asks
+ * the field for the shapes near it, using per-bone and then per-shape bounds; a tile with none is
+ * skipped without sampling. Otherwise the tile samples its corner grid over just those shapes and
+ * emits triangles per cell. Vertices are shared within a tile through an edge-indexed cache.
+ * Across tiles they are welded by sorting on the global edge key, so the mesh is watertight
+ * wherever the surface lies inside the grid. Output order depends only on the grid, never on
+ * scheduling.
+ * <p>
+ * The 256-case triangle table is generated at class load rather than typed in: each cube face is
+ * cut into segments that keep diagonal inside corners apart, and the segments are chained into
+ * loops and fanned into triangles. Neighboring cells agree on every shared face, so the
+ * surface has no cracks. Not thread-safe; one instance can mesh any number of fields in turn.
+ */
+public final class MarchingCubes {
+
+    public static final int DEFAULT_TILE_CELLS = 16;
+    /** Largest grid, in cells along each axis. */
+    public static final int MAX_CELLS = 2048;
+
+    // Global vertex key layout: edge key above, vertex index in the low bits
+    private static final int VERTEX_BITS = 28;
+    private static final long VERTEX_MASK = (1L << VERTEX_BITS) - 1;
+    // Normal central differences, as a fraction of the cell size
+    private static final float GRADIENT_STEP = 0.25f;
+
+    // Corner c of a cell is at offset (c & 1, c >> 1 & 1, c >> 2 & 1); edge e runs from
+    // EDGE_BASE[e] one step along EDGE_AXIS[e]
+    static final int[] EDGE_BASE = new int[12];
+    static final int[] EDGE_AXIS = new int[12];
+    static final int[][] TRIANGLES = new int[256][];
+
+    static {
+        int e = 0;
+        for (int axis = 0; axis < 3; axis++) {
+            for (int c = 0; c < 8; c++) {
+                if ((c & (1 << axis)) == 0) {
+                    EDGE_BASE[e] = c;
+                    EDGE_AXIS[e++] = axis;
+                }
+            }
+        }
+        for (int inside = 0; inside < 256; inside++) {
+            TRIANGLES[inside] = triangulate(inside);
+        }
+    }
+
+    private final float cellSize;
+    private final int tileCells;
+    private final ForkJoinPool pool;
+    private int tileCount;
+    private int skippedTiles;
+
+    public MarchingCubes(float cellSize) {
+        this(cellSize, DEFAULT_TILE_CELLS, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param cellSize  Cell edge in meters
+     * @param tileCells Cells per tile along each axis
+     * @throws IllegalArgumentException if {@code cellSize} or {@code tileCells} is not positive
+     */
+    public MarchingCubes(float cellSize, int tileCells, ForkJoinPool pool) {
+        if (!(cellSize > 0)) throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+        if (tileCells <= 0) throw new IllegalArgumentException("Tile cells must be positive: " + tileCells);
+        this.cellSize = cellSize;
+        this.tileCells = tileCells;
+        this.pool = pool;
+    }
+
+    public float cellSize() {
+        return cellSize;
+    }
+
+    /** Tiles in the grid of the last {@link #mesh} call. */
+    public int tileCount() {
+        return tileCount;
+    }
+
+    /** Tiles of the last {@link #mesh} call that were skipped as far from every shape. */
+    public int skippedTiles() {
+        return skippedTiles;
+    }
+
+    // ============================================================
+    // MESHING
+    // ============================================================
+
+    /**
+     * Meshes the zero level set of {@code field} in its current pose.
+     *
+     * @throws IllegalArgumentException if the grid would exceed {@link #MAX_CELLS} along an axis
+     *                                  or the mesh would exceed 2^28 vertices
+     */
+    public TriangleMesh mesh(SignedDistanceField field) {
+        float[] bounds = new float[6];
+        if (!field.bounds(bounds)) {
+            tileCount = 0;
+            skippedTiles = 0;
+            return new TriangleMesh(new float[0], new float[0], new int[0]);
+        }
+        float pad = field.blend() + cellSize;
+        Grid grid = new Grid();
+        for (int k = 0; k < 3; k++) {
+            grid.origin[k] = bounds[k] - pad;
+            long cells = (long) Math.ceil((bounds[k + 3] - bounds[k] + 2 * pad) / cellSize);
+            if (cells > MAX_CELLS) {
+                throw new IllegalArgumentException("Grid of " + cells + " cells exceeds " + MAX_CELLS + "; raise the cell size");
+            }
+            grid.cells[k] = (int) cells;
+            grid.tiles[k] = (grid.cells[k] + tileCells - 1) / tileCells;
+        }
+        int tiles = grid.tiles[0] * grid.tiles[1] * grid.tiles[2];
+        Tile[] results = new Tile[tiles];
+        ParallelRange.run(pool, tiles, 1, (from, to) -> {
+            SignedDistanceField.Selection selection = new SignedDistanceField.Selection();
+            for (int t = from; t < to; t++) {
+                results[t] = meshTile(field, grid, t, selection);
+            }
+        });
+
+        int skipped = 0;
+        for (Tile tile : results) {
+            if (tile == null) skipped++;
+        }
+        tileCount = tiles;
+        skippedTiles = skipped;
+        return weld(results);
+    }
+
+    /** Samples and meshes one tile; null if no shape comes near it. */
+    private Tile meshTile(SignedDistanceField field, Grid grid, int t, SignedDistanceField.Selection selection) {
+        int tz = t % grid.tiles[2];
+        int ty = t / grid.tiles[2] % grid.tiles[1];
+        int tx = t / grid.tiles[2] / grid.tiles[1];
+        int x0 = tx * tileCells, y0 = ty * tileCells, z0 = tz * tileCells;
+        int nx = Math.min(tileCells, grid.cells[0] - x0) + 1;
+        int ny = Math.min(tileCells, grid.cells[1] - y0) + 1;
+        int nz = Math.min(tileCells, grid.cells[2] - z0) + 1;
+
+        // Shapes farther than this cannot move a sample next to the surface
+        float margin = 2 * (field.blend() + cellSize);
+        if (field.gather(grid.at(0, x0, cellSize), grid.at(1, y0, cellSize), grid.at(2, z0, cellSize),
+            grid.at(0, x0 + nx - 1, cellSize), grid.at(1, y0 + ny - 1, cellSize), grid.at(2, z0 + nz - 1, cellSize),
+            margin, selection) == 0) {
+            return null;
+        }
+
+        float[] values = new float[nx * ny * nz];
+        for (int i = 0; i < nx; i++) {
+            for (int j = 0; j < ny; j++) {
+                for (int k = 0; k < nz; k++) {
+                    values[(i * ny + j) * nz + k] = field.distance(grid.at(0, x0 + i, cellSize),
+                        grid.at(1, y0 + j, cellSize), grid.at(2, z0 + k, cellSize), selection);
+                }
+            }
+        }
+
+        Tile tile = new Tile();
+        int[] vertexOf = new int[values.length * 3];
+        Arrays.fill(vertexOf, -1);
+        for (int i = 0; i + 1 < nx; i++) {
+            for (int j = 0; j + 1 < ny; j++) {
+                for (int k = 0; k + 1 < nz; k++) {
+                    int inside = 0;
+                    for (int c = 0; c < 8; c++) {
+                        if (values[((i + (c & 1)) * ny + j + (c >> 1 & 1)) * nz + k + (c >> 2 & 1)] < 0) inside |= 1 << c;
+                    }
+                    int[] triangles = TRIANGLES[inside];
+                    if (triangles.length == 0) continue;
+                    for (int edge : triangles) {
+                        int c = EDGE_BASE[edge], axis = EDGE_AXIS[edge];
+                        int pi = i + (c & 1), pj = j + (c >> 1 & 1), pk = k + (c >> 2 & 1);
+                        int point = (pi * ny + pj) * nz + pk;
+                        int slot = point * 3 + axis;
+                        if (vertexOf[slot] < 0) {
+                            int other = point + (axis == 0 ? ny * nz : axis == 1 ? nz : 1);
+                            float t0 = values[point] / (values[point] - values[other]);
+                            float x = grid.at(0, x0 + pi, cellSize), y = grid.at(1, y0 + pj, cellSize), z = grid.at(2, z0 + pk, cellSize);
+                            if (axis == 0) x += t0 * cellSize;
+                            else if (axis == 1) y += t0 * cellSize;
+                            else z += t0 * cellSize;
+                            long key = (((long) (x0 + pi) * (grid.cells[1] + 1) + y0 + pj) * (grid.cells[2] + 1) + z0 + pk) * 3 + axis;
+                            vertexOf[slot] = tile.vertex(x, y, z, key, field, selection, cellSize * GRADIENT_STEP);
+                        }
+                        tile.index(vertexOf[slot]);
+                    }
+                }
+            }
+        }
+        return tile;
+    }
+
+    /** Concatenates tiles in grid order and merges vertices that share a global edge key. */
+    static TriangleMesh weld(Tile[] tiles) {
+        long vertexTotal = 0, indexTotal = 0;
+        for (Tile tile : tiles) {
+            if (tile == null) continue;
+            vertexTotal += tile.vertexCount;
+            indexTotal += tile.indexCount;
+        }
+        if (vertexTotal > VERTEX_MASK) throw new IllegalArgumentException("Mesh exceeds 2^28 vertices; raise the cell size");
+        int vertices = (int) vertexTotal;
+        long[] sorted = new long[vertices];
+        int[] indices = new int[(int) indexTotal];
+        int v = 0, n = 0;
+        for (Tile tile : tiles) {
+            if (tile == null) continue;
+            for (int i = 0; i < tile.vertexCount; i++) {
+                sorted[v + i] = tile.keys[i] << VERTEX_BITS | (v + i);
+            }
+            for (int i = 0; i < tile.indexCount; i++) {
+                indices[n++] = v + tile.indices[i];
+            }
+            v += tile.vertexCount;
+        }
+        Arrays.parallelSort(sorted);
+
+        // Each run of equal keys maps to its lowest vertex, which the sort puts first
+        int[] canonical = new int[vertices];
+        for (int i = 0; i < vertices; i++) {
+            int first = i > 0 && sorted[i] >>> VERTEX_BITS == sorted[i - 1] >>> VERTEX_BITS
+                ? canonical[(int) (sorted[i - 1] & VERTEX_MASK)] : (int) (sorted[i] & VERTEX_MASK);
+            canonical[(int) (sorted[i] & VERTEX_MASK)] = first;
+        }
+        int[] remap = new int[vertices];
+        int kept = 0;
+        for (int i = 0; i < vertices; i++) {
+            if (canonical[i] == i) remap[i] = kept++;
+        }
+
+        float[] positions = new float[kept * 3];
+        float[] normals = new float[kept * 3];
+        v = 0;
+        for (Tile tile : tiles) {
+            if (tile == null) continue;
+            for (int i = 0; i < tile.vertexCount; i++, v++) {
+                if (canonical[v] != v) continue;
+                System.arraycopy(tile.positions, i * 3, positions, remap[v] * 3, 3);
+                System.arraycopy(tile.normals, i * 3, normals, remap[v] * 3, 3);
+            }
+        }
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = remap[canonical[indices[i]]];
+        }
+        return new TriangleMesh(positions, normals, indices);
+    }
+
+    // ============================================================
+    // TABLE
+    // ============================================================
+
+    /** Triangles, as edge triples, for the cell whose corners in {@code inside} are below zero. */
+    private static int[] triangulate(int inside) {
+        // next[e]: where the surface loop goes after crossing edge e
+        int[] next = new int[12];
+        Arrays.fill(next, -1);
+        int[] face = new int[4];
+        for (int axis = 0; axis < 3; axis++) {
+            int u = axis == 0 ? 1 : 0, v = axis == 2 ? 1 : 2;
+            for (int side = 0; side < 2; side++) {
+                // Corners counter-clockwise seen from outside the cube; (u, v) order winds about
+                // +axis except for the Y faces
+                face[0] = side << axis;
+                face[1] = side << axis | 1 << u;
+                face[2] = side << axis | 1 << u | 1 << v;
+                face[3] = side << axis | 1 << v;
+                if ((axis == 1) == (side == 1)) {
+                    int swap = face[1];
+                    face[1] = face[3];
+                    face[3] = swap;
+                }
+                // Join each crossing into the inside to the next crossing back out
+                for (int i = 0; i < 4; i++) {
+                    if (isInside(inside, face[i]) || !isInside(inside, face[(i + 1) & 3])) continue;
+                    for (int j = (i + 1) & 3; ; j = (j + 1) & 3) {
+                        if (isInside(inside, face[j]) && !isInside(inside, face[(j + 1) & 3])) {
+                            next[edge(face[i], face[(i + 1) & 3])] = edge(face[j], face[(j + 1) & 3]);
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+
+        int[] triangles = new int[36];
+        int count = 0;
+        boolean[] visited = new boolean[12];
+        int[] loop = new int[12];
+        for (int start = 0; start < 12; start++) {
+            if (next[start] < 0 || visited[start]) continue;
+            int length = 0;
+            for (int e = start; !visited[e]; e = next[e]) {
+                visited[e] = true;
+                loop[length++] = e;
+            }
+            for (int i = 1; i + 1 < length; i++) {
+                triangles[count++] = loop[0];
+                triangles[count++] = loop[i];
+                triangles[count++] = loop[i + 1];
+            }
+        }
+        return Arrays.copyOf(triangles, count);
+    }
+
+    private static boolean isInside(int inside, int corner) {
+        return (inside & (1 << corner)) != 0;
+    }
+
+    private static int edge(int a, int b) {
+        int base = Math.min(a, b), axis = Integer.numberOfTrailingZeros(a ^ b);
+        for (int e = 0; e < 12; e++) {
+            if (EDGE_BASE[e] == base && EDGE_AXIS[e] == axis) return e;
+        }
+        throw new IllegalStateException("Corners " + a + " and " + b + " share no edge");
+    }
+
+    /** Number of triangles the table gives for a corner configuration; for tests. */
+    static int triangleCount(int inside) {
+        return TRIANGLES[inside].length / 3;
+    }
+
+    /** Number of distinct cell edges the table places vertices on; for tests. */
+    static int edgesUsed(int inside) {
+        int used = 0;
+        for (int edge : TRIANGLES[inside]) {
+            used |= 1 << edge;
+        }
+        return Integer.bitCount(used);
+    }
+
+    // ============================================================
+    // TILES
+    // ============================================================
+
+    private static final class Grid {
+        final float[] origin = new float[3];
+        final int[] cells = new int[3];
+        final int[] tiles = new int[3];
+
+        /** Coordinate of grid point {@code index} along {@code axis}; the same for every tile sharing it. */
+        float at(int axis, int index, float cellSize) {
+            return origin[axis] + index * cellSize;
+        }
+    }
+
+    /** Growable per-tile output. */
+    static final class Tile {
+        float[] positions = new float[192];
+        float[] normals = new float[192];
+        long[] keys = new long[64];
+        int[] indices = new int[192];
+        int vertexCount;
+        int indexCount;
+
+        int vertex(float x, float y, float z, long key, SignedDistanceField field,
+                   SignedDistanceField.Selection selection, float step) {
+            float gx = field.distance(x + step, y, z, selection) - field.distance(x - step, y, z, selection);
+            float gy = field.distance(x, y + step, z, selection) - field.distance(x, y - step, z, selection);
+            float gz = field.distance(x, y, z + step, selection) - field.distance(x, y, z - step, selection);
+            return vertex(x, y, z, gx, gy, gz, key);
+        }
+
+        /**
+         * Adds a vertex with normal along the gradient {@code g}, identified by a global edge
+         * {@code key} for welding.
+         */
+        int vertex(float x, float y, float z, float gx, float gy, float gz, long key) {
+            if (vertexCount == keys.length) {
+                keys = Arrays.copyOf(keys, vertexCount * 2);
+                positions = Arrays.copyOf(positions, vertexCount * 6);
+                normals = Arrays.copyOf(normals, vertexCount * 6);
+            }
+            int o = vertexCount * 3;
+            positions[o] = x;
+            positions[o + 1] = y;
+            positions[o + 2] = z;
+            float length = (float) Math.sqrt(gx * gx + gy * gy + gz * gz);
+            if (length > 0) {
+                normals[o] = gx / length;
+                normals[o + 1] = gy / length;
+                normals[o + 2] = gz / length;
+            }
+            keys[vertexCount] = key;
+            return vertexCount++;
+        }
+
+        void index(int vertex) {
+            if (indexCount == indices.length) indices = Arrays.copyOf(indices, indexCount * 2);
+            indices[indexCount++] = vertex;
+        }
+    }
+}
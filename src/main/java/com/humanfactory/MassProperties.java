@@ -0,0 +1,300 @@
+package com.humanfactory;
+
+import org.joml.Matrix3f;
+import org.joml.Quaternionf;
+import org.joml.Quaternionfc;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Mass, center of mass and inertia of every bone of one skeleton, plus bind-pose totals for the
+ * whole body and every subtree.
+ * <p>
+ * Per bone, mass is spread over its {@link BoneShape}s in proportion to their volume, giving a
+ * local center of mass and an inertia tensor about it, both in the bone's frame. Boxes and spheres
+ * are solid; a capsule's axis is the Y axis of its rotation. A bone without shapes is a point mass
+ * at its origin. Whole-body and subtree values use the bind pose, in model space.
+ * <p>
+ * {@link Skeleton#massProperties()} computes and caches the instance for the assigned bone masses.
+ * Immutable and thread-safe.
+ */
+public final class MassProperties {
+
+    // Below this many skeletons a batch slice runs on the current thread
+    private static final int BATCH_SLICE = 16;
+    private static final float PI = (float) Math.PI;
+    private static final Quaternionf IDENTITY = new Quaternionf();
+
+    private final float[] masses = new float[Skeleton.BONE_COUNT];
+    private final float[] localCenters = new float[Skeleton.BONE_COUNT * 3];     // [ordinal * 3 + xyz], bone frame
+    private final float[] inertias = new float[Skeleton.BONE_COUNT * 6];         // [ordinal * 6] xx, yy, zz, xy, xz, yz
+    private final float[] subtreeMasses = new float[Skeleton.BONE_COUNT];
+    private final float[] subtreeCenters = new float[Skeleton.BONE_COUNT * 3];   // Model space, bind pose
+    private final float totalMass;
+    private final Vector3f centerOfMass = new Vector3f();
+    private final Matrix3f bodyInertia = new Matrix3f().zero();
+
+    /**
+     * @param density Kg per cubic meter for every shape, or NaN to use the skeleton's assigned masses
+     */
+    private MassProperties(Skeleton skeleton, float density) {
+        Matrix3f rotation = new Matrix3f();
+        Matrix3f tensor = new Matrix3f();
+        Matrix3f scratch = new Matrix3f();
+        Vector3f offset = new Vector3f();
+        Vector3f moments = new Vector3f();
+
+        // Per bone: volume-weighted shape centroids, then tensors shifted to that centroid
+        for (int b = skeleton.nextPresent(0); b >= 0; b = skeleton.nextPresent(b + 1)) {
+            List<BoneShape> shapes = skeleton.collisionShapes(Skeleton.BONES[b]);
+            float volume = 0;
+            for (BoneShape shape : shapes) {
+                volume += volume(shape);
+            }
+            float mass = Float.isNaN(density) ? skeleton.mass(Skeleton.BONES[b]) : density * volume;
+            masses[b] = mass;
+            if (volume <= 0) continue;
+
+            float cx = 0, cy = 0, cz = 0;
+            for (BoneShape shape : shapes) {
+                float share = volume(shape) / volume;
+                offset(shape, offset);
+                cx += share * offset.x;
+                cy += share * offset.y;
+                cz += share * offset.z;
+            }
+            localCenters[b * 3] = cx;
+            localCenters[b * 3 + 1] = cy;
+            localCenters[b * 3 + 2] = cz;
+
+            for (BoneShape shape : shapes) {
+                float m = mass * volume(shape) / volume;
+                principalInertia(shape, m, moments);
+                tensor.scaling(moments.x, moments.y, moments.z);
+                rotate(tensor, rotation.set(rotation(shape)), scratch);
+                offset(shape, offset).sub(cx, cy, cz);
+                addTensor(inertias, b * 6, tensor, m, offset);
+            }
+        }
+
+        // Bind-pose world transforms, then subtree sums leaves-to-root
+        float[] world = ForwardKinematics.newOutput();
+        new ForwardKinematics(skeleton).evaluate(new Pose(), world);
+        JointTopology topology = JointRegistry.topology();
+        Quaternionf boneRotation = new Quaternionf();
+        float[] worldCenters = new float[Skeleton.BONE_COUNT * 3];
+        float mass = 0, mx = 0, my = 0, mz = 0;
+        for (int b = 0; b < Skeleton.BONE_COUNT; b++) {
+            int o = b * ForwardKinematics.STRIDE;
+            boneRotation.set(world[o], world[o + 1], world[o + 2], world[o + 3])
+                .transform(localCenters[b * 3], localCenters[b * 3 + 1], localCenters[b * 3 + 2], offset)
+                .add(world[o + 4], world[o + 5], world[o + 6]);
+            worldCenters[b * 3] = offset.x;
+            worldCenters[b * 3 + 1] = offset.y;
+            worldCenters[b * 3 + 2] = offset.z;
+            subtreeMasses[b] = masses[b];
+            subtreeCenters[b * 3] = masses[b] * offset.x;
+            subtreeCenters[b * 3 + 1] = masses[b] * offset.y;
+            subtreeCenters[b * 3 + 2] = masses[b] * offset.z;
+            mass += masses[b];
+            mx += masses[b] * offset.x;
+            my += masses[b] * offset.y;
+            mz += masses[b] * offset.z;
+        }
+        for (int p = Skeleton.BONE_COUNT - 1; p >= 0; p--) {
+            int b = topology.order[p];
+            int parent = topology.parent[b];
+            if (parent == JointTopology.NONE) continue;
+            subtreeMasses[parent] += subtreeMasses[b];
+            subtreeCenters[parent * 3] += subtreeCenters[b * 3];
+            subtreeCenters[parent * 3 + 1] += subtreeCenters[b * 3 + 1];
+            subtreeCenters[parent * 3 + 2] += subtreeCenters[b * 3 + 2];
+        }
+        for (int b = 0; b < Skeleton.BONE_COUNT; b++) {
+            float inv = subtreeMasses[b] > 0 ? 1 / subtreeMasses[b] : 0;
+            subtreeCenters[b * 3] *= inv;
+            subtreeCenters[b * 3 + 1] *= inv;
+            subtreeCenters[b * 3 + 2] *= inv;
+        }
+        totalMass = mass;
+        if (mass > 0) centerOfMass.set(mx / mass, my / mass, mz / mass);
+
+        // Whole-body inertia about the body center of mass
+        float[] body = new float[6];
+        for (int b = 0; b < Skeleton.BONE_COUNT; b++) {
+            if (masses[b] == 0) continue;
+            int o = b * ForwardKinematics.STRIDE;
+            rotation.set(boneRotation.set(world[o], world[o + 1], world[o + 2], world[o + 3]));
+            rotate(inertia(Skeleton.BONES[b], tensor), rotation, scratch);
+            offset.set(worldCenters[b * 3], worldCenters[b * 3 + 1], worldCenters[b * 3 + 2]).sub(centerOfMass);
+            addTensor(body, 0, tensor, masses[b], offset);
+        }
+        toMatrix(body, 0, bodyInertia);
+    }
+
+    /** Properties from the skeleton's assigned bone masses. Prefer the cached {@link Skeleton#massProperties()}. */
+    public static MassProperties of(Skeleton skeleton) {
+        return new MassProperties(skeleton, Float.NaN);
+    }
+
+    /**
+     * Properties of solid shapes at a uniform {@code density} (kg/m^3), e.g.
+     * {@link BodyGenerator#DENSITY_BONE} for the skeleton alone. Bones without shapes are massless.
+     */
+    public static MassProperties of(Skeleton skeleton, float density) {
+        if (!(density >= 0)) {
+            throw new IllegalArgumentException("density must be non-negative: " + density);
+        }
+        return new MassProperties(skeleton, density);
+    }
+
+    /**
+     * {@link Skeleton#massProperties()} for a crowd, computed on {@code pool}; element {@code i}
+     * belongs to {@code skeletons[i]}.
+     */
+    public static MassProperties[] ofBatch(Skeleton[] skeletons, ForkJoinPool pool) {
+        MassProperties[] out = new MassProperties[skeletons.length];
+        ParallelRange.run(pool, skeletons.length, BATCH_SLICE, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                out[i] = skeletons[i].massProperties();
+            }
+        });
+        return out;
+    }
+
+    // ============================================================
+    // SHAPES
+    // ============================================================
+
+    static float volume(BoneShape shape) {
+        return switch (shape) {
+            case BoneShape.Box box -> 8 * box.halfExtents().x() * box.halfExtents().y() * box.halfExtents().z();
+            case BoneShape.Sphere sphere -> 4f / 3f * PI * cube(sphere.radius());
+            case BoneShape.Capsule capsule -> {
+                float r = capsule.radius();
+                yield PI * r * r * cylinderHeight(capsule) + 4f / 3f * PI * cube(r);
+            }
+        };
+    }
+
+    private static Vector3f offset(BoneShape shape, Vector3f dest) {
+        return dest.set(switch (shape) {
+            case BoneShape.Box box -> box.offset();
+            case BoneShape.Sphere sphere -> sphere.offset();
+            case BoneShape.Capsule capsule -> capsule.offset();
+        });
+    }
+
+    private static Quaternionfc rotation(BoneShape shape) {
+        return switch (shape) {
+            case BoneShape.Box box -> box.rotation();
+            case BoneShape.Sphere sphere -> IDENTITY;
+            case BoneShape.Capsule capsule -> capsule.rotation();
+        };
+    }
+
+    /** Principal moments of a solid shape of mass {@code m} about its own centroid, in its own frame. */
+    private static Vector3f principalInertia(BoneShape shape, float m, Vector3f dest) {
+        return switch (shape) {
+            case BoneShape.Box box -> {
+                Vector3fc e = box.halfExtents();
+                float x = e.x(), y = e.y(), z = e.z();
+                yield dest.set(m / 3 * (y * y + z * z), m / 3 * (x * x + z * z), m / 3 * (x * x + y * y));
+            }
+            case BoneShape.Sphere sphere -> {
+                float i = 0.4f * m * sphere.radius() * sphere.radius();
+                yield dest.set(i, i, i);
+            }
+            case BoneShape.Capsule capsule -> {
+                // Cylinder plus two hemispheres, split by volume; hemisphere terms include the parallel-axis shift
+                float r = capsule.radius();
+                float h = cylinderHeight(capsule);
+                float cylinder = PI * r * r * h;
+                float caps = 4f / 3f * PI * cube(r);
+                float mc = m * cylinder / (cylinder + caps);
+                float mh = (m - mc) * 0.5f;
+                float axial = mc * r * r * 0.5f + 2 * mh * 0.4f * r * r;
+                float across = mc * (h * h / 12 + r * r / 4) + 2 * mh * (0.4f * r * r + h * h / 4 + 3 * h * r / 8);
+                yield dest.set(across, axial, across);
+            }
+        };
+    }
+
+    private static float cylinderHeight(BoneShape.Capsule capsule) {
+        return Math.max(0f, capsule.length() - 2 * capsule.radius());
+    }
+
+    private static float cube(float v) {
+        return v * v * v;
+    }
+
+    /** {@code tensor = rotation * tensor * rotation^T}. */
+    private static void rotate(Matrix3f tensor, Matrix3f rotation, Matrix3f scratch) {
+        rotation.mul(tensor, tensor).mul(scratch.set(rotation).transpose());
+    }
+
+    /** Adds {@code tensor} shifted by {@code d} for mass {@code m} (parallel-axis theorem) into {@code acc[o..o+5]}. */
+    private static void addTensor(float[] acc, int o, Matrix3f tensor, float m, Vector3f d) {
+        float d2 = d.lengthSquared();
+        acc[o] += tensor.m00 + m * (d2 - d.x * d.x);
+        acc[o + 1] += tensor.m11 + m * (d2 - d.y * d.y);
+        acc[o + 2] += tensor.m22 + m * (d2 - d.z * d.z);
+        acc[o + 3] += tensor.m10 - m * d.x * d.y;
+        acc[o + 4] += tensor.m20 - m * d.x * d.z;
+        acc[o + 5] += tensor.m21 - m * d.y * d.z;
+    }
+
+    private static Matrix3f toMatrix(float[] sym, int o, Matrix3f dest) {
+        return dest.set(
+            sym[o], sym[o + 3], sym[o + 4],
+            sym[o + 3], sym[o + 1], sym[o + 5],
+            sym[o + 4], sym[o + 5], sym[o + 2]);
+    }
+
+    // ============================================================
+    // QUERIES
+    // ============================================================
+
+    public float mass(Bone bone) {
+        return masses[bone.ordinal()];
+    }
+
+    /** Center of mass of {@code bone} in its own frame. */
+    public Vector3f localCenterOfMass(Bone bone, Vector3f dest) {
+        int i = bone.ordinal() * 3;
+        return dest.set(localCenters[i], localCenters[i + 1], localCenters[i + 2]);
+    }
+
+    /** Inertia tensor of {@code bone} about its local center of mass, in its own frame (kg m^2). */
+    public Matrix3f inertia(Bone bone, Matrix3f dest) {
+        return toMatrix(inertias, bone.ordinal() * 6, dest);
+    }
+
+    public float totalMass() {
+        return totalMass;
+    }
+
+    /** Whole-body center of mass in the bind pose, model space. */
+    public Vector3f centerOfMass(Vector3f dest) {
+        return dest.set(centerOfMass);
+    }
+
+    /** Whole-body inertia tensor about {@link #centerOfMass} in the bind pose, model axes. */
+    public Matrix3f bodyInertia(Matrix3f dest) {
+        return dest.set(bodyInertia);
+    }
+
+    /** Mass of {@code bone} and everything below it in the joint hierarchy. */
+    public float subtreeMass(Bone bone) {
+        return subtreeMasses[bone.ordinal()];
+    }
+
+    /** Center of mass of {@code bone}'s subtree in the bind pose, model space; zero if massless. */
+    public Vector3f subtreeCenterOfMass(Bone bone, Vector3f dest) {
+        int i = bone.ordinal() * 3;
+        return dest.set(subtreeCenters[i], subtreeCenters[i + 1], subtreeCenters[i + 2]);
+    }
+}
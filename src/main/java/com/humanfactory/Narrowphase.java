@@ -0,0 +1,224 @@
+package com.humanfactory;
+
+import static com.humanfactory.PackedShapes.*;
+
+/**
+ * Batched distance kernels over {@link PackedShapes} columns, one method per shape-type pair.
+ * <p>
+ * Each kernel takes two index arrays naming shapes in the two groups, e.g. from a broadphase,
+ * and writes {@code dest[i]} for the pair {@code (first[i], second[i])}. Distances are measured
+ * between the shapes' cores (a sphere's center, a capsule's segment, a box's solid box) minus
+ * the radii. They are exact outside, negative on overlap, and bottom out at minus the summed
+ * radii once the cores touch. Kernels read the columns directly, never dispatch on type and
+ * allocate nothing, so they can run concurrently on disjoint output ranges.
+ */
+public final class Narrowphase {
+
+    // Squared segment lengths below this are treated as points
+    private static final float DEGENERATE = 1e-12f;
+
+    private Narrowphase() {
+    }
+
+    /**
+     * Distances between spheres {@code first[i]} and {@code second[i]}.
+     *
+     * @return Number of pairs that touch or overlap ({@code dest[i] <= 0})
+     */
+    public static int sphereSphere(PackedShapes shapes, int[] first, int[] second, int count, float[] dest) {
+        float[][] s = shapes.sphereColumns();
+        float[] x = s[SPHERE_X], y = s[SPHERE_Y], z = s[SPHERE_Z], r = s[SPHERE_R];
+        int touching = 0;
+        for (int i = 0; i < count; i++) {
+            int a = first[i], b = second[i];
+            float dx = x[a] - x[b], dy = y[a] - y[b], dz = z[a] - z[b];
+            float d = (float) Math.sqrt(dx * dx + dy * dy + dz * dz) - r[a] - r[b];
+            dest[i] = d;
+            if (d <= 0) touching++;
+        }
+        return touching;
+    }
+
+    /**
+     * Distances between capsules {@code capsules[i]} and spheres {@code spheres[i]}.
+     *
+     * @return Number of pairs that touch or overlap ({@code dest[i] <= 0})
+     */
+    public static int capsuleSphere(PackedShapes shapes, int[] capsules, int[] spheres, int count, float[] dest) {
+        float[][] c = shapes.capsuleColumns();
+        float[] cx = c[CAPSULE_X], cy = c[CAPSULE_Y], cz = c[CAPSULE_Z];
+        float[] ax = c[CAPSULE_AX], ay = c[CAPSULE_AY], az = c[CAPSULE_AZ], cr = c[CAPSULE_R];
+        float[][] s = shapes.sphereColumns();
+        float[] sx = s[SPHERE_X], sy = s[SPHERE_Y], sz = s[SPHERE_Z], sr = s[SPHERE_R];
+        int touching = 0;
+        for (int i = 0; i < count; i++) {
+            int a = capsules[i], b = spheres[i];
+            float ux = ax[a], uy = ay[a], uz = az[a];
+            float wx = sx[b] - cx[a], wy = sy[b] - cy[a], wz = sz[b] - cz[a];
+            // Nearest segment point is center + t * axis, t in [-1, 1]
+            float len = ux * ux + uy * uy + uz * uz;
+            float t = len > DEGENERATE ? Math.clamp((wx * ux + wy * uy + wz * uz) / len, -1f, 1f) : 0f;
+            float dx = wx - t * ux, dy = wy - t * uy, dz = wz - t * uz;
+            float d = (float) Math.sqrt(dx * dx + dy * dy + dz * dz) - cr[a] - sr[b];
+            dest[i] = d;
+            if (d <= 0) touching++;
+        }
+        return touching;
+    }
+
+    /**
+     * Distances between capsules {@code first[i]} and {@code second[i]}.
+     *
+     * @return Number of pairs that touch or overlap ({@code dest[i] <= 0})
+     */
+    public static int capsuleCapsule(PackedShapes shapes, int[] first, int[] second, int count, float[] dest) {
+        float[][] c = shapes.capsuleColumns();
+        float[] cx = c[CAPSULE_X], cy = c[CAPSULE_Y], cz = c[CAPSULE_Z];
+        float[] ax = c[CAPSULE_AX], ay = c[CAPSULE_AY], az = c[CAPSULE_AZ], cr = c[CAPSULE_R];
+        int touching = 0;
+        for (int i = 0; i < count; i++) {
+            int a = first[i], b = second[i];
+            float squared = segmentSegmentSquared(
+                cx[a] - ax[a], cy[a] - ay[a], cz[a] - az[a], 2 * ax[a], 2 * ay[a], 2 * az[a],
+                cx[b] - ax[b], cy[b] - ay[b], cz[b] - az[b], 2 * ax[b], 2 * ay[b], 2 * az[b]);
+            float d = (float) Math.sqrt(squared) - cr[a] - cr[b];
+            dest[i] = d;
+            if (d <= 0) touching++;
+        }
+        return touching;
+    }
+
+    /**
+     * Distances between boxes {@code boxes[i]} and capsules {@code capsules[i]}.
+     *
+     * @return Number of pairs that touch or overlap ({@code dest[i] <= 0})
+     */
+    public static int boxCapsule(PackedShapes shapes, int[] boxes, int[] capsules, int count, float[] dest) {
+        float[][] o = shapes.boxColumns();
+        float[] ox = o[BOX_X], oy = o[BOX_Y], oz = o[BOX_Z];
+        float[] ux = o[BOX_UX], uy = o[BOX_UY], uz = o[BOX_UZ];
+        float[] vx = o[BOX_VX], vy = o[BOX_VY], vz = o[BOX_VZ];
+        float[] wx = o[BOX_WX], wy = o[BOX_WY], wz = o[BOX_WZ];
+        float[] ex = o[BOX_EX], ey = o[BOX_EY], ez = o[BOX_EZ];
+        float[][] c = shapes.capsuleColumns();
+        float[] cx = c[CAPSULE_X], cy = c[CAPSULE_Y], cz = c[CAPSULE_Z];
+        float[] ax = c[CAPSULE_AX], ay = c[CAPSULE_AY], az = c[CAPSULE_AZ], cr = c[CAPSULE_R];
+        int touching = 0;
+        for (int i = 0; i < count; i++) {
+            int a = boxes[i], b = capsules[i];
+            // Segment start and direction in the box's frame: project onto its axes
+            float px = cx[b] - ax[b] - ox[a], py = cy[b] - ay[b] - oy[a], pz = cz[b] - az[b] - oz[a];
+            float dx = 2 * ax[b], dy = 2 * ay[b], dz = 2 * az[b];
+            float squared = segmentBoxSquared(
+                ux[a] * px + uy[a] * py + uz[a] * pz,
+                vx[a] * px + vy[a] * py + vz[a] * pz,
+                wx[a] * px + wy[a] * py + wz[a] * pz,
+                ux[a] * dx + uy[a] * dy + uz[a] * dz,
+                vx[a] * dx + vy[a] * dy + vz[a] * dz,
+                wx[a] * dx + wy[a] * dy + wz[a] * dz,
+                ex[a], ey[a], ez[a]);
+            float d = (float) Math.sqrt(squared) - cr[b];
+            dest[i] = d;
+            if (d <= 0) touching++;
+        }
+        return touching;
+    }
+
+    // ============================================================
+    // CLOSEST POINTS
+    // ============================================================
+
+    /** Squared distance between segments {@code p + s * d} and {@code q + t * e}, {@code s, t} in [0, 1]. */
+    static float segmentSegmentSquared(float px, float py, float pz, float dx, float dy, float dz,
+                                       float qx, float qy, float qz, float ex, float ey, float ez) {
+        float rx = px - qx, ry = py - qy, rz = pz - qz;
+        float a = dx * dx + dy * dy + dz * dz;
+        float e = ex * ex + ey * ey + ez * ez;
+        float f = ex * rx + ey * ry + ez * rz;
+        float s, t;
+        if (a <= DEGENERATE && e <= DEGENERATE) {
+            s = 0;
+            t = 0;
+        } else if (a <= DEGENERATE) {
+            s = 0;
+            t = Math.clamp(f / e, 0f, 1f);
+        } else {
+            float c = dx * rx + dy * ry + dz * rz;
+            if (e <= DEGENERATE) {
+                t = 0;
+                s = Math.clamp(-c / a, 0f, 1f);
+            } else {
+                // Closest points of the two lines, clamped to the first segment, then the second
+                float b = dx * ex + dy * ey + dz * ez;
+                float denominator = a * e - b * b;
+                s = denominator > 0 ? Math.clamp((b * f - c * e) / denominator, 0f, 1f) : 0f;
+                t = (b * s + f) / e;
+                if (t < 0) {
+                    t = 0;
+                    s = Math.clamp(-c / a, 0f, 1f);
+                } else if (t > 1) {
+                    t = 1;
+                    s = Math.clamp((b - c) / a, 0f, 1f);
+                }
+            }
+        }
+        float gx = rx + dx * s - ex * t, gy = ry + dy * s - ey * t, gz = rz + dz * s - ez * t;
+        return gx * gx + gy * gy + gz * gz;
+    }
+
+    /**
+     * Squared distance between segment {@code p + t * d}, {@code t} in [0, 1], and the box of
+     * half extents {@code e} at the origin.
+     * <p>
+     * The squared distance along the segment is convex and piecewise quadratic, with breaks where
+     * a coordinate crosses a face plane. Its slope is checked at each break: the last break with a
+     * negative slope and the first with a positive one bracket the minimum, and the slope is
+     * linear between them, so the minimum is found exactly without sorting.
+     */
+    static float segmentBoxSquared(float px, float py, float pz, float dx, float dy, float dz,
+                                   float ex, float ey, float ez) {
+        float low = 0, high = 1;
+        float lowSlope = slope(0, px, py, pz, dx, dy, dz, ex, ey, ez);
+        float highSlope = slope(1, px, py, pz, dx, dy, dz, ex, ey, ez);
+        float t;
+        if (lowSlope >= 0) {
+            t = 0;
+        } else if (highSlope <= 0) {
+            t = 1;
+        } else {
+            t = Float.NaN;
+            for (int k = 0; k < 6 && Float.isNaN(t); k++) {
+                float p = k < 2 ? px : k < 4 ? py : pz;
+                float d = k < 2 ? dx : k < 4 ? dy : dz;
+                float e = k < 2 ? ex : k < 4 ? ey : ez;
+                if (d == 0) continue;
+                float at = ((k & 1) == 0 ? -e - p : e - p) / d;
+                if (!(at > low && at < high)) continue;
+                float m = slope(at, px, py, pz, dx, dy, dz, ex, ey, ez);
+                if (m < 0) {
+                    low = at;
+                    lowSlope = m;
+                } else if (m > 0) {
+                    high = at;
+                    highSlope = m;
+                } else {
+                    t = at;
+                }
+            }
+            if (Float.isNaN(t)) t = low + (high - low) * (-lowSlope / (highSlope - lowSlope));
+        }
+        float gx = outside(px + t * dx, ex), gy = outside(py + t * dy, ey), gz = outside(pz + t * dz, ez);
+        return gx * gx + gy * gy + gz * gz;
+    }
+
+    /** Half the derivative in {@code t} of the squared segment-to-box distance. */
+    private static float slope(float t, float px, float py, float pz, float dx, float dy, float dz,
+                               float ex, float ey, float ez) {
+        return outside(px + t * dx, ex) * dx + outside(py + t * dy, ey) * dy + outside(pz + t * dz, ez) * dz;
+    }
+
+    /** How far {@code v} lies outside {@code [-e, e]}, signed; 0 inside. */
+    private static float outside(float v, float e) {
+        return v - Math.clamp(v, -e, e);
+    }
+}
@@ -0,0 +1,327 @@
+package com.humanfactory;
+
+import org.joml.Quaternionfc;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+
+import java.util.List;
+
+/**
+ * Posed collision shapes of one skeleton or a whole crowd, packed by shape type into
+ * structure-of-arrays columns for {@link Narrowphase}.
+ * <p>
+ * Spheres, capsules and boxes each get their own group, so kernels never dispatch on type.
+ * Within a group every posed component is its own {@code float[]} column, indexed by shape:
+ * <ul>
+ *   <li>spheres: center xyz and radius</li>
+ *   <li>capsules: center xyz, half segment xyz (center to one end sphere) and radius</li>
+ *   <li>boxes: center xyz, local X, Y and Z axes in world space, and half extents</li>
+ * </ul>
+ * Shapes are grouped by body in the order bodies were given, then by bone ordinal, so each
+ * body owns one contiguous index range per group. {@link #pose} fills the columns for one
+ * body from {@link ForwardKinematics} output and allocates nothing. Posing different bodies
+ * from different threads is safe; anything else is not.
+ */
+public final class PackedShapes {
+
+    // Sphere columns
+    static final int SPHERE_X = 0, SPHERE_Y = 1, SPHERE_Z = 2, SPHERE_R = 3;
+    static final int SPHERE_COLUMNS = 4;
+
+    // Capsule columns: the segment runs from center - axis to center + axis
+    static final int CAPSULE_X = 0, CAPSULE_Y = 1, CAPSULE_Z = 2;
+    static final int CAPSULE_AX = 3, CAPSULE_AY = 4, CAPSULE_AZ = 5, CAPSULE_R = 6;
+    static final int CAPSULE_COLUMNS = 7;
+
+    // Box columns: unit axes U, V, W are the box's local X, Y, Z
+    static final int BOX_X = 0, BOX_Y = 1, BOX_Z = 2;
+    static final int BOX_UX = 3, BOX_UY = 4, BOX_UZ = 5;
+    static final int BOX_VX = 6, BOX_VY = 7, BOX_VZ = 8;
+    static final int BOX_WX = 9, BOX_WY = 10, BOX_WZ = 11;
+    static final int BOX_EX = 12, BOX_EY = 13, BOX_EZ = 14;
+    static final int BOX_COLUMNS = 15;
+
+    private final int bodyCount;
+    private final Group spheres;
+    private final Group capsules;
+    private final Group boxes;
+
+    /** Collects the collision shapes of {@code bodies}; body {@code i} is {@code bodies.get(i)}. */
+    public PackedShapes(List<Skeleton> bodies) {
+        this(bodies.toArray(new Skeleton[0]));
+    }
+
+    public PackedShapes(Skeleton... bodies) {
+        bodyCount = bodies.length;
+        int sphereCount = 0, capsuleCount = 0, boxCount = 0;
+        for (Skeleton body : bodies) {
+            for (Bone bone : Skeleton.BONES) {
+                for (BoneShape shape : body.collisionShapes(bone)) {
+                    switch (shape) {
+                        case BoneShape.Sphere ignored -> sphereCount++;
+                        case BoneShape.Capsule ignored -> capsuleCount++;
+                        case BoneShape.Box ignored -> boxCount++;
+                    }
+                }
+            }
+        }
+        spheres = new Group(sphereCount, bodyCount, SPHERE_COLUMNS);
+        capsules = new Group(capsuleCount, bodyCount, CAPSULE_COLUMNS);
+        boxes = new Group(boxCount, bodyCount, BOX_COLUMNS);
+
+        for (int b = 0; b < bodyCount; b++) {
+            spheres.firstOfBody[b] = spheres.count;
+            capsules.firstOfBody[b] = capsules.count;
+            boxes.firstOfBody[b] = boxes.count;
+            for (Bone bone : Skeleton.BONES) {
+                for (BoneShape shape : bodies[b].collisionShapes(bone)) {
+                    switch (shape) {
+                        case BoneShape.Sphere sphere -> {
+                            int s = spheres.add(b, bone, sphere.offset(), null);
+                            spheres.columns[SPHERE_R][s] = sphere.radius();
+                        }
+                        case BoneShape.Capsule capsule -> {
+                            int s = capsules.add(b, bone, capsule.offset(), capsule.rotation());
+                            capsules.columns[CAPSULE_R][s] = capsule.radius();
+                            capsules.halfSegments[s] = Math.max(0f, capsule.length() * 0.5f - capsule.radius());
+                        }
+                        case BoneShape.Box box -> {
+                            int s = boxes.add(b, bone, box.offset(), box.rotation());
+                            boxes.columns[BOX_EX][s] = box.halfExtents().x();
+                            boxes.columns[BOX_EY][s] = box.halfExtents().y();
+                            boxes.columns[BOX_EZ][s] = box.halfExtents().z();
+                        }
+                    }
+                }
+            }
+        }
+        spheres.firstOfBody[bodyCount] = spheres.count;
+        capsules.firstOfBody[bodyCount] = capsules.count;
+        boxes.firstOfBody[bodyCount] = boxes.count;
+    }
+
+    public int bodyCount() {
+        return bodyCount;
+    }
+
+    // ============================================================
+    // POSING
+    // ============================================================
+
+    /** Poses body {@code body}'s shapes from {@code world} ({@link ForwardKinematics} output). */
+    public void pose(int body, float[] world) {
+        pose(body, world, 0, 0, 0);
+    }
+
+    /**
+     * Poses body {@code body}'s shapes from {@code world}, moved by {@code (x, y, z)} to place
+     * the body in the crowd.
+     */
+    public void pose(int body, float[] world, float x, float y, float z) {
+        if (body < 0 || body >= bodyCount) throw new IndexOutOfBoundsException(body);
+        poseSpheres(body, world, x, y, z);
+        poseCapsules(body, world, x, y, z);
+        poseBoxes(body, world, x, y, z);
+    }
+
+    private void poseSpheres(int body, float[] world, float x, float y, float z) {
+        for (int s = spheres.firstOfBody[body], end = spheres.firstOfBody[body + 1]; s < end; s++) {
+            spheres.center(s, world, x, y, z);
+        }
+    }
+
+    private void poseCapsules(int body, float[] world, float x, float y, float z) {
+        float[][] c = capsules.columns;
+        float[] q = capsules.posedRotations;
+        for (int s = capsules.firstOfBody[body], end = capsules.firstOfBody[body + 1]; s < end; s++) {
+            capsules.center(s, world, x, y, z);
+            capsules.rotation(s, world);
+            // Local Y axis in world space, scaled to the half segment
+            float qx = q[s * 4], qy = q[s * 4 + 1], qz = q[s * 4 + 2], qw = q[s * 4 + 3];
+            float h = capsules.halfSegments[s];
+            c[CAPSULE_AX][s] = 2 * (qx * qy - qz * qw) * h;
+            c[CAPSULE_AY][s] = (1 - 2 * (qx * qx + qz * qz)) * h;
+            c[CAPSULE_AZ][s] = 2 * (qy * qz + qx * qw) * h;
+        }
+    }
+
+    private void poseBoxes(int body, float[] world, float x, float y, float z) {
+        float[][] c = boxes.columns;
+        float[] q = boxes.posedRotations;
+        for (int s = boxes.firstOfBody[body], end = boxes.firstOfBody[body + 1]; s < end; s++) {
+            boxes.center(s, world, x, y, z);
+            boxes.rotation(s, world);
+            float qx = q[s * 4], qy = q[s * 4 + 1], qz = q[s * 4 + 2], qw = q[s * 4 + 3];
+            float xx = qx * qx, yy = qy * qy, zz = qz * qz;
+            float xy = qx * qy, xz = qx * qz, yz = qy * qz, xw = qx * qw, yw = qy * qw, zw = qz * qw;
+            c[BOX_UX][s] = 1 - 2 * (yy + zz);
+            c[BOX_UY][s] = 2 * (xy + zw);
+            c[BOX_UZ][s] = 2 * (xz - yw);
+            c[BOX_VX][s] = 2 * (xy - zw);
+            c[BOX_VY][s] = 1 - 2 * (xx + zz);
+            c[BOX_VZ][s] = 2 * (yz + xw);
+            c[BOX_WX][s] = 2 * (xz + yw);
+            c[BOX_WY][s] = 2 * (yz - xw);
+            c[BOX_WZ][s] = 1 - 2 * (xx + yy);
+        }
+    }
+
+    // ============================================================
+    // ACCESS
+    // ============================================================
+
+    public int sphereCount() {
+        return spheres.count;
+    }
+
+    public int capsuleCount() {
+        return capsules.count;
+    }
+
+    public int boxCount() {
+        return boxes.count;
+    }
+
+    /** First sphere index of {@code body}; its spheres run up to {@code firstSphere(body + 1)}. */
+    public int firstSphere(int body) {
+        return spheres.firstOfBody[bodyBound(body)];
+    }
+
+    public int firstCapsule(int body) {
+        return capsules.firstOfBody[bodyBound(body)];
+    }
+
+    public int firstBox(int body) {
+        return boxes.firstOfBody[bodyBound(body)];
+    }
+
+    public int sphereBody(int s) {
+        return spheres.bodies[s];
+    }
+
+    public int capsuleBody(int s) {
+        return capsules.bodies[s];
+    }
+
+    public int boxBody(int s) {
+        return boxes.bodies[s];
+    }
+
+    public Bone sphereBone(int s) {
+        return Skeleton.BONES[spheres.bones[s]];
+    }
+
+    public Bone capsuleBone(int s) {
+        return Skeleton.BONES[capsules.bones[s]];
+    }
+
+    public Bone boxBone(int s) {
+        return Skeleton.BONES[boxes.bones[s]];
+    }
+
+    /** Posed center of sphere {@code s}. */
+    public Vector3f sphereCenter(int s, Vector3f dest) {
+        float[][] c = spheres.columns;
+        return dest.set(c[SPHERE_X][s], c[SPHERE_Y][s], c[SPHERE_Z][s]);
+    }
+
+    /** Posed end-sphere centers of capsule {@code s}. */
+    public void capsuleSegment(int s, Vector3f start, Vector3f end) {
+        float[][] c = capsules.columns;
+        float x = c[CAPSULE_X][s], y = c[CAPSULE_Y][s], z = c[CAPSULE_Z][s];
+        float ax = c[CAPSULE_AX][s], ay = c[CAPSULE_AY][s], az = c[CAPSULE_AZ][s];
+        start.set(x - ax, y - ay, z - az);
+        end.set(x + ax, y + ay, z + az);
+    }
+
+    /** Posed center of box {@code s}. */
+    public Vector3f boxCenter(int s, Vector3f dest) {
+        float[][] c = boxes.columns;
+        return dest.set(c[BOX_X][s], c[BOX_Y][s], c[BOX_Z][s]);
+    }
+
+    /** Sphere columns, {@code [SPHERE_*][sphere]}. */
+    float[][] sphereColumns() {
+        return spheres.columns;
+    }
+
+    /** Capsule columns, {@code [CAPSULE_*][capsule]}. */
+    float[][] capsuleColumns() {
+        return capsules.columns;
+    }
+
+    /** Box columns, {@code [BOX_*][box]}. */
+    float[][] boxColumns() {
+        return boxes.columns;
+    }
+
+    private int bodyBound(int body) {
+        if (body < 0 || body > bodyCount) throw new IndexOutOfBoundsException(body);
+        return body;
+    }
+
+    /** Unposed shapes of one type plus their posed columns. */
+    private static final class Group {
+        final float[][] columns;        // [column][shape]
+        final int[] bodies;
+        final int[] bones;              // Bone ordinal per shape
+        final int[] firstOfBody;        // [body], plus the total at [bodyCount]
+        final float[] offsets;          // [s * 3]
+        final float[] rotations;        // [s * 4] xyzw
+        final float[] halfSegments;     // [s], capsules only: half segment along local Y
+        final float[] posedRotations;   // [s * 4] xyzw, scratch while posing
+        int count;
+
+        Group(int capacity, int bodyCount, int columnCount) {
+            columns = new float[columnCount][capacity];
+            bodies = new int[capacity];
+            bones = new int[capacity];
+            firstOfBody = new int[bodyCount + 1];
+            offsets = new float[capacity * 3];
+            rotations = new float[capacity * 4];
+            halfSegments = new float[capacity];
+            posedRotations = new float[capacity * 4];
+        }
+
+        int add(int body, Bone bone, Vector3fc offset, Quaternionfc rotation) {
+            int s = count++;
+            bodies[s] = body;
+            bones[s] = bone.ordinal();
+            offsets[s * 3] = offset.x();
+            offsets[s * 3 + 1] = offset.y();
+            offsets[s * 3 + 2] = offset.z();
+            rotations[s * 4 + 3] = 1;
+            if (rotation != null) {
+                rotations[s * 4] = rotation.x();
+                rotations[s * 4 + 1] = rotation.y();
+                rotations[s * 4 + 2] = rotation.z();
+                rotations[s * 4 + 3] = rotation.w();
+            }
+            return s;
+        }
+
+        /** Writes shape {@code s}'s world center into columns 0-2, which are xyz in every group. */
+        void center(int s, float[] world, float x, float y, float z) {
+            int w = bones[s] * ForwardKinematics.STRIDE;
+            float qx = world[w], qy = world[w + 1], qz = world[w + 2], qw = world[w + 3];
+            float ox = offsets[s * 3], oy = offsets[s * 3 + 1], oz = offsets[s * 3 + 2];
+            // offset + 2 * cross(q, cross(q, offset) + w * offset)
+            float tx = 2 * (qy * oz - qz * oy), ty = 2 * (qz * ox - qx * oz), tz = 2 * (qx * oy - qy * ox);
+            columns[0][s] = world[w + 4] + x + ox + qw * tx + (qy * tz - qz * ty);
+            columns[1][s] = world[w + 5] + y + oy + qw * ty + (qz * tx - qx * tz);
+            columns[2][s] = world[w + 6] + z + oz + qw * tz + (qx * ty - qy * tx);
+        }
+
+        /** Writes shape {@code s}'s world rotation, bone rotation times local rotation, into {@link #posedRotations}. */
+        void rotation(int s, float[] world) {
+            int w = bones[s] * ForwardKinematics.STRIDE;
+            float px = world[w], py = world[w + 1], pz = world[w + 2], pw = world[w + 3];
+            int r = s * 4;
+            float bx = rotations[r], by = rotations[r + 1], bz = rotations[r + 2], bw = rotations[r + 3];
+            posedRotations[r] = pw * bx + px * bw + py * bz - pz * by;
+            posedRotations[r + 1] = pw * by - px * bz + py * bw + pz * bx;
+            posedRotations[r + 2] = pw * bz + px * by - py * bx + pz * bw;
+            posedRotations[r + 3] = pw * bw - px * bx - py * by - pz * bz;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.humanfactory;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs an index range on a {@link ForkJoinPool}, splitting in halves down to a slice size.
+ * Each index is handled by exactly one task, so per-index output never depends on scheduling.
+ */
+final class ParallelRange {
+
+    /** Work for the half-open index range {@code [from, to)}. */
+    @FunctionalInterface
+    interface Body {
+        void run(int from, int to);
+    }
+
+    private ParallelRange() {
+    }
+
+    /**
+     * Runs {@code body} over {@code [0, count)}; ranges of at most {@code slice} indices run directly.
+     */
+    static void run(ForkJoinPool pool, int count, int slice, Body body) {
+        if (count <= slice) {
+            body.run(0, count);
+        } else {
+            pool.invoke(new Task(body, slice, 0, count));
+        }
+    }
+
+    /** As {@link #run}, but returns at once; join the task before using the output. */
+    static ForkJoinTask<Void> submit(ForkJoinPool pool, int count, int slice, Body body) {
+        return pool.submit(new Task(body, slice, 0, count));
+    }
+
+    @SuppressWarnings("serial")
+    private static final class Task extends RecursiveAction {
+        private final Body body;
+        private final int slice;
+        private final int from;
+        private final int to;
+
+        Task(Body body, int slice, int from, int to) {
+            this.body = body;
+            this.slice = slice;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= slice) {
+                body.run(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Task(body, slice, from, mid), new Task(body, slice, mid, to));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.humanfactory;
+
+import org.joml.Quaternionf;
+import org.joml.Quaternionfc;
+
+import java.util.Arrays;
+
+/**
+ * Per-bone local rotations applied on top of the bind pose, indexed by {@link Bone#ordinal()}.
+ * A new pose is the bind pose (every rotation identity). Mutable and not thread-safe;
+ * use one pose per character.
+ */
+public final class Pose {
+
+    final float[] rotations = new float[Skeleton.BONE_COUNT * 4];     // [ordinal * 4 + xyzw]
+
+    public Pose() {
+        reset();
+    }
+
+    /** Resets every bone to the bind pose. */
+    public void reset() {
+        Arrays.fill(rotations, 0f);
+        for (int i = 3; i < rotations.length; i += 4) {
+            rotations[i] = 1f;
+        }
+    }
+
+    public Pose set(Bone bone, float x, float y, float z, float w) {
+        int i = bone.ordinal() * 4;
+        rotations[i] = x;
+        rotations[i + 1] = y;
+        rotations[i + 2] = z;
+        rotations[i + 3] = w;
+        return this;
+    }
+
+    public Pose set(Bone bone, Quaternionfc rotation) {
+        return set(bone, rotation.x(), rotation.y(), rotation.z(), rotation.w());
+    }
+
+    public Quaternionf get(Bone bone, Quaternionf dest) {
+        int i = bone.ordinal() * 4;
+        return dest.set(rotations[i], rotations[i + 1], rotations[i + 2], rotations[i + 3]);
+    }
+
+    public void copyFrom(Pose other) {
+        System.arraycopy(other.rotations, 0, rotations, 0, rotations.length);
+    }
+
+    /**
+     * Sets this pose to the mirror image of {@code other} across the midline (the YZ plane): every
+     * bone takes its {@link Bone#mirror() counterpart}'s rotation reflected to (x, -y, -z, w).
+     * World transforms mirror exactly for skeletons whose sides are mirror images, as generated, only
+     * while the skull's {@link JointType#FIBROUS} sutures are at identity: the mandible hangs off
+     * {@link Bone#TEMPORAL_LEFT}, so otherwise it follows the left side in both poses instead of mirroring.
+     * {@code other} may be this pose.
+     */
+    public void mirrorFrom(Pose other) {
+        float[] source = other.rotations;
+        for (Bone bone : Skeleton.BONES) {
+            int a = bone.ordinal() * 4;
+            int b = bone.mirror().ordinal() * 4;
+            if (b < a) continue;
+            // Read both sides before writing either, for in-place mirroring
+            float ax = source[a], ay = source[a + 1], az = source[a + 2], aw = source[a + 3];
+            float bx = source[b], by = source[b + 1], bz = source[b + 2], bw = source[b + 3];
+            rotations[a] = bx;
+            rotations[a + 1] = -by;
+            rotations[a + 2] = -bz;
+            rotations[a + 3] = bw;
+            rotations[b] = ax;
+            rotations[b + 1] = -ay;
+            rotations[b + 2] = -az;
+            rotations[b + 3] = aw;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.humanfactory;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Checks motion datasets of any length against {@link JointRegistry} limits in fixed-size chunks.
+ * <p>
+ * Frames are pulled from a {@link FrameSource} in {@link JointLimitTable#POSE_STRIDE} layout into
+ * two reusable chunk buffers in turn: while one chunk is checked in parallel on the pool, the
+ * calling thread reads the next. Each checked chunk is handed to an optional {@link MaskSink} as one
+ * {@link #MASK_WORDS}-long bitmask per frame (bit {@link Bone#ordinal()} set when that bone's local
+ * rotation is out of limits), and folded into per-joint, per-axis violation counts. Memory is
+ * bounded by the chunk size, never by the dataset.
+ * <p>
+ * A validator holds its chunk buffers, so one {@link #validate} runs at a time per instance.
+ */
+public final class PoseValidator {
+
+    /** Longs per frame in a violation mask. */
+    public static final int MASK_WORDS = Skeleton.PRESENCE_WORDS;
+    public static final int DEFAULT_CHUNK_FRAMES = 4096;
+    /** Default slack in radians, absorbing the Euler round trip of rotations built exactly at a limit. */
+    public static final float DEFAULT_TOLERANCE = 1e-4f;
+
+    // Below this many frames a parallel slice runs on the current thread
+    private static final int PARALLEL_SLICE = 128;
+
+    /** Supplies frames; returning 0 (or less) ends the stream. */
+    @FunctionalInterface
+    public interface FrameSource {
+        /**
+         * Writes up to {@code maxFrames} frames of {@link JointLimitTable#POSE_STRIDE} floats to the
+         * start of {@code dest}.
+         *
+         * @return Number of frames written
+         */
+        int read(float[] dest, int maxFrames) throws IOException;
+
+        /** Adapts an iterator of poses; each pose is copied when read. */
+        static FrameSource of(Iterator<Pose> poses) {
+            return (dest, maxFrames) -> {
+                int frames = 0;
+                while (frames < maxFrames && poses.hasNext()) {
+                    System.arraycopy(poses.next().rotations, 0, dest, frames * JointLimitTable.POSE_STRIDE,
+                        JointLimitTable.POSE_STRIDE);
+                    frames++;
+                }
+                return frames;
+            };
+        }
+    }
+
+    /** Receives the masks of each chunk, in frame order. */
+    @FunctionalInterface
+    public interface MaskSink {
+        /**
+         * @param firstFrame Index of the chunk's first frame in the stream
+         * @param frames     Frames in this chunk
+         * @param masks      {@code frames * MASK_WORDS} longs; reused after this call returns
+         */
+        void accept(long firstFrame, int frames, long[] masks);
+    }
+
+    private final JointLimitTable table = JointRegistry.limitTable();
+    private final int chunkFrames;
+    private final float tolerance;
+    private final ForkJoinPool pool;
+    private final float[] chunk;
+    private final float[] nextChunk;
+    private final long[] masks;
+
+    /** Default chunk size and tolerance on the common pool. */
+    public PoseValidator() {
+        this(DEFAULT_CHUNK_FRAMES, DEFAULT_TOLERANCE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param chunkFrames Frames per chunk; memory use is about {@code chunkFrames * 6.6 KB}
+     * @param tolerance   Radians an angle may exceed its limit before it counts as a violation
+     */
+    public PoseValidator(int chunkFrames, float tolerance, ForkJoinPool pool) {
+        if (chunkFrames <= 0) {
+            throw new IllegalArgumentException("chunkFrames must be positive: " + chunkFrames);
+        }
+        if (!(tolerance >= 0)) {
+            throw new IllegalArgumentException("tolerance must be non-negative: " + tolerance);
+        }
+        this.chunkFrames = chunkFrames;
+        this.tolerance = tolerance;
+        this.pool = pool;
+        this.chunk = new float[chunkFrames * JointLimitTable.POSE_STRIDE];
+        this.nextChunk = new float[chunkFrames * JointLimitTable.POSE_STRIDE];
+        this.masks = new long[chunkFrames * MASK_WORDS];
+    }
+
+    // ============================================================
+    // VALIDATION
+    // ============================================================
+
+    /**
+     * Reads {@code source} to its end. The next chunk is read before the sink gets the current one.
+     *
+     * @param sink Receives per-frame masks, or null if only the report is wanted
+     * @throws IOException if the source does
+     */
+    public Report validate(FrameSource source, MaskSink sink) throws IOException {
+        long[] axisCounts = new long[Skeleton.BONE_COUNT * 3];
+        long frames = 0;
+        long invalidFrames = 0;
+        float[] current = chunk, spare = nextChunk;
+        int read = read(source, current);
+        while (read > 0) {
+            float[] checked = current;
+            Arrays.fill(masks, 0, read * MASK_WORDS, 0L);
+            ForkJoinTask<Void> checking = ParallelRange.submit(pool, read, PARALLEL_SLICE, (from, to) -> {
+                // Slice-local counts, merged once per slice
+                long[] local = new long[axisCounts.length];
+                for (int f = from; f < to; f++) {
+                    table.check(checked, f * JointLimitTable.POSE_STRIDE, tolerance, masks, f * MASK_WORDS, local);
+                }
+                synchronized (axisCounts) {
+                    for (int i = 0; i < local.length; i++) {
+                        axisCounts[i] += local[i];
+                    }
+                }
+            });
+            int next;
+            try {
+                next = read(source, spare);
+            } finally {
+                // Never leave a check running on a buffer the next call may refill
+                checking.join();
+            }
+            for (int f = 0; f < read; f++) {
+                long any = 0;
+                for (int w = 0; w < MASK_WORDS; w++) {
+                    any |= masks[f * MASK_WORDS + w];
+                }
+                if (any != 0) invalidFrames++;
+            }
+            if (sink != null) sink.accept(frames, read, masks);
+            frames += read;
+            current = spare;
+            spare = checked;
+            read = next;
+        }
+        return new Report(frames, invalidFrames, axisCounts);
+    }
+
+    private int read(FrameSource source, float[] dest) throws IOException {
+        int read = source.read(dest, chunkFrames);
+        if (read > chunkFrames) {
+            throw new IllegalStateException("Source wrote " + read + " frames into a " + chunkFrames + "-frame chunk");
+        }
+        return read;
+    }
+
+    /** Checks one pose, overwriting {@code mask} ({@link #MASK_WORDS} longs). */
+    public boolean isValid(Pose pose, long[] mask) {
+        Arrays.fill(mask, 0, MASK_WORDS, 0L);
+        return table.check(pose.rotations, 0, tolerance, mask, 0, null) == 0;
+    }
+
+    // ============================================================
+    // REPORT
+    // ============================================================
+
+    /** Totals for one {@link #validate} run. Immutable. */
+    public static final class Report {
+
+        private final long frames;
+        private final long invalidFrames;
+        private final long[] axisCounts;    // [ordinal * 3 + axis] pitch, yaw, roll
+
+        Report(long frames, long invalidFrames, long[] axisCounts) {
+            this.frames = frames;
+            this.invalidFrames = invalidFrames;
+            this.axisCounts = axisCounts;
+        }
+
+        public long frames() {
+            return frames;
+        }
+
+        /** Frames with at least one bone out of limits. */
+        public long invalidFrames() {
+            return invalidFrames;
+        }
+
+        /** Frames in which {@code bone} broke its pitch limits. */
+        public long pitchViolations(Bone bone) {
+            return axisCounts[bone.ordinal() * 3];
+        }
+
+        public long yawViolations(Bone bone) {
+            return axisCounts[bone.ordinal() * 3 + 1];
+        }
+
+        public long rollViolations(Bone bone) {
+            return axisCounts[bone.ordinal() * 3 + 2];
+        }
+
+        /** Per-bone totals over all three axes, indexed by {@link Bone#ordinal()}. */
+        public long[] histogram() {
+            long[] totals = new long[Skeleton.BONE_COUNT];
+            for (int b = 0; b < totals.length; b++) {
+                totals[b] = axisCounts[b * 3] + axisCounts[b * 3 + 1] + axisCounts[b * 3 + 2];
+            }
+            return totals;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Report[frames=%d, invalid=%d (%.2f%%)]",
+                frames, invalidFrames, frames == 0 ? 0.0 : 100.0 * invalidFrames / frames);
+        }
+    }
+}
@@ -0,0 +1,763 @@
+package com.humanfactory;
+
+import java.util.Arrays;
+
+/**
+ * Sparse adaptive octree sampler for a skeleton's signed distance field, with per-bone caches
+ * that survive pose changes.
+ * <p>
+ * Each bone's own shapes are sampled once, at construction, on a grid of spacing
+ * {@code resolution} in the bone's local frame. The grid is split into bricks of {@link #BRICK}^3
+ * cells, and only bricks that the band {@code |d| <= blend + 2 * resolution} passes through
+ * keep their samples. Bricks wholly inside keep one bound, and empty ones keep their distance in
+ * bricks to the nearest kept one, so a long curved bone costs samples along its surface rather
+ * than its whole box. Between samples the field is trilinear, and bones are joined with the same
+ * smooth minimum as {@link SignedDistanceField}; away from a bone's band only a lower bound for
+ * it is used. {@link #pose} only moves the caches with their bones; it never evaluates a
+ * primitive again.
+ * <p>
+ * The tree then refines only near the surface. A node keeps the bricks whose posed bounds touch
+ * it; with none it is empty without sampling. Otherwise its center is sampled, and since the
+ * trilinear field changes by at most {@code sqrt(3)} per meter, a center farther than that times
+ * the node's half diagonal proves the surface misses the node. Nodes that survive split until
+ * they are {@link #LEAF} cells wide. A leaf samples its grid points one bone at a time, so each
+ * bone's transform and bricks stay at hand, and keeps the cells the surface crosses, whose
+ * corners are the sparse sample set. Those are meshed with the {@link MarchingCubes} table and
+ * normals from the cell's trilinear gradient. Points are sampled from their grid index, so
+ * neighboring leaves agree and the mesh is watertight. Evaluation is read-only; posing is not
+ * thread-safe.
+ */
+public final class SdfOctree {
+
+    /** Deepest tree, so a mesh fits {@link MarchingCubes#MAX_CELLS} cells along an axis. */
+    public static final int MAX_DEPTH = 11;
+    /** Cache brick edge, in cells. */
+    public static final int BRICK = 4;
+    private static final int BRICK_POINTS = (BRICK + 1) * (BRICK + 1) * (BRICK + 1);
+    /** Leaf node edge, in cells. */
+    public static final int LEAF = 4;
+    private static final int LEAF_POINTS = (LEAF + 1) * (LEAF + 1) * (LEAF + 1);
+
+    // Node child slots: a first-child index, or one of these leaf kinds; SURFACE nodes are LEAF
+    // cells wide and sampled in full
+    private static final int OUTSIDE = -1;
+    private static final int INSIDE = -2;
+    private static final int SURFACE = -3;
+    // The trilinear field's gradient is at most sqrt(3), one unit per axis, and a cube's half
+    // diagonal is sqrt(3) half edges: a center farther than 3 half edges leaves the node uncut
+    private static final float PRUNE = 3;
+
+    private final float resolution;
+    private final float blend;
+    // Kept bricks hold every point where a bone's field is within this of zero; elsewhere it is
+    // bounded below by the distance to the bone's nearest kept brick plus this
+    private final float band;
+
+    // Per bone with shapes, in ordinal order
+    private final int[] bones;
+    private final float[] gridMin;        // [b * 3] local min corner of the brick grid
+    private final int[] gridBricks;       // [b * 3] bricks per axis
+    private final int[] slotStart;        // [b] first slot; slots are x-major
+    // A kept brick index, or -1 - n for an empty brick n bricks (Chebyshev) from the nearest kept one
+    private final int[] slots;
+    private final float[] rotation;       // [b * 9] world-from-local, row-major
+    private final float[] translation;    // [b * 3]
+    private final float[] base;           // [b * 3] grid position of the tree origin, in cells
+
+    // Per kept brick, grouped by bone
+    private final int brickCount;
+    private final int[] allBricks;        // 0 .. brickCount, the root's candidates
+    private final int[] brickBone;        // Index into bones
+    private final float[] brickMin;       // [k * 3] local min corner
+    private final int[] brickSamples;     // First of BRICK_POINTS x-major samples, or -1 if solid
+    private final float[] brickBound;     // Largest sample; what a solid brick returns
+    private final float[] samples;
+    private final float[] worldBounds;    // [k * 6] posed brick box, min xyz then max xyz
+
+    // Tree over the current pose
+    private final float[] origin = new float[3];
+    private int depth;
+    private int[] child = new int[64];
+    private int nodeCount;
+    private int[] surfaceCells = new int[96];      // [cell * 3] min corner, in cells
+    private float[] surfaceValues = new float[256]; // [cell * 8] corner c at offset (c & 1, c >> 1 & 1, c >> 2 & 1)
+    private int surfaceCount;
+    // Sampled leaves of the current tree: min corner packed by leafKey, LEAF_POINTS x-major values
+    // each, and an open-addressed table of index + 1 by key
+    private long[] leafKeys = new long[64];
+    private float[] leafValues = new float[64 * LEAF_POINTS];
+    private int leafCount;
+    private int[] leafTable = new int[128];
+    private long sampleCount;
+    // Per level, the bricks that can reach each child of the node being split there, child after
+    // child, and the bones of the node's own bricks
+    private int[][] childBricks = new int[MAX_DEPTH + 1][];
+    private final int[][] childStart = new int[MAX_DEPTH + 1][9];
+    private final int[] childFill = new int[8];
+    private int[][] boneCandidates = new int[MAX_DEPTH + 1][];
+    private final int[] vertexOf = new int[LEAF_POINTS * 3];
+    private final float[] corners = new float[8];
+    private final int[] insideRows = new int[(LEAF + 1) * (LEAF + 1)];
+    private final int[] footprint = new int[3];
+    private final int[] footprintHigh = new int[3];
+    private MarchingCubes.Tile tile;
+    private TriangleMesh mesh;
+
+    /**
+     * Sampler over {@code skeleton} in its bind pose.
+     *
+     * @param blend      Smooth-minimum radius in meters; 0 for a hard union
+     * @param resolution Finest cell edge, which is also the cache grid spacing, in meters
+     * @throws IllegalArgumentException if {@code blend} is negative, {@code resolution} is not
+     *                                  positive, or a bone spans more cells than a tree can hold
+     */
+    public SdfOctree(Skeleton skeleton, float blend, float resolution) {
+        if (!(resolution > 0)) throw new IllegalArgumentException("Resolution must be positive: " + resolution);
+        SignedDistanceField field = new SignedDistanceField(skeleton, blend);
+        this.resolution = resolution;
+        this.blend = blend;
+        this.band = blend + 2 * resolution;
+        float pad = band + resolution;
+        float edge = BRICK * resolution;
+        float halfDiagonal = edge * 0.5f * (float) Math.sqrt(3);
+
+        // With every bone at the origin, unrotated, each bone's shapes sit in its local frame
+        float[] identity = ForwardKinematics.newOutput();
+        for (int b = 0; b < Skeleton.BONE_COUNT; b++) identity[b * ForwardKinematics.STRIDE + 3] = 1;
+        field.pose(identity);
+
+        bones = field.shapedBones();
+        gridMin = new float[bones.length * 3];
+        gridBricks = new int[bones.length * 3];
+        slotStart = new int[bones.length + 1];
+        float[] box = new float[6];
+        for (int i = 0; i < bones.length; i++) {
+            field.boneBounds(bones[i], box);
+            int count = 1;
+            for (int a = 0; a < 3; a++) {
+                gridMin[i * 3 + a] = box[a] - pad;
+                double bricks = Math.ceil((box[a + 3] - box[a] + 2 * pad) / edge);
+                if (bricks * BRICK > 1 << MAX_DEPTH) {
+                    throw new IllegalArgumentException("Bone " + Skeleton.BONES[bones[i]] + " spans more than "
+                        + (1 << MAX_DEPTH) + " cells; raise the resolution");
+                }
+                gridBricks[i * 3 + a] = (int) bricks;
+                count *= gridBricks[i * 3 + a];
+            }
+            slotStart[i + 1] = slotStart[i] + count;
+        }
+        slots = new int[slotStart[bones.length]];
+
+        int kept = 0, sampled = 0;
+        int[] owners = new int[64];
+        float[] mins = new float[192];
+        int[] offsets = new int[64];
+        float[] bounds = new float[64];
+        float[] values = new float[16 * BRICK_POINTS];
+        float[] brick = new float[BRICK_POINTS];
+        SignedDistanceField.Selection selection = new SignedDistanceField.Selection();
+        for (int i = 0; i < bones.length; i++) {
+            field.gatherBone(bones[i], selection);
+            int ny = gridBricks[i * 3 + 1], nz = gridBricks[i * 3 + 2];
+            float h = edge * 0.5f;
+            for (int s = 0; s < slotStart[i + 1] - slotStart[i]; s++) {
+                slots[slotStart[i] + s] = Integer.MIN_VALUE;
+                float x0 = gridMin[i * 3] + s / (ny * nz) * edge;
+                float y0 = gridMin[i * 3 + 1] + s / nz % ny * edge;
+                float z0 = gridMin[i * 3 + 2] + s % nz * edge;
+                // The exact field is 1-Lipschitz, so a far center rules out the whole brick
+                if (field.distance(x0 + h, y0 + h, z0 + h, selection) > band + halfDiagonal) continue;
+                float least = Float.POSITIVE_INFINITY, most = Float.NEGATIVE_INFINITY;
+                for (int p = 0; p < BRICK_POINTS; p++) {
+                    int px = p / ((BRICK + 1) * (BRICK + 1)), py = p / (BRICK + 1) % (BRICK + 1), pz = p % (BRICK + 1);
+                    brick[p] = field.distance(x0 + px * resolution, y0 + py * resolution, z0 + pz * resolution, selection);
+                    least = Math.min(least, brick[p]);
+                    most = Math.max(most, brick[p]);
+                }
+                if (least > band) continue;
+
+                if (kept == owners.length) {
+                    owners = Arrays.copyOf(owners, kept * 2);
+                    mins = Arrays.copyOf(mins, kept * 6);
+                    offsets = Arrays.copyOf(offsets, kept * 2);
+                    bounds = Arrays.copyOf(bounds, kept * 2);
+                }
+                owners[kept] = i;
+                mins[kept * 3] = x0;
+                mins[kept * 3 + 1] = y0;
+                mins[kept * 3 + 2] = z0;
+                bounds[kept] = most;
+                if (most < -band) {
+                    offsets[kept] = -1;
+                } else {
+                    if ((sampled + 1) * BRICK_POINTS > values.length) values = Arrays.copyOf(values, values.length * 2);
+                    System.arraycopy(brick, 0, values, sampled * BRICK_POINTS, BRICK_POINTS);
+                    offsets[kept] = sampled++ * BRICK_POINTS;
+                }
+                slots[slotStart[i] + s] = kept++;
+            }
+            emptyDistances(i);
+        }
+        brickCount = kept;
+        allBricks = new int[kept];
+        for (int k = 0; k < kept; k++) allBricks[k] = k;
+        brickBone = Arrays.copyOf(owners, kept);
+        brickMin = Arrays.copyOf(mins, kept * 3);
+        brickSamples = Arrays.copyOf(offsets, kept);
+        brickBound = Arrays.copyOf(bounds, kept);
+        samples = Arrays.copyOf(values, sampled * BRICK_POINTS);
+
+        rotation = new float[bones.length * 9];
+        translation = new float[bones.length * 3];
+        base = new float[bones.length * 3];
+        worldBounds = new float[kept * 6];
+        float[] world = ForwardKinematics.newOutput();
+        new ForwardKinematics(skeleton).evaluate(new Pose(), world);
+        pose(world);
+    }
+
+    /** Breadth-first over 26 neighbors, writes each empty slot of bone {@code i} as {@code -1 - n}. */
+    private void emptyDistances(int i) {
+        int nx = gridBricks[i * 3], ny = gridBricks[i * 3 + 1], nz = gridBricks[i * 3 + 2];
+        int start = slotStart[i], count = nx * ny * nz;
+        int[] queue = new int[count];
+        int tail = 0;
+        for (int s = 0; s < count; s++) {
+            if (slots[start + s] >= 0) queue[tail++] = s;
+        }
+        for (int head = 0; head < tail; head++) {
+            int s = queue[head];
+            int n = slots[start + s] >= 0 ? 1 : -slots[start + s];
+            int bx = s / (ny * nz), by = s / nz % ny, bz = s % nz;
+            for (int x = Math.max(bx - 1, 0); x <= Math.min(bx + 1, nx - 1); x++) {
+                for (int y = Math.max(by - 1, 0); y <= Math.min(by + 1, ny - 1); y++) {
+                    for (int z = Math.max(bz - 1, 0); z <= Math.min(bz + 1, nz - 1); z++) {
+                        int t = (x * ny + y) * nz + z;
+                        if (slots[start + t] != Integer.MIN_VALUE) continue;
+                        slots[start + t] = -1 - n;
+                        queue[tail++] = t;
+                    }
+                }
+            }
+        }
+        // A bone with no kept brick is bounded by its grid alone
+        for (int s = 0; s < count; s++) {
+            if (slots[start + s] == Integer.MIN_VALUE) slots[start + s] = -1 - (nx + ny + nz);
+        }
+    }
+
+    public float resolution() {
+        return resolution;
+    }
+
+    public float blend() {
+        return blend;
+    }
+
+    // ============================================================
+    // POSING
+    // ============================================================
+
+    /**
+     * Moves the bone caches to {@code world} ({@link ForwardKinematics} output) and rebuilds the
+     * tree. No primitive is evaluated.
+     *
+     * @throws IllegalArgumentException if the posed body needs more than {@link #MAX_DEPTH} levels
+     */
+    public void pose(float[] world) {
+        for (int i = 0; i < bones.length; i++) {
+            int o = bones[i] * ForwardKinematics.STRIDE;
+            float qx = world[o], qy = world[o + 1], qz = world[o + 2], qw = world[o + 3];
+            float[] r = rotation;
+            int m = i * 9;
+            r[m] = 1 - 2 * (qy * qy + qz * qz);
+            r[m + 1] = 2 * (qx * qy - qz * qw);
+            r[m + 2] = 2 * (qx * qz + qy * qw);
+            r[m + 3] = 2 * (qx * qy + qz * qw);
+            r[m + 4] = 1 - 2 * (qx * qx + qz * qz);
+            r[m + 5] = 2 * (qy * qz - qx * qw);
+            r[m + 6] = 2 * (qx * qz - qy * qw);
+            r[m + 7] = 2 * (qy * qz + qx * qw);
+            r[m + 8] = 1 - 2 * (qx * qx + qy * qy);
+            translation[i * 3] = world[o + 4];
+            translation[i * 3 + 1] = world[o + 5];
+            translation[i * 3 + 2] = world[o + 6];
+        }
+        float h = BRICK * resolution * 0.5f;
+        for (int k = 0; k < brickCount; k++) {
+            int i = brickBone[k], m = i * 9;
+            for (int a = 0; a < 3; a++) {
+                float center = translation[i * 3 + a], half = 0;
+                for (int j = 0; j < 3; j++) {
+                    center += rotation[m + a * 3 + j] * (brickMin[k * 3 + j] + h);
+                    half += Math.abs(rotation[m + a * 3 + j]) * h;
+                }
+                worldBounds[k * 6 + a] = center - half;
+                worldBounds[k * 6 + a + 3] = center + half;
+            }
+        }
+        build();
+    }
+
+    // ============================================================
+    // TREE
+    // ============================================================
+
+    private void build() {
+        nodeCount = 0;
+        surfaceCount = 0;
+        leafCount = 0;
+        Arrays.fill(leafTable, 0);
+        sampleCount = 0;
+        mesh = null;
+        tile = new MarchingCubes.Tile();
+        if (brickCount == 0) {
+            depth = 0;
+            return;
+        }
+
+        float[] min = {Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY};
+        float[] max = {Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY};
+        float extent = 0;
+        for (int a = 0; a < 3; a++) {
+            for (int k = 0; k < brickCount; k++) {
+                min[a] = Math.min(min[a], worldBounds[k * 6 + a]);
+                max[a] = Math.max(max[a], worldBounds[k * 6 + a + 3]);
+            }
+            extent = Math.max(extent, max[a] - min[a]);
+        }
+        int levels = 2;
+        while ((1L << levels) * resolution < extent) levels++;
+        if (levels > MAX_DEPTH) {
+            throw new IllegalArgumentException("Octree of " + levels + " levels exceeds " + MAX_DEPTH + "; raise the resolution");
+        }
+        depth = levels;
+        float side = (1 << depth) * resolution;
+        for (int a = 0; a < 3; a++) {
+            origin[a] = (min[a] + max[a]) * 0.5f - side * 0.5f;
+        }
+        float cells = 1 / resolution;
+        for (int i = 0; i < bones.length; i++) {
+            int m = i * 9;
+            float wx = origin[0] - translation[i * 3], wy = origin[1] - translation[i * 3 + 1], wz = origin[2] - translation[i * 3 + 2];
+            base[i * 3] = (rotation[m] * wx + rotation[m + 3] * wy + rotation[m + 6] * wz - gridMin[i * 3]) * cells;
+            base[i * 3 + 1] = (rotation[m + 1] * wx + rotation[m + 4] * wy + rotation[m + 7] * wz - gridMin[i * 3 + 1]) * cells;
+            base[i * 3 + 2] = (rotation[m + 2] * wx + rotation[m + 5] * wy + rotation[m + 8] * wz - gridMin[i * 3 + 2]) * cells;
+        }
+
+        nodeCount = 1;
+        build(0, 0, 0, 0, 0, allBricks, 0, brickCount);
+    }
+
+    /**
+     * Builds the subtree of {@code node} at grid point {@code (x, y, z)}, given the bricks
+     * {@code bricks[from .. from + count)} that can reach any of its grid points, with a cell of
+     * slack against rounding.
+     */
+    private void build(int node, int x, int y, int z, int level, int[] bricks, int from, int count) {
+        if (count == 0) {
+            child[node] = OUTSIDE;
+            return;
+        }
+        if (boneCandidates[level] == null) boneCandidates[level] = new int[bones.length];
+        int[] owners = boneCandidates[level];
+        int boneCount = 0;
+        for (int c = from; c < from + count; c++) {
+            if (boneCount == 0 || owners[boneCount - 1] != brickBone[bricks[c]]) owners[boneCount++] = brickBone[bricks[c]];
+        }
+
+        int span = 1 << (depth - level), half = span >> 1;
+        float d = distance(x + half, y + half, z + half, owners, boneCount);
+        sampleCount++;
+        if (Math.abs(d) > PRUNE * half * resolution) {
+            child[node] = d < 0 ? INSIDE : OUTSIDE;
+            return;
+        }
+        if (span == LEAF) {
+            child[node] = SURFACE;
+            leaf(x, y, z, owners, boneCount);
+            return;
+        }
+
+        // Hand each brick to the children it reaches, counting first so the lists pack
+        float midX = at(0, x + half), midY = at(1, y + half), midZ = at(2, z + half);
+        int[] start = childStart[level];
+        Arrays.fill(start, 0);
+        for (int c = from; c < from + count; c++) {
+            int reach = reach(bricks[c], midX, midY, midZ);
+            for (int k = 0; k < 8; k++) start[k + 1] += reach >> k & 1;
+        }
+        for (int k = 0; k < 8; k++) start[k + 1] += start[k];
+        if (childBricks[level] == null || childBricks[level].length < start[8]) {
+            childBricks[level] = new int[Math.max(start[8], count * 2)];
+        }
+        int[] next = childBricks[level];
+        System.arraycopy(start, 0, childFill, 0, 8);
+        for (int c = from; c < from + count; c++) {
+            int reach = reach(bricks[c], midX, midY, midZ);
+            for (int k = 0; k < 8; k++) {
+                if ((reach >> k & 1) != 0) next[childFill[k]++] = bricks[c];
+            }
+        }
+
+        int first = nodeCount;
+        nodeCount += 8;
+        if (nodeCount > child.length) child = Arrays.copyOf(child, Math.max(nodeCount, child.length * 2));
+        child[node] = first;
+        for (int k = 0; k < 8; k++) {
+            build(first + k, x + (k & 1) * half, y + (k >> 1 & 1) * half, z + (k >> 2 & 1) * half,
+                level + 1, next, start[k], start[k + 1] - start[k]);
+        }
+    }
+
+    /**
+     * Children of a node split at {@code mid} that brick {@code k} reaches, as bit {@code c} for
+     * the child at offset {@code (c & 1, c >> 1 & 1, c >> 2 & 1)}; the brick reaches the node.
+     */
+    private int reach(int k, float midX, float midY, float midZ) {
+        int o = k * 6;
+        int x = (worldBounds[o] <= midX + resolution ? 0x55 : 0) | (worldBounds[o + 3] >= midX - resolution ? 0xAA : 0);
+        int y = (worldBounds[o + 1] <= midY + resolution ? 0x33 : 0) | (worldBounds[o + 4] >= midY - resolution ? 0xCC : 0);
+        int z = (worldBounds[o + 2] <= midZ + resolution ? 0x0F : 0) | (worldBounds[o + 5] >= midZ - resolution ? 0xF0 : 0);
+        return x & y & z;
+    }
+
+    /**
+     * Samples the grid points of a leaf, once each and one bone at a time, then records and meshes
+     * the cells the surface crosses. Faces shared with leaves sampled before are copied; those
+     * neighbors hold the same bones at the shared points, so the values agree bit for bit.
+     */
+    private void leaf(int x, int y, int z, int[] owners, int count) {
+        int n = LEAF + 1;
+        int o = addLeaf(x, y, z) * LEAF_POINTS;
+        float[] values = leafValues;
+        // Morton order visits the -x, -y and -z neighbors first
+        int sx = copyFace(x - LEAF, y, z, n * n, 1, n, o);
+        int sy = copyFace(x, y - LEAF, z, n, n * n, 1, o);
+        int sz = copyFace(x, y, z - LEAF, 1, n * n, n, o);
+        for (int px = sx; px < n; px++) {
+            for (int py = sy; py < n; py++) {
+                Arrays.fill(values, o + (px * n + py) * n + sz, o + (px * n + py) * n + n, Float.POSITIVE_INFINITY);
+            }
+        }
+        float[] r = rotation;
+        for (int c = 0; c < count; c++) {
+            int i = owners[c], m = i * 9;
+            if (!touches(i, x, y, z)) continue;
+            // The same sums as distance(int, int, int, ...), hoisted
+            for (int px = sx; px < n; px++) {
+                float ax = base[i * 3] + (x + px) * r[m];
+                float ay = base[i * 3 + 1] + (x + px) * r[m + 1];
+                float az = base[i * 3 + 2] + (x + px) * r[m + 2];
+                for (int py = sy; py < n; py++) {
+                    float bx = ax + (y + py) * r[m + 3], by = ay + (y + py) * r[m + 4], bz = az + (y + py) * r[m + 5];
+                    for (int pz = sz, p = o + (px * n + py) * n + sz; pz < n; pz++, p++) {
+                        float v = cached(i, bx + (z + pz) * r[m + 6], by + (z + pz) * r[m + 7], bz + (z + pz) * r[m + 8]);
+                        if (v != Float.POSITIVE_INFINITY) values[p] = SignedDistanceField.smoothMin(values[p], v, blend);
+                    }
+                }
+            }
+        }
+        sampleCount += (long) (n - sx) * (n - sy) * (n - sz);
+
+        boolean negative = false, positive = false;
+        for (int p = o; p < o + LEAF_POINTS; p++) {
+            if (values[p] < 0) negative = true;
+            else positive = true;
+        }
+        if (negative && positive) mesh(x, y, z, o);
+    }
+
+    /**
+     * Copies the face a leaf shares with its sampled neighbor at {@code (x, y, z)}, whose opposite
+     * face lies {@code step} points on, into the leaf at {@code o}.
+     *
+     * @return 1 if copied, so sampling starts one point in along that axis; 0 if no such neighbor
+     */
+    private int copyFace(int x, int y, int z, int step, int rows, int columns, int o) {
+        if (x < 0 || y < 0 || z < 0) return 0;
+        int neighbor = findLeaf(leafKey(x, y, z));
+        if (neighbor < 0) return 0;
+        int from = neighbor * LEAF_POINTS + LEAF * step;
+        for (int a = 0; a <= LEAF; a++) {
+            for (int b = 0; b <= LEAF; b++) {
+                leafValues[o + a * rows + b * columns] = leafValues[from + a * rows + b * columns];
+            }
+        }
+        return 1;
+    }
+
+    private static long leafKey(int x, int y, int z) {
+        return ((long) x << 42) | ((long) y << 21) | z;
+    }
+
+    /** Index of the sampled leaf with {@code key}, or -1. */
+    private int findLeaf(long key) {
+        int mask = leafTable.length - 1;
+        for (int h = hash(key) & mask; leafTable[h] != 0; h = (h + 1) & mask) {
+            if (leafKeys[leafTable[h] - 1] == key) return leafTable[h] - 1;
+        }
+        return -1;
+    }
+
+    private int addLeaf(int x, int y, int z) {
+        if (leafCount == leafKeys.length) {
+            leafKeys = Arrays.copyOf(leafKeys, leafCount * 2);
+            leafValues = Arrays.copyOf(leafValues, leafCount * 2 * LEAF_POINTS);
+        }
+        if (leafCount * 2 >= leafTable.length) {
+            leafTable = new int[leafTable.length * 2];
+            for (int l = 0; l < leafCount; l++) insert(l);
+        }
+        leafKeys[leafCount] = leafKey(x, y, z);
+        insert(leafCount);
+        return leafCount++;
+    }
+
+    private void insert(int leaf) {
+        int mask = leafTable.length - 1;
+        int h = hash(leafKeys[leaf]) & mask;
+        while (leafTable[h] != 0) h = (h + 1) & mask;
+        leafTable[h] = leaf + 1;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ h >>> 32);
+    }
+
+    /** Records and meshes the cells of the leaf at {@code (x, y, z)}, sampled at {@code o}, that the surface crosses. */
+    private void mesh(int x, int y, int z, int o) {
+        int n = LEAF + 1;
+        float[] values = leafValues;
+        // A point no bone caches is at least band from the surface, so every corner of a crossed
+        // cell has a cached value
+        Arrays.fill(vertexOf, -1);
+        // Bit pz of row px * n + py is set where the point is inside
+        for (int row = 0; row < n * n; row++) {
+            int bits = 0;
+            for (int pz = 0; pz < n; pz++) {
+                if (values[o + row * n + pz] < 0) bits |= 1 << pz;
+            }
+            insideRows[row] = bits;
+        }
+        long points = (1L << depth) + 1;
+        for (int cx = 0; cx < LEAF; cx++) {
+            for (int cy = 0; cy < LEAF; cy++) {
+                int r00 = insideRows[cx * n + cy], r10 = insideRows[(cx + 1) * n + cy];
+                int r01 = insideRows[cx * n + cy + 1], r11 = insideRows[(cx + 1) * n + cy + 1];
+                for (int cz = 0; cz < LEAF; cz++) {
+                    // Corner k at offset (k & 1, k >> 1 & 1, k >> 2 & 1)
+                    int inside = (r00 >> cz & 1) | (r10 >> cz & 1) << 1 | (r01 >> cz & 1) << 2 | (r11 >> cz & 1) << 3
+                        | (r00 >> cz + 1 & 1) << 4 | (r10 >> cz + 1 & 1) << 5 | (r01 >> cz + 1 & 1) << 6 | (r11 >> cz + 1 & 1) << 7;
+                    if (inside == 0 || inside == 0xFF) continue;
+                    for (int k = 0; k < 8; k++) {
+                        corners[k] = values[o + ((cx + (k & 1)) * n + cy + (k >> 1 & 1)) * n + cz + (k >> 2 & 1)];
+                    }
+                    if (surfaceCount * 3 == surfaceCells.length) {
+                        surfaceCells = Arrays.copyOf(surfaceCells, surfaceCells.length * 2);
+                        surfaceValues = Arrays.copyOf(surfaceValues, surfaceValues.length * 2);
+                    }
+                    int l = surfaceCount++;
+                    surfaceCells[l * 3] = x + cx;
+                    surfaceCells[l * 3 + 1] = y + cy;
+                    surfaceCells[l * 3 + 2] = z + cz;
+                    System.arraycopy(corners, 0, surfaceValues, l * 8, 8);
+
+                    for (int edge : MarchingCubes.TRIANGLES[inside]) {
+                        int k = MarchingCubes.EDGE_BASE[edge], axis = MarchingCubes.EDGE_AXIS[edge];
+                        int px = cx + (k & 1), py = cy + (k >> 1 & 1), pz = cz + (k >> 2 & 1);
+                        int slot = ((px * n + py) * n + pz) * 3 + axis;
+                        if (vertexOf[slot] < 0) {
+                            float a = corners[k], b = corners[k | 1 << axis];
+                            float t0 = a / (a - b);
+                            float fx = k & 1, fy = k >> 1 & 1, fz = k >> 2 & 1;
+                            if (axis == 0) fx += t0;
+                            else if (axis == 1) fy += t0;
+                            else fz += t0;
+                            long key = (((x + px) * points + y + py) * points + z + pz) * 3 + axis;
+                            vertexOf[slot] = vertex(at(0, x + cx) + fx * resolution, at(1, y + cy) + fy * resolution,
+                                at(2, z + cz) + fz * resolution, fx, fy, fz, key);
+                        }
+                        tile.index(vertexOf[slot]);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Whether a kept brick of bone {@code i} may hold a grid point of the leaf at {@code (x, y, z)}. */
+    private boolean touches(int i, int x, int y, int z) {
+        int m = i * 9;
+        int[] lo = footprint, hi = footprintHigh;
+        for (int j = 0; j < 3; j++) {
+            float rx = rotation[m + j] * LEAF, ry = rotation[m + 3 + j] * LEAF, rz = rotation[m + 6 + j] * LEAF;
+            float l = base[i * 3 + j] + x * rotation[m + j] + y * rotation[m + 3 + j] + z * rotation[m + 6 + j];
+            // A cell of slack against rounding
+            float min = l + Math.min(rx, 0) + Math.min(ry, 0) + Math.min(rz, 0) - 1;
+            float max = l + Math.max(rx, 0) + Math.max(ry, 0) + Math.max(rz, 0) + 1;
+            int bricks = gridBricks[i * 3 + j];
+            if (max < 0 || min > bricks * BRICK) return false;
+            lo[j] = Math.max((int) Math.floor(min / BRICK), 0);
+            hi[j] = Math.min((int) Math.floor(max / BRICK), bricks - 1);
+        }
+        int ny = gridBricks[i * 3 + 1], nz = gridBricks[i * 3 + 2];
+        for (int bx = lo[0]; bx <= hi[0]; bx++) {
+            for (int by = lo[1]; by <= hi[1]; by++) {
+                for (int bz = lo[2]; bz <= hi[2]; bz++) {
+                    if (slots[slotStart[i] + (bx * ny + by) * nz + bz] >= 0) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Adds a vertex at cell position {@code (fx, fy, fz)}, with the gradient of the cell's {@link #corners}. */
+    private int vertex(float x, float y, float z, float fx, float fy, float fz, long key) {
+        float gx = 0, gy = 0, gz = 0;
+        for (int k = 0; k < 8; k++) {
+            float wx = (k & 1) != 0 ? fx : 1 - fx;
+            float wy = (k >> 1 & 1) != 0 ? fy : 1 - fy;
+            float wz = (k >> 2 & 1) != 0 ? fz : 1 - fz;
+            float v = corners[k];
+            gx += ((k & 1) != 0 ? v : -v) * wy * wz;
+            gy += ((k >> 1 & 1) != 0 ? v : -v) * wx * wz;
+            gz += ((k >> 2 & 1) != 0 ? v : -v) * wx * wy;
+        }
+        return tile.vertex(x, y, z, gx, gy, gz, key);
+    }
+
+    /** Coordinate of grid point {@code index} along {@code axis}; the same for every cell sharing it. */
+    private float at(int axis, int index) {
+        return origin[axis] + index * resolution;
+    }
+
+    // ============================================================
+    // EVALUATION
+    // ============================================================
+
+    /** Signed distance at a point from the posed bone caches. */
+    public float distance(float x, float y, float z) {
+        float d = Float.POSITIVE_INFINITY, far = Float.POSITIVE_INFINITY;
+        float cells = 1 / resolution;
+        float[] r = rotation;
+        for (int i = 0; i < bones.length; i++) {
+            int m = i * 9;
+            float wx = x - translation[i * 3], wy = y - translation[i * 3 + 1], wz = z - translation[i * 3 + 2];
+            float lx = (r[m] * wx + r[m + 3] * wy + r[m + 6] * wz - gridMin[i * 3]) * cells;
+            float ly = (r[m + 1] * wx + r[m + 4] * wy + r[m + 7] * wz - gridMin[i * 3 + 1]) * cells;
+            float lz = (r[m + 2] * wx + r[m + 5] * wy + r[m + 8] * wz - gridMin[i * 3 + 2]) * cells;
+            float v = cached(i, lx, ly, lz);
+            if (v == Float.POSITIVE_INFINITY) far = Math.min(far, bound(i, lx, ly, lz));
+            else d = SignedDistanceField.smoothMin(d, v, blend);
+        }
+        return Math.min(d, far + band);
+    }
+
+    /**
+     * Field at grid point {@code (x, y, z)} over bones {@code owners[0 .. count)}, ascending, which
+     * must include every bone with a kept brick at the point.
+     */
+    private float distance(int x, int y, int z, int[] owners, int count) {
+        float d = Float.POSITIVE_INFINITY, far = Float.POSITIVE_INFINITY;
+        float[] r = rotation;
+        for (int c = 0; c < count; c++) {
+            int i = owners[c], m = i * 9;
+            float lx = base[i * 3] + x * r[m] + y * r[m + 3] + z * r[m + 6];
+            float ly = base[i * 3 + 1] + x * r[m + 1] + y * r[m + 4] + z * r[m + 7];
+            float lz = base[i * 3 + 2] + x * r[m + 2] + y * r[m + 5] + z * r[m + 8];
+            float v = cached(i, lx, ly, lz);
+            if (v == Float.POSITIVE_INFINITY) far = Math.min(far, bound(i, lx, ly, lz));
+            else d = SignedDistanceField.smoothMin(d, v, blend);
+        }
+        return Math.min(d, far + band);
+    }
+
+    /**
+     * Bone {@code i}'s cached field at grid position {@code (lx, ly, lz)}, in cells: trilinear in a
+     * sampled brick, the bound of a solid one, or infinity outside its kept bricks.
+     */
+    private float cached(int i, float lx, float ly, float lz) {
+        int nx = gridBricks[i * 3], ny = gridBricks[i * 3 + 1], nz = gridBricks[i * 3 + 2];
+        if (!(lx >= 0 && ly >= 0 && lz >= 0 && lx <= nx * BRICK && ly <= ny * BRICK && lz <= nz * BRICK)) {
+            return Float.POSITIVE_INFINITY;
+        }
+        int bx = Math.min((int) lx / BRICK, nx - 1), by = Math.min((int) ly / BRICK, ny - 1), bz = Math.min((int) lz / BRICK, nz - 1);
+        int slot = slots[slotStart[i] + (bx * ny + by) * nz + bz];
+        if (slot < 0) return Float.POSITIVE_INFINITY;
+        if (brickSamples[slot] < 0) return brickBound[slot];
+
+        float tx = lx - bx * BRICK, ty = ly - by * BRICK, tz = lz - bz * BRICK;
+        int ix = Math.min((int) tx, BRICK - 1), iy = Math.min((int) ty, BRICK - 1), iz = Math.min((int) tz, BRICK - 1);
+        tx -= ix;
+        ty -= iy;
+        tz -= iz;
+        int sy = BRICK + 1, sx = sy * sy;
+        int s = brickSamples[slot] + ix * sx + iy * sy + iz;
+        float c00 = lerp(samples[s], samples[s + 1], tz), c01 = lerp(samples[s + sy], samples[s + sy + 1], tz);
+        float c10 = lerp(samples[s + sx], samples[s + sx + 1], tz), c11 = lerp(samples[s + sx + sy], samples[s + sx + sy + 1], tz);
+        return lerp(lerp(c00, c01, ty), lerp(c10, c11, ty), tx);
+    }
+
+    /** Lower bound, less {@code band}, for bone {@code i}'s field where {@link #cached} is infinite. */
+    private float bound(int i, float lx, float ly, float lz) {
+        int nx = gridBricks[i * 3], ny = gridBricks[i * 3 + 1], nz = gridBricks[i * 3 + 2];
+        float ox = Math.max(Math.max(-lx, lx - nx * BRICK), 0f);
+        float oy = Math.max(Math.max(-ly, ly - ny * BRICK), 0f);
+        float oz = Math.max(Math.max(-lz, lz - nz * BRICK), 0f);
+        if (ox > 0 || oy > 0 || oz > 0) return (float) Math.sqrt(ox * ox + oy * oy + oz * oz) * resolution;
+        int bx = Math.min((int) lx / BRICK, nx - 1), by = Math.min((int) ly / BRICK, ny - 1), bz = Math.min((int) lz / BRICK, nz - 1);
+        return (-2 - slots[slotStart[i] + (bx * ny + by) * nz + bz]) * BRICK * resolution;
+    }
+
+    private static float lerp(float a, float b, float t) {
+        return a + (b - a) * t;
+    }
+
+    // ============================================================
+    // OUTPUT
+    // ============================================================
+
+    /** Levels below the root in the current tree; finest cells have edge {@link #resolution}. */
+    public int depth() {
+        return depth;
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /** Finest cells the surface crosses, which carry the corner samples. */
+    public int surfaceCellCount() {
+        return surfaceCount;
+    }
+
+    /** Field evaluations made by the last {@link #pose}, each a few cache lookups. */
+    public long sampleCount() {
+        return sampleCount;
+    }
+
+    /** Number of values in the bone caches, sampled once at construction. */
+    public int cachedSamples() {
+        return samples.length;
+    }
+
+    /** Writes surface cell {@code cell}'s min corner into {@code dest[0..2]}. */
+    public void cellMin(int cell, float[] dest) {
+        for (int k = 0; k < 3; k++) dest[k] = at(k, surfaceCells[cell * 3 + k]);
+    }
+
+    /**
+     * Writes surface cell {@code cell}'s corner distances into {@code dest[0..7]}; corner
+     * {@code c} is offset by {@code (c & 1, c >> 1 & 1, c >> 2 & 1)} cells from {@link #cellMin}.
+     */
+    public void cellValues(int cell, float[] dest) {
+        System.arraycopy(surfaceValues, cell * 8, dest, 0, 8);
+    }
+
+    /** Surface mesh of the current pose, welded on first request. */
+    public TriangleMesh mesh() {
+        if (mesh == null) mesh = MarchingCubes.weld(new MarchingCubes.Tile[] {tile});
+        return mesh;
+    }
+}
@@ -0,0 +1,188 @@
+package com.humanfactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bone pairs excluded from self-collision, as a symmetric bit matrix over {@link Bone#ordinal()}.
+ * <p>
+ * Bones joined at a joint, and siblings such as {@code RADIUS_*} and {@code ULNA_*} that hang off
+ * the same parent, overlap by construction. Rules in the {@link Builder} mark pairs within a
+ * number of joints of each other and pairs of siblings; explicit overrides then ignore or allow
+ * single pairs. Row {@code a} is {@code (Bone.values().length + 63) / 64} {@code long} words with bit
+ * {@code b} set when the pair is ignored, so pair enumeration and bone-mask filtering are
+ * word-level AND-NOTs. A bone is always ignored against itself.
+ * Immutable and thread-safe; the default filter is {@link JointRegistry#selfCollisionFilter()}.
+ */
+public final class SelfCollisionFilter {
+
+    private static final int WORDS = Skeleton.PRESENCE_WORDS;
+
+    private final long[] ignored;   // [a * WORDS + (b >>> 6)] bit b
+
+    private SelfCollisionFilter(long[] ignored) {
+        this.ignored = ignored;
+    }
+
+    /** Parent/child pairs and siblings ignored, nothing else. */
+    static SelfCollisionFilter compile() {
+        return builder().ignoreWithinHops(1).ignoreSiblings().build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // ============================================================
+    // QUERIES
+    // ============================================================
+
+    public boolean ignores(int a, int b) {
+        return (ignored[a * WORDS + (b >>> 6)] & (1L << b)) != 0;
+    }
+
+    public boolean ignores(Bone a, Bone b) {
+        return ignores(a.ordinal(), b.ordinal());
+    }
+
+    /** Word {@code word} of bone {@code a}'s row: bit {@code b} set if the pair {@code (a, b)} is ignored. */
+    public long ignoredWord(int a, int word) {
+        return ignored[a * WORDS + word];
+    }
+
+    /** Number of distinct ignored pairs of different bones. */
+    public int ignoredPairCount() {
+        int bits = 0;
+        for (long word : ignored) {
+            bits += Long.bitCount(word);
+        }
+        return (bits - Skeleton.BONE_COUNT) / 2;
+    }
+
+    /**
+     * Clears from {@code mask} every bone ignored against {@code bone}, e.g. on the result of
+     * {@link CollisionBvh#overlapSphere} around one of {@code bone}'s shapes.
+     *
+     * @param mask At least {@code (Bone.values().length + 63) / 64} words, one bit per bone ordinal
+     */
+    public void removeIgnored(int bone, long[] mask) {
+        int row = bone * WORDS;
+        for (int w = 0; w < WORDS; w++) {
+            mask[w] &= ~ignored[row + w];
+        }
+    }
+
+    /**
+     * Enumerates the bone pairs of {@code skeleton} that may self-collide: both bones present,
+     * {@code first < second}, not ignored. Pairs come in ascending order of first, then second.
+     *
+     * @param first  Receives the first bone ordinal of each pair, up to its length
+     * @param second Receives the second bone ordinal of each pair, up to its length
+     * @return Total number of pairs, which may exceed the arrays' length
+     */
+    public int pairs(Skeleton skeleton, int[] first, int[] second) {
+        int capacity = Math.min(first.length, second.length);
+        int count = 0;
+        for (int a = skeleton.nextPresent(0); a >= 0; a = skeleton.nextPresent(a + 1)) {
+            int row = a * WORDS;
+            // Only bones above a: mask off the lower bits of a's own word and skip earlier words
+            for (int w = a >>> 6; w < WORDS; w++) {
+                long candidates = skeleton.presenceWord(w) & ~ignored[row + w];
+                if (w == a >>> 6) candidates &= -2L << a;
+                while (candidates != 0) {
+                    int b = (w << 6) + Long.numberOfTrailingZeros(candidates);
+                    candidates &= candidates - 1;
+                    if (count < capacity) {
+                        first[count] = a;
+                        second[count] = b;
+                    }
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    // ============================================================
+    // BUILDER
+    // ============================================================
+
+    /**
+     * Collects rules and overrides. Rules apply first, in any order; overrides then apply in the
+     * order they were given, so a later override wins over an earlier one for the same pair.
+     */
+    public static final class Builder {
+        private int hops;
+        private boolean siblings;
+        private final List<Pair> overrides = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Ignores pairs at most {@code hops} joints apart: 1 is parent and child, 2 adds
+         * grandparents and siblings. Bones in unconnected trees are never within range.
+         *
+         * @throws IllegalArgumentException if {@code hops} is negative
+         */
+        public Builder ignoreWithinHops(int hops) {
+            if (hops < 0) throw new IllegalArgumentException("Hops must not be negative: " + hops);
+            this.hops = hops;
+            return this;
+        }
+
+        /** Ignores pairs of bones that share a parent. */
+        public Builder ignoreSiblings() {
+            siblings = true;
+            return this;
+        }
+
+        public Builder ignore(Bone a, Bone b) {
+            overrides.add(new Pair(a.ordinal(), b.ordinal(), true));
+            return this;
+        }
+
+        /**
+         * Lets {@code a} and {@code b} collide even if a rule ignores them.
+         *
+         * @throws IllegalArgumentException if {@code a == b}
+         */
+        public Builder allow(Bone a, Bone b) {
+            if (a == b) throw new IllegalArgumentException("A bone cannot collide with itself: " + a);
+            overrides.add(new Pair(a.ordinal(), b.ordinal(), false));
+            return this;
+        }
+
+        public SelfCollisionFilter build() {
+            JointTopology topology = JointRegistry.topology();
+            int n = Skeleton.BONE_COUNT;
+            long[] ignored = new long[n * WORDS];
+            for (int a = 0; a < n; a++) {
+                set(ignored, a, a, true);
+                for (int b = a + 1; b < n; b++) {
+                    int distance = topology.distance(a, b);
+                    boolean near = distance >= 1 && distance <= hops;
+                    boolean sibling = siblings && topology.parent[a] != JointTopology.NONE
+                        && topology.parent[a] == topology.parent[b];
+                    if (near || sibling) set(ignored, a, b, true);
+                }
+            }
+            for (Pair pair : overrides) {
+                set(ignored, pair.a(), pair.b(), pair.ignore());
+            }
+            return new SelfCollisionFilter(ignored);
+        }
+
+        private record Pair(int a, int b, boolean ignore) {}
+
+        private static void set(long[] ignored, int a, int b, boolean ignore) {
+            if (ignore) {
+                ignored[a * WORDS + (b >>> 6)] |= 1L << b;
+                ignored[b * WORDS + (a >>> 6)] |= 1L << a;
+            } else {
+                ignored[a * WORDS + (b >>> 6)] &= ~(1L << b);
+                ignored[b * WORDS + (a >>> 6)] &= ~(1L << a);
+            }
+        }
+    }
+}
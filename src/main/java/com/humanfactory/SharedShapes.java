@@ -0,0 +1,144 @@
+package com.humanfactory;
+
+import org.joml.Quaternionf;
+import org.joml.Quaternionfc;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Process-wide interning of {@link BoneShape}s and per-bone shape lists, so that a crowd's skeletons
+ * share the structurally identical shapes that do not depend on DNA.
+ * <p>
+ * Most bones have one shape, so shapes are interned as one-shape lists: a single lookup shares the
+ * shape and its list. Longer lists are interned on their own. Both tables are {@link Interner}s of
+ * fixed size, so one-off shapes never accumulate.
+ */
+final class SharedShapes {
+
+    private static final int BOX = 1, CAPSULE = 2, SPHERE = 3;
+    private static final Quaternionfc IDENTITY = new Quaternionf();
+
+    private static final Interner<List<BoneShape>> SINGLES = new Interner<>(1 << 13, SharedShapes::hash);
+    private static final Interner<List<BoneShape>> LISTS = new Interner<>(1 << 10);
+
+    private SharedShapes() {}
+
+    /** The shared shape equal to {@code shape}, whose vectors must not be modified afterwards. */
+    static BoneShape intern(BoneShape shape) {
+        return SINGLES.intern(List.of(shape)).get(0);
+    }
+
+    /** The shared list equal to {@code shapes}, an immutable list of interned shapes. */
+    static List<BoneShape> intern(List<BoneShape> shapes) {
+        return switch (shapes.size()) {
+            case 0 -> shapes;
+            case 1 -> SINGLES.intern(shapes);
+            default -> LISTS.intern(shapes);
+        };
+    }
+
+    // Every kind hashed as (kind, a, b, c, offset, rotation), unused sizes 0, so that
+    // Probe can hash sink arguments the same way without building a shape
+    private static int hash(List<BoneShape> single) {
+        return switch (single.get(0)) {
+            case BoneShape.Box box -> hash(BOX, box.halfExtents().x(), box.halfExtents().y(), box.halfExtents().z(),
+                box.offset(), box.rotation());
+            case BoneShape.Capsule capsule -> hash(CAPSULE, capsule.radius(), capsule.length(), 0,
+                capsule.offset(), capsule.rotation());
+            case BoneShape.Sphere sphere -> hash(SPHERE, sphere.radius(), 0, 0, sphere.offset(), IDENTITY);
+        };
+    }
+
+    private static int hash(int kind, float a, float b, float c, Vector3fc offset, Quaternionfc rotation) {
+        int h = hash(kind, a, b, c, offset.x(), offset.y(), offset.z());
+        h = 31 * h + Float.floatToIntBits(rotation.x());
+        h = 31 * h + Float.floatToIntBits(rotation.y());
+        h = 31 * h + Float.floatToIntBits(rotation.z());
+        return 31 * h + Float.floatToIntBits(rotation.w());
+    }
+
+    private static int hash(int kind, float a, float b, float c, float x, float y, float z) {
+        int h = kind;
+        h = 31 * h + Float.floatToIntBits(a);
+        h = 31 * h + Float.floatToIntBits(b);
+        h = 31 * h + Float.floatToIntBits(c);
+        h = 31 * h + Float.floatToIntBits(x);
+        h = 31 * h + Float.floatToIntBits(y);
+        return 31 * h + Float.floatToIntBits(z);
+    }
+
+    private static boolean same(float a, float b) {
+        return Float.floatToIntBits(a) == Float.floatToIntBits(b);
+    }
+
+    private static boolean same(Vector3fc v, float x, float y, float z) {
+        return same(v.x(), x) && same(v.y(), y) && same(v.z(), z);
+    }
+
+    private static boolean isIdentity(Quaternionfc q) {
+        return same(q.x(), 0) && same(q.y(), 0) && same(q.z(), 0) && same(q.w(), 1);
+    }
+
+    /**
+     * Interns {@link SkeletonSink} shapes, which have identity rotation, straight from their
+     * arguments: a hit allocates nothing. Holds the pending arguments, so one per builder.
+     */
+    static final class Probe implements Predicate<List<BoneShape>> {
+        private int kind;
+        private float a, b, c, x, y, z;
+        private int hash;
+
+        /** Shared one-shape list of {@code new Box(halfExtents, offset, identity)}. */
+        List<BoneShape> box(float halfWidth, float halfHeight, float halfDepth, float ox, float oy, float oz) {
+            List<BoneShape> single = find(BOX, halfWidth, halfHeight, halfDepth, ox, oy, oz);
+            return single != null ? single : SINGLES.install(hash, List.of(new BoneShape.Box(
+                new Vector3f(halfWidth, halfHeight, halfDepth), new Vector3f(ox, oy, oz), new Quaternionf())));
+        }
+
+        /** Shared one-shape list of {@code new Capsule(radius, length, offset, identity)}. */
+        List<BoneShape> capsule(float radius, float length, float ox, float oy, float oz) {
+            List<BoneShape> single = find(CAPSULE, radius, length, 0, ox, oy, oz);
+            return single != null ? single : SINGLES.install(hash, List.of(new BoneShape.Capsule(
+                radius, length, new Vector3f(ox, oy, oz), new Quaternionf())));
+        }
+
+        /** Shared one-shape list of {@code new Sphere(radius, offset)}. */
+        List<BoneShape> sphere(float radius, float ox, float oy, float oz) {
+            List<BoneShape> single = find(SPHERE, radius, 0, 0, ox, oy, oz);
+            return single != null ? single : SINGLES.install(hash, List.of(new BoneShape.Sphere(
+                radius, new Vector3f(ox, oy, oz))));
+        }
+
+        private List<BoneShape> find(int kind, float a, float b, float c, float x, float y, float z) {
+            this.kind = kind;
+            this.a = a;
+            this.b = b;
+            this.c = c;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            int h = hash(kind, a, b, c, x, y, z);
+            // Identity rotation, as in hash(kind, a, b, c, offset, rotation)
+            h = 31 * h + Float.floatToIntBits(0f);
+            h = 31 * h + Float.floatToIntBits(0f);
+            h = 31 * h + Float.floatToIntBits(0f);
+            hash = 31 * h + Float.floatToIntBits(1f);
+            return SINGLES.find(hash, this);
+        }
+
+        @Override
+        public boolean test(List<BoneShape> cached) {
+            return switch (cached.get(0)) {
+                case BoneShape.Box box -> kind == BOX && same(box.halfExtents(), a, b, c)
+                    && same(box.offset(), x, y, z) && isIdentity(box.rotation());
+                case BoneShape.Capsule capsule -> kind == CAPSULE && same(capsule.radius(), a) && same(capsule.length(), b)
+                    && same(capsule.offset(), x, y, z) && isIdentity(capsule.rotation());
+                case BoneShape.Sphere sphere -> kind == SPHERE && same(sphere.radius(), a)
+                    && same(sphere.offset(), x, y, z);
+            };
+        }
+    }
+}
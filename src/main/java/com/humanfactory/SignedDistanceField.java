@@ -0,0 +1,301 @@
+package com.humanfactory;
+
+import static com.humanfactory.PackedShapes.*;
+
+/**
+ * Signed distance field over one posed skeleton's collision shapes, negative inside.
+ * <p>
+ * Spheres, capsules and boxes are read from {@link PackedShapes} columns. Their exact distances
+ * are combined with a polynomial smooth minimum of radius {@code blend}, so shapes closer than
+ * {@code blend} fuse into one surface. With {@code blend = 0} the field is the plain minimum.
+ * {@link #pose} also computes bounds per shape and per bone; {@link #gather} uses them to list
+ * only the shapes that can matter inside a region, which is what {@link MarchingCubes} evaluates
+ * per tile. Evaluation is read-only, so any number of threads may sample a posed field at once;
+ * posing is not thread-safe.
+ */
+public final class SignedDistanceField {
+
+    private final PackedShapes shapes;
+    private final float blend;
+
+    // Shapes of one body sort by bone ordinal, so each bone owns one range per shape type
+    private final int[] boneSpheres;     // [ordinal * 2] start, end
+    private final int[] boneCapsules;
+    private final int[] boneBoxes;
+    private final int[] shapedBones;     // Ordinals of bones with at least one shape
+    private final float[] sphereBounds;  // [s * 6] min xyz, max xyz
+    private final float[] capsuleBounds;
+    private final float[] boxBounds;
+    private final float[] boneBounds;    // [ordinal * 6]
+    private final float[] bounds = new float[6];
+
+    /**
+     * Field over {@code skeleton} in its bind pose.
+     *
+     * @param blend Smooth-minimum radius in meters; 0 for a hard union
+     * @throws IllegalArgumentException if {@code blend} is negative
+     */
+    public SignedDistanceField(Skeleton skeleton, float blend) {
+        if (!(blend >= 0)) throw new IllegalArgumentException("Blend must not be negative: " + blend);
+        this.shapes = new PackedShapes(skeleton);
+        this.blend = blend;
+        boneSpheres = new int[Skeleton.BONE_COUNT * 2];
+        boneCapsules = new int[Skeleton.BONE_COUNT * 2];
+        boneBoxes = new int[Skeleton.BONE_COUNT * 2];
+        int shaped = 0;
+        for (Bone bone : Skeleton.BONES) {
+            if (!skeleton.collisionShapes(bone).isEmpty()) shaped++;
+        }
+        shapedBones = new int[shaped];
+        shaped = 0;
+        for (Bone bone : Skeleton.BONES) {
+            if (!skeleton.collisionShapes(bone).isEmpty()) shapedBones[shaped++] = bone.ordinal();
+        }
+        ranges(shapes.sphereCount(), boneSpheres, 0);
+        ranges(shapes.capsuleCount(), boneCapsules, 1);
+        ranges(shapes.boxCount(), boneBoxes, 2);
+        sphereBounds = new float[shapes.sphereCount() * 6];
+        capsuleBounds = new float[shapes.capsuleCount() * 6];
+        boxBounds = new float[shapes.boxCount() * 6];
+        boneBounds = new float[Skeleton.BONE_COUNT * 6];
+
+        float[] world = ForwardKinematics.newOutput();
+        new ForwardKinematics(skeleton).evaluate(new Pose(), world);
+        pose(world);
+    }
+
+    private void ranges(int count, int[] dest, int type) {
+        for (int s = 0; s < count; s++) {
+            int b = switch (type) {
+                case 0 -> shapes.sphereBone(s).ordinal();
+                case 1 -> shapes.capsuleBone(s).ordinal();
+                default -> shapes.boxBone(s).ordinal();
+            };
+            if (dest[b * 2 + 1] == 0) dest[b * 2] = s;
+            dest[b * 2 + 1] = s + 1;
+        }
+    }
+
+    public float blend() {
+        return blend;
+    }
+
+    // ============================================================
+    // POSING
+    // ============================================================
+
+    /** Re-poses the shapes from {@code world} ({@link ForwardKinematics} output) and recomputes bounds. */
+    public void pose(float[] world) {
+        shapes.pose(0, world);
+
+        float[][] c = shapes.sphereColumns();
+        for (int s = 0; s < shapes.sphereCount(); s++) {
+            float r = c[SPHERE_R][s];
+            box(sphereBounds, s, c[SPHERE_X][s], c[SPHERE_Y][s], c[SPHERE_Z][s], r, r, r);
+        }
+        c = shapes.capsuleColumns();
+        for (int s = 0; s < shapes.capsuleCount(); s++) {
+            float r = c[CAPSULE_R][s];
+            box(capsuleBounds, s, c[CAPSULE_X][s], c[CAPSULE_Y][s], c[CAPSULE_Z][s],
+                Math.abs(c[CAPSULE_AX][s]) + r, Math.abs(c[CAPSULE_AY][s]) + r, Math.abs(c[CAPSULE_AZ][s]) + r);
+        }
+        c = shapes.boxColumns();
+        for (int s = 0; s < shapes.boxCount(); s++) {
+            float ex = c[BOX_EX][s], ey = c[BOX_EY][s], ez = c[BOX_EZ][s];
+            box(boxBounds, s, c[BOX_X][s], c[BOX_Y][s], c[BOX_Z][s],
+                Math.abs(c[BOX_UX][s]) * ex + Math.abs(c[BOX_VX][s]) * ey + Math.abs(c[BOX_WX][s]) * ez,
+                Math.abs(c[BOX_UY][s]) * ex + Math.abs(c[BOX_VY][s]) * ey + Math.abs(c[BOX_WY][s]) * ez,
+                Math.abs(c[BOX_UZ][s]) * ex + Math.abs(c[BOX_VZ][s]) * ey + Math.abs(c[BOX_WZ][s]) * ez);
+        }
+
+        empty(bounds, 0);
+        for (int b : shapedBones) {
+            empty(boneBounds, b);
+            union(boneBounds, b, sphereBounds, boneSpheres[b * 2], boneSpheres[b * 2 + 1]);
+            union(boneBounds, b, capsuleBounds, boneCapsules[b * 2], boneCapsules[b * 2 + 1]);
+            union(boneBounds, b, boxBounds, boneBoxes[b * 2], boneBoxes[b * 2 + 1]);
+            union(bounds, 0, boneBounds, b, b + 1);
+        }
+    }
+
+    private static void box(float[] dest, int s, float x, float y, float z, float hx, float hy, float hz) {
+        int o = s * 6;
+        dest[o] = x - hx;
+        dest[o + 1] = y - hy;
+        dest[o + 2] = z - hz;
+        dest[o + 3] = x + hx;
+        dest[o + 4] = y + hy;
+        dest[o + 5] = z + hz;
+    }
+
+    private static void empty(float[] dest, int i) {
+        for (int k = 0; k < 3; k++) {
+            dest[i * 6 + k] = Float.POSITIVE_INFINITY;
+            dest[i * 6 + k + 3] = Float.NEGATIVE_INFINITY;
+        }
+    }
+
+    private static void union(float[] dest, int i, float[] src, int from, int to) {
+        int o = i * 6;
+        for (int s = from; s < to; s++) {
+            for (int k = 0; k < 3; k++) {
+                dest[o + k] = Math.min(dest[o + k], src[s * 6 + k]);
+                dest[o + k + 3] = Math.max(dest[o + k + 3], src[s * 6 + k + 3]);
+            }
+        }
+    }
+
+    /**
+     * Writes the bounds of every shape, min xyz then max xyz, into {@code dest[0..5]}.
+     *
+     * @return False, leaving {@code dest} alone, if the skeleton has no shapes
+     */
+    public boolean bounds(float[] dest) {
+        if (shapedBones.length == 0) return false;
+        System.arraycopy(bounds, 0, dest, 0, 6);
+        return true;
+    }
+
+    // ============================================================
+    // EVALUATION
+    // ============================================================
+
+    /** Signed distance at a point, blending every shape. */
+    public float distance(float x, float y, float z) {
+        float d = Float.POSITIVE_INFINITY;
+        for (int s = 0; s < shapes.sphereCount(); s++) d = blend(d, sphere(s, x, y, z));
+        for (int s = 0; s < shapes.capsuleCount(); s++) d = blend(d, capsule(s, x, y, z));
+        for (int s = 0; s < shapes.boxCount(); s++) d = blend(d, box(s, x, y, z));
+        return d;
+    }
+
+    /**
+     * Signed distance at a point over the shapes listed by {@link #gather}; shapes left out are
+     * far enough that they would not change the result near the surface.
+     */
+    float distance(float x, float y, float z, Selection selection) {
+        float d = Float.POSITIVE_INFINITY;
+        for (int i = 0; i < selection.sphereCount; i++) d = blend(d, sphere(selection.spheres[i], x, y, z));
+        for (int i = 0; i < selection.capsuleCount; i++) d = blend(d, capsule(selection.capsules[i], x, y, z));
+        for (int i = 0; i < selection.boxCount; i++) d = blend(d, box(selection.boxes[i], x, y, z));
+        return d;
+    }
+
+    /**
+     * Selects the shapes whose bounds lie within {@code margin} of the given box, culling whole
+     * bones by their bounds first.
+     *
+     * @return Number of shapes selected; 0 means no shape comes within {@code margin} of the box
+     */
+    int gather(float minX, float minY, float minZ, float maxX, float maxY, float maxZ, float margin,
+               Selection selection) {
+        selection.clear(shapes);
+        for (int b : shapedBones) {
+            if (!near(boneBounds, b, minX, minY, minZ, maxX, maxY, maxZ, margin)) continue;
+            for (int s = boneSpheres[b * 2]; s < boneSpheres[b * 2 + 1]; s++) {
+                if (near(sphereBounds, s, minX, minY, minZ, maxX, maxY, maxZ, margin)) {
+                    selection.spheres[selection.sphereCount++] = s;
+                }
+            }
+            for (int s = boneCapsules[b * 2]; s < boneCapsules[b * 2 + 1]; s++) {
+                if (near(capsuleBounds, s, minX, minY, minZ, maxX, maxY, maxZ, margin)) {
+                    selection.capsules[selection.capsuleCount++] = s;
+                }
+            }
+            for (int s = boneBoxes[b * 2]; s < boneBoxes[b * 2 + 1]; s++) {
+                if (near(boxBounds, s, minX, minY, minZ, maxX, maxY, maxZ, margin)) {
+                    selection.boxes[selection.boxCount++] = s;
+                }
+            }
+        }
+        return selection.sphereCount + selection.capsuleCount + selection.boxCount;
+    }
+
+    /** Selects every shape of bone {@code ordinal}, for sampling one bone on its own. */
+    void gatherBone(int ordinal, Selection selection) {
+        selection.clear(shapes);
+        for (int s = boneSpheres[ordinal * 2]; s < boneSpheres[ordinal * 2 + 1]; s++) {
+            selection.spheres[selection.sphereCount++] = s;
+        }
+        for (int s = boneCapsules[ordinal * 2]; s < boneCapsules[ordinal * 2 + 1]; s++) {
+            selection.capsules[selection.capsuleCount++] = s;
+        }
+        for (int s = boneBoxes[ordinal * 2]; s < boneBoxes[ordinal * 2 + 1]; s++) {
+            selection.boxes[selection.boxCount++] = s;
+        }
+    }
+
+    /** Ordinals of the bones that have at least one shape, ascending. */
+    int[] shapedBones() {
+        return shapedBones.clone();
+    }
+
+    /** Writes bone {@code ordinal}'s bounds in the current pose into {@code dest[0..5]}. */
+    void boneBounds(int ordinal, float[] dest) {
+        System.arraycopy(boneBounds, ordinal * 6, dest, 0, 6);
+    }
+
+    private static boolean near(float[] bounds, int i, float minX, float minY, float minZ,
+                                float maxX, float maxY, float maxZ, float margin) {
+        int o = i * 6;
+        return bounds[o] <= maxX + margin && minX - margin <= bounds[o + 3]
+            && bounds[o + 1] <= maxY + margin && minY - margin <= bounds[o + 4]
+            && bounds[o + 2] <= maxZ + margin && minZ - margin <= bounds[o + 5];
+    }
+
+    private float blend(float a, float b) {
+        return smoothMin(a, b, blend);
+    }
+
+    /** Polynomial smooth minimum; exactly {@code min(a, b)} once they differ by {@code radius} or more. */
+    static float smoothMin(float a, float b, float radius) {
+        float h = radius - Math.abs(a - b);
+        if (!(h > 0)) return Math.min(a, b);
+        return Math.min(a, b) - h * h * 0.25f / radius;
+    }
+
+    private float sphere(int s, float x, float y, float z) {
+        float[][] c = shapes.sphereColumns();
+        float dx = x - c[SPHERE_X][s], dy = y - c[SPHERE_Y][s], dz = z - c[SPHERE_Z][s];
+        return (float) Math.sqrt(dx * dx + dy * dy + dz * dz) - c[SPHERE_R][s];
+    }
+
+    private float capsule(int s, float x, float y, float z) {
+        float[][] c = shapes.capsuleColumns();
+        float ux = c[CAPSULE_AX][s], uy = c[CAPSULE_AY][s], uz = c[CAPSULE_AZ][s];
+        float wx = x - c[CAPSULE_X][s], wy = y - c[CAPSULE_Y][s], wz = z - c[CAPSULE_Z][s];
+        float len = ux * ux + uy * uy + uz * uz;
+        float t = len > 0 ? Math.clamp((wx * ux + wy * uy + wz * uz) / len, -1f, 1f) : 0f;
+        float dx = wx - t * ux, dy = wy - t * uy, dz = wz - t * uz;
+        return (float) Math.sqrt(dx * dx + dy * dy + dz * dz) - c[CAPSULE_R][s];
+    }
+
+    private float box(int s, float x, float y, float z) {
+        float[][] c = shapes.boxColumns();
+        float wx = x - c[BOX_X][s], wy = y - c[BOX_Y][s], wz = z - c[BOX_Z][s];
+        float qx = Math.abs(c[BOX_UX][s] * wx + c[BOX_UY][s] * wy + c[BOX_UZ][s] * wz) - c[BOX_EX][s];
+        float qy = Math.abs(c[BOX_VX][s] * wx + c[BOX_VY][s] * wy + c[BOX_VZ][s] * wz) - c[BOX_EY][s];
+        float qz = Math.abs(c[BOX_WX][s] * wx + c[BOX_WY][s] * wy + c[BOX_WZ][s] * wz) - c[BOX_EZ][s];
+        float ox = Math.max(qx, 0f), oy = Math.max(qy, 0f), oz = Math.max(qz, 0f);
+        return (float) Math.sqrt(ox * ox + oy * oy + oz * oz) + Math.min(Math.max(qx, Math.max(qy, qz)), 0f);
+    }
+
+    /** Shape indices chosen by {@link #gather}; one per thread. */
+    static final class Selection {
+        int[] spheres = new int[0];
+        int[] capsules = new int[0];
+        int[] boxes = new int[0];
+        int sphereCount;
+        int capsuleCount;
+        int boxCount;
+
+        void clear(PackedShapes shapes) {
+            if (spheres.length < shapes.sphereCount()) spheres = new int[shapes.sphereCount()];
+            if (capsules.length < shapes.capsuleCount()) capsules = new int[shapes.capsuleCount()];
+            if (boxes.length < shapes.boxCount()) boxes = new int[shapes.boxCount()];
+            sphereCount = 0;
+            capsuleCount = 0;
+            boxCount = 0;
+        }
+    }
+}
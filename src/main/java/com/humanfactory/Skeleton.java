@@ -0,0 +1,301 @@
+package com.humanfactory;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dense, immutable skeleton indexed by {@link Bone#ordinal()}.
+ * Scalar properties live in parallel primitive arrays and a presence bitset,
+ * so lookups are array reads instead of hashing and pointer-chasing.
+ * A {@code Map<Bone, BoneDefinition>} copy is available for compatibility.
+ */
+public final class Skeleton {
+
+    static final Bone[] BONES = Bone.values();
+    public static final int BONE_COUNT = BONES.length;
+    static final int PRESENCE_WORDS = (BONE_COUNT + 63) >>> 6;
+
+    private final long[] present;           // Bitset over Bone.ordinal()
+    private final int boneCount;
+    private final float[] lengths;          // [ordinal]
+    private final float[] masses;           // [ordinal]
+    private final float[] bindPositions;    // [ordinal * 3 + xyz]
+    private final float[] bindRotations;    // [ordinal * 4 + xyzw]
+    private final List<BoneShape>[] collisionShapes;
+
+    private volatile MassProperties massProperties;
+
+    private Skeleton(long[] present, float[] lengths, float[] masses, float[] bindPositions,
+                     float[] bindRotations, List<BoneShape>[] collisionShapes) {
+        this.present = present;
+        this.lengths = lengths;
+        this.masses = masses;
+        this.bindPositions = bindPositions;
+        this.bindRotations = bindRotations;
+        this.collisionShapes = collisionShapes;
+        int count = 0;
+        for (long word : present) {
+            count += Long.bitCount(word);
+        }
+        this.boneCount = count;
+    }
+
+    /**
+     * Copies an existing map-based skeleton into dense form.
+     */
+    public static Skeleton of(Map<Bone, BoneDefinition> bones) {
+        Builder builder = new Builder();
+        for (Map.Entry<Bone, BoneDefinition> entry : bones.entrySet()) {
+            builder.put(entry.getKey(), entry.getValue());
+        }
+        return builder.build();
+    }
+
+    // ============================================================
+    // QUERIES
+    // ============================================================
+
+    public boolean contains(Bone bone) {
+        return contains(bone.ordinal());
+    }
+
+    public boolean contains(int ordinal) {
+        return (present[ordinal >>> 6] & (1L << ordinal)) != 0;
+    }
+
+    /**
+     * Returns the ordinal of the next present bone at or after {@code fromOrdinal},
+     * or -1 if there is none. Mirrors {@link java.util.BitSet#nextSetBit(int)}.
+     */
+    public int nextPresent(int fromOrdinal) {
+        if (fromOrdinal >= BONE_COUNT) return -1;
+        int wordIndex = fromOrdinal >>> 6;
+        long word = present[wordIndex] & (-1L << fromOrdinal);
+        while (true) {
+            if (word != 0) {
+                return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++wordIndex == present.length) return -1;
+            word = present[wordIndex];
+        }
+    }
+
+    /** Word {@code word} of the presence bitset: bit {@code b} set if the bone of ordinal {@code b} is present. */
+    long presenceWord(int word) {
+        return present[word];
+    }
+
+    /** Number of bones present in this skeleton. */
+    public int boneCount() {
+        return boneCount;
+    }
+
+    public float length(Bone bone) {
+        return lengths[bone.ordinal()];
+    }
+
+    public float mass(Bone bone) {
+        return masses[bone.ordinal()];
+    }
+
+    /** Writes the parent-relative bind position of {@code bone} into {@code dest}. */
+    public Vector3f bindPosition(Bone bone, Vector3f dest) {
+        int i = bone.ordinal() * 3;
+        return dest.set(bindPositions[i], bindPositions[i + 1], bindPositions[i + 2]);
+    }
+
+    /** Writes the parent-relative bind rotation of {@code bone} into {@code dest}. */
+    public Quaternionf bindRotation(Bone bone, Quaternionf dest) {
+        int i = bone.ordinal() * 4;
+        return dest.set(bindRotations[i], bindRotations[i + 1], bindRotations[i + 2], bindRotations[i + 3]);
+    }
+
+    /** Collision shapes of {@code bone}; empty if the bone has none or is absent. */
+    public List<BoneShape> collisionShapes(Bone bone) {
+        return collisionShapes[bone.ordinal()];
+    }
+
+    /**
+     * Materializes a {@link BoneDefinition} for {@code bone}, or null if absent.
+     */
+    public BoneDefinition get(Bone bone) {
+        return contains(bone) ? toDefinition(bone) : null;
+    }
+
+    /**
+     * Read-only {@code Map} for code written against {@link BodyGenerator#generate}.
+     * Built on every call: definitions carry mutable vectors, so each caller gets its own.
+     */
+    public Map<Bone, BoneDefinition> asMap() {
+        EnumMap<Bone, BoneDefinition> map = new EnumMap<>(Bone.class);
+        for (int i = nextPresent(0); i >= 0; i = nextPresent(i + 1)) {
+            map.put(BONES[i], toDefinition(BONES[i]));
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Per-bone inertia and centers of mass plus whole-body and subtree totals.
+     * Computed once on first use; racing callers may compute it twice, the result is the same.
+     */
+    public MassProperties massProperties() {
+        MassProperties properties = massProperties;
+        if (properties == null) {
+            properties = MassProperties.of(this);
+            massProperties = properties;
+        }
+        return properties;
+    }
+
+    private BoneDefinition toDefinition(Bone bone) {
+        return new BoneDefinition(
+            length(bone),
+            bindPosition(bone, new Vector3f()),
+            bindRotation(bone, new Quaternionf()),
+            mass(bone),
+            collisionShapes(bone),
+            BodyGenerator.jointLimitsFor(bone)
+        );
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Skeleton other)) return false;
+        return Arrays.equals(present, other.present)
+            && Arrays.equals(lengths, other.lengths)
+            && Arrays.equals(masses, other.masses)
+            && Arrays.equals(bindPositions, other.bindPositions)
+            && Arrays.equals(bindRotations, other.bindRotations)
+            && Arrays.equals(collisionShapes, other.collisionShapes);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = Arrays.hashCode(present);
+        h = 31 * h + Arrays.hashCode(lengths);
+        h = 31 * h + Arrays.hashCode(masses);
+        h = 31 * h + Arrays.hashCode(bindPositions);
+        return 31 * h + Arrays.hashCode(bindRotations);
+    }
+
+    // ============================================================
+    // BUILDER
+    // ============================================================
+
+    /**
+     * Collects bones from a generation pass. Not reusable after {@link #build()}.
+     * Shapes and per-bone shape lists are {@link SharedShapes interned}, so skeletons share structurally identical ones.
+     */
+    static final class Builder implements SkeletonSink {
+        private final long[] present = new long[PRESENCE_WORDS];
+        private final float[] lengths = new float[BONE_COUNT];
+        private final float[] masses = new float[BONE_COUNT];
+        private final float[] bindPositions = new float[BONE_COUNT * 3];
+        private final float[] bindRotations = new float[BONE_COUNT * 4];
+        @SuppressWarnings("unchecked")
+        private final List<BoneShape>[] collisionShapes = (List<BoneShape>[]) new List<?>[BONE_COUNT];
+        private final SharedShapes.Probe shapes = new SharedShapes.Probe();
+        private int current = -1;
+
+        Builder() {
+            Arrays.fill(collisionShapes, List.of());
+        }
+
+        @Override
+        public void bone(Bone id, float length, float x, float y, float z, float mass) {
+            int i = id.ordinal();
+            present[i >>> 6] |= 1L << i;
+            lengths[i] = length;
+            masses[i] = mass;
+            bindPositions[i * 3] = x;
+            bindPositions[i * 3 + 1] = y;
+            bindPositions[i * 3 + 2] = z;
+            bindRotations[i * 4] = 0;
+            bindRotations[i * 4 + 1] = 0;
+            bindRotations[i * 4 + 2] = 0;
+            bindRotations[i * 4 + 3] = 1;
+            collisionShapes[i] = List.of();
+            current = i;
+        }
+
+        @Override
+        public void box(float halfWidth, float halfHeight, float halfDepth, float ox, float oy, float oz) {
+            add(current, shapes.box(halfWidth, halfHeight, halfDepth, ox, oy, oz));
+        }
+
+        @Override
+        public void capsule(float radius, float length, float ox, float oy, float oz) {
+            add(current, shapes.capsule(radius, length, ox, oy, oz));
+        }
+
+        @Override
+        public void sphere(float radius, float ox, float oy, float oz) {
+            add(current, shapes.sphere(radius, ox, oy, oz));
+        }
+
+        /** Overrides the bind rotation of the most recently started bone. */
+        void rotation(float x, float y, float z, float w) {
+            int i = current * 4;
+            bindRotations[i] = x;
+            bindRotations[i + 1] = y;
+            bindRotations[i + 2] = z;
+            bindRotations[i + 3] = w;
+        }
+
+        /**
+         * Copies a fully formed definition, including its rotation. Its shapes are copied before
+         * interning, since the caller may still hold their vectors.
+         */
+        void put(Bone id, BoneDefinition def) {
+            bone(id, def.length(), def.bindPosition().x, def.bindPosition().y, def.bindPosition().z, def.mass());
+            rotation(def.bindRotation().x, def.bindRotation().y, def.bindRotation().z, def.bindRotation().w);
+            for (BoneShape shape : def.collisionShapes()) {
+                shape(id.ordinal(), copy(shape));
+            }
+        }
+
+        /**
+         * Appends a shape to the bone with the given ordinal, or an equal shared instance.
+         * Its vectors must not be modified afterwards.
+         */
+        void shape(int ordinal, BoneShape shape) {
+            add(ordinal, SharedShapes.intern(List.of(shape)));
+        }
+
+        /** Appends the shape of an interned one-shape list, which serves as the bone's list if it is the first. */
+        private void add(int ordinal, List<BoneShape> single) {
+            List<BoneShape> shapes = collisionShapes[ordinal];
+            if (shapes.isEmpty()) {
+                collisionShapes[ordinal] = single;
+            } else {
+                BoneShape[] grown = shapes.toArray(new BoneShape[shapes.size() + 1]);
+                grown[shapes.size()] = single.get(0);
+                collisionShapes[ordinal] = List.of(grown);
+            }
+        }
+
+        Skeleton build() {
+            for (int i = 0; i < BONE_COUNT; i++) {
+                if (collisionShapes[i].size() > 1) collisionShapes[i] = SharedShapes.intern(collisionShapes[i]);
+            }
+            return new Skeleton(present, lengths, masses, bindPositions, bindRotations, collisionShapes);
+        }
+
+        private static BoneShape copy(BoneShape shape) {
+            return switch (shape) {
+                case BoneShape.Box box -> new BoneShape.Box(new Vector3f(box.halfExtents()),
+                    new Vector3f(box.offset()), new Quaternionf(box.rotation()));
+                case BoneShape.Capsule capsule -> new BoneShape.Capsule(capsule.radius(), capsule.length(),
+                    new Vector3f(capsule.offset()), new Quaternionf(capsule.rotation()));
+                case BoneShape.Sphere sphere -> new BoneShape.Sphere(sphere.radius(), new Vector3f(sphere.offset()));
+            };
+        }
+    }
+}
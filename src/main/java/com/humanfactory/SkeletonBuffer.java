@@ -0,0 +1,235 @@
+package com.humanfactory;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+import java.util.Arrays;
+
+/**
+ * Caller-owned, reusable storage for one generated skeleton.
+ * Bone properties use the same ordinal-indexed layout as {@link Skeleton};
+ * collision shapes are flattened into parallel primitive arrays.
+ * Filling a buffer with {@link BodyGenerator#generateInto} allocates nothing
+ * once the shape arrays are large enough.
+ */
+public final class SkeletonBuffer {
+
+    // Shape kinds stored in shapeKinds
+    public static final byte BOX = 0;
+    public static final byte CAPSULE = 1;
+    public static final byte SPHERE = 2;
+
+    /**
+     * Floats per shape: three dimensions, offset xyz, rotation xyzw.
+     * Dimensions are half extents for boxes, (radius, length, 0) for capsules
+     * and (radius, 0, 0) for spheres.
+     */
+    static final int SHAPE_STRIDE = 10;
+
+    private static final int DEFAULT_SHAPE_CAPACITY = Skeleton.BONE_COUNT;
+
+    final long[] present = new long[Skeleton.PRESENCE_WORDS];
+    final float[] lengths = new float[Skeleton.BONE_COUNT];
+    final float[] masses = new float[Skeleton.BONE_COUNT];
+    final float[] bindPositions = new float[Skeleton.BONE_COUNT * 3];
+    final float[] bindRotations = new float[Skeleton.BONE_COUNT * 4];
+
+    int shapeCount;
+    byte[] shapeKinds;
+    int[] shapeBones;
+    float[] shapeData;
+
+    // Scratch for SkeletonTemplate.evaluateInto
+    final float[] terms = new float[SkeletonTemplate.TERM_COUNT];
+    // Scratch for BodyGenerator.generateInto
+    final BodyGenerator.MirrorSink mirror = new BodyGenerator.MirrorSink();
+
+    private final Writer writer = new Writer();
+
+    public SkeletonBuffer() {
+        this(DEFAULT_SHAPE_CAPACITY);
+    }
+
+    /**
+     * @param shapeCapacity Initial number of collision shapes the buffer can hold without growing
+     */
+    public SkeletonBuffer(int shapeCapacity) {
+        shapeKinds = new byte[shapeCapacity];
+        shapeBones = new int[shapeCapacity];
+        shapeData = new float[shapeCapacity * SHAPE_STRIDE];
+    }
+
+    /** Forgets all bones and shapes. Array contents are left in place and overwritten on reuse. */
+    public void clear() {
+        Arrays.fill(present, 0L);
+        shapeCount = 0;
+    }
+
+    SkeletonSink sink() {
+        return writer;
+    }
+
+    /** Grows the shape arrays to hold at least {@code capacity} shapes, keeping their contents. */
+    void ensureShapeCapacity(int capacity) {
+        if (capacity <= shapeKinds.length) return;
+        // One-time growth; steady-state reuse never gets here
+        capacity = Math.max(capacity, Math.max(8, shapeKinds.length * 2));
+        shapeKinds = Arrays.copyOf(shapeKinds, capacity);
+        shapeBones = Arrays.copyOf(shapeBones, capacity);
+        shapeData = Arrays.copyOf(shapeData, capacity * SHAPE_STRIDE);
+    }
+
+    // ============================================================
+    // BONES
+    // ============================================================
+
+    public boolean contains(Bone bone) {
+        int i = bone.ordinal();
+        return (present[i >>> 6] & (1L << i)) != 0;
+    }
+
+    public int boneCount() {
+        int count = 0;
+        for (long word : present) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public float length(Bone bone) {
+        return lengths[bone.ordinal()];
+    }
+
+    public float mass(Bone bone) {
+        return masses[bone.ordinal()];
+    }
+
+    public Vector3f bindPosition(Bone bone, Vector3f dest) {
+        int i = bone.ordinal() * 3;
+        return dest.set(bindPositions[i], bindPositions[i + 1], bindPositions[i + 2]);
+    }
+
+    public Quaternionf bindRotation(Bone bone, Quaternionf dest) {
+        int i = bone.ordinal() * 4;
+        return dest.set(bindRotations[i], bindRotations[i + 1], bindRotations[i + 2], bindRotations[i + 3]);
+    }
+
+    // ============================================================
+    // SHAPES
+    // ============================================================
+
+    public int shapeCount() {
+        return shapeCount;
+    }
+
+    /** One of {@link #BOX}, {@link #CAPSULE} or {@link #SPHERE}. */
+    public byte shapeKind(int shape) {
+        return shapeKinds[shape];
+    }
+
+    public Bone shapeBone(int shape) {
+        return Skeleton.BONES[shapeBones[shape]];
+    }
+
+    /**
+     * Dimension {@code axis} (0..2) of a shape; see {@link #SHAPE_STRIDE} for the meaning per kind.
+     */
+    public float shapeDimension(int shape, int axis) {
+        return shapeData[shape * SHAPE_STRIDE + axis];
+    }
+
+    public Vector3f shapeOffset(int shape, Vector3f dest) {
+        int i = shape * SHAPE_STRIDE + 3;
+        return dest.set(shapeData[i], shapeData[i + 1], shapeData[i + 2]);
+    }
+
+    public Quaternionf shapeRotation(int shape, Quaternionf dest) {
+        int i = shape * SHAPE_STRIDE + 6;
+        return dest.set(shapeData[i], shapeData[i + 1], shapeData[i + 2], shapeData[i + 3]);
+    }
+
+    /**
+     * Copies the buffer into an immutable {@link Skeleton}. Allocates.
+     */
+    public Skeleton toSkeleton() {
+        Skeleton.Builder builder = new Skeleton.Builder();
+        for (int i = 0; i < Skeleton.BONE_COUNT; i++) {
+            if ((present[i >>> 6] & (1L << i)) == 0) continue;
+            builder.bone(Skeleton.BONES[i], lengths[i], bindPositions[i * 3], bindPositions[i * 3 + 1], bindPositions[i * 3 + 2], masses[i]);
+            builder.rotation(bindRotations[i * 4], bindRotations[i * 4 + 1], bindRotations[i * 4 + 2], bindRotations[i * 4 + 3]);
+        }
+        for (int shape = 0; shape < shapeCount; shape++) {
+            builder.shape(shapeBones[shape], toShape(shape));
+        }
+        return builder.build();
+    }
+
+    private BoneShape toShape(int shape) {
+        Vector3f offset = shapeOffset(shape, new Vector3f());
+        return switch (shapeKinds[shape]) {
+            case BOX -> new BoneShape.Box(
+                new Vector3f(shapeDimension(shape, 0), shapeDimension(shape, 1), shapeDimension(shape, 2)),
+                offset, shapeRotation(shape, new Quaternionf()));
+            case CAPSULE -> new BoneShape.Capsule(shapeDimension(shape, 0), shapeDimension(shape, 1),
+                offset, shapeRotation(shape, new Quaternionf()));
+            default -> new BoneShape.Sphere(shapeDimension(shape, 0), offset);
+        };
+    }
+
+    // ============================================================
+    // WRITER
+    // ============================================================
+
+    private final class Writer implements SkeletonSink {
+        private int current;
+
+        @Override
+        public void bone(Bone id, float length, float x, float y, float z, float mass) {
+            int i = id.ordinal();
+            present[i >>> 6] |= 1L << i;
+            lengths[i] = length;
+            masses[i] = mass;
+            bindPositions[i * 3] = x;
+            bindPositions[i * 3 + 1] = y;
+            bindPositions[i * 3 + 2] = z;
+            bindRotations[i * 4] = 0;
+            bindRotations[i * 4 + 1] = 0;
+            bindRotations[i * 4 + 2] = 0;
+            bindRotations[i * 4 + 3] = 1;
+            current = i;
+        }
+
+        @Override
+        public void box(float halfWidth, float halfHeight, float halfDepth, float ox, float oy, float oz) {
+            addShape(BOX, halfWidth, halfHeight, halfDepth, ox, oy, oz);
+        }
+
+        @Override
+        public void capsule(float radius, float length, float ox, float oy, float oz) {
+            addShape(CAPSULE, radius, length, 0, ox, oy, oz);
+        }
+
+        @Override
+        public void sphere(float radius, float ox, float oy, float oz) {
+            addShape(SPHERE, radius, 0, 0, ox, oy, oz);
+        }
+
+        private void addShape(byte kind, float a, float b, float c, float ox, float oy, float oz) {
+            ensureShapeCapacity(shapeCount + 1);
+            int s = shapeCount++;
+            shapeKinds[s] = kind;
+            shapeBones[s] = current;
+            int i = s * SHAPE_STRIDE;
+            shapeData[i] = a;
+            shapeData[i + 1] = b;
+            shapeData[i + 2] = c;
+            shapeData[i + 3] = ox;
+            shapeData[i + 4] = oy;
+            shapeData[i + 5] = oz;
+            shapeData[i + 6] = 0;
+            shapeData[i + 7] = 0;
+            shapeData[i + 8] = 0;
+            shapeData[i + 9] = 1;
+        }
+    }
+}
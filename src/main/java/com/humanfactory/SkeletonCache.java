@@ -0,0 +1,148 @@
+package com.humanfactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded, thread-safe LRU cache of generated skeletons.
+ * <p>
+ * DNA is snapped to a configurable grid before lookup and the skeleton is generated
+ * from the snapped DNA, so every request that lands in the same cell gets the same
+ * result no matter which request filled it. Results are immutable {@link Skeleton}s
+ * shared between callers; a hit returns the cached instance without copying.
+ * Generation runs outside the lock, so a slow miss never blocks hits on other threads.
+ */
+public final class SkeletonCache {
+
+    /**
+     * Grid step per DNA field. A step of 0 keeps the field exact.
+     */
+    public record Quantization(float heightMeters, float massKg, float buildFactor, float headRatio, float legRatio) {
+
+        public Quantization {
+            if (!(heightMeters >= 0 && massKg >= 0 && buildFactor >= 0 && headRatio >= 0 && legRatio >= 0)) {
+                throw new IllegalArgumentException("Quantization steps must be non-negative: " + this);
+            }
+        }
+
+        /** No snapping; only bit-equal DNA shares an entry. */
+        public static Quantization exact() {
+            return new Quantization(0, 0, 0, 0, 0);
+        }
+
+        /** 1 cm, 0.5 kg, 0.01 build, 0.001 on both ratios. */
+        public static Quantization standard() {
+            return new Quantization(0.01f, 0.5f, 0.01f, 0.001f, 0.001f);
+        }
+
+        /** Snaps every field to the nearest multiple of its step. */
+        public BodyGenerator.BodyDNA apply(BodyGenerator.BodyDNA dna) {
+            return new BodyGenerator.BodyDNA(
+                snap(dna.heightMeters(), heightMeters),
+                snap(dna.massKg(), massKg),
+                snap(dna.buildFactor(), buildFactor),
+                snap(dna.headRatio(), headRatio),
+                snap(dna.legRatio(), legRatio));
+        }
+
+        private static float snap(float value, float step) {
+            return step > 0 ? Math.round(value / step) * step : value;
+        }
+    }
+
+    /**
+     * Counter snapshot. All values are totals since construction or the last {@link #clear()}.
+     */
+    public record Stats(long hits, long misses, long evictions, int size) {
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0 : (double) hits / requests;
+        }
+    }
+
+    private final BodyGenerator generator;
+    private final Quantization quantization;
+    private final int maxEntries;
+    private final LinkedHashMap<BodyGenerator.BodyDNA, Skeleton> entries;
+
+    // Guarded by this
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public SkeletonCache(BodyGenerator generator, int maxEntries) {
+        this(generator, maxEntries, Quantization.exact());
+    }
+
+    /**
+     * @param maxEntries   Number of skeletons kept before the least recently used one is evicted
+     * @param quantization Grid applied to DNA before lookup and generation
+     */
+    public SkeletonCache(BodyGenerator generator, int maxEntries, Quantization quantization) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        }
+        this.generator = generator;
+        this.quantization = quantization;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<BodyGenerator.BodyDNA, Skeleton> eldest) {
+                if (size() <= SkeletonCache.this.maxEntries) return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Returns the skeleton for {@code dna} snapped to this cache's grid, generating it on a miss.
+     * Two threads missing on the same key concurrently may both generate; the first result
+     * stored wins and both callers receive it.
+     */
+    public Skeleton get(BodyGenerator.BodyDNA dna) {
+        BodyGenerator.BodyDNA key = quantization.apply(dna);
+        synchronized (this) {
+            Skeleton cached = entries.get(key);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+        }
+        Skeleton generated = generator.generateSkeleton(key);
+        synchronized (this) {
+            Skeleton raced = entries.putIfAbsent(key, generated);
+            return raced != null ? raced : generated;
+        }
+    }
+
+    /**
+     * Cached equivalent of {@link BodyGenerator#generate}. Generation is shared, but the map and its
+     * definitions are built per call, so callers may modify them freely; {@link #get} is the
+     * zero-copy path.
+     */
+    public Map<Bone, BoneDefinition> generate(BodyGenerator.BodyDNA dna) {
+        return get(dna).asMap();
+    }
+
+    public Quantization quantization() {
+        return quantization;
+    }
+
+    public int maxEntries() {
+        return maxEntries;
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, entries.size());
+    }
+
+    /** Drops every entry and resets the counters. */
+    public synchronized void clear() {
+        entries.clear();
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+}
@@ -0,0 +1,135 @@
+package com.humanfactory;
+
+import org.joml.Vector3f;
+
+/**
+ * Structure-of-arrays output of {@link SkeletonTemplate#evaluateColumns}: one
+ * {@code float[]} column per bone property and per shape dimension, each holding
+ * one value per evaluated DNA row. Create with {@link SkeletonTemplate#newColumns(int)}
+ * and reuse across batches.
+ * <p>
+ * Column arrays are exposed directly for bandwidth-bound consumers; only the first
+ * {@link #size()} entries are meaningful. Memory is roughly
+ * {@code capacity * (5 * bones + 6 * shapes) * 4} bytes, so size batches accordingly.
+ * Bind rotations are always identity and are not stored.
+ */
+public final class SkeletonColumns {
+
+    final SkeletonTemplate template;
+    final float[][] terms;      // [term][row], scratch for evaluation
+    final float[][] values;     // [slot][row], slots in template order
+    private final int capacity;
+    int size;
+
+    SkeletonColumns(SkeletonTemplate template, int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative: " + capacity);
+        }
+        this.template = template;
+        this.capacity = capacity;
+        this.terms = new float[SkeletonTemplate.TERM_COUNT][capacity];
+        this.values = new float[template.slotCount()][capacity];
+    }
+
+    /** Maximum number of rows one evaluation can produce. */
+    public int capacity() {
+        return capacity;
+    }
+
+    /** Number of rows produced by the last evaluation. */
+    public int size() {
+        return size;
+    }
+
+    // ============================================================
+    // BONES
+    // ============================================================
+
+    public boolean contains(Bone bone) {
+        return template.boneSlot(bone.ordinal()) >= 0;
+    }
+
+    public float[] lengthColumn(Bone bone) {
+        return values[boneSlot(bone)];
+    }
+
+    /** Column of parent-relative bind position component {@code axis} (0 = x, 1 = y, 2 = z). */
+    public float[] positionColumn(Bone bone, int axis) {
+        return values[boneSlot(bone) + 1 + axis(axis)];
+    }
+
+    public float[] massColumn(Bone bone) {
+        return values[boneSlot(bone) + 4];
+    }
+
+    public float length(Bone bone, int row) {
+        return lengthColumn(bone)[row(row)];
+    }
+
+    public float mass(Bone bone, int row) {
+        return massColumn(bone)[row(row)];
+    }
+
+    public Vector3f bindPosition(Bone bone, int row, Vector3f dest) {
+        int slot = boneSlot(bone) + 1;
+        int r = row(row);
+        return dest.set(values[slot][r], values[slot + 1][r], values[slot + 2][r]);
+    }
+
+    // ============================================================
+    // SHAPES
+    // ============================================================
+
+    /** Number of collision shapes per row; shapes are in the same order as in a {@link SkeletonBuffer}. */
+    public int shapeCount() {
+        return template.shapeCount();
+    }
+
+    /** One of {@link SkeletonBuffer#BOX}, {@link SkeletonBuffer#CAPSULE} or {@link SkeletonBuffer#SPHERE}. */
+    public byte shapeKind(int shape) {
+        return template.shapeKind(shape);
+    }
+
+    public Bone shapeBone(int shape) {
+        return Skeleton.BONES[template.shapeOwner(shape)];
+    }
+
+    /** Column of dimension {@code axis} (0..2); see {@link SkeletonBuffer#shapeDimension}. */
+    public float[] shapeDimensionColumn(int shape, int axis) {
+        return values[template.shapeSlot(shape) + axis(axis)];
+    }
+
+    public float[] shapeOffsetColumn(int shape, int axis) {
+        return values[template.shapeSlot(shape) + 3 + axis(axis)];
+    }
+
+    /**
+     * Gathers one row into {@code buffer}, replacing its contents.
+     * Allocates nothing once the buffer can hold {@link #shapeCount()} shapes.
+     */
+    public void copyInto(int row, SkeletonBuffer buffer) {
+        template.gather(this, row(row), buffer);
+    }
+
+    private int boneSlot(Bone bone) {
+        int slot = template.boneSlot(bone.ordinal());
+        if (slot < 0) {
+            throw new IllegalArgumentException(bone + " is not generated");
+        }
+        return slot;
+    }
+
+    private int row(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of bounds for size " + size);
+        }
+        return row;
+    }
+
+    private static int axis(int axis) {
+        if (axis < 0 || axis > 2) {
+            throw new IndexOutOfBoundsException("Axis must be 0..2: " + axis);
+        }
+        return axis;
+    }
+}
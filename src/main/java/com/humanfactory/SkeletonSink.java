@@ -0,0 +1,24 @@
+package com.humanfactory;
+
+/**
+ * Receives bones as {@link BodyGenerator} lays them out, so the same region code
+ * can fill a HashMap, a dense {@link Skeleton} or any other storage.
+ * Shape calls always attach to the most recently started bone.
+ */
+interface SkeletonSink {
+
+    /**
+     * Starts a new bone with identity bind rotation.
+     * (x, y, z) is the position relative to the parent bone in T-Pose.
+     */
+    void bone(Bone id, float length, float x, float y, float z, float mass);
+
+    /** Box with the given half extents at a local offset, no local rotation. */
+    void box(float halfWidth, float halfHeight, float halfDepth, float ox, float oy, float oz);
+
+    /** Capsule of the given radius and total length at a local offset, no local rotation. */
+    void capsule(float radius, float length, float ox, float oy, float oz);
+
+    /** Sphere of the given radius at a local offset. */
+    void sphere(float radius, float ox, float oy, float oz);
+}
@@ -0,0 +1,494 @@
+package com.humanfactory;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The generator layout compiled once into per-value coefficients of a few DNA terms.
+ * <p>
+ * Every value {@link BodyGenerator} emits is a constant or exactly one term
+ * (mass, build, head size, leg length, ...) times a constant. Compiling runs the
+ * layout with probe terms to find that term and constant for every value, so
+ * evaluating a skeleton is a copy of the constants plus one multiply per
+ * DNA-dependent value.
+ * Output is bit-identical to {@link BodyGenerator#generateSkeleton(BodyGenerator.BodyDNA)}.
+ * Templates are immutable and can be shared between threads.
+ */
+public final class SkeletonTemplate {
+
+    // DNA terms; see BodyGenerator's PROPORTIONS section
+    static final int ONE = 0;
+    static final int MASS = 1;
+    static final int BUILD = 2;
+    static final int HEAD = 3;
+    static final int LEG = 4;
+    static final int SHOULDER = 5;
+    static final int HIP = 6;
+    static final int LUMBAR_SEGMENT = 7;
+    static final int THORACIC_SEGMENT = 8;
+    static final int CERVICAL_SEGMENT = 9;
+    static final int ARM = 10;
+    static final int TERM_COUNT = 11;
+
+    // Values per bone: length, bind x, y, z, mass
+    static final int BONE_SLOTS = 5;
+    // Values per shape: three dimensions, offset x, y, z
+    static final int SHAPE_SLOTS = 6;
+
+    private static final int VERIFY_ROUNDS = 16;
+
+    private final long[] present;
+    private final int[] boneOrdinals;       // Emission order
+    private final byte[] shapeKinds;        // SkeletonBuffer.BOX / CAPSULE / SPHERE
+    private final int[] shapeOwners;        // Bone ordinal
+    private final int[] boneSlots;          // [ordinal] first slot of the bone, -1 if absent
+    private final int[] slotTerms;          // Bone slots first, then shape slots
+    private final float[] slotCoefficients;
+
+    // The same slots regrouped by destination array for evaluateInto
+    private final Block lengths;
+    private final Block masses;
+    private final Block bindPositions;
+    private final float[] bindRotations;
+    private final Block shapeData;
+
+    private SkeletonTemplate(Recording layout, int[] slotTerms) {
+        this.present = new long[Skeleton.PRESENCE_WORDS];
+        for (int ordinal : layout.boneOrdinals) {
+            present[ordinal >>> 6] |= 1L << ordinal;
+        }
+        this.boneOrdinals = layout.boneOrdinals;
+        this.shapeKinds = layout.shapeKinds;
+        this.shapeOwners = layout.shapeOwners;
+        this.slotTerms = slotTerms;
+        this.slotCoefficients = layout.values;
+        this.boneSlots = new int[Skeleton.BONE_COUNT];
+        Arrays.fill(boneSlots, -1);
+        for (int i = 0; i < boneOrdinals.length; i++) {
+            boneSlots[boneOrdinals[i]] = i * BONE_SLOTS;
+        }
+
+        int bones = boneOrdinals.length;
+        int shapes = shapeKinds.length;
+        Block.Builder lengths = new Block.Builder(Skeleton.BONE_COUNT);
+        Block.Builder masses = new Block.Builder(Skeleton.BONE_COUNT);
+        Block.Builder positions = new Block.Builder(Skeleton.BONE_COUNT * 3);
+        Block.Builder data = new Block.Builder(shapes * SkeletonBuffer.SHAPE_STRIDE);
+        this.bindRotations = new float[Skeleton.BONE_COUNT * 4];
+        for (int i = 0, j = 0; i < bones; i++, j += BONE_SLOTS) {
+            int ordinal = boneOrdinals[i];
+            lengths.add(ordinal, slotTerms[j], slotCoefficients[j]);
+            positions.add(ordinal * 3, slotTerms[j + 1], slotCoefficients[j + 1]);
+            positions.add(ordinal * 3 + 1, slotTerms[j + 2], slotCoefficients[j + 2]);
+            positions.add(ordinal * 3 + 2, slotTerms[j + 3], slotCoefficients[j + 3]);
+            masses.add(ordinal, slotTerms[j + 4], slotCoefficients[j + 4]);
+            bindRotations[ordinal * 4 + 3] = 1;
+        }
+        for (int s = 0, j = bones * BONE_SLOTS; s < shapes; s++, j += SHAPE_SLOTS) {
+            int d = s * SkeletonBuffer.SHAPE_STRIDE;
+            for (int k = 0; k < SHAPE_SLOTS; k++) {
+                data.add(d + k, slotTerms[j + k], slotCoefficients[j + k]);
+            }
+            data.add(d + 9, ONE, 1f);
+        }
+        this.lengths = lengths.build();
+        this.masses = masses.build();
+        this.bindPositions = positions.build();
+        this.shapeData = data.build();
+    }
+
+    /**
+     * Compiles the layout of {@code generator}.
+     *
+     * @throws IllegalStateException if some layout value is not a single term times a constant
+     */
+    static SkeletonTemplate compile(BodyGenerator generator) {
+        float[] probe = new float[TERM_COUNT];
+        Arrays.fill(probe, 1f);
+        Recording base = record(generator, probe);
+
+        // With every term at 1 each value is its coefficient; doubling one term
+        // (exact in binary) reveals which values depend on it.
+        int[] slotTerms = new int[base.values.length];
+        for (int k = ONE + 1; k < TERM_COUNT; k++) {
+            probe[k] = 2f;
+            Recording scaled = record(generator, probe);
+            base.checkSameStructure(scaled);
+            for (int j = 0; j < slotTerms.length; j++) {
+                if (Float.floatToRawIntBits(scaled.values[j]) == Float.floatToRawIntBits(base.values[j])) continue;
+                if (slotTerms[j] != ONE) {
+                    throw new IllegalStateException(base.describe(j) + " depends on more than one DNA term");
+                }
+                slotTerms[j] = k;
+            }
+            probe[k] = 1f;
+        }
+
+        SkeletonTemplate template = new SkeletonTemplate(base, slotTerms);
+        template.verify(generator);
+        return template;
+    }
+
+    /**
+     * Replays the layout with random terms and checks every value is reproduced bit for bit.
+     */
+    private void verify(BodyGenerator generator) {
+        Random random = new Random(0x5EED);
+        float[] probe = new float[TERM_COUNT];
+        probe[ONE] = 1f;
+        for (int round = 0; round < VERIFY_ROUNDS; round++) {
+            for (int k = ONE + 1; k < TERM_COUNT; k++) {
+                probe[k] = 0.25f + random.nextFloat() * 4f;
+            }
+            Recording actual = record(generator, probe);
+            for (int j = 0; j < slotTerms.length; j++) {
+                float expected = probe[slotTerms[j]] * slotCoefficients[j];
+                if (Float.floatToRawIntBits(expected) != Float.floatToRawIntBits(actual.values[j])) {
+                    throw new IllegalStateException(actual.describe(j) + " is not a single DNA term times a constant");
+                }
+            }
+        }
+    }
+
+    private static Recording record(BodyGenerator generator, float[] t) {
+        Recording recording = new Recording();
+        // Region code must not read height or ratios directly; NaN makes any such read fail verification
+        BodyGenerator.BodyDNA dna = new BodyGenerator.BodyDNA(Float.NaN, t[MASS], t[BUILD], Float.NaN, Float.NaN);
+        generator.layout(recording, new BodyGenerator.MirrorSink(), dna, t[HEAD], t[LEG], t[SHOULDER], t[HIP],
+            t[LUMBAR_SEGMENT], t[THORACIC_SEGMENT], t[CERVICAL_SEGMENT], t[ARM]);
+        return recording.finish();
+    }
+
+    /**
+     * Evaluates the DNA terms with the exact expressions the generator uses.
+     */
+    static void terms(BodyGenerator.BodyDNA dna, float[] dest) {
+        dest[ONE] = 1f;
+        dest[MASS] = dna.massKg();
+        dest[BUILD] = dna.buildFactor();
+        dest[HEAD] = BodyGenerator.headSize(dna);
+        dest[LEG] = BodyGenerator.legLength(dna);
+        dest[SHOULDER] = BodyGenerator.shoulderWidth(dna);
+        dest[HIP] = BodyGenerator.hipWidth(dna);
+        dest[LUMBAR_SEGMENT] = BodyGenerator.lumbarSegmentHeight(dna);
+        dest[THORACIC_SEGMENT] = BodyGenerator.thoracicSegmentHeight(dna);
+        dest[CERVICAL_SEGMENT] = BodyGenerator.cervicalSegmentHeight(dna);
+        dest[ARM] = BodyGenerator.armLength(dna);
+    }
+
+    // ============================================================
+    // EVALUATION
+    // ============================================================
+
+    /** Number of bones the template produces. */
+    public int boneCount() {
+        return boneOrdinals.length;
+    }
+
+    /** Number of collision shapes the template produces. */
+    public int shapeCount() {
+        return shapeKinds.length;
+    }
+
+    /**
+     * Fills {@code buffer} with the skeleton for {@code dna}. Allocates nothing
+     * once the buffer can hold {@link #shapeCount()} shapes.
+     */
+    public void evaluateInto(BodyGenerator.BodyDNA dna, SkeletonBuffer buffer) {
+        float[] t = buffer.terms;
+        terms(dna, t);
+
+        System.arraycopy(present, 0, buffer.present, 0, present.length);
+        lengths.evaluate(t, buffer.lengths);
+        masses.evaluate(t, buffer.masses);
+        bindPositions.evaluate(t, buffer.bindPositions);
+        System.arraycopy(bindRotations, 0, buffer.bindRotations, 0, bindRotations.length);
+
+        buffer.ensureShapeCapacity(shapeKinds.length);
+        buffer.shapeCount = shapeKinds.length;
+        System.arraycopy(shapeKinds, 0, buffer.shapeKinds, 0, shapeKinds.length);
+        System.arraycopy(shapeOwners, 0, buffer.shapeBones, 0, shapeOwners.length);
+        shapeData.evaluate(t, buffer.shapeData);
+    }
+
+    /**
+     * Evaluates the template into a new immutable {@link Skeleton}. Allocation-bound;
+     * prefer {@link #evaluateInto} in hot loops.
+     */
+    public Skeleton evaluate(BodyGenerator.BodyDNA dna) {
+        SkeletonBuffer buffer = new SkeletonBuffer(shapeKinds.length);
+        evaluateInto(dna, buffer);
+        return buffer.toSkeleton();
+    }
+
+    // ============================================================
+    // COLUMN EVALUATION
+    // ============================================================
+
+    /**
+     * Allocates reusable column storage for up to {@code capacity} DNA rows.
+     */
+    public SkeletonColumns newColumns(int capacity) {
+        return new SkeletonColumns(this, capacity);
+    }
+
+    /**
+     * Evaluates {@code count} DNA rows given as field columns in one pass.
+     * Each output column is one term column times a constant, computed with the
+     * Vector API when available. Row {@code i} is bit-identical to
+     * {@link #evaluateInto} for the DNA built from element {@code i} of each input.
+     *
+     * @throws IllegalArgumentException if {@code out} belongs to another template or is too small
+     */
+    public void evaluateColumns(float[] heightMeters, float[] massKg, float[] buildFactor,
+                                float[] headRatio, float[] legRatio, int count, SkeletonColumns out) {
+        if (out.template != this) {
+            throw new IllegalArgumentException("Columns were created by a different template");
+        }
+        if (count > out.capacity()) {
+            throw new IllegalArgumentException("Count " + count + " exceeds column capacity " + out.capacity());
+        }
+
+        // Term columns; mass and build are used as given
+        float[][] t = out.terms;
+        for (int i = 0; i < count; i++) {
+            float height = heightMeters[i];
+            float torso = BodyGenerator.torsoLength(height, headRatio[i], legRatio[i]);
+            t[HEAD][i] = BodyGenerator.headSize(height, headRatio[i]);
+            t[LEG][i] = BodyGenerator.legLength(height, legRatio[i]);
+            t[SHOULDER][i] = BodyGenerator.shoulderWidth(height, buildFactor[i]);
+            t[HIP][i] = BodyGenerator.hipWidth(height, buildFactor[i]);
+            t[LUMBAR_SEGMENT][i] = BodyGenerator.lumbarSegmentHeight(torso);
+            t[THORACIC_SEGMENT][i] = BodyGenerator.thoracicSegmentHeight(torso);
+            t[CERVICAL_SEGMENT][i] = BodyGenerator.cervicalSegmentHeight(torso);
+            t[ARM][i] = BodyGenerator.armLength(height);
+        }
+
+        float[][] values = out.values;
+        for (int j = 0; j < slotTerms.length; j++) {
+            float[] source = switch (slotTerms[j]) {
+                case ONE -> null;
+                case MASS -> massKg;
+                case BUILD -> buildFactor;
+                default -> t[slotTerms[j]];
+            };
+            if (source == null) {
+                Arrays.fill(values[j], 0, count, slotCoefficients[j]);
+            } else {
+                ColumnKernels.scale(source, slotCoefficients[j], values[j], count);
+            }
+        }
+        out.size = count;
+    }
+
+    /** Copies one evaluated row out of {@code columns}. */
+    void gather(SkeletonColumns columns, int row, SkeletonBuffer buffer) {
+        float[][] values = columns.values;
+        System.arraycopy(present, 0, buffer.present, 0, present.length);
+        System.arraycopy(bindRotations, 0, buffer.bindRotations, 0, bindRotations.length);
+        for (int i = 0, j = 0; i < boneOrdinals.length; i++, j += BONE_SLOTS) {
+            int ordinal = boneOrdinals[i];
+            buffer.lengths[ordinal] = values[j][row];
+            buffer.bindPositions[ordinal * 3] = values[j + 1][row];
+            buffer.bindPositions[ordinal * 3 + 1] = values[j + 2][row];
+            buffer.bindPositions[ordinal * 3 + 2] = values[j + 3][row];
+            buffer.masses[ordinal] = values[j + 4][row];
+        }
+
+        buffer.ensureShapeCapacity(shapeKinds.length);
+        buffer.shapeCount = shapeKinds.length;
+        System.arraycopy(shapeKinds, 0, buffer.shapeKinds, 0, shapeKinds.length);
+        System.arraycopy(shapeOwners, 0, buffer.shapeBones, 0, shapeOwners.length);
+        float[] data = buffer.shapeData;
+        for (int s = 0, j = boneOrdinals.length * BONE_SLOTS; s < shapeKinds.length; s++, j += SHAPE_SLOTS) {
+            int d = s * SkeletonBuffer.SHAPE_STRIDE;
+            for (int k = 0; k < SHAPE_SLOTS; k++) {
+                data[d + k] = values[j + k][row];
+            }
+            data[d + 6] = 0;
+            data[d + 7] = 0;
+            data[d + 8] = 0;
+            data[d + 9] = 1;
+        }
+    }
+
+    int slotCount() {
+        return slotTerms.length;
+    }
+
+    int boneSlot(int ordinal) {
+        return boneSlots[ordinal];
+    }
+
+    int shapeSlot(int shape) {
+        return boneOrdinals.length * BONE_SLOTS + shape * SHAPE_SLOTS;
+    }
+
+    byte shapeKind(int shape) {
+        return shapeKinds[shape];
+    }
+
+    int shapeOwner(int shape) {
+        return shapeOwners[shape];
+    }
+
+    /**
+     * One destination array: an image holding every constant, plus the DNA-dependent
+     * slots grouped by term so each group is a scalar-times-array scatter.
+     */
+    private static final class Block {
+        private final float[] image;
+        private final int[] termStarts;     // [TERM_COUNT + 1] ranges into targets
+        private final int[] targets;
+        private final float[] coefficients;
+
+        private Block(float[] image, int[] termStarts, int[] targets, float[] coefficients) {
+            this.image = image;
+            this.termStarts = termStarts;
+            this.targets = targets;
+            this.coefficients = coefficients;
+        }
+
+        void evaluate(float[] t, float[] dest) {
+            System.arraycopy(image, 0, dest, 0, image.length);
+            for (int k = ONE + 1; k < TERM_COUNT; k++) {
+                float term = t[k];
+                for (int j = termStarts[k]; j < termStarts[k + 1]; j++) {
+                    dest[targets[j]] = term * coefficients[j];
+                }
+            }
+        }
+
+        static final class Builder {
+            private final float[] image;
+            private final int[] terms;
+            private final int[] indices;
+            private final float[] coefficients;
+            private int count;
+
+            Builder(int size) {
+                image = new float[size];
+                terms = new int[size];
+                indices = new int[size];
+                coefficients = new float[size];
+            }
+
+            void add(int index, int term, float coefficient) {
+                if (term == ONE) {
+                    image[index] = coefficient;
+                    return;
+                }
+                terms[count] = term;
+                indices[count] = index;
+                coefficients[count++] = coefficient;
+            }
+
+            Block build() {
+                int[] termStarts = new int[TERM_COUNT + 1];
+                for (int j = 0; j < count; j++) {
+                    termStarts[terms[j] + 1]++;
+                }
+                for (int k = 0; k < TERM_COUNT; k++) {
+                    termStarts[k + 1] += termStarts[k];
+                }
+                int[] next = Arrays.copyOf(termStarts, TERM_COUNT);
+                int[] targets = new int[count];
+                float[] sorted = new float[count];
+                for (int j = 0; j < count; j++) {
+                    int at = next[terms[j]]++;
+                    targets[at] = indices[j];
+                    sorted[at] = coefficients[j];
+                }
+                return new Block(image, termStarts, targets, sorted);
+            }
+        }
+    }
+
+    // ============================================================
+    // RECORDING
+    // ============================================================
+
+    /**
+     * Captures one layout pass as flat arrays: bone values first, then shape values.
+     */
+    private static final class Recording implements SkeletonSink {
+        private int[] boneOrdinals = new int[Skeleton.BONE_COUNT];
+        private float[] boneValues = new float[Skeleton.BONE_COUNT * BONE_SLOTS];
+        private int boneCount;
+        private byte[] shapeKinds = new byte[Skeleton.BONE_COUNT];
+        private int[] shapeOwners = new int[Skeleton.BONE_COUNT];
+        private float[] shapeValues = new float[Skeleton.BONE_COUNT * SHAPE_SLOTS];
+        private int shapeCount;
+        private float[] values;
+
+        @Override
+        public void bone(Bone id, float length, float x, float y, float z, float mass) {
+            int j = boneCount * BONE_SLOTS;
+            boneOrdinals[boneCount++] = id.ordinal();
+            boneValues[j] = length;
+            boneValues[j + 1] = x;
+            boneValues[j + 2] = y;
+            boneValues[j + 3] = z;
+            boneValues[j + 4] = mass;
+        }
+
+        @Override
+        public void box(float halfWidth, float halfHeight, float halfDepth, float ox, float oy, float oz) {
+            addShape(SkeletonBuffer.BOX, halfWidth, halfHeight, halfDepth, ox, oy, oz);
+        }
+
+        @Override
+        public void capsule(float radius, float length, float ox, float oy, float oz) {
+            addShape(SkeletonBuffer.CAPSULE, radius, length, 0, ox, oy, oz);
+        }
+
+        @Override
+        public void sphere(float radius, float ox, float oy, float oz) {
+            addShape(SkeletonBuffer.SPHERE, radius, 0, 0, ox, oy, oz);
+        }
+
+        private void addShape(byte kind, float a, float b, float c, float ox, float oy, float oz) {
+            if (shapeCount == shapeKinds.length) {
+                shapeKinds = Arrays.copyOf(shapeKinds, shapeCount * 2);
+                shapeOwners = Arrays.copyOf(shapeOwners, shapeCount * 2);
+                shapeValues = Arrays.copyOf(shapeValues, shapeCount * 2 * SHAPE_SLOTS);
+            }
+            int j = shapeCount * SHAPE_SLOTS;
+            shapeKinds[shapeCount] = kind;
+            shapeOwners[shapeCount++] = boneOrdinals[boneCount - 1];
+            shapeValues[j] = a;
+            shapeValues[j + 1] = b;
+            shapeValues[j + 2] = c;
+            shapeValues[j + 3] = ox;
+            shapeValues[j + 4] = oy;
+            shapeValues[j + 5] = oz;
+        }
+
+        Recording finish() {
+            boneOrdinals = Arrays.copyOf(boneOrdinals, boneCount);
+            shapeKinds = Arrays.copyOf(shapeKinds, shapeCount);
+            shapeOwners = Arrays.copyOf(shapeOwners, shapeCount);
+            values = new float[boneCount * BONE_SLOTS + shapeCount * SHAPE_SLOTS];
+            System.arraycopy(boneValues, 0, values, 0, boneCount * BONE_SLOTS);
+            System.arraycopy(shapeValues, 0, values, boneCount * BONE_SLOTS, shapeCount * SHAPE_SLOTS);
+            return this;
+        }
+
+        void checkSameStructure(Recording other) {
+            if (!Arrays.equals(boneOrdinals, other.boneOrdinals)
+                || !Arrays.equals(shapeKinds, other.shapeKinds)
+                || !Arrays.equals(shapeOwners, other.shapeOwners)) {
+                throw new IllegalStateException("Layout structure depends on DNA values");
+            }
+        }
+
+        String describe(int slot) {
+            int boneSlots = boneOrdinals.length * BONE_SLOTS;
+            if (slot < boneSlots) {
+                return "Value " + (slot % BONE_SLOTS) + " of " + Skeleton.BONES[boneOrdinals[slot / BONE_SLOTS]];
+            }
+            int shape = (slot - boneSlots) / SHAPE_SLOTS;
+            return "Shape value " + ((slot - boneSlots) % SHAPE_SLOTS) + " of " + Skeleton.BONES[shapeOwners[shape]];
+        }
+    }
+}
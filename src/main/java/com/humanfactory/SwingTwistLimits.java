@@ -0,0 +1,304 @@
+package com.humanfactory;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Every {@link JointRegistry} joint's limits in swing-twist form, checked and clamped without
+ * trigonometry.
+ * <p>
+ * A local rotation {@code q} is split as {@code q = swing * twist}: twist about the bone's Y axis
+ * (the {@link JointLimits} yaw range), then a swing about an axis in the XZ plane. The swing must
+ * fall inside an elliptical cone whose half-axes come from the pitch range (about X) and the roll
+ * range (about Z), picked per quadrant so asymmetric ranges such as a 0..145 degree hinge work.
+ * Limits are stored as half-angle sines and cosines, so a check is a few multiplies and one square
+ * root and a clamp adds one more. For rotations about a single axis this agrees exactly with the
+ * Euler ranges of {@link JointLimitTable}; for compound rotations the cone is the smoother,
+ * anatomically closer constraint.
+ * <p>
+ * Hinges, pivots and fused joints are degenerate cases of the same form (zero radii or a zero
+ * twist interval), so every row runs the same arithmetic; {@link #form(Bone)} reports which case a
+ * joint is. Rotations already within limits are left bit for bit untouched. Immutable and
+ * thread-safe; obtain the shared instance with {@link JointRegistry#swingTwistLimits()}.
+ */
+public final class SwingTwistLimits {
+
+    /** Which degrees of freedom a joint's limits leave open. */
+    public enum Form {
+        /** No rotation at all. */
+        LOCKED,
+        /** Swing about X or Z only, e.g. elbow, knee, finger joints. */
+        HINGE,
+        /** Twist about Y only, e.g. forearm, atlas. */
+        PIVOT,
+        /** Swing cone without twist, e.g. wrist, knuckles. */
+        SWING,
+        /** Swing cone plus twist interval, e.g. shoulder, hip. */
+        SWING_TWIST
+    }
+
+    // Below this many skeletons a parallel slice runs on the current thread
+    private static final int PARALLEL_SLICE = 256;
+    // Twist norm below which the rotation is a pure 180 degree swing and twist is undefined
+    private static final float DEGENERATE_TWIST = 1e-12f;
+    // Floor on the check slack so zero-width ranges tolerate float noise
+    private static final float MIN_SLACK = 1e-6f;
+
+    // Row i describes bone ordinal bones[i]; rows follow ordinal order
+    final int[] bones;
+    final Form[] forms;
+    // Twist bounds as half-angle sin/cos
+    final float[] twistMinSin;
+    final float[] twistMinCos;
+    final float[] twistMaxSin;
+    final float[] twistMaxCos;
+    // Swing cone half-axes as half-angle sines, per side of each axis
+    final float[] swingPosX;
+    final float[] swingNegX;
+    final float[] swingPosZ;
+    final float[] swingNegZ;
+
+    private SwingTwistLimits(int rows) {
+        bones = new int[rows];
+        forms = new Form[rows];
+        twistMinSin = new float[rows];
+        twistMinCos = new float[rows];
+        twistMaxSin = new float[rows];
+        twistMaxCos = new float[rows];
+        swingPosX = new float[rows];
+        swingNegX = new float[rows];
+        swingPosZ = new float[rows];
+        swingNegZ = new float[rows];
+    }
+
+    /** Derives every registered joint's form; called once by {@link JointRegistry}. */
+    static SwingTwistLimits compile() {
+        JointLimitTable euler = JointRegistry.limitTable();
+        SwingTwistLimits table = new SwingTwistLimits(euler.size());
+        for (int i = 0; i < euler.size(); i++) {
+            table.bones[i] = euler.bones[i];
+            table.twistMinSin[i] = (float) Math.sin(euler.minYaw[i] * 0.5);
+            table.twistMinCos[i] = (float) Math.cos(euler.minYaw[i] * 0.5);
+            table.twistMaxSin[i] = (float) Math.sin(euler.maxYaw[i] * 0.5);
+            table.twistMaxCos[i] = (float) Math.cos(euler.maxYaw[i] * 0.5);
+            table.swingPosX[i] = (float) Math.sin(euler.maxPitch[i] * 0.5);
+            table.swingNegX[i] = (float) Math.sin(-euler.minPitch[i] * 0.5);
+            table.swingPosZ[i] = (float) Math.sin(euler.maxRoll[i] * 0.5);
+            table.swingNegZ[i] = (float) Math.sin(-euler.minRoll[i] * 0.5);
+            if (euler.minYaw[i] > 0 || euler.maxYaw[i] < 0 || table.swingNegX[i] < 0 || table.swingPosX[i] < 0
+                || table.swingNegZ[i] < 0 || table.swingPosZ[i] < 0) {
+                throw new IllegalStateException("Limits of " + table.bone(i) + " do not include the bind pose");
+            }
+
+            boolean twist = euler.minYaw[i] != 0 || euler.maxYaw[i] != 0;
+            boolean pitch = euler.minPitch[i] != 0 || euler.maxPitch[i] != 0;
+            boolean roll = euler.minRoll[i] != 0 || euler.maxRoll[i] != 0;
+            table.forms[i] = pitch || roll
+                ? (twist ? Form.SWING_TWIST : pitch && roll ? Form.SWING : Form.HINGE)
+                : (twist ? Form.PIVOT : Form.LOCKED);
+        }
+        return table;
+    }
+
+    /** Number of limited bones. */
+    public int size() {
+        return bones.length;
+    }
+
+    /** The limited bone in row {@code row}. */
+    public Bone bone(int row) {
+        return Skeleton.BONES[bones[row]];
+    }
+
+    /** The form of {@code bone}'s limits, or null for a bone without a joint. */
+    public Form form(Bone bone) {
+        for (int i = 0; i < bones.length; i++) {
+            if (bones[i] == bone.ordinal()) return forms[i];
+        }
+        return null;
+    }
+
+    // ============================================================
+    // CHECKING
+    // ============================================================
+
+    /** True if every limited bone of {@code pose} is within limits, give or take {@code tolerance} radians. */
+    public boolean isWithin(Pose pose, float tolerance) {
+        return violations(pose.rotations, 0, tolerance, null) == 0;
+    }
+
+    /**
+     * Checks one skeleton of a batch in {@link JointLimitTable#POSE_STRIDE} layout.
+     *
+     * @param tolerance Approximate slack in radians
+     * @param mask      If not null, bit {@link Bone#ordinal()} is ORed in for each violating bone
+     * @return Number of violating bones
+     */
+    public int violations(float[] rotations, int skeleton, float tolerance, long[] mask) {
+        int base = skeleton * JointLimitTable.POSE_STRIDE;
+        // sin(a/2 + e) <= sin(a/2) + e/2 for small e: slack in half-angle-sine units
+        float slack = Math.max(tolerance * 0.5f, MIN_SLACK);
+        int violating = 0;
+        for (int i = 0; i < bones.length; i++) {
+            int b = bones[i];
+            int o = base + b * 4;
+            float x = rotations[o], y = rotations[o + 1], z = rotations[o + 2], w = rotations[o + 3];
+            if (w < 0) {
+                x = -x;
+                y = -y;
+                z = -z;
+                w = -w;
+            }
+
+            // Unnormalized split: twist (y, w) has norm t, swing components are scaled by t
+            float n2 = y * y + w * w;
+            float t, sx, sz;
+            if (n2 < DEGENERATE_TWIST) {
+                t = 1;
+                y = 0;
+                w = 1;
+                sx = x;
+                sz = z;
+            } else {
+                t = (float) Math.sqrt(n2);
+                sx = x * w + z * y;
+                sz = z * w - x * y;
+            }
+
+            // Twist angle above the minimum: sin((theta - min) / 2) * t >= 0, likewise below the maximum
+            boolean ok = y * twistMinCos[i] - w * twistMinSin[i] >= -slack * t
+                & w * twistMaxSin[i] - y * twistMaxCos[i] >= -slack * t;
+
+            float rx = (sx >= 0 ? swingPosX[i] : swingNegX[i]) + slack;
+            float rz = (sz >= 0 ? swingPosZ[i] : swingNegZ[i]) + slack;
+            float ex = sx / rx, ez = sz / rz;
+            ok &= ex * ex + ez * ez <= t * t;
+
+            if (!ok) {
+                if (mask != null) mask[b >>> 6] |= 1L << b;
+                violating++;
+            }
+        }
+        return violating;
+    }
+
+    // ============================================================
+    // CLAMPING
+    // ============================================================
+
+    /**
+     * Clamps every limited bone of one pose.
+     *
+     * @return Number of rotations that were changed
+     */
+    public int clamp(Pose pose) {
+        return clamp(pose.rotations, 0, 1);
+    }
+
+    /**
+     * Clamps skeletons {@code first} to {@code first + count - 1} of a batch in
+     * {@link JointLimitTable#POSE_STRIDE} layout. Twist is clamped to its nearer bound; swing is
+     * scaled back onto the cone along its own direction.
+     *
+     * @return Number of rotations that were changed
+     * @throws IndexOutOfBoundsException if the range does not fit in {@code rotations}
+     */
+    public int clamp(float[] rotations, int first, int count) {
+        if (first < 0 || count < 0 || ((long) first + count) * JointLimitTable.POSE_STRIDE > rotations.length) {
+            throw new IndexOutOfBoundsException("Skeletons [" + first + ", " + ((long) first + count)
+                + ") do not fit in " + rotations.length + " floats");
+        }
+        int clamped = 0;
+        for (int s = first, end = first + count; s < end; s++) {
+            clamped += clampSkeleton(rotations, s * JointLimitTable.POSE_STRIDE);
+        }
+        return clamped;
+    }
+
+    /**
+     * Same as {@link #clamp(float[], int, int)} over the first {@code count} skeletons, split
+     * across {@code pool}.
+     */
+    public int clampParallel(float[] rotations, int count, ForkJoinPool pool) {
+        if (count < 0 || (long) count * JointLimitTable.POSE_STRIDE > rotations.length) {
+            throw new IndexOutOfBoundsException(count + " skeletons do not fit in " + rotations.length + " floats");
+        }
+        AtomicInteger clamped = new AtomicInteger();
+        ParallelRange.run(pool, count, PARALLEL_SLICE, (from, to) -> clamped.addAndGet(clamp(rotations, from, to - from)));
+        return clamped.get();
+    }
+
+    private int clampSkeleton(float[] r, int base) {
+        int[] bones = this.bones;
+        int clamped = 0;
+        for (int i = 0; i < bones.length; i++) {
+            int o = base + bones[i] * 4;
+            float x = r[o], y = r[o + 1], z = r[o + 2], w = r[o + 3];
+            if (w < 0) {
+                x = -x;
+                y = -y;
+                z = -z;
+                w = -w;
+            }
+
+            // Normalized split q = swing * twist
+            float ty, tw, sx, sz;
+            float n2 = y * y + w * w;
+            if (n2 < DEGENERATE_TWIST) {
+                ty = 0;
+                tw = 1;
+                sx = x;
+                sz = z;
+            } else {
+                float t = (float) Math.sqrt(n2);
+                float inv = 1 / t;
+                ty = y * inv;
+                tw = w * inv;
+                sx = (x * w + z * y) * inv;
+                sz = (z * w - x * y) * inv;
+            }
+            boolean changed = false;
+
+            // Twist: snap to the bound it is past
+            if (ty * twistMinCos[i] - tw * twistMinSin[i] < 0) {
+                ty = twistMinSin[i];
+                tw = twistMinCos[i];
+                changed = true;
+            } else if (tw * twistMaxSin[i] - ty * twistMaxCos[i] < 0) {
+                ty = twistMaxSin[i];
+                tw = twistMaxCos[i];
+                changed = true;
+            }
+
+            // Swing: drop axes with no range on this side, then scale onto the ellipse
+            float rx = sx >= 0 ? swingPosX[i] : swingNegX[i];
+            float rz = sz >= 0 ? swingPosZ[i] : swingNegZ[i];
+            if (rx == 0 & sx != 0) {
+                sx = 0;
+                changed = true;
+            }
+            if (rz == 0 & sz != 0) {
+                sz = 0;
+                changed = true;
+            }
+            float ex = rx == 0 ? 0 : sx / rx, ez = rz == 0 ? 0 : sz / rz;
+            float e = ex * ex + ez * ez;
+            if (e > 1) {
+                float k = (float) (1 / Math.sqrt(e));
+                sx *= k;
+                sz *= k;
+                changed = true;
+            }
+            if (!changed) continue;
+            float sw = (float) Math.sqrt(Math.max(0f, 1 - sx * sx - sz * sz));
+
+            // q = swing(sx, 0, sz, sw) * twist(0, ty, 0, tw)
+            r[o] = sx * tw - sz * ty;
+            r[o + 1] = sw * ty;
+            r[o + 2] = sx * ty + sz * tw;
+            r[o + 3] = sw * tw;
+            clamped++;
+        }
+        return clamped;
+    }
+}
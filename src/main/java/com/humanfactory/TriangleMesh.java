@@ -0,0 +1,42 @@
+package com.humanfactory;
+
+/**
+ * Indexed triangle mesh in primitive arrays, as produced by {@link MarchingCubes}.
+ * <p>
+ * Vertex {@code v} is at {@code positions[v * 3 .. v * 3 + 2]} with unit normal
+ * {@code normals[v * 3 .. v * 3 + 2]}; triangle {@code t} is vertices
+ * {@code indices[t * 3 .. t * 3 + 2]}, counter-clockwise seen from outside. Arrays are exactly
+ * sized and exposed directly for upload to a renderer or physics engine; do not modify them.
+ */
+public final class TriangleMesh {
+
+    private final float[] positions;
+    private final float[] normals;
+    private final int[] indices;
+
+    TriangleMesh(float[] positions, float[] normals, int[] indices) {
+        this.positions = positions;
+        this.normals = normals;
+        this.indices = indices;
+    }
+
+    public int vertexCount() {
+        return positions.length / 3;
+    }
+
+    public int triangleCount() {
+        return indices.length / 3;
+    }
+
+    public float[] positions() {
+        return positions;
+    }
+
+    public float[] normals() {
+        return normals;
+    }
+
+    public int[] indices() {
+        return indices;
+    }
+}
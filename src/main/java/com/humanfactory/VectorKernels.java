@@ -0,0 +1,26 @@
+package com.humanfactory;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API implementations behind {@link ColumnKernels}. Must only be referenced
+ * after checking {@link ColumnKernels#VECTORIZED}.
+ */
+final class VectorKernels {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    private VectorKernels() {
+    }
+
+    static void scale(float[] src, float factor, float[] dest, int count) {
+        int i = 0;
+        for (int bound = SPECIES.loopBound(count); i < bound; i += SPECIES.length()) {
+            FloatVector.fromArray(SPECIES, src, i).mul(factor).intoArray(dest, i);
+        }
+        for (; i < count; i++) {
+            dest[i] = src[i] * factor;
+        }
+    }
+}
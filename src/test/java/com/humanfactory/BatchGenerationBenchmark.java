@@ -0,0 +1,55 @@
+package com.humanfactory;
+
+import java.util.Random;
+
+/**
+ * Throughput comparison between a sequential generateSkeleton loop and generateBatch.
+ * Not part of the test suite; run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass="com.humanfactory.BatchGenerationBenchmark"
+ */
+public class BatchGenerationBenchmark {
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        BodyGenerator generator = new BodyGenerator();
+        BodyGenerator.BodyDNA[] dnas = randomCrowd(count, 7);
+
+        System.out.println("=== Batch Generation Benchmark (" + count + " skeletons, "
+            + Runtime.getRuntime().availableProcessors() + " cores) ===");
+        for (int round = 0; round < 5; round++) {
+            long t0 = System.nanoTime();
+            Skeleton[] sequential = new Skeleton[count];
+            for (int i = 0; i < count; i++) {
+                sequential[i] = generator.generateSkeleton(dnas[i]);
+            }
+            long t1 = System.nanoTime();
+            Skeleton[] parallel = generator.generateBatch(dnas);
+            long t2 = System.nanoTime();
+
+            if (!sequential[count - 1].equals(parallel[count - 1])) {
+                throw new IllegalStateException("Batch output differs from sequential output");
+            }
+            System.out.printf("Round %d: sequential %,.0f skeletons/s, batch %,.0f skeletons/s (%.1fx)%n",
+                round, rate(count, t1 - t0), rate(count, t2 - t1), (double) (t1 - t0) / (t2 - t1));
+        }
+    }
+
+    static BodyGenerator.BodyDNA[] randomCrowd(int count, long seed) {
+        Random random = new Random(seed);
+        BodyGenerator.BodyDNA[] dnas = new BodyGenerator.BodyDNA[count];
+        for (int i = 0; i < count; i++) {
+            dnas[i] = new BodyGenerator.BodyDNA(
+                1.5f + random.nextFloat() * 0.5f,
+                50f + random.nextFloat() * 50f,
+                0.6f + random.nextFloat() * 0.8f,
+                0.115f + random.nextFloat() * 0.02f,
+                0.45f + random.nextFloat() * 0.06f
+            );
+        }
+        return dnas;
+    }
+
+    static double rate(int count, long nanos) {
+        return count / (nanos / 1e9);
+    }
+}
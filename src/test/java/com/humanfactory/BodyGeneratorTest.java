@@ -1,10 +1,15 @@
 package com.humanfactory;
 
+import org.joml.Vector3f;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @DisplayName("BodyGenerator Tests")
 public class BodyGeneratorTest {
@@ -179,6 +184,27 @@ public class BodyGeneratorTest {
         assertTrue(skeleton.containsKey(Bone.ULNA_RIGHT));
     }
 
+    @Test
+    @DisplayName("Right side should be the exact mirror image of the left")
+    void testMirrorSymmetry() {
+        Skeleton skeleton = new BodyGenerator().generateSkeleton(new BodyGenerator.BodyDNA(1.63f, 58f, 0.9f, 0.13f, 0.47f));
+        Vector3f position = new Vector3f(), image = new Vector3f();
+        for (Bone bone : Bone.values()) {
+            assertEquals(skeleton.contains(bone), skeleton.contains(bone.mirror()), bone.name());
+            if (!skeleton.contains(bone)) continue;
+            skeleton.bindPosition(bone, position);
+            skeleton.bindPosition(bone.mirror(), image);
+            assertEquals(0f - position.x, image.x, bone.name());
+            assertEquals(position.y, image.y, bone.name());
+            assertEquals(position.z, image.z, bone.name());
+            assertEquals(skeleton.mass(bone), skeleton.mass(bone.mirror()));
+            assertEquals(skeleton.collisionShapes(bone).size(), skeleton.collisionShapes(bone.mirror()).size());
+        }
+
+        BodyGenerator.MirrorSink mirror = new BodyGenerator.MirrorSink().wrap(new Skeleton.Builder());
+        assertThrows(IllegalArgumentException.class, () -> mirror.bone(Bone.SACRUM, 0.1f, 0, 0, 0, 1));
+    }
+
     @Test
     @DisplayName("Should generate hand bones with all fingers")
     void testHandGeneration() {
@@ -309,4 +335,42 @@ public class BodyGeneratorTest {
         float fingerMass = skeleton.get(Bone.DISTAL_PHALANX_INDEX_FINGER_LEFT).mass();
         assertTrue(femurMass > fingerMass, "Femur should be heavier than a finger bone");
     }
+
+    @Test
+    @DisplayName("Batch generation should preserve input order")
+    void testBatchOrder() {
+        BodyGenerator generator = new BodyGenerator();
+        List<BodyGenerator.BodyDNA> dnas = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            dnas.add(new BodyGenerator.BodyDNA(1.5f + i * 0.005f, 50f + i, 0.8f + i * 0.005f, 0.125f, 0.48f));
+        }
+
+        List<Skeleton> batch = generator.generateBatch(dnas);
+
+        assertEquals(dnas.size(), batch.size());
+        for (int i = 0; i < dnas.size(); i++) {
+            assertEquals(generator.generateSkeleton(dnas.get(i)), batch.get(i), "Mismatch at index " + i);
+        }
+    }
+
+    @Test
+    @DisplayName("Batch generation on a caller-supplied executor should be deterministic")
+    void testBatchWithExecutor() {
+        BodyGenerator generator = new BodyGenerator();
+        BodyGenerator.BodyDNA[] dnas = new BodyGenerator.BodyDNA[75];
+        for (int i = 0; i < dnas.length; i++) {
+            dnas[i] = new BodyGenerator.BodyDNA(1.6f, 60f + i, 1.0f, 0.12f + i * 0.0002f, 0.47f);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Skeleton[] first = generator.generateBatch(dnas, executor);
+            Skeleton[] second = generator.generateBatch(dnas);
+
+            assertArrayEquals(first, second);
+            assertEquals(generator.generateSkeleton(dnas[42]), first[42]);
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
@@ -41,4 +41,20 @@ public class BoneTest {
         assertNotNull(Bone.valueOf("HUMERUS_LEFT"), "Should have left humerus");
         assertNotNull(Bone.valueOf("TIBIA_RIGHT"), "Should have right tibia");
     }
+
+    /**
+     * Test that sided bones pair with their counterpart and midline bones with themselves.
+     */
+    @Test
+    public void shouldMirrorAcrossTheMidline() {
+        assertEquals(Bone.FEMUR_RIGHT, Bone.FEMUR_LEFT.mirror());
+        assertEquals(Bone.RIB_12_LEFT, Bone.RIB_12_RIGHT.mirror());
+        assertEquals(Bone.DISTAL_PHALANX_LITTLE_TOE_LEFT, Bone.DISTAL_PHALANX_LITTLE_TOE_RIGHT.mirror());
+        assertEquals(Bone.SACRUM, Bone.SACRUM.mirror());
+        for (Bone bone : Bone.values()) {
+            assertEquals(bone, bone.mirror().mirror(), bone.name());
+            assertEquals(bone.name().replace("_LEFT", "").replace("_RIGHT", ""),
+                bone.mirror().name().replace("_LEFT", "").replace("_RIGHT", ""), bone.name());
+        }
+    }
 }
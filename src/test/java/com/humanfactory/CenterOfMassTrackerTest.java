@@ -0,0 +1,103 @@
+package com.humanfactory;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+@DisplayName("CenterOfMassTracker Tests")
+public class CenterOfMassTrackerTest {
+
+    private static Skeleton skeleton() {
+        return new BodyGenerator().generateSkeleton(BodyGenerator.BodyDNA.averageMale());
+    }
+
+    @Test
+    @DisplayName("Bind pose should match the bind-pose mass properties")
+    void testBindPose() {
+        Skeleton skeleton = skeleton();
+        CenterOfMassTracker tracker = new CenterOfMassTracker(skeleton);
+        MassProperties mass = skeleton.massProperties();
+
+        assertTrue(mass.centerOfMass(new Vector3f()).equals(tracker.centerOfMass(new Vector3f()), 1e-4f));
+        assertTrue(mass.subtreeCenterOfMass(Bone.FEMUR_LEFT, new Vector3f())
+            .equals(tracker.subtreeCenterOfMass(Bone.FEMUR_LEFT, new Vector3f()), 1e-4f));
+        assertEquals(mass.totalMass(), tracker.totalMass(), 1e-3f);
+    }
+
+    @Test
+    @DisplayName("Incremental updates should be bit-identical to a fresh full evaluation")
+    void testIncrementalMatchesFull() {
+        Skeleton skeleton = skeleton();
+        CenterOfMassTracker incremental = new CenterOfMassTracker(skeleton);
+        Pose pose = new Pose();
+        Bone[] bones = Bone.values();
+        Random random = new Random(21);
+
+        for (int frame = 0; frame < 100; frame++) {
+            Bone bone = bones[random.nextInt(bones.length)];
+            pose.set(bone, new Quaternionf().rotationXYZ(random.nextFloat() - 0.5f, random.nextFloat() - 0.5f, 0));
+            incremental.setPose(pose);
+            incremental.update();
+
+            CenterOfMassTracker full = new CenterOfMassTracker(skeleton);
+            full.setPose(pose);
+            full.update();
+            assertEquals(full.centerOfMass(new Vector3f()), incremental.centerOfMass(new Vector3f()), "Frame " + frame);
+            assertEquals(full.subtreeCenterOfMass(Bone.HUMERUS_RIGHT, new Vector3f()),
+                incremental.subtreeCenterOfMass(Bone.HUMERUS_RIGHT, new Vector3f()), "Frame " + frame);
+        }
+    }
+
+    @Test
+    @DisplayName("Only the changed subtree should be recomputed")
+    void testPartialUpdate() {
+        CenterOfMassTracker tracker = new CenterOfMassTracker(skeleton());
+        Vector3f before = tracker.centerOfMass(new Vector3f());
+
+        assertEquals(0, tracker.update());
+        tracker.setRotation(Bone.HUMERUS_LEFT, new Quaternionf().rotationZ(-1.2f));
+        assertEquals(JointRegistry.topology().subtreeSize(Bone.HUMERUS_LEFT.ordinal()), tracker.update());
+
+        Vector3f after = tracker.centerOfMass(new Vector3f());
+        assertNotEquals(before, after);
+        assertEquals(before.z, after.z, 1e-2f);
+    }
+
+    @Test
+    @DisplayName("Support polygon should contain the standing center of mass and react to stance")
+    void testSupportPolygon() {
+        CenterOfMassTracker tracker = new CenterOfMassTracker(skeleton());
+        float[] polygon = new float[64];
+        int vertices = tracker.supportPolygon(polygon);
+        assertTrue(vertices >= 3, "Vertices " + vertices);
+
+        // Counter-clockwise in x/z: every turn is to the left
+        for (int i = 0; i < vertices; i++) {
+            int j = (i + 1) % vertices, k = (i + 2) % vertices;
+            float cross = (polygon[j * 2] - polygon[i * 2]) * (polygon[k * 2 + 1] - polygon[i * 2 + 1])
+                - (polygon[j * 2 + 1] - polygon[i * 2 + 1]) * (polygon[k * 2] - polygon[i * 2]);
+            assertTrue(cross > 0);
+        }
+
+        Vector3f center = tracker.centerOfMass(new Vector3f());
+        boolean inside = tracker.isSupported();
+        float margin = tracker.supportMargin();
+        assertEquals(inside, margin > 0);
+
+        // Standing on the left foot only moves the center of mass outside its smaller polygon
+        tracker.setFootContact(true, false);
+        tracker.update();
+        assertFalse(tracker.isSupported());
+        assertTrue(tracker.supportMargin() < margin);
+
+        tracker.setFootContact(false, false);
+        tracker.update();
+        assertEquals(0, tracker.supportPolygon(polygon));
+        assertEquals(Float.NEGATIVE_INFINITY, tracker.supportMargin());
+        assertEquals(center, tracker.centerOfMass(new Vector3f()));
+    }
+}
@@ -0,0 +1,67 @@
+package com.humanfactory;
+
+import org.joml.Vector3f;
+
+import java.util.Random;
+
+/**
+ * Linear raycast over every collision shape vs. CollisionBvh traversal, plus refit cost.
+ * Not part of the test suite; run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass="com.humanfactory.CollisionBvhBenchmark"
+ */
+public class CollisionBvhBenchmark {
+
+    public static void main(String[] args) {
+        int rays = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        Skeleton skeleton = new BodyGenerator().generateSkeleton(BodyGenerator.BodyDNA.averageMale());
+        CollisionBvh bvh = new CollisionBvh(skeleton);
+        float[] world = ForwardKinematics.newOutput();
+        new ForwardKinematics(skeleton).evaluate(new Pose(), world);
+
+        Random random = new Random(9);
+        float[] origins = new float[rays * 3];
+        float[] directions = new float[rays * 3];
+        Vector3f d = new Vector3f();
+        for (int i = 0; i < rays; i++) {
+            origins[i * 3] = random.nextFloat() * 2 - 1;
+            origins[i * 3 + 1] = random.nextFloat() * 2;
+            origins[i * 3 + 2] = 1;
+            d.set(random.nextFloat() - 0.5f, random.nextFloat() - 0.5f, -1).normalize();
+            directions[i * 3] = d.x;
+            directions[i * 3 + 1] = d.y;
+            directions[i * 3 + 2] = d.z;
+        }
+        Vector3f origin = new Vector3f();
+        Vector3f hit = new Vector3f();
+
+        System.out.println("=== Collision BVH Benchmark (" + bvh.shapeCount() + " shapes, " + rays + " rays) ===");
+        for (int round = 0; round < 5; round++) {
+            int linearHits = 0;
+            long t0 = System.nanoTime();
+            for (int i = 0; i < rays; i++) {
+                float nearest = Float.POSITIVE_INFINITY;
+                for (int s = 0; s < bvh.shapeCount(); s++) {
+                    nearest = Math.min(nearest, bvh.rayShape(s, origins[i * 3], origins[i * 3 + 1], origins[i * 3 + 2],
+                        directions[i * 3], directions[i * 3 + 1], directions[i * 3 + 2]));
+                }
+                if (nearest <= 5) linearHits++;
+            }
+            long t1 = System.nanoTime();
+            int bvhHits = 0;
+            for (int i = 0; i < rays; i++) {
+                origin.set(origins[i * 3], origins[i * 3 + 1], origins[i * 3 + 2]);
+                d.set(directions[i * 3], directions[i * 3 + 1], directions[i * 3 + 2]);
+                if (bvh.raycast(origin, d, 5, hit) != null) bvhHits++;
+            }
+            long t2 = System.nanoTime();
+            for (int i = 0; i < 10_000; i++) {
+                bvh.refit(world);
+            }
+            long t3 = System.nanoTime();
+
+            System.out.printf("Round %d: linear %,.0f rays/s, bvh %,.0f rays/s (%d/%d hits), refit %,.0f /s%n",
+                round, BatchGenerationBenchmark.rate(rays, t1 - t0), BatchGenerationBenchmark.rate(rays, t2 - t1),
+                bvhHits, linearHits, BatchGenerationBenchmark.rate(10_000, t3 - t2));
+        }
+    }
+}
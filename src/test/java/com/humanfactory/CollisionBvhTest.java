@@ -0,0 +1,201 @@
+package com.humanfactory;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+@DisplayName("CollisionBvh Tests")
+public class CollisionBvhTest {
+
+    private static final float EPSILON = 1e-5f;
+
+    private static Skeleton skeleton() {
+        return new BodyGenerator().generateSkeleton(BodyGenerator.BodyDNA.averageMale());
+    }
+
+    private static CollisionBvh single(BoneShape shape) {
+        BoneDefinition definition = new BoneDefinition(0.1f, new Vector3f(), new Quaternionf(), 1,
+            List.of(shape), BoneDefinition.JointLimits.LOCKED);
+        return new CollisionBvh(Skeleton.of(Map.of(Bone.PATELLA_LEFT, definition)));
+    }
+
+    private static Pose randomPose(Random random) {
+        Pose pose = new Pose();
+        for (Bone bone : Bone.values()) {
+            pose.set(bone, new Quaternionf().rotationXYZ(random.nextFloat() - 0.5f, random.nextFloat() - 0.5f,
+                random.nextFloat() - 0.5f));
+        }
+        return pose;
+    }
+
+    private static Vector3f randomPoint(Random random) {
+        return new Vector3f(random.nextFloat() * 1.2f - 0.6f, random.nextFloat() * 2f - 0.1f, random.nextFloat() * 1.2f - 0.6f);
+    }
+
+    @Test
+    @DisplayName("Shape kernels should match closed-form answers")
+    void testShapes() {
+        Vector3f hit = new Vector3f();
+
+        CollisionBvh sphere = single(new BoneShape.Sphere(0.1f, new Vector3f(0, 0.5f, 0)));
+        assertEquals(Bone.PATELLA_LEFT, sphere.raycast(new Vector3f(0, 2, 0), new Vector3f(0, -3, 0), 10, hit));
+        assertEquals(1.4f, sphere.lastDistance(), EPSILON);
+        assertEquals(0.6f, hit.y, EPSILON);
+        assertNull(sphere.raycast(new Vector3f(0, 2, 0), new Vector3f(0, -1, 0), 1, hit));
+        assertNull(sphere.raycast(new Vector3f(0.2f, 2, 0), new Vector3f(0, -1, 0), 10, hit));
+        assertEquals(Bone.PATELLA_LEFT, sphere.closestPoint(new Vector3f(0.5f, 0.5f, 0), 10, hit));
+        assertEquals(0.4f, sphere.lastDistance(), EPSILON);
+        assertTrue(hit.equals(new Vector3f(0.1f, 0.5f, 0), EPSILON));
+
+        // Capsule of length 1 along Y: side hit, end-cap hit, and inside
+        CollisionBvh capsule = single(new BoneShape.Capsule(0.1f, 1, new Vector3f(), new Quaternionf()));
+        capsule.raycast(new Vector3f(1, 0.3f, 0), new Vector3f(-1, 0, 0), 10, hit);
+        assertEquals(0.9f, capsule.lastDistance(), EPSILON);
+        capsule.raycast(new Vector3f(0, -2, 0), new Vector3f(0, 1, 0), 10, hit);
+        assertEquals(1.5f, capsule.lastDistance(), EPSILON);
+        capsule.raycast(new Vector3f(0, 0.2f, 0), new Vector3f(0, 1, 0), 10, hit);
+        assertEquals(0, capsule.lastDistance());
+        capsule.closestPoint(new Vector3f(0, 0.3f, 0), 10, hit);
+        assertEquals(-0.1f, capsule.lastDistance(), EPSILON);
+
+        // Box turned 45 degrees about Y: its corner faces +X
+        CollisionBvh box = single(new BoneShape.Box(new Vector3f(0.1f, 0.1f, 0.1f), new Vector3f(),
+            new Quaternionf().rotationY((float) Math.PI / 4)));
+        box.raycast(new Vector3f(1, 0, 0), new Vector3f(-1, 0, 0), 10, hit);
+        assertEquals(1 - 0.1f * (float) Math.sqrt(2), box.lastDistance(), EPSILON);
+        assertTrue(box.overlapsSphere(new Vector3f(0.2f, 0, 0), 0.06f));
+        assertFalse(box.overlapsSphere(new Vector3f(0.2f, 0, 0), 0.05f));
+    }
+
+    @Test
+    @DisplayName("Queries should match a linear scan over every shape")
+    void testMatchesLinearScan() {
+        Skeleton skeleton = skeleton();
+        CollisionBvh bvh = new CollisionBvh(skeleton);
+        ForwardKinematics rig = new ForwardKinematics(skeleton);
+        float[] world = ForwardKinematics.newOutput();
+        Random random = new Random(17);
+        Vector3f point = new Vector3f();
+
+        for (int pose = 0; pose < 5; pose++) {
+            rig.evaluate(randomPose(random), world);
+            bvh.refit(world);
+            for (int i = 0; i < 200; i++) {
+                Vector3f origin = randomPoint(random);
+                Vector3f direction = new Vector3f(random.nextFloat() - 0.5f, random.nextFloat() - 0.5f,
+                    random.nextFloat() - 0.5f).normalize();
+
+                float nearest = Float.POSITIVE_INFINITY;
+                float closest = Float.POSITIVE_INFINITY;
+                for (int s = 0; s < bvh.shapeCount(); s++) {
+                    nearest = Math.min(nearest, bvh.rayShape(s, origin.x, origin.y, origin.z,
+                        direction.x, direction.y, direction.z));
+                    closest = Math.min(closest, bvh.distance(s, origin.x, origin.y, origin.z));
+                }
+
+                Bone hit = bvh.raycast(origin, direction, 5, point);
+                if (nearest <= 5) {
+                    assertNotNull(hit);
+                    assertEquals(nearest, bvh.lastDistance(), EPSILON);
+                } else {
+                    assertNull(hit);
+                }
+                assertNotNull(bvh.closestPoint(origin, Float.POSITIVE_INFINITY, point));
+                assertEquals(closest, bvh.lastDistance());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Refit should answer like a rebuild of the same pose")
+    void testRefitMatchesRebuild() {
+        Skeleton skeleton = skeleton();
+        CollisionBvh refit = new CollisionBvh(skeleton);
+        CollisionBvh rebuilt = new CollisionBvh(skeleton);
+        ForwardKinematics rig = new ForwardKinematics(skeleton);
+        float[] world = ForwardKinematics.newOutput();
+        Random random = new Random(3);
+        rig.evaluate(randomPose(random), world);
+        refit.refit(world);
+        rebuilt.rebuild(world);
+
+        Vector3f min = new Vector3f(), max = new Vector3f(), point = new Vector3f();
+        assertTrue(refit.bounds(min, max));
+        Vector3f rebuiltMin = new Vector3f(), rebuiltMax = new Vector3f();
+        rebuilt.bounds(rebuiltMin, rebuiltMax);
+        assertEquals(rebuiltMin, min);
+        assertEquals(rebuiltMax, max);
+
+        for (int i = 0; i < 200; i++) {
+            Vector3f origin = randomPoint(random);
+            Vector3f direction = new Vector3f(0, -1, 0).add(random.nextFloat() - 0.5f, 0, random.nextFloat() - 0.5f);
+            // Overlapping shapes can tie on distance, so compare distances rather than bones
+            assertEquals(rebuilt.raycast(origin, direction, 5, point) == null, refit.raycast(origin, direction, 5, point) == null);
+            assertEquals(rebuilt.lastDistance(), refit.lastDistance(), EPSILON);
+        }
+    }
+
+    @Test
+    @DisplayName("Sphere overlap should report the bones around a point")
+    void testOverlap() {
+        Skeleton skeleton = skeleton();
+        CollisionBvh bvh = new CollisionBvh(skeleton);
+        float[] world = ForwardKinematics.newOutput();
+        new ForwardKinematics(skeleton).evaluate(new Pose(), world);
+        Vector3f knee = ForwardKinematics.worldPosition(world, Bone.TIBIA_LEFT, new Vector3f());
+        long[] mask = new long[Skeleton.PRESENCE_WORDS];
+        mask[2] = -1L;
+
+        assertTrue(bvh.overlapSphere(knee, 0.05f, mask) > 0);
+        int tibia = Bone.TIBIA_LEFT.ordinal();
+        assertTrue((mask[tibia >>> 6] & 1L << tibia) != 0);
+        int femur = Bone.FEMUR_RIGHT.ordinal();
+        assertEquals(0, mask[femur >>> 6] & 1L << femur);
+        assertFalse(bvh.overlapsSphere(new Vector3f(0, 10, 0), 1));
+        assertEquals(0, bvh.overlapSphere(new Vector3f(0, 10, 0), 1, mask));
+        assertArrayEquals(new long[Skeleton.PRESENCE_WORDS], mask);
+    }
+
+    @Test
+    @DisplayName("Refit and queries should not allocate")
+    void testZeroAllocation() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        Skeleton skeleton = skeleton();
+        CollisionBvh bvh = new CollisionBvh(skeleton);
+        float[] world = ForwardKinematics.newOutput();
+        new ForwardKinematics(skeleton).evaluate(randomPose(new Random(8)), world);
+        Vector3f origin = new Vector3f(0, 1, 1);
+        Vector3f direction = new Vector3f(0, 0, -1);
+        Vector3f point = new Vector3f();
+        long[] mask = new long[Skeleton.PRESENCE_WORDS];
+
+        for (int i = 0; i < 5_000; i++) {
+            bvh.refit(world);
+            bvh.raycast(origin, direction, 5, point);
+            bvh.closestPoint(origin, 5, point);
+            bvh.overlapSphere(origin, 0.5f, mask);
+        }
+
+        long best = Long.MAX_VALUE;
+        for (int window = 0; window < 3; window++) {
+            long before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < 1_000; i++) {
+                bvh.refit(world);
+                bvh.raycast(origin, direction, 5, point);
+                bvh.closestPoint(origin, 5, point);
+                bvh.overlapSphere(origin, 0.5f, mask);
+            }
+            best = Math.min(best, threads.getCurrentThreadAllocatedBytes() - before);
+        }
+        assertEquals(0, best);
+    }
+}
@@ -0,0 +1,59 @@
+package com.humanfactory;
+
+/**
+ * Row-at-a-time {@link SkeletonTemplate#evaluateInto} vs. column evaluation of whole batches.
+ * Not part of the test suite; run with:
+ * MAVEN_OPTS="--add-modules jdk.incubator.vector" mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass="com.humanfactory.ColumnsBenchmark"
+ * Without the module flag the scalar fallback is measured.
+ */
+public class ColumnsBenchmark {
+
+    public static void main(String[] args) {
+        int batch = args.length > 0 ? Integer.parseInt(args[0]) : 1024;
+        int batches = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        SkeletonTemplate template = new BodyGenerator().compile();
+        BodyGenerator.BodyDNA[] dnas = BatchGenerationBenchmark.randomCrowd(batch, 5);
+
+        float[] height = new float[batch];
+        float[] mass = new float[batch];
+        float[] build = new float[batch];
+        float[] headRatio = new float[batch];
+        float[] legRatio = new float[batch];
+        for (int i = 0; i < batch; i++) {
+            height[i] = dnas[i].heightMeters();
+            mass[i] = dnas[i].massKg();
+            build[i] = dnas[i].buildFactor();
+            headRatio[i] = dnas[i].headRatio();
+            legRatio[i] = dnas[i].legRatio();
+        }
+
+        SkeletonBuffer buffer = new SkeletonBuffer();
+        SkeletonColumns columns = template.newColumns(batch);
+        int count = batch * batches;
+        long bytesPerRow = (long) (5 * template.boneCount() + 6 * template.shapeCount()) * Float.BYTES;
+
+        System.out.println("=== Columns Benchmark (" + batches + " x " + batch + " skeletons, vector API "
+            + (ColumnKernels.VECTORIZED ? "on" : "off") + ") ===");
+        for (int round = 0; round < 5; round++) {
+            float sink = 0;
+            long t0 = System.nanoTime();
+            for (int b = 0; b < batches; b++) {
+                for (BodyGenerator.BodyDNA dna : dnas) {
+                    template.evaluateInto(dna, buffer);
+                    sink += buffer.length(Bone.FEMUR_LEFT);
+                }
+            }
+            long t1 = System.nanoTime();
+            for (int b = 0; b < batches; b++) {
+                template.evaluateColumns(height, mass, build, headRatio, legRatio, batch, columns);
+                sink += columns.lengthColumn(Bone.FEMUR_LEFT)[b % batch];
+            }
+            long t2 = System.nanoTime();
+
+            System.out.printf("Round %d: evaluateInto %,.0f/s, evaluateColumns %,.0f/s (%.2f GB/s written) (%.1f)%n",
+                round,
+                BatchGenerationBenchmark.rate(count, t1 - t0), BatchGenerationBenchmark.rate(count, t2 - t1),
+                count * bytesPerRow / ((t2 - t1) / 1e9) / 1e9, sink);
+        }
+    }
+}
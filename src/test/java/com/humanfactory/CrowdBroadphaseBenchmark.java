@@ -0,0 +1,84 @@
+package com.humanfactory;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Brute-force O(n^2) box tests vs. CrowdBroadphase at 1k, 10k and 100k bodies.
+ * Bodies take their bounds from a few generated skeletons and stand at random on a plane,
+ * about one per 4 square meters. Brute force is skipped above 10k bodies.
+ * Not part of the test suite; run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass="com.humanfactory.CrowdBroadphaseBenchmark"
+ */
+public class CrowdBroadphaseBenchmark {
+
+    private static final int BRUTE_FORCE_LIMIT = 10_000;
+
+    public static void main(String[] args) {
+        Skeleton[] templates = new BodyGenerator().generateBatch(BatchGenerationBenchmark.randomCrowd(32, 11));
+        float[] templateBounds = new float[templates.length * 6];
+        for (int i = 0; i < templates.length; i++) {
+            new CollisionBvh(templates[i]).bounds(templateBounds, i * 6);
+        }
+        CrowdBroadphase broadphase = new CrowdBroadphase(CrowdBroadphase.DEFAULT_CELL_SIZE, ForkJoinPool.commonPool());
+
+        System.out.println("=== Crowd Broadphase Benchmark (" + Runtime.getRuntime().availableProcessors() + " cores) ===");
+        for (int count : new int[] {1_000, 10_000, 100_000}) {
+            float[] bounds = scatter(templateBounds, count, new Random(count));
+            for (int round = 0; round < 3; round++) {
+                long bruteNanos = 0;
+                int brutePairs = -1;
+                if (count <= BRUTE_FORCE_LIMIT) {
+                    long t0 = System.nanoTime();
+                    brutePairs = bruteForce(bounds, count);
+                    bruteNanos = System.nanoTime() - t0;
+                }
+                long t1 = System.nanoTime();
+                broadphase.update(bounds, count);
+                long t2 = System.nanoTime();
+                int pairs = broadphase.findPairs();
+                long t3 = System.nanoTime();
+
+                if (brutePairs >= 0 && brutePairs != pairs) {
+                    throw new IllegalStateException("Broadphase found " + pairs + " pairs, brute force " + brutePairs);
+                }
+                System.out.printf("%,d bodies round %d: brute force %s, insert %.2f ms, pairs %.2f ms (%,d pairs, %,d cells)%n",
+                    count, round, brutePairs >= 0 ? String.format("%.2f ms", bruteNanos / 1e6) : "skipped",
+                    (t2 - t1) / 1e6, (t3 - t2) / 1e6, pairs, broadphase.occupiedCells());
+            }
+        }
+    }
+
+    private static float[] scatter(float[] templateBounds, int count, Random random) {
+        float side = (float) Math.sqrt(count * 4.0);
+        float[] bounds = new float[count * 6];
+        int templates = templateBounds.length / 6;
+        for (int i = 0; i < count; i++) {
+            int t = random.nextInt(templates) * 6;
+            float x = random.nextFloat() * side;
+            float z = random.nextFloat() * side;
+            bounds[i * 6] = templateBounds[t] + x;
+            bounds[i * 6 + 1] = templateBounds[t + 1];
+            bounds[i * 6 + 2] = templateBounds[t + 2] + z;
+            bounds[i * 6 + 3] = templateBounds[t + 3] + x;
+            bounds[i * 6 + 4] = templateBounds[t + 4];
+            bounds[i * 6 + 5] = templateBounds[t + 5] + z;
+        }
+        return bounds;
+    }
+
+    private static int bruteForce(float[] b, int count) {
+        int pairs = 0;
+        for (int i = 0; i < count; i++) {
+            int oi = i * 6;
+            for (int j = i + 1; j < count; j++) {
+                int oj = j * 6;
+                if (b[oi] <= b[oj + 3] && b[oj] <= b[oi + 3] && b[oi + 1] <= b[oj + 4] && b[oj + 1] <= b[oi + 4]
+                    && b[oi + 2] <= b[oj + 5] && b[oj + 2] <= b[oi + 5]) {
+                    pairs++;
+                }
+            }
+        }
+        return pairs;
+    }
+}
@@ -0,0 +1,139 @@
+package com.humanfactory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+@DisplayName("CrowdBroadphase Tests")
+public class CrowdBroadphaseTest {
+
+    /** Mostly body-sized boxes on a plane, a few large ones spanning many cells, some at negative coordinates. */
+    private static float[] randomBoxes(int count, float extent, long seed) {
+        Random random = new Random(seed);
+        float[] bounds = new float[count * 6];
+        for (int i = 0; i < count; i++) {
+            float x = (random.nextFloat() * 2 - 1) * extent;
+            float z = (random.nextFloat() * 2 - 1) * extent;
+            float size = random.nextInt(20) == 0 ? 6 : 0.3f + random.nextFloat() * 0.8f;
+            float y = random.nextInt(10) == 0 ? 3 : 0;
+            bounds[i * 6] = x;
+            bounds[i * 6 + 1] = y;
+            bounds[i * 6 + 2] = z;
+            bounds[i * 6 + 3] = x + size;
+            bounds[i * 6 + 4] = y + 1.8f;
+            bounds[i * 6 + 5] = z + size * 0.5f;
+        }
+        return bounds;
+    }
+
+    private static boolean overlaps(float[] b, int i, int j) {
+        for (int k = 0; k < 3; k++) {
+            if (b[i * 6 + k] > b[j * 6 + k + 3] || b[j * 6 + k] > b[i * 6 + k + 3]) return false;
+        }
+        return true;
+    }
+
+    private static List<Long> bruteForce(float[] bounds, int count) {
+        List<Long> pairs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            for (int j = i + 1; j < count; j++) {
+                if (overlaps(bounds, i, j)) pairs.add((long) i << 32 | j);
+            }
+        }
+        return pairs;
+    }
+
+    private static List<Long> pairs(CrowdBroadphase broadphase) {
+        List<Long> pairs = new ArrayList<>();
+        for (int i = 0; i < broadphase.pairCount(); i++) {
+            pairs.add((long) broadphase.pairFirst(i) << 32 | broadphase.pairSecond(i));
+        }
+        return pairs;
+    }
+
+    @Test
+    @DisplayName("Pairs should match the brute-force pair set, each pair once and sorted")
+    void testMatchesBruteForce() {
+        float[] bounds = randomBoxes(2_000, 40, 1);
+        CrowdBroadphase broadphase = new CrowdBroadphase(1.5f, new ForkJoinPool(4));
+        broadphase.update(bounds, 2_000);
+        broadphase.findPairs();
+
+        List<Long> expected = bruteForce(bounds, 2_000);
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, pairs(broadphase));
+        assertTrue(broadphase.occupiedCells() > 100);
+    }
+
+    @Test
+    @DisplayName("Output should not depend on the pool and should survive reuse")
+    void testDeterministicAndReusable() {
+        float[] bounds = randomBoxes(5_000, 50, 2);
+        CrowdBroadphase parallel = new CrowdBroadphase(CrowdBroadphase.DEFAULT_CELL_SIZE, new ForkJoinPool(4));
+        CrowdBroadphase single = new CrowdBroadphase(CrowdBroadphase.DEFAULT_CELL_SIZE, new ForkJoinPool(1));
+        parallel.update(bounds, 5_000);
+        single.update(bounds, 5_000);
+        assertEquals(single.findPairs(), parallel.findPairs());
+        assertEquals(pairs(single), pairs(parallel));
+
+        // A smaller crowd after a larger one only sees its own bodies
+        parallel.update(bounds, 300);
+        parallel.findPairs();
+        assertEquals(bruteForce(bounds, 300), pairs(parallel));
+        assertEquals(300, parallel.bodyCount());
+    }
+
+    @Test
+    @DisplayName("Box queries should return every overlapping body once, in order")
+    void testQuery() {
+        float[] bounds = randomBoxes(1_000, 20, 3);
+        CrowdBroadphase broadphase = new CrowdBroadphase();
+        broadphase.update(bounds, 1_000);
+
+        float[] box = {-3, 0, -4, 5, 1, 2.5f};
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            boolean hit = true;
+            for (int k = 0; k < 3; k++) {
+                hit &= bounds[i * 6 + k] <= box[k + 3] && box[k] <= bounds[i * 6 + k + 3];
+            }
+            if (hit) expected.add(i);
+        }
+        int[] found = new int[1_000];
+        int n = broadphase.query(box[0], box[1], box[2], box[3], box[4], box[5], found);
+        assertEquals(expected.size(), n);
+        for (int i = 0; i < n; i++) {
+            assertEquals(expected.get(i), found[i]);
+        }
+        int[] small = new int[2];
+        assertEquals(n, broadphase.query(box[0], box[1], box[2], box[3], box[4], box[5], small));
+        assertEquals(found[1], small[1]);
+    }
+
+    @Test
+    @DisplayName("Should take skeleton bounds from their BVHs and reject bad input")
+    void testSkeletonsAndValidation() {
+        Skeleton[] crowd = new BodyGenerator().generateBatch(BatchGenerationBenchmark.randomCrowd(3, 4));
+        float[] bounds = new float[crowd.length * 6];
+        for (int i = 0; i < crowd.length; i++) {
+            assertTrue(new CollisionBvh(crowd[i]).bounds(bounds, i * 6));
+        }
+        // All three stand at the origin; move the last one 10 m away
+        bounds[12] += 10;
+        bounds[15] += 10;
+        CrowdBroadphase broadphase = new CrowdBroadphase();
+        broadphase.update(bounds, 3);
+        assertEquals(1, broadphase.findPairs());
+        assertEquals(0, broadphase.pairFirst(0));
+        assertEquals(1, broadphase.pairSecond(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> broadphase.pairFirst(1));
+
+        assertThrows(IllegalArgumentException.class, () -> new CrowdBroadphase(0, ForkJoinPool.commonPool()));
+        assertThrows(IllegalArgumentException.class, () -> broadphase.update(bounds, 4));
+    }
+}
@@ -0,0 +1,50 @@
+package com.humanfactory;
+
+import org.joml.Quaternionf;
+
+/**
+ * Full forward kinematics per frame vs. incremental updates when only a finger chain and the neck move.
+ * Not part of the test suite; run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass="com.humanfactory.ForwardKinematicsBenchmark"
+ */
+public class ForwardKinematicsBenchmark {
+
+    private static final Bone[] ANIMATED = {
+        Bone.PROXIMAL_PHALANX_INDEX_FINGER_LEFT, Bone.MIDDLE_PHALANX_INDEX_FINGER_LEFT,
+        Bone.DISTAL_PHALANX_INDEX_FINGER_LEFT, Bone.CERVICAL_1_ATLAS
+    };
+
+    public static void main(String[] args) {
+        int frames = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        ForwardKinematics rig = new ForwardKinematics(new BodyGenerator().generateSkeleton(BodyGenerator.BodyDNA.averageMale()));
+        IncrementalForwardKinematics incremental = new IncrementalForwardKinematics(rig);
+        Pose pose = new Pose();
+        float[] out = ForwardKinematics.newOutput();
+        Quaternionf rotation = new Quaternionf();
+
+        System.out.println("=== Forward Kinematics Benchmark (" + frames + " frames, "
+            + ANIMATED.length + " animated joints) ===");
+        for (int round = 0; round < 5; round++) {
+            long t0 = System.nanoTime();
+            for (int f = 0; f < frames; f++) {
+                for (Bone bone : ANIMATED) {
+                    pose.set(bone, rotation.rotationX(f * 1e-4f));
+                }
+                rig.evaluate(pose, out);
+            }
+            long t1 = System.nanoTime();
+            long before = incremental.totalRecomputed();
+            for (int f = 0; f < frames; f++) {
+                for (Bone bone : ANIMATED) {
+                    incremental.setRotation(bone, rotation.rotationX(f * 1e-4f));
+                }
+                incremental.update();
+            }
+            long t2 = System.nanoTime();
+
+            System.out.printf("Round %d: full %,.0f frames/s, incremental %,.0f frames/s (%.1f bones/frame)%n",
+                round, BatchGenerationBenchmark.rate(frames, t1 - t0), BatchGenerationBenchmark.rate(frames, t2 - t1),
+                (double) (incremental.totalRecomputed() - before) / frames);
+        }
+    }
+}
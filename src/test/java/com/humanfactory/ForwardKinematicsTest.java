@@ -0,0 +1,192 @@
+package com.humanfactory;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+@DisplayName("ForwardKinematics Tests")
+public class ForwardKinematicsTest {
+
+    private static final float EPSILON = 1e-5f;
+
+    private static Pose randomPose(Random random) {
+        Pose pose = new Pose();
+        for (Bone bone : Bone.values()) {
+            pose.set(bone, new Quaternionf().rotateXYZ(
+                (random.nextFloat() - 0.5f), (random.nextFloat() - 0.5f), (random.nextFloat() - 0.5f)));
+        }
+        return pose;
+    }
+
+    // Reference: recursive JOML evaluation straight from the registry
+    private static void referenceWorld(Skeleton skeleton, Pose pose, Bone bone, Quaternionf rotation, Vector3f position) {
+        JointRegistry.Joint joint = JointRegistry.getJoint(bone);
+        if (joint == null) {
+            rotation.identity();
+            position.zero();
+        } else {
+            referenceWorld(skeleton, pose, joint.parent(), rotation, position);
+        }
+        if (!skeleton.contains(bone)) return;
+        position.add(rotation.transform(skeleton.bindPosition(bone, new Vector3f())));
+        rotation.mul(skeleton.bindRotation(bone, new Quaternionf())).mul(pose.get(bone, new Quaternionf()));
+    }
+
+    private static void assertMatchesReference(Skeleton skeleton, Pose pose, float[] out) {
+        for (Bone bone : Bone.values()) {
+            Quaternionf rotation = new Quaternionf();
+            Vector3f position = new Vector3f();
+            referenceWorld(skeleton, pose, bone, rotation, position);
+
+            Vector3f actualPosition = ForwardKinematics.worldPosition(out, bone, new Vector3f());
+            Quaternionf actualRotation = ForwardKinematics.worldRotation(out, bone, new Quaternionf());
+            assertTrue(position.equals(actualPosition, EPSILON), bone + ": " + position + " vs " + actualPosition);
+            assertTrue(rotation.equals(actualRotation, EPSILON), bone + ": " + rotation + " vs " + actualRotation);
+        }
+    }
+
+    @Test
+    @DisplayName("Bind pose should place each bone at the sum of its parent-relative offsets")
+    void testBindPose() {
+        Skeleton skeleton = new BodyGenerator().generateSkeleton(BodyGenerator.BodyDNA.averageMale());
+        ForwardKinematics fk = new ForwardKinematics(skeleton);
+        float[] out = ForwardKinematics.newOutput();
+
+        fk.evaluate(new Pose(), out);
+
+        Vector3f sacrum = skeleton.bindPosition(Bone.SACRUM, new Vector3f());
+        Vector3f lumbar5 = skeleton.bindPosition(Bone.LUMBAR_5, new Vector3f());
+        assertEquals(sacrum, ForwardKinematics.worldPosition(out, Bone.SACRUM, new Vector3f()));
+        assertEquals(sacrum.add(lumbar5), ForwardKinematics.worldPosition(out, Bone.LUMBAR_5, new Vector3f()));
+        assertMatchesReference(skeleton, new Pose(), out);
+    }
+
+    @Test
+    @DisplayName("Posed skeletons should match a reference JOML evaluation")
+    void testRandomPoses() {
+        Skeleton skeleton = new BodyGenerator().generateSkeleton(new BodyGenerator.BodyDNA(1.65f, 60.0f, 0.9f, 0.13f, 0.46f));
+        ForwardKinematics fk = new ForwardKinematics(skeleton);
+        float[] out = ForwardKinematics.newOutput();
+        Random random = new Random(11);
+
+        for (int i = 0; i < 5; i++) {
+            Pose pose = randomPose(random);
+            fk.evaluate(pose, out);
+            assertMatchesReference(skeleton, pose, out);
+        }
+    }
+
+    @Test
+    @DisplayName("A mirrored pose should mirror every world transform")
+    void testMirroredPose() {
+        Skeleton skeleton = new BodyGenerator().generateSkeleton(BodyGenerator.BodyDNA.averageMale());
+        ForwardKinematics fk = new ForwardKinematics(skeleton);
+        Pose pose = randomPose(new Random(5));
+        // The jaw hangs off the left temporal bone, so only a rigid skull is symmetric
+        for (Bone bone : Bone.values()) {
+            JointRegistry.Joint joint = JointRegistry.getJoint(bone);
+            if (joint != null && joint.type() == JointType.FIBROUS) pose.set(bone, new Quaternionf());
+        }
+        Pose mirrored = new Pose();
+        mirrored.mirrorFrom(pose);
+        float[] out = ForwardKinematics.newOutput(), mirroredOut = ForwardKinematics.newOutput();
+        fk.evaluate(pose, out);
+        fk.evaluate(mirrored, mirroredOut);
+
+        for (Bone bone : Bone.values()) {
+            Vector3f position = ForwardKinematics.worldPosition(out, bone, new Vector3f());
+            Quaternionf rotation = ForwardKinematics.worldRotation(out, bone, new Quaternionf());
+            Vector3f image = ForwardKinematics.worldPosition(mirroredOut, bone.mirror(), new Vector3f());
+            Quaternionf imageRotation = ForwardKinematics.worldRotation(mirroredOut, bone.mirror(), new Quaternionf());
+            assertTrue(image.equals(new Vector3f(-position.x, position.y, position.z), EPSILON), bone + ": " + position + " vs " + image);
+            assertTrue(imageRotation.equals(new Quaternionf(rotation.x, -rotation.y, -rotation.z, rotation.w), EPSILON), bone.name());
+        }
+
+        // Mirroring in place twice is the identity
+        mirrored.mirrorFrom(mirrored);
+        mirrored.mirrorFrom(mirrored);
+        Pose twice = new Pose();
+        twice.mirrorFrom(pose);
+        for (Bone bone : Bone.values()) {
+            assertEquals(twice.get(bone, new Quaternionf()), mirrored.get(bone, new Quaternionf()), bone.name());
+        }
+        twice.mirrorFrom(twice);
+        for (Bone bone : Bone.values()) {
+            assertEquals(pose.get(bone, new Quaternionf()), twice.get(bone, new Quaternionf()), bone.name());
+        }
+    }
+
+    @Test
+    @DisplayName("Children of absent bones should attach to the nearest present ancestor")
+    void testAbsentParentPassThrough() {
+        Skeleton skeleton = new BodyGenerator().generateSkeleton(BodyGenerator.BodyDNA.averageMale());
+        assertFalse(skeleton.contains(Bone.STERNUM));
+        assertTrue(skeleton.contains(Bone.CLAVICLE_LEFT));
+
+        ForwardKinematics fk = new ForwardKinematics(skeleton);
+        float[] out = ForwardKinematics.newOutput();
+        fk.evaluate(new Pose(), out);
+
+        Bone sternumParent = JointRegistry.getJoint(Bone.STERNUM).parent();
+        assertEquals(ForwardKinematics.worldPosition(out, sternumParent, new Vector3f()),
+            ForwardKinematics.worldPosition(out, Bone.STERNUM, new Vector3f()));
+    }
+
+    @Test
+    @DisplayName("Buffer-backed and skeleton-backed rigs should agree, in batches too")
+    void testBatchAndBufferRig() {
+        BodyGenerator generator = new BodyGenerator();
+        Random random = new Random(5);
+        int crowd = 40;
+        ForwardKinematics[] rigs = new ForwardKinematics[crowd];
+        Pose[] poses = new Pose[crowd];
+        float[][] outs = new float[crowd][];
+        SkeletonBuffer buffer = new SkeletonBuffer();
+        for (int i = 0; i < crowd; i++) {
+            BodyGenerator.BodyDNA dna = new BodyGenerator.BodyDNA(1.5f + i * 0.01f, 60.0f, 1.0f, 0.125f, 0.48f);
+            generator.generateInto(dna, buffer);
+            rigs[i] = new ForwardKinematics(buffer);
+            poses[i] = randomPose(random);
+            outs[i] = ForwardKinematics.newOutput();
+        }
+
+        ForwardKinematics.evaluateBatch(rigs, poses, outs);
+
+        float[] expected = ForwardKinematics.newOutput();
+        for (int i = 0; i < crowd; i++) {
+            BodyGenerator.BodyDNA dna = new BodyGenerator.BodyDNA(1.5f + i * 0.01f, 60.0f, 1.0f, 0.125f, 0.48f);
+            new ForwardKinematics(generator.generateSkeleton(dna)).evaluate(poses[i], expected);
+            assertArrayEquals(expected, outs[i], "Character " + i);
+        }
+        assertThrows(IllegalArgumentException.class,
+            () -> ForwardKinematics.evaluateBatch(rigs, new Pose[1], outs));
+    }
+
+    @Test
+    @DisplayName("evaluate should not allocate")
+    void testZeroAllocation() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assertTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        ForwardKinematics fk = new ForwardKinematics(new BodyGenerator().generateSkeleton(BodyGenerator.BodyDNA.averageMale()));
+        Pose pose = randomPose(new Random(1));
+        float[] out = ForwardKinematics.newOutput();
+        for (int i = 0; i < 20_000; i++) {
+            fk.evaluate(pose, out);
+        }
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 10_000; i++) {
+            fk.evaluate(pose, out);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertEquals(0, allocated, "evaluate allocated " + allocated + " bytes over 10,000 calls");
+    }
+}
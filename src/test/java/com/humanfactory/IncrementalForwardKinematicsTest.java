@@ -0,0 +1,72 @@
+package com.humanfactory;
+
+import org.joml.Quaternionf;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+@DisplayName("IncrementalForwardKinematics Tests")
+public class IncrementalForwardKinematicsTest {
+
+    private static ForwardKinematics rig() {
+        return new ForwardKinematics(new BodyGenerator().generateSkeleton(BodyGenerator.BodyDNA.averageMale()));
+    }
+
+    @Test
+    @DisplayName("First update should evaluate every bone, an unchanged pose none")
+    void testFirstAndIdleUpdates() {
+        IncrementalForwardKinematics fk = new IncrementalForwardKinematics(rig());
+
+        assertEquals(Skeleton.BONE_COUNT, fk.update());
+        assertEquals(0, fk.update());
+
+        // Writing the same value again is not a change
+        fk.setRotation(Bone.FEMUR_LEFT, 0, 0, 0, 1);
+        assertEquals(0, fk.update());
+        assertEquals(3, fk.updates());
+        assertEquals(Skeleton.BONE_COUNT, fk.totalRecomputed());
+    }
+
+    @Test
+    @DisplayName("Changing one joint should recompute exactly its subtree")
+    void testSubtreeOnly() {
+        JointTopology topology = JointRegistry.topology();
+        IncrementalForwardKinematics fk = new IncrementalForwardKinematics(rig());
+        fk.update();
+
+        fk.setRotation(Bone.PROXIMAL_PHALANX_INDEX_FINGER_LEFT, new Quaternionf().rotateX(0.4f));
+        assertEquals(topology.subtreeSize(Bone.PROXIMAL_PHALANX_INDEX_FINGER_LEFT.ordinal()), fk.update());
+
+        // A dirty bone inside a dirty subtree is not counted twice
+        fk.setRotation(Bone.HUMERUS_RIGHT, new Quaternionf().rotateZ(0.3f));
+        fk.setRotation(Bone.RADIUS_RIGHT, new Quaternionf().rotateY(0.2f));
+        assertEquals(topology.subtreeSize(Bone.HUMERUS_RIGHT.ordinal()), fk.update());
+        assertEquals(fk.lastRecomputed(), topology.subtreeSize(Bone.HUMERUS_RIGHT.ordinal()));
+    }
+
+    @Test
+    @DisplayName("Incremental results should be bit-identical to full evaluation")
+    void testMatchesFullEvaluation() {
+        ForwardKinematics rig = rig();
+        IncrementalForwardKinematics incremental = new IncrementalForwardKinematics(rig);
+        Pose pose = new Pose();
+        float[] full = ForwardKinematics.newOutput();
+        Bone[] bones = Bone.values();
+        Random random = new Random(9);
+
+        for (int frame = 0; frame < 200; frame++) {
+            for (int k = 0; k < 3; k++) {
+                Bone bone = bones[random.nextInt(bones.length)];
+                pose.set(bone, new Quaternionf().rotateXYZ(random.nextFloat() - 0.5f, random.nextFloat() - 0.5f, 0));
+            }
+            incremental.setPose(pose);
+            incremental.update();
+            rig.evaluate(pose, full);
+
+            assertArrayEquals(full, incremental.output(), "Frame " + frame);
+        }
+        assertTrue(incremental.totalRecomputed() < 200L * Skeleton.BONE_COUNT);
+    }
+}
@@ -0,0 +1,56 @@
+package com.humanfactory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+@DisplayName("Interner Tests")
+public class InternerTest {
+
+    @Test
+    @DisplayName("Equal values should resolve to the first instance seen")
+    void testShared() {
+        Interner<List<String>> interner = new Interner<>(16);
+        List<String> first = List.of("a", "b");
+        assertSame(first, interner.intern(first));
+        assertSame(first, interner.intern(List.of("a", "b")));
+        List<String> other = List.of("c");
+        assertSame(other, interner.intern(other));
+        assertSame(first, interner.intern(List.of("a", "b")));
+    }
+
+    @Test
+    @DisplayName("A set should keep its two most recently used values")
+    void testEviction() {
+        // A single set of two slots
+        Interner<List<Integer>> interner = new Interner<>(2);
+        List<Integer> a = List.of(1), b = List.of(2), c = List.of(3);
+        assertSame(a, interner.intern(a));
+        assertSame(b, interner.intern(b));
+        assertSame(a, interner.intern(List.of(1)));
+        // b is now the older value, so c evicts it and a survives
+        assertSame(c, interner.intern(c));
+        assertSame(a, interner.intern(List.of(1)));
+        List<Integer> again = List.of(2);
+        assertSame(again, interner.intern(again));
+
+        assertThrows(IllegalArgumentException.class, () -> new Interner<>(1));
+        assertThrows(IllegalArgumentException.class, () -> new Interner<>(12));
+    }
+
+    @Test
+    @DisplayName("Values found by parts should share the table with interned ones")
+    void testFind() {
+        Interner<String> interner = new Interner<>(16, String::length);
+        assertNull(interner.find(3, cached -> true));
+        String abc = interner.intern(new String("abc"));
+        assertSame(abc, interner.find(3, "abc"::equals));
+        assertNull(interner.find(3, "xyz"::equals));
+        String xyz = interner.install(3, "xyz");
+        assertSame(xyz, interner.intern(new String("xyz")));
+        // abc is still the older value of the set
+        assertSame(abc, interner.intern(new String("abc")));
+    }
+}
@@ -0,0 +1,104 @@
+package com.humanfactory;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Retained heap of a random crowd with interned shapes and joint limits vs. the same crowd with a
+ * private copy of every shape, shape list and limit, as before interning.
+ * Unshared copies are measured on a sample and scaled to the crowd, since they grow linearly.
+ * Not part of the test suite; run with a large heap (e.g. -Xmx4g):
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass="com.humanfactory.InterningBenchmark"
+ */
+public class InterningBenchmark {
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int sample = Math.min(count, 10_000);
+        BodyGenerator.BodyDNA[] dnas = BatchGenerationBenchmark.randomCrowd(count, 7);
+
+        System.out.println("=== Interning Benchmark (" + count + " skeletons) ===");
+        long before = usedHeap();
+        Skeleton[] crowd = new BodyGenerator().generateBatch(dnas);
+        long crowdBytes = usedHeap() - before;
+
+        Set<Object> shapes = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<Object> lists = Collections.newSetFromMap(new IdentityHashMap<>());
+        long shapeRefs = 0, listRefs = 0;
+        for (Skeleton skeleton : crowd) {
+            for (int b = skeleton.nextPresent(0); b >= 0; b = skeleton.nextPresent(b + 1)) {
+                List<BoneShape> list = skeleton.collisionShapes(Skeleton.BONES[b]);
+                if (list.isEmpty()) continue;
+                listRefs++;
+                lists.add(list);
+                shapeRefs += list.size();
+                shapes.addAll(list);
+            }
+        }
+        System.out.printf("Shapes: %,d references, %,d instances; shape lists: %,d references, %,d instances%n",
+            shapeRefs, shapes.size(), listRefs, lists.size());
+        System.out.printf("Interned crowd: %,.1f MB%n", crowdBytes / 1e6);
+
+        // What each skeleton carried before: its own lists of its own shapes
+        before = usedHeap();
+        List<List<BoneShape>> copies = new ArrayList<>();
+        for (int i = 0; i < sample; i++) {
+            Skeleton skeleton = crowd[i];
+            for (int b = skeleton.nextPresent(0); b >= 0; b = skeleton.nextPresent(b + 1)) {
+                List<BoneShape> list = skeleton.collisionShapes(Skeleton.BONES[b]);
+                if (!list.isEmpty()) copies.add(copy(list));
+            }
+        }
+        long copyBytes = (usedHeap() - before) * count / sample;
+        Reference.reachabilityFence(copies);
+        long sharedBytes = (long) ((double) copyBytes * (shapes.size() + lists.size()) / (shapeRefs + listRefs));
+        System.out.printf("Unshared shapes: %,.1f MB, interned: ~%,.1f MB; saves %,.1f MB (%.0f%% of the unshared crowd)%n",
+            copyBytes / 1e6, sharedBytes / 1e6, (copyBytes - sharedBytes) / 1e6,
+            100.0 * (copyBytes - sharedBytes) / (crowdBytes - sharedBytes + copyBytes));
+
+        // Map views: one limits record per bone before, one per distinct registry entry now
+        before = usedHeap();
+        List<BoneDefinition.JointLimits> limits = new ArrayList<>(sample * Skeleton.BONE_COUNT);
+        long arrayBytes = usedHeap() - before;
+        for (int i = 0; i < sample; i++) {
+            for (Map.Entry<Bone, BoneDefinition> entry : crowd[i].asMap().entrySet()) {
+                BoneDefinition.JointLimits shared = entry.getValue().jointLimits();
+                limits.add(new BoneDefinition.JointLimits(shared.minPitch(), shared.maxPitch(),
+                    shared.minYaw(), shared.maxYaw(), shared.minRoll(), shared.maxRoll()));
+            }
+        }
+        long limitBytes = (usedHeap() - before - arrayBytes) * count / sample;
+        Reference.reachabilityFence(limits);
+        Reference.reachabilityFence(crowd);
+        System.out.printf("Joint limits: %,d per-bone copies in map views avoided, %,.1f MB%n",
+            (long) limits.size() * count / sample, limitBytes / 1e6);
+    }
+
+    private static List<BoneShape> copy(List<BoneShape> list) {
+        BoneShape[] copied = new BoneShape[list.size()];
+        for (int i = 0; i < copied.length; i++) {
+            copied[i] = switch (list.get(i)) {
+                case BoneShape.Box box -> new BoneShape.Box(new Vector3f(box.halfExtents()),
+                    new Vector3f(box.offset()), new Quaternionf(box.rotation()));
+                case BoneShape.Capsule capsule -> new BoneShape.Capsule(capsule.radius(), capsule.length(),
+                    new Vector3f(capsule.offset()), new Quaternionf(capsule.rotation()));
+                case BoneShape.Sphere sphere -> new BoneShape.Sphere(sphere.radius(), new Vector3f(sphere.offset()));
+            };
+        }
+        return List.of(copied);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
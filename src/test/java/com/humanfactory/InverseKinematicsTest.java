@@ -0,0 +1,166 @@
+package com.humanfactory;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ForkJoinPool;
+
+@DisplayName("InverseKinematics Tests")
+public class InverseKinematicsTest {
+
+    private static final Bone ROOT = Bone.SCAPULA_LEFT;
+    private static final Bone EFFECTOR = Bone.DISTAL_PHALANX_INDEX_FINGER_LEFT;
+    // Radians of slack for the Euler round trip when checking limits
+    private static final float ANGLE_EPSILON = 1e-4f;
+
+    private static ForwardKinematics rig(BodyGenerator.BodyDNA dna) {
+        return new ForwardKinematics(new BodyGenerator().generateSkeleton(dna));
+    }
+
+    // Bends every chain joint a fraction of the way through its range
+    private static Pose bentPose(float fraction) {
+        Pose pose = new Pose();
+        for (Bone bone : JointRegistry.topology().chainToRoot(EFFECTOR)) {
+            JointLimits l = JointRegistry.getJoint(bone).limits();
+            pose.set(bone, new Quaternionf().rotationXYZ(
+                l.minPitch() + fraction * (l.maxPitch() - l.minPitch()),
+                l.minYaw() + fraction * (l.maxYaw() - l.minYaw()),
+                l.minRoll() + fraction * (l.maxRoll() - l.minRoll())));
+            if (bone == ROOT) break;
+        }
+        return pose;
+    }
+
+    private static Vector3f effectorOf(ForwardKinematics rig, Pose pose) {
+        float[] out = ForwardKinematics.newOutput();
+        rig.evaluate(pose, out);
+        return ForwardKinematics.worldPosition(out, EFFECTOR, new Vector3f());
+    }
+
+    @Test
+    @DisplayName("Should reach a target produced by an in-limits pose")
+    void testReachesReachableTarget() {
+        ForwardKinematics rig = rig(BodyGenerator.BodyDNA.averageMale());
+        Vector3f target = effectorOf(rig, bentPose(0.6f));
+
+        Pose pose = new Pose();
+        float[] world = ForwardKinematics.newOutput();
+        rig.evaluate(pose, world);
+        InverseKinematics ik = new InverseKinematics(rig, ROOT, EFFECTOR, 64, 5e-3f);
+
+        assertTrue(ik.solve(pose, world, target), "Error " + ik.lastError() + " after " + ik.lastIterations());
+        assertTrue(effectorOf(rig, pose).distance(target) <= 5e-3f);
+    }
+
+    @Test
+    @DisplayName("Solved rotations should stay inside every joint's limits")
+    void testRespectsLimits() {
+        ForwardKinematics rig = rig(BodyGenerator.BodyDNA.averageMale());
+        Pose pose = new Pose();
+        float[] world = ForwardKinematics.newOutput();
+        rig.evaluate(pose, world);
+        InverseKinematics ik = new InverseKinematics(rig, ROOT, EFFECTOR);
+
+        // Behind the shoulder: forces several joints against their stops
+        Vector3f shoulder = ForwardKinematics.worldPosition(world, ROOT, new Vector3f());
+        ik.solve(pose, world, shoulder.add(0.1f, -0.3f, -0.4f));
+
+        Vector3f euler = new Vector3f();
+        for (Bone bone : JointRegistry.topology().chainToRoot(EFFECTOR)) {
+            JointLimits l = JointRegistry.getJoint(bone).limits();
+            pose.get(bone, new Quaternionf()).getEulerAnglesXYZ(euler);
+            assertTrue(euler.x >= l.minPitch() - ANGLE_EPSILON && euler.x <= l.maxPitch() + ANGLE_EPSILON, bone + " pitch " + euler.x);
+            assertTrue(euler.y >= l.minYaw() - ANGLE_EPSILON && euler.y <= l.maxYaw() + ANGLE_EPSILON, bone + " yaw " + euler.y);
+            assertTrue(euler.z >= l.minRoll() - ANGLE_EPSILON && euler.z <= l.maxRoll() + ANGLE_EPSILON, bone + " roll " + euler.z);
+            if (bone == ROOT) break;
+        }
+    }
+
+    @Test
+    @DisplayName("An out-of-reach target should spend the whole iteration budget")
+    void testUnreachableTarget() {
+        ForwardKinematics rig = rig(BodyGenerator.BodyDNA.averageMale());
+        Pose pose = new Pose();
+        float[] world = ForwardKinematics.newOutput();
+        rig.evaluate(pose, world);
+        InverseKinematics ik = new InverseKinematics(rig, ROOT, EFFECTOR, 10, 1e-3f);
+
+        assertFalse(ik.solve(pose, world, new Vector3f(5, 5, 5)));
+        assertEquals(10, ik.lastIterations());
+        assertTrue(ik.lastError() > 1);
+    }
+
+    @Test
+    @DisplayName("Should reject a root that is not above the effector")
+    void testInvalidChain() {
+        ForwardKinematics rig = rig(BodyGenerator.BodyDNA.averageMale());
+        assertThrows(IllegalArgumentException.class, () -> new InverseKinematics(rig, Bone.FEMUR_LEFT, EFFECTOR));
+        assertThrows(IllegalArgumentException.class, () -> new InverseKinematics(rig, EFFECTOR, EFFECTOR));
+        assertThrows(IllegalArgumentException.class, () -> new InverseKinematics(rig, EFFECTOR, ROOT));
+    }
+
+    @Test
+    @DisplayName("solve should not allocate once warm")
+    void testZeroAllocation() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assertTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        ForwardKinematics rig = rig(BodyGenerator.BodyDNA.averageMale());
+        Vector3f target = effectorOf(rig, bentPose(0.4f));
+        Pose pose = new Pose();
+        float[] world = ForwardKinematics.newOutput();
+        rig.evaluate(pose, world);
+        InverseKinematics ik = new InverseKinematics(rig, ROOT, EFFECTOR);
+
+        for (int i = 0; i < 5_000; i++) {
+            pose.reset();
+            ik.solve(pose, world, target);
+        }
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 1_000; i++) {
+            pose.reset();
+            ik.solve(pose, world, target);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertEquals(0, allocated, "solve allocated " + allocated + " bytes over 1,000 calls");
+    }
+
+    @Test
+    @DisplayName("Batch solving should match solving each character in turn")
+    void testBatchMatchesSequential() {
+        BodyGenerator.BodyDNA[] dnas = BatchGenerationBenchmark.randomCrowd(40, 17);
+        int n = dnas.length;
+        InverseKinematics[] solvers = new InverseKinematics[n];
+        Pose[] poses = new Pose[n];
+        float[][] worlds = new float[n][];
+        Vector3fc[] targets = new Vector3fc[n];
+        for (int i = 0; i < n; i++) {
+            ForwardKinematics rig = rig(dnas[i]);
+            solvers[i] = new InverseKinematics(rig, ROOT, EFFECTOR);
+            poses[i] = new Pose();
+            worlds[i] = ForwardKinematics.newOutput();
+            rig.evaluate(poses[i], worlds[i]);
+            targets[i] = effectorOf(rig, bentPose((i % 5) / 5f));
+        }
+
+        int converged = InverseKinematics.solveBatch(solvers, poses, worlds, targets, new ForkJoinPool(4));
+
+        int expected = 0;
+        for (int i = 0; i < n; i++) {
+            Pose pose = new Pose();
+            if (solvers[i].solve(pose, worlds[i], targets[i])) expected++;
+            assertArrayEquals(pose.rotations, poses[i].rotations, "Character " + i);
+        }
+        assertEquals(expected, converged);
+        assertThrows(IllegalArgumentException.class,
+            () -> InverseKinematics.solveBatch(solvers, new Pose[1], worlds, targets));
+    }
+}
@@ -0,0 +1,74 @@
+package com.humanfactory;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Per-bone JOML Euler clamping through JointRegistry lookups vs. JointLimitTable batch clamping
+ * vs. trig-free SwingTwistLimits clamping.
+ * Not part of the test suite; run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass="com.humanfactory.JointLimitTableBenchmark"
+ */
+public class JointLimitTableBenchmark {
+
+    public static void main(String[] args) {
+        int skeletons = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        JointLimitTable table = JointRegistry.limitTable();
+        SwingTwistLimits swingTwist = JointRegistry.swingTwistLimits();
+        float[] source = new float[skeletons * JointLimitTable.POSE_STRIDE];
+        Random random = new Random(5);
+        Quaternionf q = new Quaternionf();
+        for (int o = 0; o < source.length; o += 4) {
+            q.rotationXYZ(random.nextFloat() - 0.5f, random.nextFloat() - 0.5f, random.nextFloat() - 0.5f);
+            source[o] = q.x;
+            source[o + 1] = q.y;
+            source[o + 2] = q.z;
+            source[o + 3] = q.w;
+        }
+        float[] work = new float[source.length];
+        Vector3f euler = new Vector3f();
+
+        System.out.println("=== Joint Limit Clamp Benchmark (" + skeletons + " skeletons, "
+            + table.size() + " joints each) ===");
+        for (int round = 0; round < 5; round++) {
+            System.arraycopy(source, 0, work, 0, source.length);
+            long t0 = System.nanoTime();
+            for (int s = 0; s < skeletons; s++) {
+                for (Bone bone : Skeleton.BONES) {
+                    JointRegistry.Joint joint = JointRegistry.getJoint(bone);
+                    if (joint == null) continue;
+                    int o = s * JointLimitTable.POSE_STRIDE + bone.ordinal() * 4;
+                    JointLimits l = joint.limits();
+                    q.set(work[o], work[o + 1], work[o + 2], work[o + 3]).getEulerAnglesXYZ(euler);
+                    q.rotationXYZ(Math.clamp(euler.x, l.minPitch(), l.maxPitch()),
+                        Math.clamp(euler.y, l.minYaw(), l.maxYaw()), Math.clamp(euler.z, l.minRoll(), l.maxRoll()));
+                    work[o] = q.x;
+                    work[o + 1] = q.y;
+                    work[o + 2] = q.z;
+                    work[o + 3] = q.w;
+                }
+            }
+            long t1 = System.nanoTime();
+            System.arraycopy(source, 0, work, 0, source.length);
+            long t2 = System.nanoTime();
+            table.clamp(work, 0, skeletons);
+            long t3 = System.nanoTime();
+            System.arraycopy(source, 0, work, 0, source.length);
+            long t4 = System.nanoTime();
+            table.clampParallel(work, skeletons, ForkJoinPool.commonPool());
+            long t5 = System.nanoTime();
+            System.arraycopy(source, 0, work, 0, source.length);
+            long t6 = System.nanoTime();
+            swingTwist.clamp(work, 0, skeletons);
+            long t7 = System.nanoTime();
+
+            System.out.printf("Round %d: per-joint %,.0f skeletons/s, table %,.0f skeletons/s, parallel %,.0f skeletons/s, "
+                    + "swing-twist %,.0f skeletons/s%n",
+                round, BatchGenerationBenchmark.rate(skeletons, t1 - t0), BatchGenerationBenchmark.rate(skeletons, t3 - t2),
+                BatchGenerationBenchmark.rate(skeletons, t5 - t4), BatchGenerationBenchmark.rate(skeletons, t7 - t6));
+        }
+    }
+}
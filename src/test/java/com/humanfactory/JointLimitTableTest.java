@@ -0,0 +1,119 @@
+package com.humanfactory;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+@DisplayName("JointLimitTable Tests")
+public class JointLimitTableTest {
+
+    private static final float EPSILON = 1e-5f;
+
+    private static float[] randomBatch(int skeletons, long seed) {
+        Random random = new Random(seed);
+        float[] rotations = new float[skeletons * JointLimitTable.POSE_STRIDE];
+        Quaternionf q = new Quaternionf();
+        for (int o = 0; o < rotations.length; o += 4) {
+            q.rotationXYZ(random.nextFloat() * 2 - 1, random.nextFloat() * 2 - 1, random.nextFloat() * 2 - 1);
+            rotations[o] = q.x;
+            rotations[o + 1] = q.y;
+            rotations[o + 2] = q.z;
+            rotations[o + 3] = q.w;
+        }
+        return rotations;
+    }
+
+    @Test
+    @DisplayName("Should hold one row per registered joint with its limits")
+    void testRows() {
+        JointLimitTable table = JointRegistry.limitTable();
+        int registered = 0;
+        for (Bone bone : Bone.values()) {
+            if (JointRegistry.getJoint(bone) != null) registered++;
+        }
+        assertEquals(registered, table.size());
+        for (int i = 0; i < table.size(); i++) {
+            JointLimits l = JointRegistry.getJoint(table.bone(i)).limits();
+            assertEquals(l.minPitch(), table.minPitch[i]);
+            assertEquals(l.maxRoll(), table.maxRoll[i]);
+        }
+        assertSame(table, JointRegistry.limitTable());
+    }
+
+    @Test
+    @DisplayName("Should match a per-quaternion JOML Euler clamp")
+    void testMatchesJomlReference() {
+        JointLimitTable table = JointRegistry.limitTable();
+        float[] batch = randomBatch(8, 3);
+        float[] original = batch.clone();
+
+        int clamped = table.clamp(batch, 0, 8);
+
+        int expectedClamped = 0;
+        Quaternionf q = new Quaternionf();
+        Vector3f euler = new Vector3f();
+        for (int s = 0; s < 8; s++) {
+            for (Bone bone : Bone.values()) {
+                int o = s * JointLimitTable.POSE_STRIDE + bone.ordinal() * 4;
+                q.set(original[o], original[o + 1], original[o + 2], original[o + 3]);
+                JointRegistry.Joint joint = JointRegistry.getJoint(bone);
+                if (joint != null) {
+                    JointLimits l = joint.limits();
+                    q.getEulerAnglesXYZ(euler);
+                    float pitch = Math.clamp(euler.x, l.minPitch(), l.maxPitch());
+                    float yaw = Math.clamp(euler.y, l.minYaw(), l.maxYaw());
+                    float roll = Math.clamp(euler.z, l.minRoll(), l.maxRoll());
+                    if (pitch != euler.x || yaw != euler.y || roll != euler.z) {
+                        q.rotationXYZ(pitch, yaw, roll);
+                        expectedClamped++;
+                    }
+                }
+                Quaternionf actual = new Quaternionf(batch[o], batch[o + 1], batch[o + 2], batch[o + 3]);
+                assertTrue(q.equals(actual, EPSILON), s + "/" + bone + ": " + q + " vs " + actual);
+            }
+        }
+        assertEquals(expectedClamped, clamped);
+    }
+
+    @Test
+    @DisplayName("Rotations within limits and unjointed bones should be untouched")
+    void testLeavesValidRotations() {
+        JointLimitTable table = JointRegistry.limitTable();
+        Pose pose = new Pose()
+            .set(Bone.ULNA_LEFT, new Quaternionf().rotationX(1.0f))
+            .set(Bone.SACRUM, new Quaternionf().rotationXYZ(2, 1, -2));
+        float[] before = pose.rotations.clone();
+
+        assertEquals(0, table.clamp(pose));
+        assertArrayEquals(before, pose.rotations);
+
+        // Elbow hyperextension and twist are both outside a 0..145 degree hinge
+        pose.set(Bone.ULNA_LEFT, new Quaternionf().rotationXYZ(-0.5f, 0.3f, 0));
+        assertEquals(1, table.clamp(pose));
+        assertTrue(new Quaternionf().equals(pose.get(Bone.ULNA_LEFT, new Quaternionf()), EPSILON));
+    }
+
+    @Test
+    @DisplayName("Parallel and range clamping should match a sequential pass")
+    void testParallelAndRanges() {
+        JointLimitTable table = JointRegistry.limitTable();
+        float[] sequential = randomBatch(1000, 11);
+        float[] parallel = sequential.clone();
+        float[] ranged = sequential.clone();
+
+        int expected = table.clamp(sequential, 0, 1000);
+        assertEquals(expected, table.clampParallel(parallel, 1000, new ForkJoinPool(4)));
+        assertEquals(expected, table.clamp(ranged, 0, 300) + table.clamp(ranged, 300, 700));
+        assertArrayEquals(sequential, parallel);
+        assertArrayEquals(sequential, ranged);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> table.clamp(ranged, 999, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.clamp(ranged, Integer.MAX_VALUE, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.clampParallel(ranged, 1001, ForkJoinPool.commonPool()));
+    }
+}
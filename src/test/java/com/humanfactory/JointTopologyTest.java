@@ -0,0 +1,165 @@
+package com.humanfactory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@DisplayName("JointTopology Tests")
+public class JointTopologyTest {
+
+    private final JointTopology topology = JointRegistry.topology();
+
+    @Test
+    @DisplayName("Parent array should mirror the registry")
+    void testParentsMatchRegistry() {
+        for (Bone bone : Bone.values()) {
+            JointRegistry.Joint joint = JointRegistry.getJoint(bone);
+            if (joint == null) {
+                assertEquals(JointTopology.NONE, topology.parent(bone.ordinal()), bone.name());
+                assertNull(topology.parent(bone));
+            } else {
+                assertEquals(joint.parent().ordinal(), topology.parent(bone.ordinal()), bone.name());
+                assertEquals(joint.parent(), topology.parent(bone));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Topological order should start at the sacrum and put parents first")
+    void testTopologicalOrder() {
+        assertEquals(Bone.SACRUM.ordinal(), topology.order(0));
+
+        boolean[] seen = new boolean[topology.boneCount()];
+        for (int p = 0; p < topology.boneCount(); p++) {
+            int bone = topology.order(p);
+            assertFalse(seen[bone], "Visited twice: " + Bone.values()[bone]);
+            seen[bone] = true;
+            assertEquals(p, topology.position(bone));
+
+            int parent = topology.parent(bone);
+            if (parent != JointTopology.NONE) {
+                assertTrue(topology.position(parent) < p, Bone.values()[bone] + " precedes its parent");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Depth should count joints up to the root")
+    void testDepth() {
+        assertEquals(0, topology.depth(Bone.SACRUM.ordinal()));
+        assertEquals(1, topology.depth(Bone.LUMBAR_5.ordinal()));
+        assertEquals(5, topology.depth(Bone.LUMBAR_1.ordinal()));
+        for (int b = 0; b < topology.boneCount(); b++) {
+            int parent = topology.parent(b);
+            int expected = parent == JointTopology.NONE ? 0 : topology.depth(parent) + 1;
+            assertEquals(expected, topology.depth(b), Bone.values()[b].name());
+        }
+    }
+
+    @Test
+    @DisplayName("CSR children should list exactly the bones naming each parent")
+    void testChildren() {
+        int edges = 0;
+        for (int b = 0; b < topology.boneCount(); b++) {
+            int previous = -1;
+            for (int i = 0; i < topology.childCount(b); i++) {
+                int child = topology.child(b, i);
+                assertEquals(b, topology.parent(child));
+                assertTrue(child > previous, "Children should be in ordinal order");
+                previous = child;
+                edges++;
+            }
+            if (topology.parent(b) != JointTopology.NONE) edges--;
+        }
+        assertEquals(0, edges);
+
+        int[] offsets = topology.childOffsets();
+        int[] children = topology.childOrdinals();
+        assertEquals(children.length, offsets[topology.boneCount()]);
+        assertThrows(IndexOutOfBoundsException.class,
+            () -> topology.child(Bone.DISTAL_PHALANX_THUMB_LEFT.ordinal(), 0));
+    }
+
+    @Test
+    @DisplayName("Array copies should not expose internal state")
+    void testDefensiveCopies() {
+        int[] parents = topology.parentIndex();
+        parents[Bone.COCCYX.ordinal()] = 42;
+
+        assertEquals(Bone.SACRUM.ordinal(), topology.parent(Bone.COCCYX.ordinal()));
+        assertArrayEquals(topology.topologicalOrder(), JointRegistry.topology().topologicalOrder());
+        assertSame(topology, JointRegistry.topology());
+    }
+
+    // Reference: walk the registry from bone up to its root
+    private static List<Bone> ancestorsOf(Bone bone) {
+        List<Bone> chain = new ArrayList<>();
+        for (Bone b = bone; b != null; ) {
+            chain.add(b);
+            JointRegistry.Joint joint = JointRegistry.getJoint(b);
+            b = joint == null ? null : joint.parent();
+        }
+        return chain;
+    }
+
+    @Test
+    @DisplayName("Subtree ranges should match registry ancestry for every pair")
+    void testSubtreeMembership() {
+        for (Bone root : Bone.values()) {
+            int size = 0;
+            for (Bone bone : Bone.values()) {
+                boolean expected = ancestorsOf(bone).contains(root);
+                assertEquals(expected, topology.inSubtree(bone.ordinal(), root.ordinal()), bone + " under " + root);
+                assertEquals(expected && bone != root, topology.isDescendant(bone, root));
+                if (expected) size++;
+            }
+            assertEquals(size, topology.subtreeSize(root.ordinal()), root.name());
+        }
+
+        assertTrue(topology.isDescendant(Bone.DISTAL_PHALANX_INDEX_FINGER_LEFT, Bone.RADIUS_LEFT));
+        assertFalse(topology.isDescendant(Bone.DISTAL_PHALANX_INDEX_FINGER_LEFT, Bone.RADIUS_RIGHT));
+        List<Bone> arm = topology.subtree(Bone.HUMERUS_LEFT);
+        assertEquals(Bone.HUMERUS_LEFT, arm.get(0));
+        assertTrue(arm.contains(Bone.DISTAL_PHALANX_THUMB_LEFT));
+        assertFalse(arm.contains(Bone.SCAPULA_LEFT));
+    }
+
+    @Test
+    @DisplayName("Chains to the root should follow parent links")
+    void testChainToRoot() {
+        List<Bone> chain = topology.chainToRoot(Bone.DISTAL_PHALANX_INDEX_FINGER_LEFT);
+        assertEquals(ancestorsOf(Bone.DISTAL_PHALANX_INDEX_FINGER_LEFT), chain);
+        assertEquals(Bone.SACRUM, chain.get(chain.size() - 1));
+
+        int[] dest = new int[topology.depth(Bone.MANDIBLE.ordinal()) + 1];
+        assertEquals(dest.length, topology.chainToRoot(Bone.MANDIBLE.ordinal(), dest));
+        assertEquals(Bone.MANDIBLE.ordinal(), dest[0]);
+        assertEquals(Bone.SACRUM.ordinal(), dest[dest.length - 1]);
+    }
+
+    @Test
+    @DisplayName("Lowest common ancestor should match a brute-force search for every pair")
+    void testLowestCommonAncestor() {
+        for (Bone a : Bone.values()) {
+            List<Bone> chainA = ancestorsOf(a);
+            for (Bone b : Bone.values()) {
+                Bone expected = null;
+                for (Bone candidate : ancestorsOf(b)) {
+                    if (chainA.contains(candidate)) {
+                        expected = candidate;
+                        break;
+                    }
+                }
+                assertEquals(expected, topology.lowestCommonAncestor(a, b), a + " / " + b);
+            }
+        }
+
+        assertEquals(Bone.SACRUM, topology.lowestCommonAncestor(Bone.HAMATE_LEFT, Bone.TALUS_RIGHT));
+        assertEquals(0, topology.distance(Bone.FEMUR_LEFT.ordinal(), Bone.FEMUR_LEFT.ordinal()));
+        assertEquals(2, topology.distance(Bone.TIBIA_LEFT.ordinal(), Bone.PATELLA_LEFT.ordinal()));
+        assertEquals(-1, topology.distance(Bone.SACRUM.ordinal(), Bone.VOMER.ordinal()));
+    }
+}
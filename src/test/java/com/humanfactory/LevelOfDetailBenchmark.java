@@ -0,0 +1,38 @@
+package com.humanfactory;
+
+import org.joml.Quaternionf;
+
+/**
+ * Per-frame cost of forward kinematics and self-collision pair listing at each {@link LevelOfDetail}.
+ * Not part of the test suite; run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass="com.humanfactory.LevelOfDetailBenchmark"
+ */
+public class LevelOfDetailBenchmark {
+
+    public static void main(String[] args) {
+        int frames = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        Skeleton skeleton = new BodyGenerator().generateSkeleton(BodyGenerator.BodyDNA.averageMale());
+        SelfCollisionFilter filter = JointRegistry.selfCollisionFilter();
+        int[] first = new int[Skeleton.BONE_COUNT * Skeleton.BONE_COUNT], second = new int[first.length];
+        Pose pose = new Pose();
+        float[] out = ForwardKinematics.newOutput();
+        Quaternionf rotation = new Quaternionf();
+
+        System.out.println("=== Level of Detail Benchmark (" + frames + " frames) ===");
+        for (int round = 0; round < 3; round++) {
+            for (LevelOfDetail level : LevelOfDetail.values()) {
+                Skeleton lod = level.apply(skeleton);
+                ForwardKinematics rig = new ForwardKinematics(lod);
+                long t0 = System.nanoTime();
+                for (int f = 0; f < frames; f++) {
+                    pose.set(Bone.HUMERUS_LEFT, rotation.rotationZ(f * 1e-4f));
+                    rig.evaluate(pose, out);
+                }
+                long t1 = System.nanoTime();
+                int pairs = filter.pairs(lod, first, second);
+                System.out.printf("Round %d: %-15s %3d bones, %4d self-collision pairs, FK %,.0f frames/s%n",
+                    round, level, lod.boneCount(), pairs, BatchGenerationBenchmark.rate(frames, t1 - t0));
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.humanfactory;
+
+import org.joml.Matrix3f;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+
+@DisplayName("LevelOfDetail Tests")
+public class LevelOfDetailTest {
+
+    private static final Skeleton SKELETON = new BodyGenerator().generateSkeleton(BodyGenerator.BodyDNA.averageMale());
+
+    private static int shapeCount(Skeleton skeleton) {
+        int count = 0;
+        for (Bone bone : Skeleton.BONES) count += skeleton.collisionShapes(bone).size();
+        return count;
+    }
+
+    private static float totalMass(Skeleton skeleton) {
+        float mass = 0;
+        for (int b = skeleton.nextPresent(0); b >= 0; b = skeleton.nextPresent(b + 1)) mass += skeleton.mass(Skeleton.BONES[b]);
+        return mass;
+    }
+
+    @Test
+    @DisplayName("Levels should drop bones but keep every shape and all the mass")
+    void testMerge() {
+        assertSame(SKELETON, LevelOfDetail.FULL.apply(SKELETON));
+        int previous = SKELETON.boneCount();
+        for (LevelOfDetail level : LevelOfDetail.values()) {
+            Skeleton lod = level.apply(SKELETON);
+            if (level != LevelOfDetail.FULL) assertTrue(lod.boneCount() < previous, level + " should merge more");
+            previous = lod.boneCount();
+            assertEquals(shapeCount(SKELETON), shapeCount(lod));
+            assertEquals(totalMass(SKELETON), totalMass(lod), 1e-3f);
+            for (Bone bone : Skeleton.BONES) {
+                assertEquals(SKELETON.contains(bone) && level.keeps(bone), lod.contains(bone), level + " " + bone);
+            }
+        }
+
+        Skeleton fused = LevelOfDetail.FUSED.apply(SKELETON);
+        assertFalse(fused.contains(Bone.FRONTAL));
+        assertFalse(fused.contains(Bone.HIP_BONE_LEFT));
+        assertFalse(fused.contains(Bone.COCCYX));
+        assertTrue(fused.contains(Bone.MANDIBLE));
+        assertEquals(SKELETON.mass(Bone.SACRUM) + SKELETON.mass(Bone.HIP_BONE_LEFT) + SKELETON.mass(Bone.HIP_BONE_RIGHT)
+            + SKELETON.mass(Bone.COCCYX), fused.mass(Bone.SACRUM), 1e-4f);
+        assertEquals(3, fused.collisionShapes(Bone.SACRUM).size(), "Sacrum and both hip boxes");
+
+        Skeleton noDigits = LevelOfDetail.NO_DIGITS.apply(SKELETON);
+        assertFalse(noDigits.contains(Bone.DISTAL_PHALANX_INDEX_FINGER_LEFT));
+        assertTrue(noDigits.contains(Bone.METACARPAL_2_LEFT));
+        assertEquals(4, noDigits.collisionShapes(Bone.METACARPAL_2_LEFT).size());
+
+        Skeleton coarse = LevelOfDetail.TORSO_AND_LIMBS.apply(SKELETON);
+        assertEquals(17, coarse.boneCount());
+        assertTrue(coarse.boneCount() * 8 < SKELETON.boneCount());
+    }
+
+    @Test
+    @DisplayName("Merged shapes should stay put in the bind pose and follow their body when posed")
+    void testGeometry() {
+        MassProperties reference = MassProperties.of(SKELETON, BodyGenerator.DENSITY_BONE);
+        Pose pose = new Pose()
+            .set(Bone.HUMERUS_LEFT, new Quaternionf().rotationZ(1.2f))
+            .set(Bone.FEMUR_RIGHT, new Quaternionf().rotationX(-0.8f))
+            .set(Bone.OCCIPITAL, new Quaternionf().rotationX(0.3f));
+        float[] world = ForwardKinematics.newOutput();
+        new ForwardKinematics(SKELETON).evaluate(pose, world);
+        SignedDistanceField exact = new SignedDistanceField(SKELETON, 0);
+        exact.pose(world);
+        float[] bounds = new float[6];
+        assertTrue(exact.bounds(bounds));
+
+        for (LevelOfDetail level : LevelOfDetail.values()) {
+            Skeleton lod = level.apply(SKELETON);
+            // Same solids in model space: whole-body mass properties from shape volumes agree
+            MassProperties merged = MassProperties.of(lod, BodyGenerator.DENSITY_BONE);
+            assertEquals(reference.totalMass(), merged.totalMass(), reference.totalMass() * 1e-5f);
+            assertTrue(reference.centerOfMass(new Vector3f()).distance(merged.centerOfMass(new Vector3f())) < 1e-5f, level.name());
+            Matrix3f a = reference.bodyInertia(new Matrix3f()), b = merged.bodyInertia(new Matrix3f());
+            for (int k = 0; k < 3; k++) assertEquals(a.get(k, k), b.get(k, k), a.get(k, k) * 1e-4f, level.name());
+
+            // Only kept joints move, so the posed union of shapes is unchanged
+            float[] lodWorld = ForwardKinematics.newOutput();
+            new ForwardKinematics(lod).evaluate(pose, lodWorld);
+            SignedDistanceField field = new SignedDistanceField(lod, 0);
+            field.pose(lodWorld);
+            Random random = new Random(3);
+            for (int i = 0; i < 2_000; i++) {
+                float x = bounds[0] + random.nextFloat() * (bounds[3] - bounds[0]);
+                float y = bounds[1] + random.nextFloat() * (bounds[4] - bounds[1]);
+                float z = bounds[2] + random.nextFloat() * (bounds[5] - bounds[2]);
+                assertEquals(exact.distance(x, y, z), field.distance(x, y, z), 1e-5f, level + " at " + x + ", " + y + ", " + z);
+            }
+        }
+
+        // Turning the wrist carries the whole hand with the lunate, thumb side included
+        Skeleton coarse = LevelOfDetail.TORSO_AND_LIMBS.apply(SKELETON);
+        ForwardKinematics fk = new ForwardKinematics(coarse);
+        float[] full = ForwardKinematics.newOutput(), still = ForwardKinematics.newOutput(), turned = ForwardKinematics.newOutput();
+        new ForwardKinematics(SKELETON).evaluate(pose, full);
+        fk.evaluate(pose, still);
+        fk.evaluate(pose.set(Bone.LUNATE_LEFT, new Quaternionf().rotationYXZ(0.6f, -0.4f, 0.3f)), turned);
+        int o = Bone.LUNATE_LEFT.ordinal() * ForwardKinematics.STRIDE;
+        Quaternionf motion = new Quaternionf(turned[o], turned[o + 1], turned[o + 2], turned[o + 3])
+            .mul(new Quaternionf(still[o], still[o + 1], still[o + 2], still[o + 3]).conjugate());
+        List<Vector3f> merged = new ArrayList<>();
+        for (BoneShape shape : coarse.collisionShapes(Bone.LUNATE_LEFT)) merged.add(toWorld(turned, Bone.LUNATE_LEFT, shape));
+        assertFalse(merged.isEmpty());
+        for (Bone bone : EnumSet.range(Bone.SCAPHOID_LEFT, Bone.DISTAL_PHALANX_LITTLE_FINGER_RIGHT)) {
+            if (!bone.name().endsWith("_LEFT")) continue;
+            assertFalse(coarse.contains(bone) && bone != Bone.LUNATE_LEFT, bone.name());
+            for (BoneShape shape : SKELETON.collisionShapes(bone)) {
+                Vector3f expected = motion.transform(toWorld(full, bone, shape).sub(still[o + 4], still[o + 5], still[o + 6]))
+                    .add(turned[o + 4], turned[o + 5], turned[o + 6]);
+                assertTrue(merged.removeIf(center -> center.distance(expected) < 1e-5f), bone + " should follow the lunate");
+            }
+        }
+        assertTrue(merged.isEmpty());
+    }
+
+    /** World position of {@code shape}'s offset on {@code bone}. */
+    private static Vector3f toWorld(float[] world, Bone bone, BoneShape shape) {
+        Vector3fc offset = switch (shape) {
+            case BoneShape.Box box -> box.offset();
+            case BoneShape.Capsule capsule -> capsule.offset();
+            case BoneShape.Sphere sphere -> sphere.offset();
+        };
+        int o = bone.ordinal() * ForwardKinematics.STRIDE;
+        return new Quaternionf(world[o], world[o + 1], world[o + 2], world[o + 3]).transform(offset, new Vector3f())
+            .add(world[o + 4], world[o + 5], world[o + 6]);
+    }
+}
@@ -0,0 +1,38 @@
+package com.humanfactory;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Single-threaded vs. parallel MarchingCubes over an average body's SignedDistanceField,
+ * at a few cell sizes, with the number of tiles skipped by bounds culling.
+ * Not part of the test suite; run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass="com.humanfactory.MarchingCubesBenchmark"
+ */
+public class MarchingCubesBenchmark {
+
+    public static void main(String[] args) {
+        Skeleton skeleton = new BodyGenerator().generateSkeleton(BodyGenerator.BodyDNA.averageMale());
+        SignedDistanceField field = new SignedDistanceField(skeleton, 0.01f);
+        ForkJoinPool single = new ForkJoinPool(1);
+
+        System.out.println("=== Marching Cubes Benchmark (" + Runtime.getRuntime().availableProcessors() + " cores) ===");
+        for (float cellSize : new float[] {0.02f, 0.01f, 0.005f}) {
+            MarchingCubes sequential = new MarchingCubes(cellSize, MarchingCubes.DEFAULT_TILE_CELLS, single);
+            MarchingCubes parallel = new MarchingCubes(cellSize);
+            for (int round = 0; round < 3; round++) {
+                long t0 = System.nanoTime();
+                TriangleMesh a = sequential.mesh(field);
+                long t1 = System.nanoTime();
+                TriangleMesh b = parallel.mesh(field);
+                long t2 = System.nanoTime();
+                if (a.triangleCount() != b.triangleCount()) {
+                    throw new IllegalStateException("Meshes differ: " + a.triangleCount() + " vs " + b.triangleCount());
+                }
+                System.out.printf("Cell %.3f m round %d: sequential %.1f ms, parallel %.1f ms (%,d triangles, %d of %d tiles skipped)%n",
+                    cellSize, round, (t1 - t0) / 1e6, (t2 - t1) / 1e6, b.triangleCount(),
+                    parallel.skippedTiles(), parallel.tileCount());
+            }
+        }
+        single.shutdown();
+    }
+}
@@ -0,0 +1,159 @@
+package com.humanfactory;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+@DisplayName("MarchingCubes Tests")
+public class MarchingCubesTest {
+
+    private static Skeleton single(BoneShape... shapes) {
+        BoneDefinition definition = new BoneDefinition(0.1f, new Vector3f(), new Quaternionf(), 1,
+            List.of(shapes), BoneDefinition.JointLimits.LOCKED);
+        return Skeleton.of(Map.of(Bone.PATELLA_LEFT, definition));
+    }
+
+    /** Asserts every directed edge is matched by its reverse exactly once: closed and consistently wound. */
+    static void assertClosed(TriangleMesh mesh) {
+        Map<Long, Integer> edges = new HashMap<>();
+        int[] indices = mesh.indices();
+        for (int t = 0; t < mesh.triangleCount(); t++) {
+            for (int k = 0; k < 3; k++) {
+                int a = indices[t * 3 + k], b = indices[t * 3 + (k + 1) % 3];
+                assertNotEquals(a, b);
+                edges.merge((long) a << 32 | b, 1, Integer::sum);
+            }
+        }
+        for (Map.Entry<Long, Integer> edge : edges.entrySet()) {
+            long key = edge.getKey();
+            assertEquals(1, edge.getValue());
+            assertEquals(1, edges.getOrDefault((key & 0xFFFFFFFFL) << 32 | key >>> 32, 0), "Open edge");
+        }
+    }
+
+    /** Enclosed volume by the divergence theorem; positive when triangles wind outward. */
+    static double volume(TriangleMesh mesh) {
+        float[] p = mesh.positions();
+        int[] indices = mesh.indices();
+        double volume = 0;
+        for (int t = 0; t < mesh.triangleCount(); t++) {
+            Vector3f a = new Vector3f(p[indices[t * 3] * 3], p[indices[t * 3] * 3 + 1], p[indices[t * 3] * 3 + 2]);
+            Vector3f b = new Vector3f(p[indices[t * 3 + 1] * 3], p[indices[t * 3 + 1] * 3 + 1], p[indices[t * 3 + 1] * 3 + 2]);
+            Vector3f c = new Vector3f(p[indices[t * 3 + 2] * 3], p[indices[t * 3 + 2] * 3 + 1], p[indices[t * 3 + 2] * 3 + 2]);
+            volume += a.dot(b.cross(c, new Vector3f())) / 6.0;
+        }
+        return volume;
+    }
+
+    @Test
+    @DisplayName("Generated case table should cover exactly the crossing edges")
+    void testTable() {
+        assertEquals(0, MarchingCubes.triangleCount(0));
+        assertEquals(0, MarchingCubes.triangleCount(255));
+        assertEquals(1, MarchingCubes.triangleCount(1));
+        assertEquals(2, MarchingCubes.triangleCount(0b11));
+        // Two diagonal corners on one face stay apart
+        assertEquals(2, MarchingCubes.triangleCount(0b1001));
+        // ... but their complement joins across the face
+        assertEquals(4, MarchingCubes.triangleCount(~0b1001 & 0xFF));
+        for (int inside = 0; inside < 256; inside++) {
+            // Every edge with a sign change carries a vertex, and no other edge does
+            int crossings = 0;
+            for (int a = 0; a < 8; a++) {
+                for (int axis = 0; axis < 3; axis++) {
+                    int b = a | 1 << axis;
+                    if (a != b && ((inside >> a ^ inside >> b) & 1) != 0) crossings++;
+                }
+            }
+            assertEquals(crossings, MarchingCubes.edgesUsed(inside), "Case " + inside);
+        }
+    }
+
+    @Test
+    @DisplayName("Field should give exact distances and blend nearby shapes")
+    void testField() {
+        SignedDistanceField sphere = new SignedDistanceField(single(new BoneShape.Sphere(0.1f, new Vector3f(0, 0.5f, 0))), 0);
+        assertEquals(0.2f, sphere.distance(0.3f, 0.5f, 0), 1e-6f);
+        assertEquals(-0.1f, sphere.distance(0, 0.5f, 0), 1e-6f);
+
+        SignedDistanceField capsule = new SignedDistanceField(single(
+            new BoneShape.Capsule(0.1f, 1, new Vector3f(), new Quaternionf().rotationZ((float) Math.PI / 2))), 0);
+        assertEquals(0.1f, capsule.distance(0.3f, 0.2f, 0), 1e-6f);
+        assertEquals(0.1f, capsule.distance(0.6f, 0, 0), 1e-6f);
+
+        SignedDistanceField box = new SignedDistanceField(single(new BoneShape.Box(0.1f, 0.2f, 0.3f)), 0);
+        assertEquals(0.2f, box.distance(0.3f, 0, 0), 1e-6f);
+        assertEquals(-0.05f, box.distance(0.05f, 0, 0), 1e-6f);
+        assertEquals(0.5f, box.distance(0.4f, 0.6f, 0), 1e-6f);
+        float[] bounds = new float[6];
+        assertTrue(box.bounds(bounds));
+        assertArrayEquals(new float[] {-0.1f, -0.2f, -0.3f, 0.1f, 0.2f, 0.3f}, bounds, 1e-6f);
+
+        Skeleton pair = single(new BoneShape.Sphere(0.1f, new Vector3f(-0.12f, 0, 0)), new BoneShape.Sphere(0.1f, new Vector3f(0.12f, 0, 0)));
+        SignedDistanceField hard = new SignedDistanceField(pair, 0);
+        SignedDistanceField smooth = new SignedDistanceField(pair, 0.1f);
+        assertEquals(0.02f, hard.distance(0, 0, 0), 1e-6f);
+        assertTrue(smooth.distance(0, 0, 0) < 0, "Blend should bridge the gap");
+        assertEquals(hard.distance(0.5f, 0, 0), smooth.distance(0.5f, 0, 0), 1e-6f);
+        assertThrows(IllegalArgumentException.class, () -> new SignedDistanceField(pair, -1));
+    }
+
+    @Test
+    @DisplayName("A sphere should mesh closed, outward-wound and on the surface")
+    void testSphereMesh() {
+        float radius = 0.1f;
+        SignedDistanceField field = new SignedDistanceField(single(new BoneShape.Sphere(radius, new Vector3f(0, 0.5f, 0))), 0);
+        MarchingCubes mesher = new MarchingCubes(0.01f, 4, ForkJoinPool.commonPool());
+        TriangleMesh mesh = mesher.mesh(field);
+
+        assertTrue(mesh.triangleCount() > 500);
+        assertTrue(mesher.tileCount() > 8, "Sphere should span several tiles");
+        assertClosed(mesh);
+        assertEquals(4 / 3.0 * Math.PI * radius * radius * radius, volume(mesh), 5e-5);
+
+        float[] p = mesh.positions(), n = mesh.normals();
+        for (int v = 0; v < mesh.vertexCount(); v++) {
+            Vector3f at = new Vector3f(p[v * 3], p[v * 3 + 1], p[v * 3 + 2]);
+            assertEquals(radius, at.distance(0, 0.5f, 0), 2e-3f);
+            Vector3f outward = at.sub(0, 0.5f, 0).normalize();
+            assertTrue(outward.dot(n[v * 3], n[v * 3 + 1], n[v * 3 + 2]) > 0.99f);
+        }
+    }
+
+    @Test
+    @DisplayName("A posed body should mesh closed, skip empty tiles and not depend on the pool")
+    void testBodyMesh() {
+        Skeleton skeleton = new BodyGenerator().generateSkeleton(BodyGenerator.BodyDNA.averageMale());
+        SignedDistanceField field = new SignedDistanceField(skeleton, 0.01f);
+        Pose pose = new Pose().set(Bone.HUMERUS_LEFT, new Quaternionf().rotationZ(1.2f));
+        float[] world = ForwardKinematics.newOutput();
+        new ForwardKinematics(skeleton).evaluate(pose, world);
+        field.pose(world);
+
+        MarchingCubes parallel = new MarchingCubes(0.02f, 8, new ForkJoinPool(4));
+        MarchingCubes single = new MarchingCubes(0.02f, 8, new ForkJoinPool(1));
+        TriangleMesh mesh = parallel.mesh(field);
+        TriangleMesh reference = single.mesh(field);
+        assertArrayEquals(reference.positions(), mesh.positions());
+        assertArrayEquals(reference.normals(), mesh.normals());
+        assertArrayEquals(reference.indices(), mesh.indices());
+
+        assertTrue(parallel.skippedTiles() > parallel.tileCount() / 4, "Most of a body's bounding box is empty");
+        assertClosed(mesh);
+        assertTrue(volume(mesh) > 0);
+        float[] p = mesh.positions();
+        for (int v = 0; v < mesh.vertexCount(); v++) {
+            assertEquals(0, field.distance(p[v * 3], p[v * 3 + 1], p[v * 3 + 2]), 0.02f);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> new MarchingCubes(0.0001f).mesh(field));
+        assertThrows(IllegalArgumentException.class, () -> new MarchingCubes(0.01f, 0, ForkJoinPool.commonPool()));
+    }
+}
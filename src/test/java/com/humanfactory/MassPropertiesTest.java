@@ -0,0 +1,139 @@
+package com.humanfactory;
+
+import org.joml.Matrix3f;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+@DisplayName("MassProperties Tests")
+public class MassPropertiesTest {
+
+    private static final float EPSILON = 1e-6f;
+
+    private static MassProperties single(float mass, BoneShape... shapes) {
+        BoneDefinition definition = new BoneDefinition(0.1f, new Vector3f(), new Quaternionf(), mass,
+            List.of(shapes), BoneDefinition.JointLimits.LOCKED);
+        return MassProperties.of(Skeleton.of(Map.of(Bone.PATELLA_LEFT, definition)));
+    }
+
+    @Test
+    @DisplayName("Single shapes should match closed-form inertia")
+    void testClosedForms() {
+        Matrix3f inertia = new Matrix3f();
+
+        MassProperties sphere = single(2, new BoneShape.Sphere(0.1f, new Vector3f(0, 0.05f, 0)));
+        sphere.inertia(Bone.PATELLA_LEFT, inertia);
+        assertEquals(0.4f * 2 * 0.01f, inertia.m00, EPSILON);
+        assertEquals(inertia.m00, inertia.m22, EPSILON);
+        assertEquals(0, inertia.m10, EPSILON);
+        assertEquals(0.05f, sphere.localCenterOfMass(Bone.PATELLA_LEFT, new Vector3f()).y, EPSILON);
+
+        MassProperties box = single(3, new BoneShape.Box(0.1f, 0.2f, 0.3f));
+        box.inertia(Bone.PATELLA_LEFT, inertia);
+        assertEquals(1f * (0.04f + 0.09f), inertia.m00, EPSILON);
+        assertEquals(1f * (0.01f + 0.09f), inertia.m11, EPSILON);
+        assertEquals(1f * (0.01f + 0.04f), inertia.m22, EPSILON);
+
+        // A capsule with no cylinder is a sphere; a thin one is a rod along Y
+        single(1, new BoneShape.Capsule(0.1f, 0.2f, new Vector3f(), new Quaternionf())).inertia(Bone.PATELLA_LEFT, inertia);
+        assertEquals(0.4f * 0.01f, inertia.m00, EPSILON);
+        assertEquals(0.4f * 0.01f, inertia.m11, EPSILON);
+        single(1, new BoneShape.Capsule(1e-4f, 1, new Vector3f(), new Quaternionf())).inertia(Bone.PATELLA_LEFT, inertia);
+        assertEquals(1f / 12, inertia.m00, 1e-4f);
+        assertEquals(0, inertia.m11, 1e-6f);
+    }
+
+    @Test
+    @DisplayName("Rotated and offset shapes should combine through the parallel-axis theorem")
+    void testCombinedShapes() {
+        Matrix3f inertia = new Matrix3f();
+        // Equal spheres at x = +-0.2: center between them, each contributes m/2 * d^2 about Y and Z
+        MassProperties pair = single(2,
+            new BoneShape.Sphere(0.05f, new Vector3f(-0.2f, 0, 0)),
+            new BoneShape.Sphere(0.05f, new Vector3f(0.2f, 0, 0)));
+        assertEquals(0, pair.localCenterOfMass(Bone.PATELLA_LEFT, new Vector3f()).x, EPSILON);
+        pair.inertia(Bone.PATELLA_LEFT, inertia);
+        float own = 0.4f * 2 * 0.0025f;
+        assertEquals(own, inertia.m00, EPSILON);
+        assertEquals(own + 2 * 0.04f, inertia.m11, EPSILON);
+
+        // A rod turned from Y onto X swaps its axial and transverse moments
+        MassProperties turned = single(1, new BoneShape.Capsule(1e-4f, 1, new Vector3f(),
+            new Quaternionf().rotationZ((float) Math.PI / 2)));
+        turned.inertia(Bone.PATELLA_LEFT, inertia);
+        assertEquals(0, inertia.m00, 1e-5f);
+        assertEquals(1f / 12, inertia.m11, 1e-4f);
+    }
+
+    @Test
+    @DisplayName("Whole-body and subtree totals should agree with per-bone values")
+    void testTotals() {
+        Skeleton skeleton = new BodyGenerator().generateSkeleton(BodyGenerator.BodyDNA.averageMale());
+        MassProperties properties = skeleton.massProperties();
+        JointTopology topology = JointRegistry.topology();
+
+        float total = 0;
+        float roots = 0;
+        for (Bone bone : Bone.values()) {
+            assertEquals(skeleton.contains(bone) ? skeleton.mass(bone) : 0, properties.mass(bone));
+            total += properties.mass(bone);
+            if (topology.parent(bone) == null) roots += properties.subtreeMass(bone);
+        }
+        assertEquals(total, properties.totalMass(), 1e-3f);
+        assertEquals(total, roots, 1e-3f);
+
+        // Arm subtree: mass-weighted mean of its bones' centers
+        float mass = 0;
+        Vector3f weighted = new Vector3f();
+        float[] world = ForwardKinematics.newOutput();
+        new ForwardKinematics(skeleton).evaluate(new Pose(), world);
+        for (Bone bone : topology.subtree(Bone.HUMERUS_LEFT)) {
+            Vector3f center = ForwardKinematics.worldRotation(world, bone, new Quaternionf())
+                .transform(properties.localCenterOfMass(bone, new Vector3f()))
+                .add(ForwardKinematics.worldPosition(world, bone, new Vector3f()));
+            weighted.fma(properties.mass(bone), center);
+            mass += properties.mass(bone);
+        }
+        assertEquals(mass, properties.subtreeMass(Bone.HUMERUS_LEFT), 1e-4f);
+        assertTrue(weighted.div(mass).equals(properties.subtreeCenterOfMass(Bone.HUMERUS_LEFT, new Vector3f()), 1e-4f));
+
+        Matrix3f body = properties.bodyInertia(new Matrix3f());
+        assertTrue(body.m00 > 0 && body.m11 > 0 && body.m22 > 0);
+        assertEquals(body.m01, body.m10, EPSILON);
+    }
+
+    @Test
+    @DisplayName("Uniform density should derive mass from shape volume")
+    void testDensity() {
+        Skeleton skeleton = new BodyGenerator().generateSkeleton(BodyGenerator.BodyDNA.averageMale());
+        MassProperties solid = MassProperties.of(skeleton, BodyGenerator.DENSITY_BONE);
+
+        float volume = 0;
+        for (BoneShape shape : skeleton.collisionShapes(Bone.FEMUR_LEFT)) {
+            volume += MassProperties.volume(shape);
+        }
+        assertEquals(BodyGenerator.DENSITY_BONE * volume, solid.mass(Bone.FEMUR_LEFT), 1e-4f);
+        assertEquals(0, solid.mass(Bone.FRONTAL));
+        assertThrows(IllegalArgumentException.class, () -> MassProperties.of(skeleton, -1));
+    }
+
+    @Test
+    @DisplayName("Should be cached per skeleton and batchable across a crowd")
+    void testCachingAndBatch() {
+        Skeleton[] crowd = new BodyGenerator().generateBatch(BatchGenerationBenchmark.randomCrowd(40, 3));
+        MassProperties[] batch = MassProperties.ofBatch(crowd, new ForkJoinPool(4));
+
+        for (int i = 0; i < crowd.length; i++) {
+            assertSame(crowd[i].massProperties(), batch[i]);
+            MassProperties fresh = MassProperties.of(crowd[i]);
+            assertEquals(fresh.totalMass(), batch[i].totalMass());
+            assertEquals(fresh.centerOfMass(new Vector3f()), batch[i].centerOfMass(new Vector3f()));
+        }
+    }
+}
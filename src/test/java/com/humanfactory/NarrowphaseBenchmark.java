@@ -0,0 +1,110 @@
+package com.humanfactory;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Capsule-capsule distances between neighboring bodies: per-pair dispatch over BoneShape records
+ * with JOML transforms vs. Narrowphase.capsuleCapsule over PackedShapes columns.
+ * Not part of the test suite; run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass="com.humanfactory.NarrowphaseBenchmark"
+ */
+public class NarrowphaseBenchmark {
+
+    private record Posed(BoneShape shape, Quaternionf rotation, Vector3f position) {}
+
+    public static void main(String[] args) {
+        int bodies = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        Skeleton[] crowd = new BodyGenerator().generateBatch(BatchGenerationBenchmark.randomCrowd(bodies, 5));
+        PackedShapes shapes = new PackedShapes(crowd);
+        float[] world = ForwardKinematics.newOutput();
+        List<Posed> posed = new ArrayList<>();
+        for (int b = 0; b < bodies; b++) {
+            new ForwardKinematics(crowd[b]).evaluate(new Pose(), world);
+            shapes.pose(b, world, b * 0.5f, 0, 0);
+            for (Bone bone : Bone.values()) {
+                for (BoneShape shape : crowd[b].collisionShapes(bone)) {
+                    posed.add(new Posed(shape, ForwardKinematics.worldRotation(world, bone, new Quaternionf()),
+                        ForwardKinematics.worldPosition(world, bone, new Vector3f()).add(b * 0.5f, 0, 0)));
+                }
+            }
+        }
+
+        // Every capsule of body b against every capsule of body b + 1
+        List<Integer> firstList = new ArrayList<>(), secondList = new ArrayList<>();
+        for (int b = 0; b + 1 < bodies; b++) {
+            for (int i = shapes.firstCapsule(b); i < shapes.firstCapsule(b + 1); i++) {
+                for (int j = shapes.firstCapsule(b + 1); j < shapes.firstCapsule(b + 2); j++) {
+                    firstList.add(i);
+                    secondList.add(j);
+                }
+            }
+        }
+        int pairs = firstList.size();
+        int[] first = firstList.stream().mapToInt(Integer::intValue).toArray();
+        int[] second = secondList.stream().mapToInt(Integer::intValue).toArray();
+        Posed[] capsules = posed.stream().filter(p -> p.shape() instanceof BoneShape.Capsule).toArray(Posed[]::new);
+        Posed[] firstShapes = new Posed[pairs], secondShapes = new Posed[pairs];
+        Random random = new Random(1);
+        for (int i = 0; i < pairs; i++) {
+            firstShapes[i] = capsules[first[i]];
+            secondShapes[i] = capsules[second[i]];
+        }
+        // Shuffle together so neither side benefits from sequential memory order
+        for (int i = pairs - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int f = first[i], s = second[i];
+            first[i] = first[j];
+            second[i] = second[j];
+            first[j] = f;
+            second[j] = s;
+            Posed pf = firstShapes[i], ps = secondShapes[i];
+            firstShapes[i] = firstShapes[j];
+            secondShapes[i] = secondShapes[j];
+            firstShapes[j] = pf;
+            secondShapes[j] = ps;
+        }
+        float[] dest = new float[pairs];
+
+        System.out.println("=== Narrowphase Benchmark (" + bodies + " bodies, " + pairs + " capsule pairs) ===");
+        for (int round = 0; round < 5; round++) {
+            long t0 = System.nanoTime();
+            int recordTouching = 0;
+            for (int i = 0; i < pairs; i++) {
+                if (recordDistance(firstShapes[i], secondShapes[i]) <= 0) recordTouching++;
+            }
+            long t1 = System.nanoTime();
+            int packedTouching = Narrowphase.capsuleCapsule(shapes, first, second, pairs, dest);
+            long t2 = System.nanoTime();
+            System.out.printf("Round %d: records %.2f ms, packed %.2f ms (%d vs %d touching)%n",
+                round, (t1 - t0) / 1e6, (t2 - t1) / 1e6, recordTouching, packedTouching);
+        }
+    }
+
+    /** Type dispatch, JOML transforms and a segment-segment test per pair. */
+    private static float recordDistance(Posed a, Posed b) {
+        return switch (a.shape()) {
+            case BoneShape.Capsule ca when b.shape() instanceof BoneShape.Capsule cb -> {
+                Vector3f a0 = new Vector3f(), a1 = new Vector3f(), b0 = new Vector3f(), b1 = new Vector3f();
+                segment(a, ca, a0, a1);
+                segment(b, cb, b0, b1);
+                float squared = Narrowphase.segmentSegmentSquared(a0.x, a0.y, a0.z, a1.x - a0.x, a1.y - a0.y, a1.z - a0.z,
+                    b0.x, b0.y, b0.z, b1.x - b0.x, b1.y - b0.y, b1.z - b0.z);
+                yield (float) Math.sqrt(squared) - ca.radius() - cb.radius();
+            }
+            default -> Float.POSITIVE_INFINITY;
+        };
+    }
+
+    private static void segment(Posed posed, BoneShape.Capsule capsule, Vector3f start, Vector3f end) {
+        Quaternionf rotation = new Quaternionf(posed.rotation()).mul(capsule.rotation());
+        Vector3f center = posed.rotation().transform(capsule.offset(), new Vector3f()).add(posed.position());
+        Vector3f half = rotation.transform(new Vector3f(0, Math.max(0f, capsule.length() * 0.5f - capsule.radius()), 0));
+        center.sub(half, start);
+        center.add(half, end);
+    }
+}
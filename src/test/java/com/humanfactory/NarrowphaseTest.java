@@ -0,0 +1,156 @@
+package com.humanfactory;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import java.util.function.ToDoubleFunction;
+
+@DisplayName("Narrowphase Tests")
+public class NarrowphaseTest {
+
+    private static final float EPSILON = 1e-5f;
+    private static final int SAMPLES = 2000;
+
+    @Test
+    @DisplayName("Closest-point helpers should match closed-form answers")
+    void testClosedForm() {
+        // Crossing, parallel, end-to-end and degenerate segments
+        assertEquals(0.25f, Narrowphase.segmentSegmentSquared(-1, 0, 0, 2, 0, 0, 0, 0.5f, -1, 0, 0, 2), EPSILON);
+        assertEquals(0.04f, Narrowphase.segmentSegmentSquared(0, 0, 0, 1, 0, 0, 0.5f, 0.2f, 0, 1, 0, 0), EPSILON);
+        assertEquals(4f, Narrowphase.segmentSegmentSquared(0, 0, 0, 1, 0, 0, 3, 0, 0, 1, 0, 0), EPSILON);
+        assertEquals(1f, Narrowphase.segmentSegmentSquared(0, 1, 0, 0, 0, 0, -1, 0, 0, 2, 0, 0), EPSILON);
+
+        // Through the box, above it, past a corner, and pointing away from it
+        assertEquals(0f, Narrowphase.segmentBoxSquared(-2, 0, 0, 4, 0, 0, 1, 1, 1), EPSILON);
+        assertEquals(0.25f, Narrowphase.segmentBoxSquared(-2, 1.5f, 0, 4, 0, 0, 1, 1, 1), EPSILON);
+        assertEquals(0.5f, Narrowphase.segmentBoxSquared(1.5f, -3, 1.5f, 0, 6, 0, 1, 1, 1), EPSILON);
+        assertEquals(1f, Narrowphase.segmentBoxSquared(2, 0, 0, 3, 0, 0, 1, 1, 1), EPSILON);
+    }
+
+    @Test
+    @DisplayName("Kernels should match sampled distances between two posed bodies")
+    void testMatchesSampling() {
+        Skeleton[] crowd = new BodyGenerator().generateBatch(BatchGenerationBenchmark.randomCrowd(2, 7));
+        PackedShapes shapes = new PackedShapes(crowd);
+        Random random = new Random(3);
+        for (int b = 0; b < 2; b++) {
+            Pose pose = new Pose();
+            for (Bone bone : Bone.values()) {
+                pose.set(bone, new Quaternionf().rotationXYZ(random.nextFloat() - 0.5f, random.nextFloat() - 0.5f,
+                    random.nextFloat() - 0.5f));
+            }
+            float[] world = ForwardKinematics.newOutput();
+            new ForwardKinematics(crowd[b]).evaluate(pose, world);
+            shapes.pose(b, world, b * 0.3f, 0, b * 0.1f);
+        }
+
+        int capsules = shapes.capsuleCount(), spheres = shapes.sphereCount(), boxes = shapes.boxCount();
+        int pairs = capsules * Math.max(capsules, Math.max(spheres, boxes));
+        int[] first = new int[pairs], second = new int[pairs];
+        float[] dest = new float[pairs];
+
+        int n = cross(spheres, spheres, first, second);
+        int touching = Narrowphase.sphereSphere(shapes, first, second, n, dest);
+        for (int i = 0; i < n; i++) {
+            float expected = sphere(shapes, first[i]).distance(sphere(shapes, second[i]))
+                - radius(shapes.sphereColumns(), PackedShapes.SPHERE_R, first[i])
+                - radius(shapes.sphereColumns(), PackedShapes.SPHERE_R, second[i]);
+            assertEquals(expected, dest[i], 1e-4f);
+        }
+        assertEquals(count(dest, n), touching);
+
+        n = cross(capsules, spheres, first, second);
+        touching = Narrowphase.capsuleSphere(shapes, first, second, n, dest);
+        for (int i = 0; i < n; i++) {
+            Vector3f center = sphere(shapes, second[i]);
+            float expected = sampled(shapes, first[i], p -> p.distance(center))
+                - radius(shapes.sphereColumns(), PackedShapes.SPHERE_R, second[i]);
+            assertEquals(expected, dest[i], 1e-3f);
+        }
+        assertEquals(count(dest, n), touching);
+
+        n = cross(capsules, capsules, first, second);
+        touching = Narrowphase.capsuleCapsule(shapes, first, second, n, dest);
+        Vector3f start = new Vector3f(), end = new Vector3f();
+        for (int i = 0; i < n; i++) {
+            shapes.capsuleSegment(second[i], start, end);
+            float expected = sampled(shapes, first[i], p -> segmentDistance(p, start, end))
+                - radius(shapes.capsuleColumns(), PackedShapes.CAPSULE_R, second[i]);
+            assertEquals(expected, dest[i], 1e-3f);
+        }
+        assertTrue(touching > 0 && touching < n);
+
+        n = cross(boxes, capsules, first, second);
+        touching = Narrowphase.boxCapsule(shapes, first, second, n, dest);
+        for (int i = 0; i < n; i++) {
+            int box = first[i];
+            float expected = sampled(shapes, second[i], p -> boxDistance(shapes.boxColumns(), box, p));
+            assertEquals(expected, dest[i], 1e-3f);
+        }
+        assertTrue(touching > 0 && touching < n);
+    }
+
+    /** Every pair of one shape from {@code a} and one from {@code b}, skipping identical indices. */
+    private static int cross(int a, int b, int[] first, int[] second) {
+        int n = 0;
+        for (int i = 0; i < a; i++) {
+            for (int j = 0; j < b && n < first.length; j++) {
+                if (i == j) continue;
+                first[n] = i;
+                second[n++] = j;
+            }
+        }
+        return n;
+    }
+
+    private static int count(float[] distances, int n) {
+        int touching = 0;
+        for (int i = 0; i < n; i++) {
+            if (distances[i] <= 0) touching++;
+        }
+        return touching;
+    }
+
+    private static Vector3f sphere(PackedShapes shapes, int s) {
+        return shapes.sphereCenter(s, new Vector3f());
+    }
+
+    private static float radius(float[][] columns, int column, int s) {
+        return columns[column][s];
+    }
+
+    /** Minimum of {@code distance} over points sampled along capsule {@code c}'s segment, minus its radius. */
+    private static float sampled(PackedShapes shapes, int c, ToDoubleFunction<Vector3f> distance) {
+        Vector3f start = new Vector3f(), end = new Vector3f(), p = new Vector3f();
+        shapes.capsuleSegment(c, start, end);
+        double best = Double.POSITIVE_INFINITY;
+        for (int k = 0; k <= SAMPLES; k++) {
+            best = Math.min(best, distance.applyAsDouble(start.lerp(end, k / (float) SAMPLES, p)));
+        }
+        return (float) best - radius(shapes.capsuleColumns(), PackedShapes.CAPSULE_R, c);
+    }
+
+    private static float segmentDistance(Vector3f p, Vector3f a, Vector3f b) {
+        Vector3f ab = new Vector3f(b).sub(a);
+        float len = ab.lengthSquared();
+        float t = len > 0 ? Math.clamp(new Vector3f(p).sub(a).dot(ab) / len, 0f, 1f) : 0f;
+        return p.distance(new Vector3f(a).fma(t, ab));
+    }
+
+    private static float boxDistance(float[][] box, int s, Vector3f p) {
+        float wx = p.x - box[PackedShapes.BOX_X][s], wy = p.y - box[PackedShapes.BOX_Y][s], wz = p.z - box[PackedShapes.BOX_Z][s];
+        float squared = 0;
+        for (int k = 0; k < 3; k++) {
+            int axis = PackedShapes.BOX_UX + k * 3;
+            float local = box[axis][s] * wx + box[axis + 1][s] * wy + box[axis + 2][s] * wz;
+            float e = box[PackedShapes.BOX_EX + k][s];
+            float out = local - Math.clamp(local, -e, e);
+            squared += out * out;
+        }
+        return (float) Math.sqrt(squared);
+    }
+}
@@ -0,0 +1,101 @@
+package com.humanfactory;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+
+@DisplayName("PackedShapes Tests")
+public class PackedShapesTest {
+
+    private static final float EPSILON = 1e-5f;
+
+    @Test
+    @DisplayName("Should pack every shape by type, grouped by body")
+    void testGrouping() {
+        Skeleton[] crowd = new BodyGenerator().generateBatch(BatchGenerationBenchmark.randomCrowd(3, 5));
+        PackedShapes shapes = new PackedShapes(crowd);
+        assertEquals(3, shapes.bodyCount());
+
+        int spheres = 0, capsules = 0, boxes = 0;
+        for (int b = 0; b < crowd.length; b++) {
+            assertEquals(spheres, shapes.firstSphere(b));
+            assertEquals(capsules, shapes.firstCapsule(b));
+            assertEquals(boxes, shapes.firstBox(b));
+            for (Bone bone : Bone.values()) {
+                for (BoneShape shape : crowd[b].collisionShapes(bone)) {
+                    switch (shape) {
+                        case BoneShape.Sphere ignored -> {
+                            assertEquals(bone, shapes.sphereBone(spheres));
+                            assertEquals(b, shapes.sphereBody(spheres++));
+                        }
+                        case BoneShape.Capsule ignored -> {
+                            assertEquals(bone, shapes.capsuleBone(capsules));
+                            assertEquals(b, shapes.capsuleBody(capsules++));
+                        }
+                        case BoneShape.Box ignored -> {
+                            assertEquals(bone, shapes.boxBone(boxes));
+                            assertEquals(b, shapes.boxBody(boxes++));
+                        }
+                    }
+                }
+            }
+        }
+        assertEquals(spheres, shapes.sphereCount());
+        assertEquals(capsules, shapes.capsuleCount());
+        assertEquals(boxes, shapes.boxCount());
+        assertTrue(spheres > 0 && capsules > 0 && boxes > 0);
+        assertEquals(capsules, shapes.firstCapsule(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> shapes.firstBox(4));
+        assertThrows(IndexOutOfBoundsException.class, () -> shapes.pose(3, ForwardKinematics.newOutput()));
+    }
+
+    @Test
+    @DisplayName("Posed shapes should match JOML transforms of the shape records")
+    void testPose() {
+        Quaternionf local = new Quaternionf().rotationZ(0.4f);
+        BoneDefinition definition = new BoneDefinition(0.1f, new Vector3f(), new Quaternionf(), 1, List.of(
+            new BoneShape.Sphere(0.05f, new Vector3f(0.1f, 0.2f, 0)),
+            new BoneShape.Capsule(0.1f, 1, new Vector3f(0, 0.5f, 0), local),
+            new BoneShape.Box(new Vector3f(0.1f, 0.2f, 0.3f), new Vector3f(0, 0, 0.1f), local)),
+            BoneDefinition.JointLimits.LOCKED);
+        PackedShapes shapes = new PackedShapes(Skeleton.of(Map.of(Bone.PATELLA_LEFT, definition)));
+
+        // Bone at (1, 2, 3) turned about X; body placed at (10, 0, 0)
+        Quaternionf bone = new Quaternionf().rotationX(0.7f);
+        float[] world = ForwardKinematics.newOutput();
+        int w = Bone.PATELLA_LEFT.ordinal() * ForwardKinematics.STRIDE;
+        world[w] = bone.x;
+        world[w + 1] = bone.y;
+        world[w + 2] = bone.z;
+        world[w + 3] = bone.w;
+        world[w + 4] = 1;
+        world[w + 5] = 2;
+        world[w + 6] = 3;
+        shapes.pose(0, world, 10, 0, 0);
+
+        Vector3f origin = new Vector3f(11, 2, 3);
+        Vector3f center = new Vector3f();
+        assertTrue(shapes.sphereCenter(0, center).equals(bone.transform(new Vector3f(0.1f, 0.2f, 0)).add(origin), EPSILON));
+
+        Quaternionf rotation = new Quaternionf(bone).mul(local);
+        Vector3f mid = bone.transform(new Vector3f(0, 0.5f, 0)).add(origin);
+        Vector3f half = rotation.transform(new Vector3f(0, 0.4f, 0));
+        Vector3f start = new Vector3f(), end = new Vector3f();
+        shapes.capsuleSegment(0, start, end);
+        assertTrue(start.equals(new Vector3f(mid).sub(half), EPSILON));
+        assertTrue(end.equals(new Vector3f(mid).add(half), EPSILON));
+
+        assertTrue(shapes.boxCenter(0, center).equals(bone.transform(new Vector3f(0, 0, 0.1f)).add(origin), EPSILON));
+        float[][] box = shapes.boxColumns();
+        Vector3f v = rotation.transform(new Vector3f(0, 1, 0));
+        assertEquals(v.x, box[PackedShapes.BOX_VX][0], EPSILON);
+        assertEquals(v.y, box[PackedShapes.BOX_VY][0], EPSILON);
+        assertEquals(v.z, box[PackedShapes.BOX_VZ][0], EPSILON);
+        assertEquals(0.3f, box[PackedShapes.BOX_EZ][0]);
+    }
+}
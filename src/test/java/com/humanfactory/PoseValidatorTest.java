@@ -0,0 +1,144 @@
+package com.humanfactory;
+
+import org.joml.Quaternionf;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+@DisplayName("PoseValidator Tests")
+public class PoseValidatorTest {
+
+    // Frame f bends the left elbow backwards on odd frames and twists the right knee every third
+    private static Pose frame(int f) {
+        Pose pose = new Pose().set(Bone.ULNA_LEFT, new Quaternionf().rotationX(f % 2 == 1 ? -0.3f : 0.5f));
+        if (f % 3 == 0) pose.set(Bone.TIBIA_RIGHT, new Quaternionf().rotationY(0.4f));
+        return pose;
+    }
+
+    // Generates frames on demand, so nothing but the validator's chunk is ever held
+    private static PoseValidator.FrameSource generated(int total) {
+        int[] next = {0};
+        return (dest, maxFrames) -> {
+            int frames = Math.min(maxFrames, total - next[0]);
+            for (int i = 0; i < frames; i++) {
+                System.arraycopy(frame(next[0]++).rotations, 0, dest, i * JointLimitTable.POSE_STRIDE,
+                    JointLimitTable.POSE_STRIDE);
+            }
+            return frames;
+        };
+    }
+
+    private static boolean bit(long[] masks, int frame, Bone bone) {
+        int b = bone.ordinal();
+        return (masks[frame * PoseValidator.MASK_WORDS + (b >>> 6)] & (1L << b)) != 0;
+    }
+
+    @Test
+    @DisplayName("Should flag exactly the bones outside their limits in each frame")
+    void testMasksAndCounts() throws IOException {
+        PoseValidator validator = new PoseValidator(7, PoseValidator.DEFAULT_TOLERANCE, new ForkJoinPool(2));
+        List<Long> seen = new ArrayList<>();
+
+        PoseValidator.Report report = validator.validate(generated(100), (first, frames, masks) -> {
+            for (int i = 0; i < frames; i++) {
+                int f = (int) first + i;
+                seen.add(first + i);
+                assertEquals(f % 2 == 1, bit(masks, i, Bone.ULNA_LEFT), "Frame " + f);
+                assertEquals(f % 3 == 0, bit(masks, i, Bone.TIBIA_RIGHT), "Frame " + f);
+                assertFalse(bit(masks, i, Bone.FEMUR_LEFT));
+            }
+        });
+
+        assertEquals(100, report.frames());
+        assertEquals(100, seen.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, seen.get(i));
+        }
+        // Odd frames or multiples of three
+        assertEquals(50 + 17, report.invalidFrames());
+        assertEquals(50, report.pitchViolations(Bone.ULNA_LEFT));
+        assertEquals(0, report.yawViolations(Bone.ULNA_LEFT));
+        assertEquals(34, report.yawViolations(Bone.TIBIA_RIGHT));
+        assertEquals(34, report.histogram()[Bone.TIBIA_RIGHT.ordinal()]);
+    }
+
+    @Test
+    @DisplayName("Chunk size and parallelism should not change the result")
+    void testChunkingIndependence() throws IOException {
+        Random random = new Random(4);
+        List<Pose> poses = new ArrayList<>();
+        for (int f = 0; f < 500; f++) {
+            Pose pose = new Pose();
+            for (Bone bone : Bone.values()) {
+                pose.set(bone, new Quaternionf().rotationXYZ(
+                    (random.nextFloat() - 0.5f) * 0.2f, (random.nextFloat() - 0.5f) * 0.2f, (random.nextFloat() - 0.5f) * 0.2f));
+            }
+            poses.add(pose);
+        }
+
+        long[] single = new long[500 * PoseValidator.MASK_WORDS];
+        PoseValidator.Report a = new PoseValidator(500, 0, new ForkJoinPool(1))
+            .validate(PoseValidator.FrameSource.of(poses.iterator()),
+                (first, frames, masks) -> System.arraycopy(masks, 0, single, 0, frames * PoseValidator.MASK_WORDS));
+        long[] chunked = new long[500 * PoseValidator.MASK_WORDS];
+        PoseValidator.Report b = new PoseValidator(33, 0, new ForkJoinPool(4))
+            .validate(PoseValidator.FrameSource.of(poses.iterator()), (first, frames, masks) ->
+                System.arraycopy(masks, 0, chunked, (int) first * PoseValidator.MASK_WORDS, frames * PoseValidator.MASK_WORDS));
+
+        assertArrayEquals(single, chunked);
+        assertEquals(a.invalidFrames(), b.invalidFrames());
+        assertArrayEquals(a.histogram(), b.histogram());
+        assertTrue(a.invalidFrames() > 0);
+    }
+
+    @Test
+    @DisplayName("Single poses: bind pose valid, limits at their edge valid within tolerance")
+    void testSinglePose() {
+        PoseValidator validator = new PoseValidator();
+        long[] mask = new long[PoseValidator.MASK_WORDS];
+
+        assertTrue(validator.isValid(new Pose(), mask));
+        JointLimits shoulder = JointRegistry.getJoint(Bone.HUMERUS_LEFT).limits();
+        Pose edge = new Pose().set(Bone.HUMERUS_LEFT,
+            new Quaternionf().rotationXYZ(shoulder.maxPitch() * 0.5f, shoulder.minYaw(), shoulder.maxRoll()));
+        assertTrue(validator.isValid(edge, mask));
+
+        assertFalse(validator.isValid(frame(1), mask));
+        assertTrue(bit(mask, 0, Bone.ULNA_LEFT));
+        assertThrows(IllegalArgumentException.class, () -> new PoseValidator(0, 0, ForkJoinPool.commonPool()));
+    }
+
+    @Test
+    @DisplayName("isValid should not allocate")
+    void testZeroAllocation() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assertTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        PoseValidator validator = new PoseValidator();
+        long[] mask = new long[PoseValidator.MASK_WORDS];
+        Pose[] poses = {new Pose(), frame(1), frame(3)};
+        for (int i = 0; i < 20_000; i++) {
+            validator.isValid(poses[i % poses.length], mask);
+        }
+
+        // Best of three windows: a late JIT recompilation can allocate once on this thread
+        long allocated = Long.MAX_VALUE;
+        for (int window = 0; window < 3 && allocated > 0; window++) {
+            long before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < 10_000; i++) {
+                validator.isValid(poses[i % poses.length], mask);
+            }
+            allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        }
+
+        assertEquals(0, allocated, "isValid allocated " + allocated + " bytes over 10,000 calls");
+    }
+}
@@ -0,0 +1,58 @@
+package com.humanfactory;
+
+import org.joml.Quaternionf;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Re-meshing a posed body: single-threaded MarchingCubes over the exact SignedDistanceField vs.
+ * SdfOctree, which re-transforms its per-bone caches and refines only near the surface.
+ * Not part of the test suite; run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass="com.humanfactory.SdfOctreeBenchmark"
+ */
+public class SdfOctreeBenchmark {
+
+    public static void main(String[] args) {
+        Skeleton skeleton = new BodyGenerator().generateSkeleton(BodyGenerator.BodyDNA.averageMale());
+        ForwardKinematics fk = new ForwardKinematics(skeleton);
+        float[][] worlds = new float[8][];
+        for (int p = 0; p < worlds.length; p++) {
+            Pose pose = new Pose()
+                .set(Bone.HUMERUS_LEFT, new Quaternionf().rotationZ(0.2f * p))
+                .set(Bone.FEMUR_RIGHT, new Quaternionf().rotationX(-0.1f * p));
+            worlds[p] = ForwardKinematics.newOutput();
+            fk.evaluate(pose, worlds[p]);
+        }
+        SignedDistanceField field = new SignedDistanceField(skeleton, 0.01f);
+        ForkJoinPool single = new ForkJoinPool(1);
+
+        System.out.println("=== SDF Octree Benchmark (" + worlds.length + " poses) ===");
+        for (float resolution : new float[] {0.02f, 0.01f}) {
+            MarchingCubes mesher = new MarchingCubes(resolution, MarchingCubes.DEFAULT_TILE_CELLS, single);
+            long c0 = System.nanoTime();
+            SdfOctree octree = new SdfOctree(skeleton, 0.01f, resolution);
+            long c1 = System.nanoTime();
+            System.out.printf("Resolution %.3f m: caches of %,d samples built in %.1f ms%n",
+                resolution, octree.cachedSamples(), (c1 - c0) / 1e6);
+            for (int round = 0; round < 3; round++) {
+                long t0 = System.nanoTime();
+                int uniform = 0;
+                for (float[] world : worlds) {
+                    field.pose(world);
+                    uniform += mesher.mesh(field).triangleCount();
+                }
+                long t1 = System.nanoTime();
+                int sparse = 0;
+                for (float[] world : worlds) {
+                    octree.pose(world);
+                    sparse += octree.mesh().triangleCount();
+                }
+                long t2 = System.nanoTime();
+                System.out.printf("  round %d: uniform %.1f ms/pose (%,d triangles), octree %.1f ms/pose (%,d triangles, %,d samples, %,d cells)%n",
+                    round, (t1 - t0) / 1e6 / worlds.length, uniform / worlds.length,
+                    (t2 - t1) / 1e6 / worlds.length, sparse / worlds.length, octree.sampleCount(), octree.surfaceCellCount());
+            }
+        }
+        single.shutdown();
+    }
+}
@@ -0,0 +1,110 @@
+package com.humanfactory;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+@DisplayName("SdfOctree Tests")
+public class SdfOctreeTest {
+
+    private static Skeleton single(BoneShape... shapes) {
+        BoneDefinition definition = new BoneDefinition(0.1f, new Vector3f(), new Quaternionf(), 1,
+            List.of(shapes), BoneDefinition.JointLimits.LOCKED);
+        return Skeleton.of(Map.of(Bone.PATELLA_LEFT, definition));
+    }
+
+    @Test
+    @DisplayName("A sphere should refine only near its surface and mesh closed")
+    void testSphere() {
+        float radius = 0.1f;
+        SdfOctree octree = new SdfOctree(single(new BoneShape.Sphere(radius, new Vector3f(0, 0.5f, 0))), 0, 0.005f);
+        assertEquals(0.01f, octree.distance(0.11f, 0.5f, 0), 1e-3f);
+        // Away from the band only a bound is kept, on the right side of the surface
+        assertTrue(octree.distance(0.3f, 0.5f, 0) > 0.1f);
+        assertEquals(-0.01f, octree.distance(0.09f, 0.5f, 0), 1e-3f);
+        // ... and deep inside, a solid brick's bound
+        assertTrue(octree.distance(0, 0.5f, 0) < -0.01f);
+
+        int cells = 1 << octree.depth();
+        assertTrue(octree.surfaceCellCount() < (long) cells * cells * cells / 10, "Only a shell of cells is sampled");
+        float[] min = new float[3], values = new float[8];
+        for (int c = 0; c < octree.surfaceCellCount(); c++) {
+            octree.cellMin(c, min);
+            octree.cellValues(c, values);
+            float center = new Vector3f(min[0], min[1], min[2]).add(0.0025f, 0.0025f, 0.0025f).distance(0, 0.5f, 0);
+            assertTrue(Math.abs(center - radius) < 0.02f, "Surface cell far from the surface");
+            assertEquals(octree.distance(min[0], min[1], min[2]), values[0], 1e-6f);
+        }
+
+        TriangleMesh mesh = octree.mesh();
+        assertSame(mesh, octree.mesh());
+        MarchingCubesTest.assertClosed(mesh);
+        assertEquals(4 / 3.0 * Math.PI * radius * radius * radius, MarchingCubesTest.volume(mesh), 1e-4);
+        float[] p = mesh.positions(), n = mesh.normals();
+        for (int v = 0; v < mesh.vertexCount(); v++) {
+            Vector3f at = new Vector3f(p[v * 3], p[v * 3 + 1], p[v * 3 + 2]);
+            assertEquals(radius, at.distance(0, 0.5f, 0), 2e-3f);
+            assertTrue(at.sub(0, 0.5f, 0).normalize().dot(n[v * 3], n[v * 3 + 1], n[v * 3 + 2]) > 0.98f);
+        }
+    }
+
+    @Test
+    @DisplayName("Re-posed caches should track the exact field and mesh closed")
+    void testPosedBody() {
+        Skeleton skeleton = new BodyGenerator().generateSkeleton(BodyGenerator.BodyDNA.averageMale());
+        float resolution = 0.01f;
+        SdfOctree octree = new SdfOctree(skeleton, 0.01f, resolution);
+        SignedDistanceField field = new SignedDistanceField(skeleton, 0.01f);
+        int cached = octree.cachedSamples();
+
+        Pose pose = new Pose()
+            .set(Bone.HUMERUS_LEFT, new Quaternionf().rotationZ(1.2f))
+            .set(Bone.FEMUR_RIGHT, new Quaternionf().rotationX(-0.8f));
+        float[] world = ForwardKinematics.newOutput();
+        new ForwardKinematics(skeleton).evaluate(pose, world);
+        octree.pose(world);
+        field.pose(world);
+        assertEquals(cached, octree.cachedSamples());
+
+        float[] bounds = new float[6];
+        assertTrue(field.bounds(bounds));
+        Random random = new Random(7);
+        int near = 0;
+        for (int i = 0; i < 20_000; i++) {
+            float x = bounds[0] + random.nextFloat() * (bounds[3] - bounds[0]);
+            float y = bounds[1] + random.nextFloat() * (bounds[4] - bounds[1]);
+            float z = bounds[2] + random.nextFloat() * (bounds[5] - bounds[2]);
+            float exact = field.distance(x, y, z);
+            float cachedDistance = octree.distance(x, y, z);
+            if (Math.abs(exact) < 0.03f) {
+                near++;
+                assertEquals(exact, cachedDistance, resolution, "At " + x + ", " + y + ", " + z);
+            } else {
+                assertEquals(Math.signum(exact), Math.signum(cachedDistance));
+            }
+        }
+        assertTrue(near > 100);
+
+        long uniform = 1;
+        for (int k = 0; k < 3; k++) uniform *= (long) Math.ceil((bounds[k + 3] - bounds[k]) / resolution) + 1;
+        assertTrue(octree.sampleCount() < uniform / 2, "Empty space should cost few samples");
+        TriangleMesh mesh = octree.mesh();
+        MarchingCubesTest.assertClosed(mesh);
+        double reference = MarchingCubesTest.volume(new MarchingCubes(resolution).mesh(field));
+        assertEquals(reference, MarchingCubesTest.volume(mesh), reference * 0.05);
+        float[] p = mesh.positions();
+        for (int v = 0; v < mesh.vertexCount(); v++) {
+            assertEquals(0, field.distance(p[v * 3], p[v * 3 + 1], p[v * 3 + 2]), 2 * resolution);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> new SdfOctree(skeleton, 0.01f, 0));
+        assertThrows(IllegalArgumentException.class, () -> new SdfOctree(skeleton, -1, 0.01f));
+        assertThrows(IllegalArgumentException.class, () -> new SdfOctree(skeleton, 0, 0.0001f));
+    }
+}
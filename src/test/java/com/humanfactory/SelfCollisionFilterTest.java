@@ -0,0 +1,92 @@
+package com.humanfactory;
+
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SelfCollisionFilter Tests")
+public class SelfCollisionFilterTest {
+
+    private final JointTopology topology = JointRegistry.topology();
+
+    @Test
+    @DisplayName("Default filter should ignore joined bones and siblings only")
+    void testDefaultFilter() {
+        SelfCollisionFilter filter = JointRegistry.selfCollisionFilter();
+        assertTrue(filter.ignores(Bone.RADIUS_LEFT, Bone.ULNA_LEFT));
+        assertTrue(filter.ignores(Bone.TIBIA_RIGHT, Bone.FIBULA_RIGHT));
+        assertTrue(filter.ignores(Bone.HUMERUS_LEFT, Bone.ULNA_LEFT));
+        assertTrue(filter.ignores(Bone.FEMUR_LEFT, Bone.FEMUR_LEFT));
+        assertFalse(filter.ignores(Bone.HUMERUS_LEFT, Bone.LUNATE_LEFT));
+        assertFalse(filter.ignores(Bone.FEMUR_LEFT, Bone.FEMUR_RIGHT));
+
+        int expected = 0;
+        for (int a = 0; a < Skeleton.BONE_COUNT; a++) {
+            for (int b = 0; b < Skeleton.BONE_COUNT; b++) {
+                boolean sibling = topology.parent(a) != JointTopology.NONE && topology.parent(a) == topology.parent(b);
+                boolean ignored = a == b || topology.distance(a, b) == 1 || sibling;
+                assertEquals(ignored, filter.ignores(a, b), Bone.values()[a] + " / " + Bone.values()[b]);
+                assertEquals(filter.ignores(a, b), (filter.ignoredWord(a, b >>> 6) & (1L << b)) != 0);
+                if (ignored && a < b) expected++;
+            }
+        }
+        assertEquals(expected, filter.ignoredPairCount());
+    }
+
+    @Test
+    @DisplayName("Hop rules and overrides should apply in order")
+    void testBuilder() {
+        SelfCollisionFilter filter = SelfCollisionFilter.builder()
+            .ignoreWithinHops(2)
+            .allow(Bone.HUMERUS_LEFT, Bone.RADIUS_LEFT)
+            .ignore(Bone.FEMUR_LEFT, Bone.FEMUR_RIGHT)
+            .allow(Bone.FEMUR_RIGHT, Bone.FEMUR_LEFT)
+            .ignore(Bone.HAMATE_LEFT, Bone.PATELLA_RIGHT)
+            .build();
+        assertTrue(filter.ignores(Bone.HUMERUS_LEFT, Bone.LUNATE_LEFT));
+        assertTrue(filter.ignores(Bone.RADIUS_LEFT, Bone.ULNA_LEFT));
+        assertFalse(filter.ignores(Bone.RADIUS_LEFT, Bone.HUMERUS_LEFT));
+        assertFalse(filter.ignores(Bone.FEMUR_LEFT, Bone.FEMUR_RIGHT));
+        assertTrue(filter.ignores(Bone.PATELLA_RIGHT, Bone.HAMATE_LEFT));
+
+        SelfCollisionFilter none = SelfCollisionFilter.builder().build();
+        assertEquals(0, none.ignoredPairCount());
+        assertThrows(IllegalArgumentException.class, () -> SelfCollisionFilter.builder().ignoreWithinHops(-1));
+        assertThrows(IllegalArgumentException.class, () -> SelfCollisionFilter.builder().allow(Bone.SACRUM, Bone.SACRUM));
+    }
+
+    @Test
+    @DisplayName("Pair enumeration should list present, unfiltered pairs in order")
+    void testPairs() {
+        Skeleton skeleton = new BodyGenerator().generateSkeleton(BodyGenerator.BodyDNA.averageMale());
+        SelfCollisionFilter filter = JointRegistry.selfCollisionFilter();
+        int[] first = new int[Skeleton.BONE_COUNT * Skeleton.BONE_COUNT];
+        int[] second = new int[first.length];
+        int n = filter.pairs(skeleton, first, second);
+
+        int i = 0;
+        for (int a = 0; a < Skeleton.BONE_COUNT; a++) {
+            for (int b = a + 1; b < Skeleton.BONE_COUNT; b++) {
+                if (!skeleton.contains(a) || !skeleton.contains(b) || filter.ignores(a, b)) continue;
+                assertEquals(a, first[i]);
+                assertEquals(b, second[i++]);
+            }
+        }
+        assertEquals(i, n);
+        assertEquals(n, filter.pairs(skeleton, new int[3], new int[3]));
+
+        // Sphere overlap around the left elbow, minus the bones the forearm is jointed to
+        CollisionBvh bvh = new CollisionBvh(skeleton);
+        float[] world = ForwardKinematics.newOutput();
+        new ForwardKinematics(skeleton).evaluate(new Pose(), world);
+        Vector3f elbow = ForwardKinematics.worldPosition(world, Bone.ULNA_LEFT, new Vector3f());
+        long[] mask = new long[Skeleton.PRESENCE_WORDS];
+        bvh.overlapSphere(elbow, 0.05f, mask);
+        assertTrue((mask[Bone.HUMERUS_LEFT.ordinal() >>> 6] & (1L << Bone.HUMERUS_LEFT.ordinal())) != 0);
+        filter.removeIgnored(Bone.ULNA_LEFT.ordinal(), mask);
+        for (Bone bone : new Bone[] {Bone.HUMERUS_LEFT, Bone.ULNA_LEFT, Bone.RADIUS_LEFT}) {
+            assertEquals(0, mask[bone.ordinal() >>> 6] & (1L << bone.ordinal()), bone.name());
+        }
+    }
+}
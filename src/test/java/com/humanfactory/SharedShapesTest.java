@@ -0,0 +1,46 @@
+package com.humanfactory;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+@DisplayName("SharedShapes Tests")
+public class SharedShapesTest {
+
+    @Test
+    @DisplayName("Sink arguments and built shapes should resolve to the same instances")
+    void testProbeMatchesValues() {
+        SharedShapes.Probe probe = new SharedShapes.Probe();
+        List<BoneShape> box = probe.box(0.125f, 0.25f, 0.375f, 0.5f, -0.5f, 1.5f);
+        assertEquals(List.of(new BoneShape.Box(new Vector3f(0.125f, 0.25f, 0.375f), new Vector3f(0.5f, -0.5f, 1.5f), new Quaternionf())), box);
+        assertSame(box, probe.box(0.125f, 0.25f, 0.375f, 0.5f, -0.5f, 1.5f));
+        assertSame(box.get(0), SharedShapes.intern(new BoneShape.Box(new Vector3f(0.125f, 0.25f, 0.375f),
+            new Vector3f(0.5f, -0.5f, 1.5f), new Quaternionf())));
+
+        BoneShape capsule = new BoneShape.Capsule(0.0625f, 0.75f, new Vector3f(0, -0.375f, 0), new Quaternionf());
+        assertSame(SharedShapes.intern(capsule), probe.capsule(0.0625f, 0.75f, 0, -0.375f, 0).get(0));
+        BoneShape sphere = new BoneShape.Sphere(0.0625f, new Vector3f(0, 0, 0.25f));
+        assertSame(SharedShapes.intern(sphere), probe.sphere(0.0625f, 0, 0, 0.25f).get(0));
+
+        // Same numbers, different kinds or rotations, are different shapes
+        assertNotSame(probe.capsule(0.0625f, 0, 0, 0, 0.25f).get(0), probe.sphere(0.0625f, 0, 0, 0.25f).get(0));
+        BoneShape turned = new BoneShape.Capsule(0.0625f, 0.75f, new Vector3f(0, -0.375f, 0), new Quaternionf().rotationX(1));
+        assertEquals(turned, SharedShapes.intern(turned));
+        assertNotEquals(capsule, SharedShapes.intern(turned));
+        // Equality is bitwise, as in Vector3f.equals
+        assertNotSame(probe.sphere(0.03125f, 0, 0, 0).get(0), probe.sphere(0.03125f, -0f, 0, 0).get(0));
+    }
+
+    @Test
+    @DisplayName("Longer lists should be shared too")
+    void testLists() {
+        List<BoneShape> pair = List.of(new BoneShape.Box(0.1f, 0.2f, 0.3f), new BoneShape.Sphere(0.1f, new Vector3f()));
+        List<BoneShape> shared = SharedShapes.intern(pair);
+        assertSame(shared, SharedShapes.intern(List.of(new BoneShape.Box(0.1f, 0.2f, 0.3f), new BoneShape.Sphere(0.1f, new Vector3f()))));
+        assertSame(List.of(), SharedShapes.intern(List.of()));
+    }
+}
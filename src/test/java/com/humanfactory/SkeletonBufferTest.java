@@ -0,0 +1,107 @@
+package com.humanfactory;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+
+@DisplayName("SkeletonBuffer Tests")
+public class SkeletonBufferTest {
+
+    @Test
+    @DisplayName("generateInto should produce the same skeleton as generateSkeleton")
+    void testMatchesSkeleton() {
+        BodyGenerator generator = new BodyGenerator();
+        BodyGenerator.BodyDNA dna = new BodyGenerator.BodyDNA(1.72f, 66.0f, 1.2f, 0.13f, 0.47f);
+
+        SkeletonBuffer buffer = new SkeletonBuffer();
+        generator.generateInto(dna, buffer);
+
+        assertEquals(generator.generateSkeleton(dna), buffer.toSkeleton());
+    }
+
+    @Test
+    @DisplayName("Reusing a buffer should fully replace the previous skeleton")
+    void testReuse() {
+        BodyGenerator generator = new BodyGenerator();
+        BodyGenerator.BodyDNA tall = new BodyGenerator.BodyDNA(2.0f, 95.0f, 1.3f, 0.12f, 0.5f);
+        BodyGenerator.BodyDNA small = new BodyGenerator.BodyDNA(1.5f, 50.0f, 0.7f, 0.13f, 0.45f);
+
+        SkeletonBuffer buffer = new SkeletonBuffer();
+        generator.generateInto(tall, buffer);
+        int shapes = buffer.shapeCount();
+        generator.generateInto(small, buffer);
+
+        assertEquals(shapes, buffer.shapeCount());
+        assertEquals(generator.generateSkeleton(small), buffer.toSkeleton());
+    }
+
+    @Test
+    @DisplayName("Flattened shapes should expose kind, owner and dimensions")
+    void testShapeAccessors() {
+        BodyGenerator generator = new BodyGenerator();
+        Skeleton skeleton = generator.generateSkeleton(BodyGenerator.BodyDNA.averageMale());
+        SkeletonBuffer buffer = new SkeletonBuffer();
+        generator.generateInto(BodyGenerator.BodyDNA.averageMale(), buffer);
+
+        boolean foundFemur = false;
+        for (int s = 0; s < buffer.shapeCount(); s++) {
+            if (buffer.shapeBone(s) != Bone.FEMUR_LEFT) continue;
+            BoneShape.Capsule capsule = (BoneShape.Capsule) skeleton.collisionShapes(Bone.FEMUR_LEFT).get(0);
+            assertEquals(SkeletonBuffer.CAPSULE, buffer.shapeKind(s));
+            assertEquals(capsule.radius(), buffer.shapeDimension(s, 0));
+            assertEquals(capsule.length(), buffer.shapeDimension(s, 1));
+            assertEquals(capsule.offset(), buffer.shapeOffset(s, new Vector3f()));
+            assertEquals(new Quaternionf(), buffer.shapeRotation(s, new Quaternionf()));
+            foundFemur = true;
+        }
+        assertTrue(foundFemur);
+    }
+
+    @Test
+    @DisplayName("A small buffer should grow once and then keep working")
+    void testGrowth() {
+        BodyGenerator generator = new BodyGenerator();
+        SkeletonBuffer buffer = new SkeletonBuffer(4);
+
+        generator.generateInto(BodyGenerator.BodyDNA.averageMale(), buffer);
+
+        assertEquals(generator.generateSkeleton(BodyGenerator.BodyDNA.averageMale()), buffer.toSkeleton());
+    }
+
+    @Test
+    @DisplayName("generateInto should not allocate on a warm buffer")
+    void testZeroAllocation() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assertTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        BodyGenerator generator = new BodyGenerator();
+        BodyGenerator.BodyDNA[] dnas = {
+            BodyGenerator.BodyDNA.averageMale(),
+            new BodyGenerator.BodyDNA(1.55f, 52.0f, 0.8f, 0.13f, 0.46f),
+            new BodyGenerator.BodyDNA(1.95f, 101.0f, 1.4f, 0.12f, 0.5f)
+        };
+        SkeletonBuffer buffer = new SkeletonBuffer();
+
+        // Warm up: class loading, interpreter/JIT transitions
+        for (int i = 0; i < 20_000; i++) {
+            generator.generateInto(dnas[i % dnas.length], buffer);
+        }
+
+        // Best of three windows: a late JIT recompilation can allocate once on this thread
+        long allocated = Long.MAX_VALUE;
+        for (int window = 0; window < 3 && allocated > 0; window++) {
+            long before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < 10_000; i++) {
+                generator.generateInto(dnas[i % dnas.length], buffer);
+            }
+            allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        }
+
+        assertEquals(0, allocated, "generateInto allocated " + allocated + " bytes over 10,000 calls");
+    }
+}
@@ -0,0 +1,133 @@
+package com.humanfactory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@DisplayName("SkeletonCache Tests")
+public class SkeletonCacheTest {
+
+    @Test
+    @DisplayName("A repeated request should return the shared cached instance")
+    void testHitReturnsSameInstance() {
+        BodyGenerator generator = new BodyGenerator();
+        SkeletonCache cache = new SkeletonCache(generator, 8);
+        BodyGenerator.BodyDNA dna = BodyGenerator.BodyDNA.averageMale();
+
+        Skeleton first = cache.get(dna);
+        Skeleton second = cache.get(BodyGenerator.BodyDNA.averageMale());
+
+        assertSame(first, second);
+        assertEquals(generator.generateSkeleton(dna), first);
+        assertEquals(new SkeletonCache.Stats(1, 1, 0, 1), cache.stats());
+        assertEquals(0.5, cache.stats().hitRate());
+    }
+
+    @Test
+    @DisplayName("Near-identical DNA in the same grid cell should share one skeleton")
+    void testQuantization() {
+        BodyGenerator generator = new BodyGenerator();
+        SkeletonCache cache = new SkeletonCache(generator, 8, SkeletonCache.Quantization.standard());
+        BodyGenerator.BodyDNA a = new BodyGenerator.BodyDNA(1.8012f, 78.1f, 1.0011f, 0.12502f, 0.48004f);
+        BodyGenerator.BodyDNA b = new BodyGenerator.BodyDNA(1.7991f, 77.9f, 0.9992f, 0.12498f, 0.47996f);
+
+        Skeleton skeleton = cache.get(a);
+
+        assertSame(skeleton, cache.get(b));
+        // Generated from the snapped DNA, not from whichever request arrived first
+        assertEquals(generator.generateSkeleton(cache.quantization().apply(a)), skeleton);
+        assertEquals(cache.quantization().apply(a), cache.quantization().apply(b));
+    }
+
+    @Test
+    @DisplayName("The least recently used entry should be evicted first")
+    void testLruEviction() {
+        SkeletonCache cache = new SkeletonCache(new BodyGenerator(), 2);
+        BodyGenerator.BodyDNA a = new BodyGenerator.BodyDNA(1.6f, 60.0f, 1.0f, 0.125f, 0.48f);
+        BodyGenerator.BodyDNA b = new BodyGenerator.BodyDNA(1.7f, 70.0f, 1.0f, 0.125f, 0.48f);
+        BodyGenerator.BodyDNA c = new BodyGenerator.BodyDNA(1.8f, 80.0f, 1.0f, 0.125f, 0.48f);
+
+        Skeleton first = cache.get(a);
+        cache.get(b);
+        cache.get(a);   // a is now more recent than b
+        cache.get(c);   // evicts b
+
+        assertSame(first, cache.get(a));
+        SkeletonCache.Stats stats = cache.stats();
+        assertEquals(1, stats.evictions());
+        assertEquals(2, stats.size());
+
+        cache.get(b);
+        assertEquals(4, cache.stats().misses());
+    }
+
+    @Test
+    @DisplayName("Cached map should equal generate() and be read-only")
+    void testGenerateMap() {
+        BodyGenerator generator = new BodyGenerator();
+        SkeletonCache cache = new SkeletonCache(generator, 4);
+        BodyGenerator.BodyDNA dna = BodyGenerator.BodyDNA.averageMale();
+
+        assertEquals(generator.generate(dna), cache.generate(dna));
+        assertThrows(UnsupportedOperationException.class, () -> cache.generate(dna).clear());
+    }
+
+    @Test
+    @DisplayName("Modifying a returned definition should not leak into later hits")
+    void testGenerateMapIsolation() {
+        BodyGenerator generator = new BodyGenerator();
+        SkeletonCache cache = new SkeletonCache(generator, 4);
+        BodyGenerator.BodyDNA dna = BodyGenerator.BodyDNA.averageMale();
+        Map<Bone, BoneDefinition> expected = generator.generate(dna);
+
+        BoneDefinition femur = cache.generate(dna).get(Bone.FEMUR_LEFT);
+        femur.bindPosition().x += 1;
+        femur.bindRotation().rotateX(1);
+
+        assertEquals(1, cache.stats().misses());
+        assertEquals(expected, cache.generate(dna));
+        assertEquals(expected.get(Bone.FEMUR_LEFT), cache.get(dna).asMap().get(Bone.FEMUR_LEFT));
+        assertEquals(1, cache.stats().misses());
+    }
+
+    @Test
+    @DisplayName("Concurrent callers should all receive the same stored skeleton")
+    void testConcurrentAccess() throws Exception {
+        SkeletonCache cache = new SkeletonCache(new BodyGenerator(), 16);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Skeleton>> results = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                results.add(pool.submit(() -> cache.get(BodyGenerator.BodyDNA.averageMale())));
+            }
+            Skeleton expected = cache.get(BodyGenerator.BodyDNA.averageMale());
+            for (Future<Skeleton> result : results) {
+                assertSame(expected, result.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(65, cache.stats().hits() + cache.stats().misses());
+        assertEquals(1, cache.stats().size());
+    }
+
+    @Test
+    @DisplayName("Invalid configuration should be rejected and clear() should reset")
+    void testConfigurationAndClear() {
+        assertThrows(IllegalArgumentException.class, () -> new SkeletonCache(new BodyGenerator(), 0));
+        assertThrows(IllegalArgumentException.class,
+            () -> new SkeletonCache.Quantization(0.01f, -1f, 0, 0, 0));
+
+        SkeletonCache cache = new SkeletonCache(new BodyGenerator(), 4);
+        cache.get(BodyGenerator.BodyDNA.averageMale());
+        cache.clear();
+        assertEquals(new SkeletonCache.Stats(0, 0, 0, 0), cache.stats());
+    }
+}
@@ -0,0 +1,106 @@
+package com.humanfactory;
+
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+@DisplayName("SkeletonColumns Tests")
+public class SkeletonColumnsTest {
+
+    // Deliberately not a multiple of any vector length, to cover the scalar tail
+    private static final int ROWS = 37;
+
+    private final float[] height = new float[ROWS];
+    private final float[] mass = new float[ROWS];
+    private final float[] build = new float[ROWS];
+    private final float[] headRatio = new float[ROWS];
+    private final float[] legRatio = new float[ROWS];
+
+    SkeletonColumnsTest() {
+        Random random = new Random(3);
+        for (int i = 0; i < ROWS; i++) {
+            height[i] = 1.4f + random.nextFloat() * 0.7f;
+            mass[i] = 40.0f + random.nextFloat() * 80.0f;
+            build[i] = 0.6f + random.nextFloat() * 0.9f;
+            headRatio[i] = 0.11f + random.nextFloat() * 0.04f;
+            legRatio[i] = 0.42f + random.nextFloat() * 0.1f;
+        }
+    }
+
+    private BodyGenerator.BodyDNA row(int i) {
+        return new BodyGenerator.BodyDNA(height[i], mass[i], build[i], headRatio[i], legRatio[i]);
+    }
+
+    @Test
+    @DisplayName("Every row should be bit-identical to generateSkeleton")
+    void testRowsMatchGenerator() {
+        BodyGenerator generator = new BodyGenerator();
+        SkeletonTemplate template = generator.compile();
+        SkeletonColumns columns = template.newColumns(64);
+        template.evaluateColumns(height, mass, build, headRatio, legRatio, ROWS, columns);
+
+        assertEquals(ROWS, columns.size());
+        SkeletonBuffer buffer = new SkeletonBuffer();
+        for (int i = 0; i < ROWS; i++) {
+            columns.copyInto(i, buffer);
+            assertEquals(generator.generateSkeleton(row(i)), buffer.toSkeleton(), "Row " + i);
+        }
+    }
+
+    @Test
+    @DisplayName("Column accessors should expose per-row bone and shape values")
+    void testColumnAccessors() {
+        BodyGenerator generator = new BodyGenerator();
+        SkeletonTemplate template = generator.compile();
+        SkeletonColumns columns = template.newColumns(ROWS);
+        template.evaluateColumns(height, mass, build, headRatio, legRatio, ROWS, columns);
+
+        float[] femurLengths = columns.lengthColumn(Bone.FEMUR_LEFT);
+        for (int i = 0; i < ROWS; i++) {
+            Skeleton expected = generator.generateSkeleton(row(i));
+            assertEquals(expected.length(Bone.FEMUR_LEFT), femurLengths[i]);
+            assertEquals(expected.mass(Bone.OCCIPITAL), columns.mass(Bone.OCCIPITAL, i));
+            assertEquals(expected.bindPosition(Bone.TIBIA_RIGHT, new Vector3f()),
+                columns.bindPosition(Bone.TIBIA_RIGHT, i, new Vector3f()));
+        }
+
+        for (int s = 0; s < columns.shapeCount(); s++) {
+            if (columns.shapeBone(s) != Bone.FEMUR_LEFT) continue;
+            BoneShape.Capsule capsule = (BoneShape.Capsule) generator.generateSkeleton(row(5))
+                .collisionShapes(Bone.FEMUR_LEFT).get(0);
+            assertEquals(SkeletonBuffer.CAPSULE, columns.shapeKind(s));
+            assertEquals(capsule.radius(), columns.shapeDimensionColumn(s, 0)[5]);
+            assertEquals(capsule.offset().y(), columns.shapeOffsetColumn(s, 1)[5]);
+        }
+    }
+
+    @Test
+    @DisplayName("Absent bones, foreign columns and oversized batches should be rejected")
+    void testRejections() {
+        BodyGenerator generator = new BodyGenerator();
+        SkeletonTemplate template = generator.compile();
+        SkeletonColumns columns = template.newColumns(8);
+
+        assertFalse(columns.contains(Bone.ETHMOID));
+        assertThrows(IllegalArgumentException.class, () -> columns.lengthColumn(Bone.ETHMOID));
+        assertThrows(IllegalArgumentException.class,
+            () -> template.evaluateColumns(height, mass, build, headRatio, legRatio, ROWS, columns));
+        assertThrows(IllegalArgumentException.class,
+            () -> generator.compile().evaluateColumns(height, mass, build, headRatio, legRatio, 4, columns));
+        assertThrows(IndexOutOfBoundsException.class, () -> columns.length(Bone.FEMUR_LEFT, 0));
+    }
+
+    @Test
+    @DisplayName("Vector and scalar kernels should agree bit for bit")
+    void testKernelsAgree() {
+        float[] vector = new float[ROWS];
+        float[] scalar = new float[ROWS];
+        ColumnKernels.scale(height, 0.4123f, vector, ROWS);
+        ColumnKernels.scaleScalar(height, 0.4123f, scalar, ROWS);
+
+        assertArrayEquals(scalar, vector);
+    }
+}
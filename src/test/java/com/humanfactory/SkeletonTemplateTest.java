@@ -0,0 +1,103 @@
+package com.humanfactory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+@DisplayName("SkeletonTemplate Tests")
+public class SkeletonTemplateTest {
+
+    private static BodyGenerator.BodyDNA randomDna(Random random) {
+        return new BodyGenerator.BodyDNA(
+            1.4f + random.nextFloat() * 0.7f,
+            40.0f + random.nextFloat() * 80.0f,
+            0.6f + random.nextFloat() * 0.9f,
+            0.11f + random.nextFloat() * 0.04f,
+            0.42f + random.nextFloat() * 0.1f);
+    }
+
+    @Test
+    @DisplayName("Template should cover every generated bone and shape")
+    void testCounts() {
+        BodyGenerator generator = new BodyGenerator();
+        SkeletonTemplate template = generator.compile();
+        SkeletonBuffer buffer = new SkeletonBuffer();
+        generator.generateInto(BodyGenerator.BodyDNA.averageMale(), buffer);
+
+        assertEquals(buffer.boneCount(), template.boneCount());
+        assertEquals(buffer.shapeCount(), template.shapeCount());
+    }
+
+    @Test
+    @DisplayName("evaluate should be bit-identical to generateSkeleton")
+    void testEvaluateMatchesGenerator() {
+        BodyGenerator generator = new BodyGenerator();
+        SkeletonTemplate template = generator.compile();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 500; i++) {
+            BodyGenerator.BodyDNA dna = randomDna(random);
+            assertEquals(generator.generateSkeleton(dna), template.evaluate(dna), dna.toString());
+        }
+        assertEquals(generator.generate(BodyGenerator.BodyDNA.averageMale()),
+            template.evaluate(BodyGenerator.BodyDNA.averageMale()).asMap());
+    }
+
+    @Test
+    @DisplayName("evaluateInto should match generateInto, including shape order")
+    void testEvaluateIntoMatchesGenerateInto() {
+        BodyGenerator generator = new BodyGenerator();
+        SkeletonTemplate template = generator.compile();
+        SkeletonBuffer expected = new SkeletonBuffer();
+        SkeletonBuffer actual = new SkeletonBuffer(4);
+        Random random = new Random(7);
+
+        for (int i = 0; i < 200; i++) {
+            BodyGenerator.BodyDNA dna = randomDna(random);
+            generator.generateInto(dna, expected);
+            template.evaluateInto(dna, actual);
+
+            assertEquals(expected.shapeCount(), actual.shapeCount());
+            for (int s = 0; s < expected.shapeCount(); s++) {
+                assertEquals(expected.shapeBone(s), actual.shapeBone(s));
+                assertEquals(expected.shapeKind(s), actual.shapeKind(s));
+            }
+            assertEquals(expected.toSkeleton(), actual.toSkeleton(), dna.toString());
+        }
+    }
+
+    @Test
+    @DisplayName("evaluateInto should not allocate on a warm buffer")
+    void testZeroAllocation() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assertTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        SkeletonTemplate template = new BodyGenerator().compile();
+        BodyGenerator.BodyDNA[] dnas = {
+            BodyGenerator.BodyDNA.averageMale(),
+            new BodyGenerator.BodyDNA(1.55f, 52.0f, 0.8f, 0.13f, 0.46f),
+            new BodyGenerator.BodyDNA(1.95f, 101.0f, 1.4f, 0.12f, 0.5f)
+        };
+        SkeletonBuffer buffer = new SkeletonBuffer();
+
+        for (int i = 0; i < 20_000; i++) {
+            template.evaluateInto(dnas[i % dnas.length], buffer);
+        }
+
+        // Best of three windows: a late JIT recompilation can allocate once on this thread
+        long allocated = Long.MAX_VALUE;
+        for (int window = 0; window < 3 && allocated > 0; window++) {
+            long before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < 10_000; i++) {
+                template.evaluateInto(dnas[i % dnas.length], buffer);
+            }
+            allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        }
+
+        assertEquals(0, allocated, "evaluateInto allocated " + allocated + " bytes over 10,000 calls");
+    }
+}
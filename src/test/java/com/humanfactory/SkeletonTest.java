@@ -0,0 +1,143 @@
+package com.humanfactory;
+
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+
+@DisplayName("Skeleton Tests")
+public class SkeletonTest {
+
+    @Test
+    @DisplayName("Dense skeleton should contain exactly the bones of the map output")
+    void testSameBonesAsMap() {
+        BodyGenerator generator = new BodyGenerator();
+        BodyGenerator.BodyDNA dna = BodyGenerator.BodyDNA.averageMale();
+
+        Map<Bone, BoneDefinition> map = generator.generate(dna);
+        Skeleton skeleton = generator.generateSkeleton(dna);
+
+        assertEquals(map.size(), skeleton.boneCount());
+        for (Bone bone : Bone.values()) {
+            assertEquals(map.containsKey(bone), skeleton.contains(bone), "Presence mismatch for " + bone);
+        }
+    }
+
+    @Test
+    @DisplayName("Dense arrays should hold the same values as the map output")
+    void testSameValuesAsMap() {
+        BodyGenerator generator = new BodyGenerator();
+        BodyGenerator.BodyDNA dna = new BodyGenerator.BodyDNA(1.65f, 60.0f, 0.8f, 0.13f, 0.46f);
+
+        Map<Bone, BoneDefinition> map = generator.generate(dna);
+        Skeleton skeleton = generator.generateSkeleton(dna);
+
+        for (Map.Entry<Bone, BoneDefinition> entry : map.entrySet()) {
+            Bone bone = entry.getKey();
+            BoneDefinition expected = entry.getValue();
+            assertEquals(expected.length(), skeleton.length(bone), bone.name());
+            assertEquals(expected.mass(), skeleton.mass(bone), bone.name());
+            assertEquals(expected.bindPosition(), skeleton.bindPosition(bone, new Vector3f()), bone.name());
+            assertEquals(expected.bindRotation(), skeleton.bindRotation(bone, new Quaternionf()), bone.name());
+            assertEquals(expected.collisionShapes(), skeleton.collisionShapes(bone), bone.name());
+        }
+    }
+
+    @Test
+    @DisplayName("Map view should match the classic generate output")
+    void testMapView() {
+        BodyGenerator generator = new BodyGenerator();
+        BodyGenerator.BodyDNA dna = BodyGenerator.BodyDNA.averageMale();
+
+        Map<Bone, BoneDefinition> expected = generator.generate(dna);
+        Map<Bone, BoneDefinition> view = generator.generateSkeleton(dna).asMap();
+
+        assertEquals(expected, view);
+        assertThrows(UnsupportedOperationException.class, () -> view.remove(Bone.SACRUM));
+    }
+
+    @Test
+    @DisplayName("Absent bones should report no data")
+    void testAbsentBone() {
+        Skeleton skeleton = new BodyGenerator().generateSkeleton(BodyGenerator.BodyDNA.averageMale());
+
+        // The generator does not model the ethmoid
+        assertFalse(skeleton.contains(Bone.ETHMOID));
+        assertNull(skeleton.get(Bone.ETHMOID));
+        assertTrue(skeleton.collisionShapes(Bone.ETHMOID).isEmpty());
+    }
+
+    @Test
+    @DisplayName("nextPresent should visit every present bone in ordinal order")
+    void testNextPresent() {
+        Skeleton skeleton = new BodyGenerator().generateSkeleton(BodyGenerator.BodyDNA.averageMale());
+
+        int visited = 0;
+        int last = -1;
+        for (int i = skeleton.nextPresent(0); i >= 0; i = skeleton.nextPresent(i + 1)) {
+            assertTrue(i > last);
+            assertTrue(skeleton.contains(i));
+            last = i;
+            visited++;
+        }
+        assertEquals(skeleton.boneCount(), visited);
+        assertEquals(-1, skeleton.nextPresent(Skeleton.BONE_COUNT));
+    }
+
+    @Test
+    @DisplayName("Copying a map into dense form should round-trip")
+    void testOfMap() {
+        BodyGenerator generator = new BodyGenerator();
+        Map<Bone, BoneDefinition> map = generator.generate(BodyGenerator.BodyDNA.averageMale());
+
+        Skeleton copy = Skeleton.of(map);
+
+        assertEquals(map, copy.asMap());
+        assertEquals(generator.generateSkeleton(BodyGenerator.BodyDNA.averageMale()), copy);
+    }
+
+    @Test
+    @DisplayName("Identical shapes, shape lists and joint limits should be shared instances")
+    void testInterning() {
+        BodyGenerator generator = new BodyGenerator();
+        Skeleton a = generator.generateSkeleton(BodyGenerator.BodyDNA.averageMale());
+        Skeleton c = generator.generateSkeleton(BodyGenerator.BodyDNA.averageMale());
+        Skeleton b = generator.generateSkeleton(new BodyGenerator.BodyDNA(1.65f, 60.0f, 0.8f, 0.13f, 0.46f));
+
+        for (Bone bone : Bone.values()) {
+            assertSame(a.collisionShapes(bone), c.collisionShapes(bone), bone.name());
+        }
+        // The talus box does not depend on DNA or side
+        assertSame(a.collisionShapes(Bone.TALUS_LEFT), b.collisionShapes(Bone.TALUS_LEFT));
+        assertSame(a.collisionShapes(Bone.TALUS_LEFT), a.collisionShapes(Bone.TALUS_RIGHT));
+        assertNotEquals(a.collisionShapes(Bone.FEMUR_LEFT), b.collisionShapes(Bone.FEMUR_LEFT));
+        assertSame(a.collisionShapes(Bone.TALUS_LEFT), generator.generate(BodyGenerator.BodyDNA.averageMale())
+            .get(Bone.TALUS_LEFT).collisionShapes());
+
+        Map<Bone, BoneDefinition> map = a.asMap();
+        assertSame(map.get(Bone.FEMUR_LEFT).jointLimits(), b.asMap().get(Bone.FEMUR_LEFT).jointLimits());
+        assertSame(map.get(Bone.FEMUR_LEFT).jointLimits(), map.get(Bone.FEMUR_RIGHT).jointLimits());
+        assertSame(BoneDefinition.JointLimits.LOCKED, map.get(Bone.FRONTAL).jointLimits());
+    }
+
+    @Test
+    @DisplayName("Copying a map should not share the caller's mutable vectors")
+    void testCopiedShapes() {
+        Vector3f offset = new Vector3f(0.25f, 0.5f, 0.75f);
+        BoneShape sphere = new BoneShape.Sphere(0.125f, offset);
+        BoneDefinition definition = new BoneDefinition(0.1f, new Vector3f(), new Quaternionf(), 1,
+            List.of(sphere), BoneDefinition.JointLimits.LOCKED);
+        Skeleton skeleton = Skeleton.of(Map.of(Bone.PATELLA_LEFT, definition));
+
+        BoneShape.Sphere copied = (BoneShape.Sphere) skeleton.collisionShapes(Bone.PATELLA_LEFT).get(0);
+        assertEquals(sphere, copied);
+        assertNotSame(offset, copied.offset());
+        assertSame(copied, Skeleton.of(Map.of(Bone.PATELLA_RIGHT, definition)).collisionShapes(Bone.PATELLA_RIGHT).get(0));
+        offset.set(9, 9, 9);
+        assertEquals(new Vector3f(0.25f, 0.5f, 0.75f), copied.offset());
+    }
+}
@@ -0,0 +1,130 @@
+package com.humanfactory;
+
+import org.joml.Quaternionf;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+@DisplayName("SwingTwistLimits Tests")
+public class SwingTwistLimitsTest {
+
+    private static final float EPSILON = 1e-5f;
+    private static final float TOLERANCE = 1e-4f;
+
+    private static float[] randomBatch(int skeletons, long seed, float spread) {
+        Random random = new Random(seed);
+        float[] rotations = new float[skeletons * JointLimitTable.POSE_STRIDE];
+        Quaternionf q = new Quaternionf();
+        for (int o = 0; o < rotations.length; o += 4) {
+            q.rotationXYZ((random.nextFloat() * 2 - 1) * spread, (random.nextFloat() * 2 - 1) * spread,
+                (random.nextFloat() * 2 - 1) * spread);
+            rotations[o] = q.x;
+            rotations[o + 1] = q.y;
+            rotations[o + 2] = q.z;
+            rotations[o + 3] = q.w;
+        }
+        return rotations;
+    }
+
+    @Test
+    @DisplayName("Should derive each joint's form from its open degrees of freedom")
+    void testForms() {
+        SwingTwistLimits limits = JointRegistry.swingTwistLimits();
+        assertEquals(JointRegistry.limitTable().size(), limits.size());
+        assertEquals(SwingTwistLimits.Form.HINGE, limits.form(Bone.ULNA_LEFT));
+        assertEquals(SwingTwistLimits.Form.PIVOT, limits.form(Bone.RADIUS_LEFT));
+        assertEquals(SwingTwistLimits.Form.SWING, limits.form(Bone.LUNATE_LEFT));
+        assertEquals(SwingTwistLimits.Form.SWING_TWIST, limits.form(Bone.HUMERUS_LEFT));
+        assertNull(limits.form(Bone.SACRUM));
+        for (int i = 0; i < limits.size(); i++) {
+            if (JointRegistry.getJoint(limits.bone(i)).limits().equals(JointLimits.LOCKED)) {
+                assertEquals(SwingTwistLimits.Form.LOCKED, limits.form(limits.bone(i)));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Single-axis rotations should agree exactly with the Euler ranges")
+    void testSingleAxisAgreesWithEuler() {
+        SwingTwistLimits limits = JointRegistry.swingTwistLimits();
+        JointLimits elbow = JointRegistry.getJoint(Bone.ULNA_LEFT).limits();
+        JointLimits forearm = JointRegistry.getJoint(Bone.RADIUS_LEFT).limits();
+
+        Pose inside = new Pose()
+            .set(Bone.ULNA_LEFT, new Quaternionf().rotationX(elbow.maxPitch()))
+            .set(Bone.RADIUS_LEFT, new Quaternionf().rotationY(forearm.minYaw()));
+        assertTrue(limits.isWithin(inside, TOLERANCE));
+        float[] before = inside.rotations.clone();
+        assertEquals(0, limits.clamp(inside));
+        assertArrayEquals(before, inside.rotations);
+
+        Pose outside = new Pose()
+            .set(Bone.ULNA_LEFT, new Quaternionf().rotationX(elbow.maxPitch() + 0.2f))
+            .set(Bone.RADIUS_LEFT, new Quaternionf().rotationY(forearm.minYaw() - 0.2f));
+        long[] mask = new long[PoseValidator.MASK_WORDS];
+        assertEquals(2, limits.violations(outside.rotations, 0, TOLERANCE, mask));
+        assertNotEquals(0, mask[Bone.ULNA_LEFT.ordinal() >>> 6] & (1L << Bone.ULNA_LEFT.ordinal()));
+
+        assertEquals(2, limits.clamp(outside));
+        assertTrue(new Quaternionf().rotationX(elbow.maxPitch())
+            .equals(outside.get(Bone.ULNA_LEFT, new Quaternionf()), EPSILON));
+        assertTrue(new Quaternionf().rotationY(forearm.minYaw())
+            .equals(outside.get(Bone.RADIUS_LEFT, new Quaternionf()), EPSILON));
+    }
+
+    @Test
+    @DisplayName("Hinges should lose any off-axis component when clamped")
+    void testHingeProjection() {
+        SwingTwistLimits limits = JointRegistry.swingTwistLimits();
+        Pose pose = new Pose().set(Bone.ULNA_LEFT, new Quaternionf().rotationXYZ(0.8f, 0.3f, -0.2f));
+        assertFalse(limits.isWithin(pose, TOLERANCE));
+
+        limits.clamp(pose);
+        Quaternionf q = pose.get(Bone.ULNA_LEFT, new Quaternionf());
+        assertEquals(0, q.y, EPSILON);
+        assertEquals(0, q.z, EPSILON);
+        assertTrue(q.x > 0);
+    }
+
+    @Test
+    @DisplayName("Clamped rotations should be unit, within limits and stable under a second clamp")
+    void testClampIsProjection() {
+        SwingTwistLimits limits = JointRegistry.swingTwistLimits();
+        float[] batch = randomBatch(50, 8, 2.5f);
+        // A pure 180 degree swing has no defined twist
+        batch[Bone.FEMUR_LEFT.ordinal() * 4] = 1;
+        batch[Bone.FEMUR_LEFT.ordinal() * 4 + 1] = 0;
+        batch[Bone.FEMUR_LEFT.ordinal() * 4 + 2] = 0;
+        batch[Bone.FEMUR_LEFT.ordinal() * 4 + 3] = 0;
+
+        assertTrue(limits.clamp(batch, 0, 50) > 0);
+        for (int s = 0; s < 50; s++) {
+            assertEquals(0, limits.violations(batch, s, TOLERANCE, null), "Skeleton " + s);
+        }
+        for (int o = 0; o < batch.length; o += 4) {
+            float n = batch[o] * batch[o] + batch[o + 1] * batch[o + 1] + batch[o + 2] * batch[o + 2] + batch[o + 3] * batch[o + 3];
+            assertEquals(1, n, 1e-4f);
+        }
+        float[] again = batch.clone();
+        limits.clamp(again, 0, 50);
+        for (int i = 0; i < batch.length; i++) {
+            assertEquals(batch[i], again[i], EPSILON);
+        }
+    }
+
+    @Test
+    @DisplayName("Parallel clamping should match a sequential pass")
+    void testParallel() {
+        SwingTwistLimits limits = JointRegistry.swingTwistLimits();
+        float[] sequential = randomBatch(700, 2, 1);
+        float[] parallel = sequential.clone();
+
+        assertEquals(limits.clamp(sequential, 0, 700), limits.clampParallel(parallel, 700, new ForkJoinPool(4)));
+        assertArrayEquals(sequential, parallel);
+        assertThrows(IndexOutOfBoundsException.class, () -> limits.clamp(parallel, 0, 701));
+        assertThrows(IndexOutOfBoundsException.class, () -> limits.clamp(parallel, Integer.MAX_VALUE, 1));
+    }
+}
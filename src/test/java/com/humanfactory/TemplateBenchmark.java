@@ -0,0 +1,51 @@
+package com.humanfactory;
+
+/**
+ * Per-skeleton cost of walking the layout vs. evaluating a compiled {@link SkeletonTemplate}.
+ * Not part of the test suite; run with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass="com.humanfactory.TemplateBenchmark"
+ */
+public class TemplateBenchmark {
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        BodyGenerator generator = new BodyGenerator();
+        BodyGenerator.BodyDNA[] dnas = BatchGenerationBenchmark.randomCrowd(count, 11);
+
+        long c0 = System.nanoTime();
+        SkeletonTemplate template = generator.compile();
+        long c1 = System.nanoTime();
+        SkeletonBuffer buffer = new SkeletonBuffer();
+
+        System.out.println("=== Template Benchmark (" + count + " skeletons) ===");
+        System.out.printf("Compile: %.2f ms%n", (c1 - c0) / 1e6);
+        for (int round = 0; round < 5; round++) {
+            long sink = 0;
+            long t0 = System.nanoTime();
+            for (BodyGenerator.BodyDNA dna : dnas) {
+                sink += generator.generateSkeleton(dna).boneCount();
+            }
+            long t1 = System.nanoTime();
+            for (BodyGenerator.BodyDNA dna : dnas) {
+                sink += template.evaluate(dna).boneCount();
+            }
+            long t2 = System.nanoTime();
+            for (BodyGenerator.BodyDNA dna : dnas) {
+                generator.generateInto(dna, buffer);
+                sink += buffer.shapeCount();
+            }
+            long t3 = System.nanoTime();
+            for (BodyGenerator.BodyDNA dna : dnas) {
+                template.evaluateInto(dna, buffer);
+                sink += buffer.shapeCount();
+            }
+            long t4 = System.nanoTime();
+
+            System.out.printf("Round %d: generateSkeleton %,.0f/s, evaluate %,.0f/s, generateInto %,.0f/s, evaluateInto %,.0f/s (%d)%n",
+                round,
+                BatchGenerationBenchmark.rate(count, t1 - t0), BatchGenerationBenchmark.rate(count, t2 - t1),
+                BatchGenerationBenchmark.rate(count, t3 - t2), BatchGenerationBenchmark.rate(count, t4 - t3),
+                sink);
+        }
+    }
+}